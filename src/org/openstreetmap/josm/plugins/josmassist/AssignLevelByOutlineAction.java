@@ -0,0 +1,216 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import javax.swing.JOptionPane;
+
+import org.openstreetmap.josm.actions.JosmAction;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.josmassist.core.LevelValue;
+import org.openstreetmap.josm.plugins.josmassist.core.MetricMove;
+import org.openstreetmap.josm.plugins.josmassist.index.AreaIndex;
+import org.openstreetmap.josm.plugins.josmassist.index.AreaRecord;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.ImageProvider;
+
+/**
+ * Tags primitives without {@code level} with the level of the level outline containing them,
+ * e.g. after importing or pasting data.
+ * <p>
+ * Level outlines are closed ways with {@code indoor=level} (preference
+ * {@code josmassist.leveloutline.tag}) and a {@code level} tag. They are put into an
+ * {@link AreaIndex}, so each primitive is only tested against the outlines whose bounding box
+ * contains it. Nodes are located by their position, ways by the mean of their nodes; primitives
+ * without any tags, e.g. the nodes of ways, are skipped. Where the outlines of several levels are
+ * stacked, the current level wins if it is among them; otherwise the primitive is a conflict,
+ * left untagged and selected for review. The points are captured in the EDT and looked up in
+ * parallel on a background thread; all tags are added with one command.
+ */
+public class AssignLevelByOutlineAction extends JosmAction {
+
+    private static final String PREF_OUTLINE_TAG = "josmassist.leveloutline.tag";
+    private static final String DEFAULT_OUTLINE_TAG = "indoor=level";
+
+    /**
+     * Constructs a new {@code AssignLevelByOutlineAction}.
+     */
+    public AssignLevelByOutlineAction() {
+        super(tr("Assign Levels from Outlines"),
+                new ImageProvider("dialogs", "layerlist").setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                tr("Tag elements without level with the level of the indoor=level outline containing them"),
+                null, // no shortcut
+                false, // don't register in toolbar by default
+                "josmassist-level-by-outline", // toolbar ID
+                false); // don't install adapters
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        DataSet ds = getLayerManager().getEditDataSet();
+        if (ds == null) {
+            return;
+        }
+        String outlineTag = Config.getPref().get(PREF_OUTLINE_TAG, DEFAULT_OUTLINE_TAG);
+        int eq = outlineTag.indexOf('=');
+        String outlineKey = eq < 0 ? outlineTag : outlineTag.substring(0, eq);
+        String outlineValue = eq < 0 ? null : outlineTag.substring(eq + 1);
+
+        // Capture outlines and points in the EDT; the lookup must not touch the dataset
+        AreaIndex.Builder builder = AreaIndex.EMPTY.edit();
+        List<OsmPrimitive> prims = new ArrayList<>();
+        List<LatLon> points = new ArrayList<>();
+        for (Way way : ds.getWays()) {
+            if (isOutline(way, outlineKey, outlineValue)) {
+                AreaRecord record = outlineRecord(way);
+                if (record != null) {
+                    builder.put(record);
+                }
+            } else if (isCandidate(way) && way.hasKeys()) {
+                addPoint(way, MetricMove.centerOf(way), prims, points);
+            }
+        }
+        for (Node node : ds.getNodes()) {
+            if (isCandidate(node) && node.hasKeys()) {
+                addPoint(node, node.getCoor(), prims, points);
+            }
+        }
+        AreaIndex outlines = builder.build();
+        if (outlines.size() == 0) {
+            JOptionPane.showMessageDialog(
+                    MainApplication.getMainFrame(),
+                    tr("No closed ways with {0} and a level tag found", outlineTag),
+                    tr("Assign Levels from Outlines"),
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        if (prims.isEmpty()) {
+            new Notification(tr("All elements already have a level")).show();
+            return;
+        }
+        LevelProcessingHandler levelHandler = JosmAssistPlugin.getInstance().getLevelHandler();
+        String currentLevel = levelHandler != null ? levelHandler.getCurrentLevelTagWithUpdate() : null;
+
+        new Thread(() -> {
+            long start = System.currentTimeMillis();
+            String[] levels = new String[points.size()];
+            boolean[] conflicts = new boolean[points.size()];
+            IntStream.range(0, points.size()).parallel().forEach(i -> {
+                TreeSet<String> found = lookup(outlines, points.get(i));
+                if (found.size() == 1) {
+                    levels[i] = found.first();
+                } else if (found.size() > 1) {
+                    if (currentLevel != null && found.stream().anyMatch(l -> LevelValue.matches(l, currentLevel))) {
+                        levels[i] = currentLevel;
+                    } else {
+                        conflicts[i] = true;
+                    }
+                }
+            });
+            System.out.println("[JOSM Assist] AssignLevelByOutlineAction: looked up " + points.size() + " elements in "
+                    + outlines.size() + " outlines in " + (System.currentTimeMillis() - start) + " ms");
+            GuiHelper.runInEDT(() -> apply(ds, prims, levels, conflicts));
+        }, "josmassist-level-by-outline").start();
+    }
+
+    private static boolean isOutline(Way way, String key, String value) {
+        String tagValue = way.get(key);
+        return tagValue != null && (value == null || value.equals(tagValue)) && way.get("level") != null;
+    }
+
+    private static boolean isCandidate(OsmPrimitive prim) {
+        return !prim.isDeleted() && !prim.isIncomplete() && prim.get("level") == null;
+    }
+
+    private static void addPoint(OsmPrimitive prim, LatLon point, List<OsmPrimitive> prims, List<LatLon> points) {
+        if (point != null) {
+            prims.add(prim);
+            points.add(point);
+        }
+    }
+
+    /**
+     * Builds the record of an outline; unlike {@link AreaRecord#of} it does not require area tags.
+     */
+    private static AreaRecord outlineRecord(Way way) {
+        if (way.isDeleted() || way.isIncomplete() || !way.isClosed()) {
+            return null;
+        }
+        double[] coordinates = new double[way.getNodesCount() * 2];
+        for (int i = 0; i < way.getNodesCount(); i++) {
+            LatLon coor = way.getNode(i).getCoor();
+            if (coor == null) {
+                return null;
+            }
+            coordinates[2 * i] = coor.lat();
+            coordinates[2 * i + 1] = coor.lon();
+        }
+        return new AreaRecord(way.getUniqueId(), coordinates, way.get("level"), way.get("name"));
+    }
+
+    /**
+     * Gets the levels of the outlines containing a point.
+     */
+    private static TreeSet<String> lookup(AreaIndex outlines, LatLon point) {
+        TreeSet<String> levels = new TreeSet<>();
+        for (AreaRecord record : outlines.query(point.lat(), point.lon())) {
+            if (record.contains(point.lat(), point.lon())) {
+                levels.add(record.level);
+            }
+        }
+        return levels;
+    }
+
+    private static void apply(DataSet ds, List<OsmPrimitive> prims, String[] levels, boolean[] conflicts) {
+        BatchTagCommand.Builder builder = new BatchTagCommand.Builder(ds);
+        List<OsmPrimitive> conflicting = new ArrayList<>();
+        for (int i = 0; i < prims.size(); i++) {
+            OsmPrimitive prim = prims.get(i);
+            // Skip elements deleted or tagged during the lookup
+            if (prim.getDataSet() != ds || !isCandidate(prim)) {
+                continue;
+            }
+            if (levels[i] != null) {
+                builder.set(prim, "level", levels[i]);
+            } else if (conflicts[i]) {
+                conflicting.add(prim);
+            }
+        }
+        int assigned = builder.size();
+        if (assigned > 0) {
+            UndoRedoHandler.getInstance().add(builder.build(tr("Assign level from outlines to {0} elements", assigned)));
+            SessionJournal.record("level-by-outline", assigned);
+        }
+        System.out.println("[JOSM Assist] AssignLevelByOutlineAction: assigned " + assigned + " levels, "
+                + conflicting.size() + " conflicts");
+        if (conflicting.isEmpty()) {
+            new Notification(tr("Assigned a level to {0} of {1} elements", assigned, prims.size())).show();
+        } else {
+            ds.setSelected(conflicting);
+            new Notification(tr("Assigned a level to {0} of {1} elements. {2} elements lie in outlines of several levels and are selected",
+                    assigned, prims.size(), conflicting.size()))
+                    .setIcon(JOptionPane.WARNING_MESSAGE)
+                    .setDuration(Notification.TIME_LONG)
+                    .show();
+        }
+    }
+
+    @Override
+    protected void updateEnabledState() {
+        setEnabled(getLayerManager().getEditDataSet() != null);
+    }
+}
@@ -0,0 +1,266 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.swing.Icon;
+
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.tools.ImageProvider;
+
+/**
+ * Tag change on many primitives, stored compactly for the undo stack.
+ * <p>
+ * {@code ChangePropertyCommand} and generic commands keep a clone of every modified primitive
+ * (all tags, node lists, ...). This command only keeps one row per changed tag in parallel
+ * arrays: primitive, key, old value and new value, plus the old modified flags in a bit set.
+ * Equal keys and values share one string instance. Build instances with {@link Builder}.
+ */
+public class BatchTagCommand extends Command {
+
+    private final String description;
+    private final OsmPrimitive[] primitives;
+    private final String[] keys;
+    private final String[] oldValues;
+    private final String[] newValues;
+    private final BitSet oldModified;
+
+    private BatchTagCommand(DataSet ds, String description, OsmPrimitive[] primitives, String[] keys,
+            String[] oldValues, String[] newValues) {
+        super(ds);
+        this.description = description;
+        this.primitives = primitives;
+        this.keys = keys;
+        this.oldValues = oldValues;
+        this.newValues = newValues;
+        this.oldModified = new BitSet(primitives.length);
+    }
+
+    /**
+     * Collects tag changes for a {@link BatchTagCommand}.
+     */
+    public static class Builder {
+        private final DataSet ds;
+        private final Map<String, String> strings = new HashMap<>();
+        private final Map<Row, Integer> rows = new HashMap<>();
+        /** Rows whose new value is the original value again; skipped by {@link #build} */
+        private final BitSet dropped = new BitSet();
+        private OsmPrimitive[] primitives = new OsmPrimitive[16];
+        private String[] keys = new String[16];
+        private String[] oldValues = new String[16];
+        private String[] newValues = new String[16];
+        private int size;
+
+        /**
+         * Creates a builder.
+         * @param ds the dataset of the primitives
+         */
+        public Builder(DataSet ds) {
+            this.ds = ds;
+        }
+
+        /**
+         * Adds a tag change; changes that would not modify the primitive are ignored. Setting a
+         * tag again replaces the earlier change, so the command keeps one row per primitive and key.
+         * @param prim the primitive
+         * @param key the key
+         * @param value the new value, or null to remove the tag
+         * @return this builder
+         */
+        public Builder set(OsmPrimitive prim, String key, String value) {
+            String oldValue = prim.get(key);
+            Integer row = rows.get(new Row(prim, key));
+            if (row != null) {
+                newValues[row] = intern(value);
+                dropped.set(row, Objects.equals(oldValue, value));
+                return this;
+            }
+            if (Objects.equals(oldValue, value)) {
+                return this;
+            }
+            if (size == primitives.length) {
+                int capacity = size * 2;
+                primitives = Arrays.copyOf(primitives, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+                oldValues = Arrays.copyOf(oldValues, capacity);
+                newValues = Arrays.copyOf(newValues, capacity);
+            }
+            primitives[size] = prim;
+            keys[size] = intern(key);
+            oldValues[size] = intern(oldValue);
+            newValues[size] = intern(value);
+            rows.put(new Row(prim, keys[size]), size);
+            size++;
+            return this;
+        }
+
+        /**
+         * Sets the same tag on all primitives.
+         * @param prims the primitives
+         * @param key the key
+         * @param value the new value, or null to remove the tag
+         * @return this builder
+         */
+        public Builder setAll(Collection<? extends OsmPrimitive> prims, String key, String value) {
+            for (OsmPrimitive prim : prims) {
+                set(prim, key, value);
+            }
+            return this;
+        }
+
+        /**
+         * Gets the number of tag changes collected so far.
+         * @return the number of changes
+         */
+        public int size() {
+            return size - dropped.cardinality();
+        }
+
+        /**
+         * Builds the command.
+         * @param description the description shown in the undo list
+         * @return the command, or null if no tag would change
+         */
+        public BatchTagCommand build(String description) {
+            int count = size();
+            if (count == 0) {
+                return null;
+            }
+            OsmPrimitive[] p = new OsmPrimitive[count];
+            String[] k = new String[count];
+            String[] o = new String[count];
+            String[] n = new String[count];
+            for (int i = 0, j = 0; i < size; i++) {
+                if (!dropped.get(i)) {
+                    p[j] = primitives[i];
+                    k[j] = keys[i];
+                    o[j] = oldValues[i];
+                    n[j] = newValues[i];
+                    j++;
+                }
+            }
+            return new BatchTagCommand(ds, description, p, k, o, n);
+        }
+
+        private String intern(String s) {
+            if (s == null) {
+                return null;
+            }
+            String existing = strings.putIfAbsent(s, s);
+            return existing != null ? existing : s;
+        }
+    }
+
+    /** Primitive and key of a queued change */
+    private static final class Row {
+        private final OsmPrimitive prim;
+        private final String key;
+
+        Row(OsmPrimitive prim, String key) {
+            this.prim = prim;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Row)) {
+                return false;
+            }
+            Row other = (Row) obj;
+            return prim == other.prim && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(prim) + key.hashCode();
+        }
+    }
+
+    @Override
+    public boolean executeCommand() {
+        DataSet ds = getAffectedDataSet();
+        if (ds != null) {
+            ds.beginUpdate();
+        }
+        try {
+            for (int i = 0; i < primitives.length; i++) {
+                OsmPrimitive prim = primitives[i];
+                oldModified.set(i, prim.isModified());
+                apply(prim, keys[i], newValues[i]);
+                prim.setModified(true);
+            }
+        } finally {
+            if (ds != null) {
+                ds.endUpdate();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void undoCommand() {
+        DataSet ds = getAffectedDataSet();
+        if (ds != null) {
+            ds.beginUpdate();
+        }
+        try {
+            // Reverse order, so that the first change of a primitive restores its original modified flag
+            for (int i = primitives.length - 1; i >= 0; i--) {
+                OsmPrimitive prim = primitives[i];
+                apply(prim, keys[i], oldValues[i]);
+                prim.setModified(oldModified.get(i));
+            }
+        } finally {
+            if (ds != null) {
+                ds.endUpdate();
+            }
+        }
+    }
+
+    private static void apply(OsmPrimitive prim, String key, String value) {
+        if (value == null) {
+            prim.remove(key);
+        } else {
+            prim.put(key, value);
+        }
+    }
+
+    /**
+     * Gets the number of changed tags.
+     * @return the number of changes
+     */
+    public int getChangeCount() {
+        return primitives.length;
+    }
+
+    @Override
+    public void fillModifiedData(Collection<OsmPrimitive> modified, Collection<OsmPrimitive> deleted,
+            Collection<OsmPrimitive> added) {
+        modified.addAll(getParticipatingPrimitives());
+    }
+
+    @Override
+    public Collection<? extends OsmPrimitive> getParticipatingPrimitives() {
+        Set<OsmPrimitive> result = new LinkedHashSet<>();
+        result.addAll(Arrays.asList(primitives));
+        return result;
+    }
+
+    @Override
+    public String getDescriptionText() {
+        return description;
+    }
+
+    @Override
+    public Icon getDescriptionIcon() {
+        return ImageProvider.get("data", "key");
+    }
+}
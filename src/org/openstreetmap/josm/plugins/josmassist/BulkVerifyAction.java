@@ -0,0 +1,225 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+
+import org.openstreetmap.josm.actions.JosmAction;
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.josmassist.core.LevelValue;
+import org.openstreetmap.josm.plugins.josmassist.index.AreaRecord;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.plugins.josmassist.rules.RuleContext;
+import org.openstreetmap.josm.plugins.josmassist.rules.RuleResult;
+import org.openstreetmap.josm.plugins.josmassist.rules.RuleSet;
+import org.openstreetmap.josm.plugins.josmassist.rules.SpaceFacts;
+import org.openstreetmap.josm.plugins.josmassist.rules.VerificationRule;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.ImageProvider;
+
+/**
+ * Verifies all unverified parking spaces of the current level that satisfy a set of rules.
+ * <p>
+ * The rules are edited as text (see {@link RuleSet}) and remembered in the preferences. The
+ * spaces are captured in the EDT, evaluated in parallel on a background thread and shown in
+ * a preview; confirming adds {@code verified=true} to all passing spaces with one command.
+ */
+public class BulkVerifyAction extends JosmAction {
+
+    private static final String PREF_RULES = "josmassist.bulkverify.rules";
+
+    /**
+     * Constructs a new {@code BulkVerifyAction}.
+     */
+    public BulkVerifyAction() {
+        super(tr("Verify by Rules..."),
+                new ImageProvider("ok").setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                tr("Mark all unverified parking spaces of the current level that pass the rules as verified"),
+                null, // no shortcut
+                false, // don't register in toolbar by default
+                "josmassist-bulkverify", // toolbar ID
+                false); // don't install adapters
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        DataSet ds = getLayerManager().getEditDataSet();
+        if (ds == null) {
+            return;
+        }
+        LevelProcessingHandler levelHandler = JosmAssistPlugin.getInstance().getLevelHandler();
+        String level = levelHandler != null ? levelHandler.getCurrentLevelTagWithUpdate() : null;
+        boolean allLevels = level == null || level.isEmpty();
+
+        // Capture the spaces in the EDT; evaluation must not touch the dataset
+        SpatialIndexManager spatialIndex = JosmAssistPlugin.getInstance().getSpatialIndex();
+        List<SpaceFacts> allSpaces = new ArrayList<>();
+        List<SpaceFacts> candidates = new ArrayList<>();
+        for (Way way : ds.getWays()) {
+            ParkingSpaceStatus status = ParkingSpaceStatus.of(way);
+            // Lists and ranges such as -1;-2 belong to every level they name, as in the review queue
+            if (status == null || (!allLevels && !LevelValue.matches(way.get("level"), level))) {
+                continue;
+            }
+            SpaceFacts facts = spatialIndex.getFacts(ds, way);
+            if (facts == null) {
+                continue;
+            }
+            allSpaces.add(facts);
+            if (status != ParkingSpaceStatus.VERIFIED) {
+                candidates.add(facts);
+            }
+        }
+        if (candidates.isEmpty()) {
+            new Notification(tr("No unverified parking spaces on this level")).show();
+            return;
+        }
+
+        String spec = askRules(allLevels ? tr("all levels") : level, candidates.size());
+        if (spec == null) {
+            return;
+        }
+        RuleSet rules;
+        try {
+            rules = RuleSet.compile(spec, new RuleContext(allSpaces));
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(
+                    MainApplication.getMainFrame(),
+                    ex.getMessage(),
+                    tr("Verify by Rules"),
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        Config.getPref().put(PREF_RULES, spec);
+
+        new Thread(() -> {
+            long start = System.currentTimeMillis();
+            List<RuleResult> results = rules.evaluate(candidates);
+            System.out.println("[JOSM Assist] BulkVerifyAction: evaluated " + rules.getRules().size() + " rules on "
+                    + candidates.size() + " spaces in " + (System.currentTimeMillis() - start) + " ms");
+            GuiHelper.runInEDT(() -> preview(ds, rules, results));
+        }, "josmassist-bulk-verify").start();
+    }
+
+    private static String askRules(String levelLabel, int candidateCount) {
+        JTextArea text = new JTextArea(Config.getPref().get(PREF_RULES, RuleSet.DEFAULT_SPEC), 8, 40);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, text.getFont().getSize()));
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        panel.add(new JLabel(tr("{0} unverified spaces on {1}. Verify those passing all rules:",
+                candidateCount, levelLabel)), BorderLayout.NORTH);
+        panel.add(new JScrollPane(text), BorderLayout.CENTER);
+        panel.add(new JLabel(tr("Rules: name-valid, name ~ regex, unique-name, rectangular >= r, area min..max, no-overlap [m²]")),
+                BorderLayout.SOUTH);
+        int answer = JOptionPane.showConfirmDialog(
+                MainApplication.getMainFrame(),
+                panel,
+                tr("Verify by Rules"),
+                JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE);
+        return answer == JOptionPane.OK_OPTION ? text.getText() : null;
+    }
+
+    private static void preview(DataSet ds, RuleSet rules, List<RuleResult> results) {
+        Map<VerificationRule, Integer> failures = new LinkedHashMap<>();
+        for (VerificationRule rule : rules.getRules()) {
+            failures.put(rule, 0);
+        }
+        List<SpaceFacts> passed = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (RuleResult result : results) {
+            if (result.isPassed()) {
+                passed.add(result.getFacts());
+                String name = result.getFacts().getName();
+                names.add(name != null ? name : tr("(unnamed) {0}", result.getFacts().getId()));
+            }
+            for (VerificationRule rule : result.getFailedRules()) {
+                failures.merge(rule, 1, Integer::sum);
+            }
+        }
+        Collections.sort(names);
+
+        StringBuilder summary = new StringBuilder("<html>");
+        summary.append(tr("{0} of {1} spaces pass all rules.", passed.size(), results.size())).append("<br>");
+        for (Map.Entry<VerificationRule, Integer> entry : failures.entrySet()) {
+            summary.append(tr("Failed ''{0}'': {1}", entry.getKey().getSource(), entry.getValue())).append("<br>");
+        }
+        summary.append("</html>");
+
+        JList<String> list = new JList<>(names.toArray(new String[0]));
+        JScrollPane scroll = new JScrollPane(list);
+        scroll.setPreferredSize(new Dimension(320, 240));
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        panel.add(new JLabel(summary.toString()), BorderLayout.NORTH);
+        panel.add(scroll, BorderLayout.CENTER);
+
+        if (passed.isEmpty()) {
+            JOptionPane.showMessageDialog(MainApplication.getMainFrame(), panel, tr("Verify by Rules"),
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        Object[] options = {tr("Verify {0}", passed.size()), tr("Cancel")};
+        int answer = JOptionPane.showOptionDialog(
+                MainApplication.getMainFrame(),
+                panel,
+                tr("Verify by Rules"),
+                JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                options,
+                options[0]);
+        if (answer == 0) {
+            apply(ds, passed);
+        }
+    }
+
+    private static void apply(DataSet ds, List<SpaceFacts> passed) {
+        List<OsmPrimitive> toVerify = new ArrayList<>(passed.size());
+        int changed = 0;
+        for (SpaceFacts facts : passed) {
+            OsmPrimitive prim = ds.getPrimitiveById(facts.getId(), OsmPrimitiveType.WAY);
+            // Skip spaces edited since they were evaluated
+            if (!(prim instanceof Way) || !facts.getRecord().equals(AreaRecord.of((Way) prim))
+                    || ParkingSpaceStatus.of(prim) == ParkingSpaceStatus.VERIFIED) {
+                changed++;
+                continue;
+            }
+            toVerify.add(prim);
+        }
+        Command cmd = toVerify.isEmpty() ? null : MarkVerifiedAction.createVerifyCommand(toVerify);
+        if (cmd != null) {
+            UndoRedoHandler.getInstance().add(cmd);
+            SessionJournal.record("verified", toVerify.size(), "source", "rules");
+        }
+        if (changed > 0) {
+            new Notification(tr("{0} spaces were skipped because they changed during the evaluation", changed)).show();
+        }
+    }
+
+    @Override
+    protected void updateEnabledState() {
+        setEnabled(getLayerManager().getEditDataSet() != null);
+    }
+}
@@ -0,0 +1,204 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.DatasetEventManager;
+import org.openstreetmap.josm.data.osm.event.DatasetEventManager.FireMode;
+import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
+import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
+import org.openstreetmap.josm.data.osm.event.TagsChangedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
+
+/**
+ * The single dataset listener of the plugin.
+ * <p>
+ * Subscribes once to the {@link DatasetEventManager} (consolidated, in the EDT) while at least
+ * one consumer is registered, folds each batch of events (a {@link DataChangedEvent}, or a single
+ * event delivered through its own callback) into a {@link DatasetChangeSet} and
+ * hands it to the consumers stage by stage: indexes first, then models built on them, then
+ * views. Consumers no longer scan the raw event list themselves.
+ */
+public final class DatasetChangeHub implements DataSetListener {
+
+    /** Order in which consumers see a change set. */
+    public enum Stage {
+        /** Indexes that other consumers query */
+        INDEX,
+        /** Counters, queues and handlers */
+        MODEL,
+        /** Painters and dialogs */
+        VIEW
+    }
+
+    /** Receives the change sets. */
+    public interface ChangeConsumer {
+        /**
+         * Called in the EDT after each consolidated batch of dataset events.
+         * @param changes the net changes of the batch
+         */
+        void datasetChanged(DatasetChangeSet changes);
+    }
+
+    private static final DatasetChangeHub INSTANCE = new DatasetChangeHub();
+
+    private final Map<Stage, List<ChangeConsumer>> consumers = new EnumMap<>(Stage.class);
+    private boolean subscribed;
+
+    private DatasetChangeHub() {
+        for (Stage stage : Stage.values()) {
+            consumers.put(stage, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Gets the hub.
+     * @return the unique instance
+     */
+    public static DatasetChangeHub getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a consumer; registering it again has no effect.
+     * @param stage the stage of the consumer
+     * @param consumer the consumer
+     */
+    public void addConsumer(Stage stage, ChangeConsumer consumer) {
+        List<ChangeConsumer> list = consumers.get(stage);
+        if (!list.contains(consumer)) {
+            list.add(consumer);
+        }
+        if (!subscribed) {
+            DatasetEventManager.getInstance().addDatasetListener(this, FireMode.IN_EDT_CONSOLIDATED);
+            subscribed = true;
+        }
+    }
+
+    /**
+     * Unregisters a consumer.
+     * @param consumer the consumer
+     */
+    public void removeConsumer(ChangeConsumer consumer) {
+        boolean empty = true;
+        for (List<ChangeConsumer> list : consumers.values()) {
+            list.remove(consumer);
+            empty &= list.isEmpty();
+        }
+        if (empty && subscribed) {
+            DatasetEventManager.getInstance().removeDatasetListener(this);
+            subscribed = false;
+        }
+    }
+
+    /**
+     * Gets the number of registered consumers.
+     * @return the consumer count
+     */
+    public int getConsumerCount() {
+        int count = 0;
+        for (List<ChangeConsumer> list : consumers.values()) {
+            count += list.size();
+        }
+        return count;
+    }
+
+    // ========== DataSetListener Implementation ==========
+
+    @Override
+    public void dataChanged(DataChangedEvent event) {
+        List<AbstractDatasetChangedEvent> subEvents = event.getEvents();
+        DatasetChangeSet changes = new DatasetChangeSet(event.getDataset(), subEvents == null);
+        if (subEvents != null) {
+            for (AbstractDatasetChangedEvent subEvent : subEvents) {
+                collect(changes, subEvent);
+            }
+        }
+        dispatch(changes);
+    }
+
+    /**
+     * Handles a batch that held a single event: the consolidating event manager fires it
+     * through its own callback instead of wrapping it in a {@link DataChangedEvent}.
+     */
+    private void singleEvent(AbstractDatasetChangedEvent event) {
+        DatasetChangeSet changes = new DatasetChangeSet(event.getDataset(), false);
+        collect(changes, event);
+        dispatch(changes);
+    }
+
+    private void dispatch(DatasetChangeSet changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (Stage stage : Stage.values()) {
+            // Copy, consumers may unregister themselves while handling the changes
+            for (ChangeConsumer consumer : new ArrayList<>(consumers.get(stage))) {
+                consumer.datasetChanged(changes);
+            }
+        }
+    }
+
+    private static void collect(DatasetChangeSet changes, AbstractDatasetChangedEvent subEvent) {
+        if (subEvent instanceof PrimitivesAddedEvent) {
+            boolean wasIncomplete = ((PrimitivesAddedEvent) subEvent).wasIncomplete();
+            for (OsmPrimitive prim : subEvent.getPrimitives()) {
+                changes.primitiveAdded(prim, wasIncomplete);
+            }
+        } else if (subEvent instanceof PrimitivesRemovedEvent) {
+            for (OsmPrimitive prim : subEvent.getPrimitives()) {
+                changes.primitiveRemoved(prim);
+            }
+        } else if (subEvent instanceof TagsChangedEvent) {
+            TagsChangedEvent tagsEvent = (TagsChangedEvent) subEvent;
+            changes.tagsChanged(tagsEvent.getPrimitive(), tagsEvent.getOriginalKeys());
+        } else if (subEvent instanceof NodeMovedEvent) {
+            changes.nodeMoved(((NodeMovedEvent) subEvent).getNode());
+        } else if (subEvent instanceof WayNodesChangedEvent) {
+            changes.wayNodesChanged(((WayNodesChangedEvent) subEvent).getChangedWay());
+        }
+    }
+
+    @Override
+    public void primitivesAdded(PrimitivesAddedEvent event) {
+        singleEvent(event);
+    }
+
+    @Override
+    public void primitivesRemoved(PrimitivesRemovedEvent event) {
+        singleEvent(event);
+    }
+
+    @Override
+    public void tagsChanged(TagsChangedEvent event) {
+        singleEvent(event);
+    }
+
+    @Override
+    public void nodeMoved(NodeMovedEvent event) {
+        singleEvent(event);
+    }
+
+    @Override
+    public void wayNodesChanged(WayNodesChangedEvent event) {
+        singleEvent(event);
+    }
+
+    @Override
+    public void relationMembersChanged(RelationMembersChangedEvent event) {
+        // Not relevant
+    }
+
+    @Override
+    public void otherDatasetChange(AbstractDatasetChangedEvent event) {
+        // Not relevant
+    }
+}
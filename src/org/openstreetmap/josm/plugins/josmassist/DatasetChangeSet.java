@@ -0,0 +1,195 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Way;
+
+/**
+ * The net effect of one consolidated batch of dataset events, as delivered by the
+ * {@link DatasetChangeHub}.
+ * <p>
+ * A primitive appears at most once in {@link #getAdded()} or {@link #getRemoved()}, depending on
+ * its state at the end of the batch; retagged and moved primitives that were removed in the same
+ * batch are only listed as removed. Derived views such as {@link #getUpdated()} are computed once
+ * and shared by all consumers. The sets must not be modified.
+ */
+public final class DatasetChangeSet {
+
+    private final DataSet dataSet;
+    private final boolean full;
+    private final Set<OsmPrimitive> added = new LinkedHashSet<>();
+    private final Set<OsmPrimitive> completed = new LinkedHashSet<>();
+    private final Set<OsmPrimitive> removed = new LinkedHashSet<>();
+    private final Set<OsmPrimitive> retagged = new LinkedHashSet<>();
+    private final Map<OsmPrimitive, Map<String, String>> originalKeys = new HashMap<>();
+    private final Set<Node> moved = new LinkedHashSet<>();
+    private final Set<Way> reshaped = new LinkedHashSet<>();
+    private Set<OsmPrimitive> updated;
+    private Set<Way> geometryChanged;
+
+    DatasetChangeSet(DataSet dataSet, boolean full) {
+        this.dataSet = dataSet;
+        this.full = full;
+    }
+
+    // ========== Collection, called by the hub ==========
+
+    void primitiveAdded(OsmPrimitive prim, boolean wasIncomplete) {
+        removed.remove(prim);
+        added.add(prim);
+        if (wasIncomplete) {
+            completed.add(prim);
+        }
+    }
+
+    void primitiveRemoved(OsmPrimitive prim) {
+        if (!added.remove(prim)) {
+            removed.add(prim);
+        }
+        completed.remove(prim);
+        retagged.remove(prim);
+        originalKeys.remove(prim);
+        moved.remove(prim);
+        reshaped.remove(prim);
+    }
+
+    void tagsChanged(OsmPrimitive prim, Map<String, String> keysBefore) {
+        if (removed.contains(prim)) {
+            return;
+        }
+        retagged.add(prim);
+        // Keep the keys from before the first change of the batch
+        originalKeys.putIfAbsent(prim, keysBefore);
+    }
+
+    void nodeMoved(Node node) {
+        if (!removed.contains(node)) {
+            moved.add(node);
+        }
+    }
+
+    void wayNodesChanged(Way way) {
+        if (!removed.contains(way)) {
+            reshaped.add(way);
+        }
+    }
+
+    boolean isEmpty() {
+        return !full && added.isEmpty() && removed.isEmpty() && retagged.isEmpty() && moved.isEmpty() && reshaped.isEmpty();
+    }
+
+    // ========== Public API ==========
+
+    /**
+     * Gets the dataset the changes belong to.
+     * @return the dataset
+     */
+    public DataSet getDataSet() {
+        return dataSet;
+    }
+
+    /**
+     * Tells if JOSM reported a change without details. Consumers should rebuild their state;
+     * all other sets are empty then.
+     * @return true if everything may have changed
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Gets the primitives added to the dataset, including completed incomplete ones.
+     * @return the added primitives
+     */
+    public Set<OsmPrimitive> getAdded() {
+        return Collections.unmodifiableSet(added);
+    }
+
+    /**
+     * Gets the added primitives that existed before as incomplete primitives (e.g. downloaded members).
+     * @return subset of {@link #getAdded()}
+     */
+    public Set<OsmPrimitive> getCompleted() {
+        return Collections.unmodifiableSet(completed);
+    }
+
+    /**
+     * Gets the primitives removed or deleted from the dataset.
+     * @return the removed primitives
+     */
+    public Set<OsmPrimitive> getRemoved() {
+        return Collections.unmodifiableSet(removed);
+    }
+
+    /**
+     * Gets the primitives whose tags changed.
+     * @return the retagged primitives
+     */
+    public Set<OsmPrimitive> getRetagged() {
+        return Collections.unmodifiableSet(retagged);
+    }
+
+    /**
+     * Gets the tags a retagged primitive had before the batch.
+     * @param prim a primitive of {@link #getRetagged()}
+     * @return the original tags, or null if the primitive was not retagged
+     */
+    public Map<String, String> getOriginalKeys(OsmPrimitive prim) {
+        return originalKeys.get(prim);
+    }
+
+    /**
+     * Gets the nodes that moved.
+     * @return the moved nodes
+     */
+    public Set<Node> getMoved() {
+        return Collections.unmodifiableSet(moved);
+    }
+
+    /**
+     * Gets the ways whose node list changed.
+     * @return the reshaped ways
+     */
+    public Set<Way> getReshaped() {
+        return Collections.unmodifiableSet(reshaped);
+    }
+
+    /**
+     * Gets the primitives whose tags or existence changed: added and retagged primitives.
+     * @return the added and retagged primitives
+     */
+    public Set<OsmPrimitive> getUpdated() {
+        if (updated == null) {
+            Set<OsmPrimitive> set = new LinkedHashSet<>(added);
+            set.addAll(retagged);
+            updated = Collections.unmodifiableSet(set);
+        }
+        return updated;
+    }
+
+    /**
+     * Gets the ways whose geometry changed: reshaped ways and the parent ways of moved nodes.
+     * @return the ways, without removed ones
+     */
+    public Set<Way> getGeometryChanged() {
+        if (geometryChanged == null) {
+            Set<Way> set = new LinkedHashSet<>(reshaped);
+            for (Node node : moved) {
+                for (OsmPrimitive referrer : node.getReferrers()) {
+                    if (referrer instanceof Way && !removed.contains(referrer)) {
+                        set.add((Way) referrer);
+                    }
+                }
+            }
+            geometryChanged = Collections.unmodifiableSet(set);
+        }
+        return geometryChanged;
+    }
+}
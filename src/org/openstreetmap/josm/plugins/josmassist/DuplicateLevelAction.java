@@ -0,0 +1,171 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+
+import org.openstreetmap.josm.actions.JosmAction;
+import org.openstreetmap.josm.command.AddPrimitivesCommand;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.plugins.josmassist.core.LevelCloner;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.tools.ImageProvider;
+
+/**
+ * Copies all ways and nodes of one level to a new level, for garages that repeat the same
+ * layout on every floor. Name prefixes can be rewritten (e.g. {@code B2-} to {@code B3-})
+ * and the copy can be offset in meters. The copy is added with a single undoable command.
+ */
+public class DuplicateLevelAction extends JosmAction {
+
+    /**
+     * Constructs a new {@code DuplicateLevelAction}.
+     */
+    public DuplicateLevelAction() {
+        super(tr("Duplicate Level..."),
+                new ImageProvider("copy").setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                tr("Copy all elements of a level to another level"),
+                null, // no shortcut
+                false, // don't register in toolbar by default
+                "josmassist-duplicate-level", // toolbar ID
+                false); // don't install adapters
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        DataSet ds = getLayerManager().getEditDataSet();
+        if (ds == null) {
+            return;
+        }
+        Set<String> levels = new TreeSet<>(VerificationProgressTracker.LEVEL_ORDER);
+        for (Way way : ds.getWays()) {
+            String level = way.get("level");
+            if (!way.isDeleted() && level != null && !level.isEmpty()) {
+                levels.add(level);
+            }
+        }
+        if (levels.isEmpty()) {
+            new Notification(tr("No level tags found in the current layer")).show();
+            return;
+        }
+
+        JComboBox<String> sourceBox = new JComboBox<>(levels.toArray(new String[0]));
+        LevelProcessingHandler levelHandler = JosmAssistPlugin.getInstance().getLevelHandler();
+        String currentLevel = levelHandler != null ? levelHandler.getCurrentLevelTagWithUpdate() : null;
+        if (currentLevel != null && levels.contains(currentLevel)) {
+            sourceBox.setSelectedItem(currentLevel);
+        }
+        JTextField targetField = new JTextField(8);
+        JTextField fromField = new JTextField(8);
+        JTextField toField = new JTextField(8);
+        JTextField eastField = new JTextField("0", 8);
+        JTextField northField = new JTextField("0", 8);
+        fromField.setText(prefixOrEmpty(ds, (String) sourceBox.getSelectedItem()));
+        sourceBox.addActionListener(ev -> fromField.setText(prefixOrEmpty(ds, (String) sourceBox.getSelectedItem())));
+
+        JPanel panel = new JPanel(new GridLayout(0, 2, 5, 5));
+        panel.add(new JLabel(tr("Copy level:")));
+        panel.add(sourceBox);
+        panel.add(new JLabel(tr("To level:")));
+        panel.add(targetField);
+        panel.add(new JLabel(tr("Replace name prefix:")));
+        panel.add(fromField);
+        panel.add(new JLabel(tr("With prefix:")));
+        panel.add(toField);
+        panel.add(new JLabel(tr("Offset east (m):")));
+        panel.add(eastField);
+        panel.add(new JLabel(tr("Offset north (m):")));
+        panel.add(northField);
+
+        int answer = JOptionPane.showConfirmDialog(
+                MainApplication.getMainFrame(),
+                panel,
+                tr("Duplicate Level"),
+                JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE);
+        if (answer != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        String source = (String) sourceBox.getSelectedItem();
+        String target = targetField.getText().trim();
+        double east;
+        double north;
+        try {
+            east = parseMeters(eastField.getText());
+            north = parseMeters(northField.getText());
+        } catch (NumberFormatException ex) {
+            showError(tr("The offset must be a number of meters."));
+            return;
+        }
+        if (target.isEmpty() || target.equals(source)) {
+            showError(tr("Please enter a target level different from the source level."));
+            return;
+        }
+        if (levels.contains(target) && JOptionPane.showConfirmDialog(
+                MainApplication.getMainFrame(),
+                tr("Level {0} already contains elements. Add the copy anyway?", target),
+                tr("Duplicate Level"),
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.WARNING_MESSAGE) != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        duplicate(ds, source, target, fromField.getText().trim(), toField.getText().trim(), east, north);
+    }
+
+    private static void duplicate(DataSet ds, String source, String target, String fromPrefix, String toPrefix,
+            double east, double north) {
+        long start = System.currentTimeMillis();
+        LevelCloner.Result result = LevelCloner.cloneLevel(ds, source, target,
+                fromPrefix.isEmpty() ? null : fromPrefix, toPrefix, east, north);
+        if (result.primitives.isEmpty()) {
+            new Notification(tr("Nothing to copy on level {0}", source)).show();
+            return;
+        }
+        UndoRedoHandler.getInstance().add(new AddPrimitivesCommand(result.primitives, new ArrayList<>(result.ways), ds));
+        System.out.println("[JOSM Assist] DuplicateLevelAction: copied level " + source + " to " + target + ": "
+                + result.ways.size() + " ways, " + result.nodeCount + " nodes, " + result.renamedCount + " renamed in "
+                + (System.currentTimeMillis() - start) + " ms");
+        SessionJournal.record("level_duplicated", result.ways.size(), "source", source, "target", target);
+        new Notification(tr("Copied {0} ways and {1} nodes to level {2}",
+                result.ways.size(), result.nodeCount, target)).show();
+    }
+
+    private static String prefixOrEmpty(DataSet ds, String level) {
+        String prefix = level == null ? null : LevelCloner.mostCommonPrefix(ds, level);
+        return prefix == null ? "" : prefix;
+    }
+
+    private static double parseMeters(String text) {
+        String trimmed = text.trim();
+        return trimmed.isEmpty() ? 0 : Double.parseDouble(trimmed);
+    }
+
+    private static void showError(String message) {
+        JOptionPane.showMessageDialog(
+                MainApplication.getMainFrame(),
+                message,
+                tr("Duplicate Level"),
+                JOptionPane.ERROR_MESSAGE);
+    }
+
+    @Override
+    protected void updateEnabledState() {
+        setEnabled(getLayerManager().getEditDataSet() != null);
+    }
+}
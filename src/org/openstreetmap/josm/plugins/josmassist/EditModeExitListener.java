@@ -4,8 +4,11 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 
 import org.openstreetmap.josm.actions.mapmode.MapMode;
-import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.MapFrame;
+import org.openstreetmap.josm.gui.MapView;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfOp;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfStats;
+import org.openstreetmap.josm.plugins.josmassist.perf.TraceRecorder;
 
 /**
  * Listens for edit mode exit (Esc key or switching from draw mode to another mode)
@@ -56,7 +59,14 @@ public class EditModeExitListener implements MapFrame.MapModeChangeListener, Key
         javax.swing.SwingUtilities.invokeLater(() -> {
             try {
                 Thread.sleep(100); // Wait for edit mode to fully exit
-                levelHandler.processNewElementsOnEditExit();
+                long start = System.nanoTime();
+                try (PerfStats.Span span = PerfStats.start(PerfOp.PROCESS_NEW_ELEMENTS)) {
+                    levelHandler.processNewElementsOnEditExit();
+                }
+                if (TraceRecorder.isRecording()) {
+                    String level = levelHandler.getCurrentLevelTag();
+                    TraceRecorder.record("esc", start, "level", level != null ? level : "");
+                }
             } catch (InterruptedException ex) {
                 Thread.currentThread().interrupt();
             } catch (Exception ex) {
@@ -78,24 +88,23 @@ public class EditModeExitListener implements MapFrame.MapModeChangeListener, Key
     }
 
     /**
-     * Registers this listener with the map frame.
+     * Registers this listener with the map frame and the map view.
+     * Registering twice has no effect.
+     * @param mapView the map view
      */
-    public void register() {
+    public void register(MapView mapView) {
+        MapFrame.removeMapModeChangeListener(this);
         MapFrame.addMapModeChangeListener(this);
-        MapFrame mapFrame = MainApplication.getMap();
-        if (mapFrame != null && mapFrame.mapView != null) {
-            mapFrame.mapView.addKeyListener(this);
-        }
+        mapView.removeKeyListener(this);
+        mapView.addKeyListener(this);
     }
 
     /**
-     * Unregisters this listener from the map frame.
+     * Unregisters this listener from the map frame and the map view.
+     * @param mapView the map view
      */
-    public void unregister() {
+    public void unregister(MapView mapView) {
         MapFrame.removeMapModeChangeListener(this);
-        MapFrame mapFrame = MainApplication.getMap();
-        if (mapFrame != null && mapFrame.mapView != null) {
-            mapFrame.mapView.removeKeyListener(this);
-        }
+        mapView.removeKeyListener(this);
     }
 }
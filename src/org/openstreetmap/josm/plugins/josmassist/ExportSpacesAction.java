@@ -0,0 +1,133 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+
+import org.openstreetmap.josm.actions.JosmAction;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.josmassist.batch.SpaceExporter;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.ImageProvider;
+
+/**
+ * Exports the parking spaces of every level to its own GeoJSON or CSV file for downstream
+ * systems: name, verified state, centroid and rectangle dimensions (see {@link SpaceExporter}).
+ * <p>
+ * The spaces are captured in the EDT through {@link SpatialIndexManager#getFacts}, so the
+ * metrics of spaces measured before (e.g. by the rule based verification) are reused; the files
+ * are written in parallel on a background thread. The same export is available without GUI
+ * through {@code BatchCli --export}.
+ */
+public class ExportSpacesAction extends JosmAction {
+
+    private static final String PREF_FORMAT = "josmassist.export.format";
+    private static final String PREF_PREFIX = "josmassist.export.prefix";
+    private static final String PREF_DIRECTORY = "josmassist.export.directory";
+
+    /**
+     * Constructs a new {@code ExportSpacesAction}.
+     */
+    public ExportSpacesAction() {
+        super(tr("Export Parking Spaces..."),
+                new ImageProvider("save").setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                tr("Write the parking spaces of every level to GeoJSON or CSV files"),
+                null, // no shortcut
+                false, // don't register in toolbar by default
+                "josmassist-export-spaces", // toolbar ID
+                false); // don't install adapters
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        DataSet ds = getLayerManager().getEditDataSet();
+        if (ds == null) {
+            return;
+        }
+        JComboBox<SpaceExporter.Format> formatBox = new JComboBox<>(SpaceExporter.Format.values());
+        SpaceExporter.Format lastFormat = SpaceExporter.Format.fromName(Config.getPref().get(PREF_FORMAT, "geojson"));
+        formatBox.setSelectedItem(lastFormat != null ? lastFormat : SpaceExporter.Format.GEOJSON);
+        JTextField prefixField = new JTextField(Config.getPref().get(PREF_PREFIX, "parking"), 12);
+
+        JPanel panel = new JPanel(new GridLayout(0, 2, 5, 5));
+        panel.add(new JLabel(tr("Format:")));
+        panel.add(formatBox);
+        panel.add(new JLabel(tr("File name prefix:")));
+        panel.add(prefixField);
+        int answer = JOptionPane.showConfirmDialog(
+                MainApplication.getMainFrame(),
+                panel,
+                tr("Export Parking Spaces"),
+                JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE);
+        String prefix = prefixField.getText().trim();
+        if (answer != JOptionPane.OK_OPTION || prefix.isEmpty()) {
+            return;
+        }
+
+        JFileChooser chooser = new JFileChooser(Config.getPref().get(PREF_DIRECTORY, null));
+        chooser.setDialogTitle(tr("Export Parking Spaces to Directory"));
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showSaveDialog(MainApplication.getMainFrame()) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File directory = chooser.getSelectedFile();
+        SpaceExporter.Format format = (SpaceExporter.Format) formatBox.getSelectedItem();
+        Config.getPref().put(PREF_FORMAT, format.getExtension());
+        Config.getPref().put(PREF_PREFIX, prefix);
+        Config.getPref().put(PREF_DIRECTORY, directory.getPath());
+
+        // Capture in the EDT; writing must not touch the dataset
+        long start = System.currentTimeMillis();
+        SpatialIndexManager spatialIndex = JosmAssistPlugin.getInstance().getSpatialIndex();
+        Map<String, List<SpaceExporter.Space>> spaces = SpaceExporter.collect(ds, way -> spatialIndex.getFacts(ds, way));
+        // Spaces on several levels are listed once per level
+        int count = (int) spaces.values().stream().flatMap(List::stream).mapToLong(s -> s.facts.getId()).distinct().count();
+        if (count == 0) {
+            new Notification(tr("No parking spaces to export")).show();
+            return;
+        }
+
+        new Thread(() -> {
+            try {
+                List<Path> files = SpaceExporter.export(spaces, directory.toPath(), prefix, format,
+                        Runtime.getRuntime().availableProcessors());
+                System.out.println("[JOSM Assist] ExportSpacesAction: exported " + count + " spaces on " + files.size()
+                        + " levels in " + (System.currentTimeMillis() - start) + " ms");
+                GuiHelper.runInEDT(() -> {
+                    SessionJournal.record("export-spaces", count, format.getExtension());
+                    new Notification(tr("Exported {0} parking spaces on {1} levels to {2}", count, files.size(), directory)).show();
+                });
+            } catch (IOException ex) {
+                System.out.println("[JOSM Assist] ExportSpacesAction: export to " + directory + " failed: " + ex.getMessage());
+                GuiHelper.runInEDT(() -> JOptionPane.showMessageDialog(
+                        MainApplication.getMainFrame(),
+                        tr("Export to {0} failed:\n{1}", directory, ex.getMessage()),
+                        tr("Export Parking Spaces"),
+                        JOptionPane.ERROR_MESSAGE));
+            }
+        }, "josmassist-export-spaces").start();
+    }
+
+    @Override
+    protected void updateEnabledState() {
+        setEnabled(getLayerManager().getEditDataSet() != null);
+    }
+}
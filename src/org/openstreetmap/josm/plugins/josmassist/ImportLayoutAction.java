@@ -0,0 +1,242 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.JCheckBox;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import org.openstreetmap.josm.actions.JosmAction;
+import org.openstreetmap.josm.command.AddCommand;
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.command.SequenceCommand;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.josmassist.core.RectangleSnap;
+import org.openstreetmap.josm.plugins.josmassist.io.LayoutFeature;
+import org.openstreetmap.josm.plugins.josmassist.io.LayoutReader;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.ImageProvider;
+
+/**
+ * Imports parking space polygons from a GeoJSON or CSV layout export into the edit layer.
+ * <p>
+ * The file is streamed with a {@link LayoutReader}, so the parsed features awaiting import are
+ * at most one batch; the imported ways and nodes stay in the dataset and the undo stack as with
+ * any other edit. Each polygon becomes a closed way tagged
+ * {@code amenity=parking_space}, with its level and name taken from the configured properties
+ * (the default level is used for features without one). Optionally each ring is replaced by its
+ * minimal enclosing rectangle, like {@link WayCombineAction} does. The file is read on a
+ * background thread; every {@value #BATCH_SIZE} features are added in the EDT with one command
+ * while the reader waits, so a large import shows up batch by batch and can be undone in steps.
+ */
+public class ImportLayoutAction extends JosmAction {
+
+    private static final String PREF_LEVEL_KEY = "josmassist.import.levelkey";
+    private static final String PREF_NAME_KEY = "josmassist.import.namekey";
+    private static final String PREF_SNAP = "josmassist.import.snap";
+    private static final String PREF_DIRECTORY = "josmassist.import.directory";
+    /** Features added per command */
+    private static final int BATCH_SIZE = 5000;
+
+    /**
+     * Constructs a new {@code ImportLayoutAction}.
+     */
+    public ImportLayoutAction() {
+        super(tr("Import Parking Layout..."),
+                new ImageProvider("open").setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                tr("Add the parking spaces of a GeoJSON or CSV layout export to the current layer"),
+                null, // no shortcut
+                false, // don't register in toolbar by default
+                "josmassist-import-layout", // toolbar ID
+                false); // don't install adapters
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        DataSet ds = getLayerManager().getEditDataSet();
+        if (ds == null) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser(Config.getPref().get(PREF_DIRECTORY, null));
+        chooser.setFileFilter(new FileNameExtensionFilter(tr("Layout exports (*.geojson, *.json, *.csv)"), "geojson", "json", "csv"));
+        if (chooser.showOpenDialog(MainApplication.getMainFrame()) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        Config.getPref().put(PREF_DIRECTORY, file.getParent());
+
+        LevelProcessingHandler levelHandler = JosmAssistPlugin.getInstance().getLevelHandler();
+        String currentLevel = levelHandler != null ? levelHandler.getCurrentLevelTagWithUpdate() : null;
+        JTextField levelKeyField = new JTextField(Config.getPref().get(PREF_LEVEL_KEY, "level"), 8);
+        JTextField defaultLevelField = new JTextField(currentLevel != null ? currentLevel : "", 8);
+        JTextField nameKeyField = new JTextField(Config.getPref().get(PREF_NAME_KEY, "name"), 8);
+        JCheckBox snapBox = new JCheckBox(tr("Clean up to minimal rectangles"), Config.getPref().getBoolean(PREF_SNAP, true));
+
+        JPanel panel = new JPanel(new GridLayout(0, 2, 5, 5));
+        panel.add(new JLabel(tr("Level property:")));
+        panel.add(levelKeyField);
+        panel.add(new JLabel(tr("Default level:")));
+        panel.add(defaultLevelField);
+        panel.add(new JLabel(tr("Name property:")));
+        panel.add(nameKeyField);
+        panel.add(snapBox);
+
+        int answer = JOptionPane.showConfirmDialog(
+                MainApplication.getMainFrame(),
+                panel,
+                tr("Import Parking Layout"),
+                JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE);
+        if (answer != JOptionPane.OK_OPTION) {
+            return;
+        }
+        String levelKey = levelKeyField.getText().trim();
+        String defaultLevel = defaultLevelField.getText().trim();
+        String nameKey = nameKeyField.getText().trim();
+        boolean snap = snapBox.isSelected();
+        Config.getPref().put(PREF_LEVEL_KEY, levelKey);
+        Config.getPref().put(PREF_NAME_KEY, nameKey);
+        Config.getPref().putBoolean(PREF_SNAP, snap);
+
+        new Thread(() -> importFile(ds, file, levelKey, defaultLevel.isEmpty() ? null : defaultLevel, nameKey, snap),
+                "josmassist-import-layout").start();
+    }
+
+    /**
+     * Streams the file and adds its features batch by batch; runs on a background thread.
+     */
+    private void importFile(DataSet ds, File file, String levelKey, String defaultLevel, String nameKey, boolean snap) {
+        long start = System.currentTimeMillis();
+        AtomicBoolean layerGone = new AtomicBoolean();
+        AtomicInteger added = new AtomicInteger();
+        int skipped = 0;
+        List<Command> commands = new ArrayList<>();
+        int batchFeatures = 0;
+        String error = null;
+        try (LayoutReader reader = LayoutReader.open(file.toPath())) {
+            LayoutFeature feature;
+            while ((feature = reader.next()) != null && !layerGone.get()) {
+                double[] ring = snap ? RectangleSnap.toRectangle(feature.ring) : feature.ring;
+                if (ring == null) {
+                    skipped++;
+                    continue;
+                }
+                Way way = createWay(ring, commands, ds);
+                way.put("amenity", "parking_space");
+                String level = levelKey.isEmpty() ? null : feature.properties.get(levelKey);
+                way.put("level", level != null ? level : defaultLevel);
+                if (!nameKey.isEmpty()) {
+                    way.put("name", feature.properties.get(nameKey));
+                }
+                commands.add(new AddCommand(ds, way));
+                if (++batchFeatures == BATCH_SIZE) {
+                    addBatch(ds, commands, batchFeatures, layerGone, added);
+                    batchFeatures = 0;
+                }
+            }
+            skipped += reader.getSkippedCount();
+        } catch (IOException | RuntimeException ex) {
+            System.out.println("[JOSM Assist] ImportLayoutAction: reading " + file + " failed: " + ex.getMessage());
+            error = String.valueOf(ex.getMessage());
+            // The features of the unfinished batch are dropped; earlier batches stay (undoable)
+            commands.clear();
+        }
+        if (!commands.isEmpty() && !layerGone.get()) {
+            addBatch(ds, commands, batchFeatures, layerGone, added);
+        }
+        int total = added.get();
+        int skippedTotal = skipped;
+        String message = error;
+        System.out.println("[JOSM Assist] ImportLayoutAction: imported " + total + " spaces, skipped " + skippedTotal
+                + " features in " + (System.currentTimeMillis() - start) + " ms");
+        GuiHelper.runInEDT(() -> {
+            if (total > 0) {
+                SessionJournal.record("import-layout", total, file.getName());
+            }
+            if (message != null) {
+                JOptionPane.showMessageDialog(
+                        MainApplication.getMainFrame(),
+                        total == 0
+                                ? tr("Reading {0} failed:\n{1}", file.getName(), message)
+                                : tr("Reading {0} failed:\n{1}\n{2} parking spaces read before the error were added and can be undone.",
+                                        file.getName(), message, total),
+                        tr("Import Parking Layout"),
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (layerGone.get()) {
+                new Notification(tr("Import stopped after {0} parking spaces: the layer is no longer being edited", total))
+                        .setIcon(JOptionPane.WARNING_MESSAGE)
+                        .show();
+                return;
+            }
+            Notification notification = new Notification(skippedTotal == 0
+                    ? tr("Imported {0} parking spaces", total)
+                    : tr("Imported {0} parking spaces, skipped {1} features without a usable polygon", total, skippedTotal));
+            if (skippedTotal > 0) {
+                notification.setIcon(JOptionPane.WARNING_MESSAGE).setDuration(Notification.TIME_LONG);
+            }
+            notification.show();
+        });
+    }
+
+    /**
+     * Creates the nodes and the way of a ring; the node commands are added to {@code commands}.
+     */
+    private static Way createWay(double[] ring, List<Command> commands, DataSet ds) {
+        int n = ring.length / 2 - 1;
+        List<Node> nodes = new ArrayList<>(n + 1);
+        for (int i = 0; i < n; i++) {
+            Node node = new Node(new LatLon(ring[2 * i], ring[2 * i + 1]));
+            commands.add(new AddCommand(ds, node));
+            nodes.add(node);
+        }
+        nodes.add(nodes.get(0));
+        Way way = new Way();
+        way.setNodes(nodes);
+        return way;
+    }
+
+    /**
+     * Adds one batch in the EDT and waits for it, so the reader never runs ahead of the dataset.
+     */
+    private static void addBatch(DataSet ds, List<Command> commands, int features, AtomicBoolean layerGone,
+            AtomicInteger added) {
+        List<Command> batch = new ArrayList<>(commands);
+        commands.clear();
+        GuiHelper.runInEDTAndWait(() -> {
+            if (MainApplication.getLayerManager().getEditDataSet() != ds) {
+                layerGone.set(true);
+                return;
+            }
+            UndoRedoHandler.getInstance().add(new SequenceCommand(tr("Import {0} parking spaces", features), batch));
+            added.addAndGet(features);
+        });
+    }
+
+    @Override
+    protected void updateEnabledState() {
+        setEnabled(getLayerManager().getEditDataSet() != null);
+    }
+}
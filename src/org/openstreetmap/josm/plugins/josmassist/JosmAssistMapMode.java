@@ -3,8 +3,6 @@ package org.openstreetmap.josm.plugins.josmassist;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
-import org.openstreetmap.josm.gui.MainApplication;
-import org.openstreetmap.josm.gui.MapFrame;
 import org.openstreetmap.josm.gui.MapView;
 
 /**
@@ -29,22 +27,20 @@ public class JosmAssistMapMode extends MouseAdapter {
 
     /**
      * Registers this listener with the map view.
+     * Registering twice has no effect.
+     * @param mapView the map view
      */
-    public void register() {
-        MapFrame mapFrame = MainApplication.getMap();
-        if (mapFrame != null && mapFrame.mapView != null) {
-            mapFrame.mapView.addMouseListener(this);
-        }
+    public void register(MapView mapView) {
+        mapView.removeMouseListener(this);
+        mapView.addMouseListener(this);
     }
 
     /**
      * Unregisters this listener from the map view.
+     * @param mapView the map view
      */
-    public void unregister() {
-        MapFrame mapFrame = MainApplication.getMap();
-        if (mapFrame != null && mapFrame.mapView != null) {
-            mapFrame.mapView.removeMouseListener(this);
-        }
+    public void unregister(MapView mapView) {
+        mapView.removeMouseListener(this);
     }
 }
 
@@ -10,6 +10,7 @@ import javax.swing.JMenuItem;
 
 import org.openstreetmap.josm.actions.ToggleAction;
 import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.MapFrame;
 import org.openstreetmap.josm.plugins.Plugin;
 import org.openstreetmap.josm.plugins.PluginInformation;
 import org.openstreetmap.josm.tools.ImageProvider;
@@ -23,14 +24,17 @@ public class JosmAssistPlugin extends Plugin {
 
     private static JosmAssistPlugin instance;
     private boolean pluginEnabled = true;
-    private JosmAssistMapMode mapMode;
+    private PluginLifecycle lifecycle;
     private TogglePluginAction toggleAction;
     private WayCombineAction wayCombineAction;
     private MarkVerifiedAction markVerifiedAction;
     private MovePreservingMetricAction movePreservingMetricAction;
-    private LevelProcessingHandler levelHandler;
-    private EditModeExitListener editModeExitListener;
-    private PolygonClickHandler clickHandler;
+    private ReviewModeAction reviewModeAction;
+    private ParkingStatusOverlayAction overlayAction;
+    private LevelSwitcher levelSwitcher;
+    private final NameAssignmentJournal nameJournal = new NameAssignmentJournal();
+    private final SpatialIndexManager spatialIndex = new SpatialIndexManager();
+    private final NameNumberRegistry nameNumbers = new NameNumberRegistry();
 
     /**
      * Constructs a new {@code JosmAssistPlugin}.
@@ -40,14 +44,20 @@ public class JosmAssistPlugin extends Plugin {
         super(info);
         instance = this;
         
-        // Initialize components
+        // Initialize actions only; data-layer dependent handlers are built by the lifecycle on first use
         toggleAction = new TogglePluginAction();
         wayCombineAction = new WayCombineAction();
         markVerifiedAction = new MarkVerifiedAction();
         movePreservingMetricAction = new MovePreservingMetricAction();
-        levelHandler = new LevelProcessingHandler();
-        editModeExitListener = new EditModeExitListener(levelHandler);
-        clickHandler = new PolygonClickHandler();
+        reviewModeAction = new ReviewModeAction();
+        overlayAction = new ParkingStatusOverlayAction();
+        levelSwitcher = new LevelSwitcher();
+        lifecycle = new PluginLifecycle();
+        lifecycle.addSessionListener(reviewModeAction);
+        lifecycle.addSessionListener(levelSwitcher);
+        lifecycle.addSessionListener(nameJournal);
+        lifecycle.addSessionListener(spatialIndex);
+        lifecycle.addSessionListener(nameNumbers);
         
         // Add menu items to tools menu
         try {
@@ -55,8 +65,26 @@ public class JosmAssistPlugin extends Plugin {
                 MainApplication.getMenu().toolsMenu.add(toggleAction);
                 MainApplication.getMenu().toolsMenu.addSeparator();
                 MainApplication.getMenu().toolsMenu.add(wayCombineAction);
+                MainApplication.getMenu().toolsMenu.add(new SnapToRectangleAction());
                 MainApplication.getMenu().toolsMenu.add(markVerifiedAction);
+                MainApplication.getMenu().toolsMenu.add(new BulkVerifyAction());
                 MainApplication.getMenu().toolsMenu.add(movePreservingMetricAction);
+                MainApplication.getMenu().toolsMenu.add(new DuplicateLevelAction());
+                MainApplication.getMenu().toolsMenu.add(new AssignLevelByOutlineAction());
+                MainApplication.getMenu().toolsMenu.add(new ImportLayoutAction());
+                MainApplication.getMenu().toolsMenu.add(new ExportSpacesAction());
+                MainApplication.getMenu().toolsMenu.addSeparator();
+                MainApplication.getMenu().toolsMenu.add(reviewModeAction);
+                MainApplication.getMenu().toolsMenu.add(reviewModeAction.createVerifyAndNextAction());
+                MainApplication.getMenu().toolsMenu.add(reviewModeAction.createSkipAction());
+                MainApplication.getMenu().toolsMenu.add(reviewModeAction.createBackAction());
+                MainApplication.getMenu().toolsMenu.add(overlayAction);
+                MainApplication.getMenu().toolsMenu.addSeparator();
+                MainApplication.getMenu().toolsMenu.add(levelSwitcher.createLevelUpAction());
+                MainApplication.getMenu().toolsMenu.add(levelSwitcher.createLevelDownAction());
+                MainApplication.getMenu().toolsMenu.add(levelSwitcher.createShowAllLevelsAction());
+                MainApplication.getMenu().toolsMenu.addSeparator();
+                MainApplication.getMenu().toolsMenu.add(new SessionMetricsAction());
             }
         } catch (Exception e) {
             System.err.println("Could not add menu item: " + e.getMessage());
@@ -80,28 +108,20 @@ public class JosmAssistPlugin extends Plugin {
             System.err.println("Could not register toolbar button: " + e.getMessage());
         }
         
-        // Register map mode listener
-        MainApplication.getLayerManager().addActiveLayerChangeListener(e -> {
-            if (pluginEnabled) {
-                setupMapMode();
-                editModeExitListener.register();
-                // Update level detection when layer changes
-                levelHandler.onSelectionChanged();
-            } else {
-                removeMapMode();
-                editModeExitListener.unregister();
-            }
-        });
-        
-        // Register selection change listener to detect level changes
-        // This will be done when layer changes
-        
-        // Setup initial map mode if layer is already active
-        if (MainApplication.getLayerManager().getActiveLayer() != null) {
-            setupMapMode();
-            editModeExitListener.register();
-            levelHandler.onSelectionChanged();
+        // Build handlers and register map view listeners (once) when the first data layer appears
+        lifecycle.start();
+    }
+
+    @Override
+    public void mapFrameInitialized(MapFrame oldFrame, MapFrame newFrame) {
+        if (newFrame != null) {
+            // Toggle dialogs must be added to each new map frame
+            newFrame.addToggleDialog(new VerificationDashboardDialog());
+            newFrame.addToggleDialog(new OverlapDialog());
+            newFrame.addToggleDialog(new PerformanceDialog());
         }
+        overlayAction.mapFrameChanged(oldFrame, newFrame);
+        lifecycle.mapFrameChanged(oldFrame, newFrame);
     }
 
     /**
@@ -120,25 +140,6 @@ public class JosmAssistPlugin extends Plugin {
         return pluginEnabled;
     }
 
-    /**
-     * Sets up the map mode for polygon selection.
-     */
-    private void setupMapMode() {
-        if (mapMode == null) {
-            mapMode = new JosmAssistMapMode();
-        }
-        mapMode.register();
-    }
-
-    /**
-     * Removes the map mode.
-     */
-    private void removeMapMode() {
-        if (mapMode != null) {
-            mapMode.unregister();
-        }
-    }
-
     /**
      * Toggles the plugin on/off.
      */
@@ -152,14 +153,7 @@ public class JosmAssistPlugin extends Plugin {
      */
     private void updatePluginState(boolean enabled) {
         pluginEnabled = enabled;
-        
-        if (pluginEnabled) {
-            setupMapMode();
-            editModeExitListener.register();
-        } else {
-            removeMapMode();
-            editModeExitListener.unregister();
-        }
+        lifecycle.setEnabled(enabled);
     }
 
     /**
@@ -209,18 +203,50 @@ public class JosmAssistPlugin extends Plugin {
 
     /**
      * Gets the level processing handler.
-     * @return the level handler
+     * @return the level handler, or null if no data layer is open
      */
     public LevelProcessingHandler getLevelHandler() {
-        return levelHandler;
+        return lifecycle.getLevelHandler();
     }
 
     /**
      * Gets the map mode instance.
-     * @return the map mode
+     * @return the map mode, or null if no data layer is open
      */
     public JosmAssistMapMode getMapMode() {
-        return mapMode;
+        return lifecycle.getMapMode();
+    }
+
+    /**
+     * Gets the journal of name assignments.
+     * @return the name assignment journal
+     */
+    public NameAssignmentJournal getNameJournal() {
+        return nameJournal;
+    }
+
+    /**
+     * Gets the spatial index of the closed area ways.
+     * @return the spatial index manager
+     */
+    public SpatialIndexManager getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    /**
+     * Gets the registry of the numbers used by parking space names.
+     * @return the name number registry
+     */
+    public NameNumberRegistry getNameNumbers() {
+        return nameNumbers;
+    }
+
+    /**
+     * Gets the lifecycle manager which owns the map view listeners.
+     * @return the lifecycle manager
+     */
+    public PluginLifecycle getLifecycle() {
+        return lifecycle;
     }
 }
 
@@ -0,0 +1,276 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.plugins.josmassist.core.IntervalTree;
+import org.openstreetmap.josm.plugins.josmassist.core.LevelValue;
+
+/**
+ * Precomputed level membership of the primitives of a dataset.
+ * <p>
+ * A primitive belongs to the levels of its own {@code level} tag, parsed with {@link LevelValue}
+ * so lists and ranges are on every level they name or span. Untagged way nodes
+ * belong to the levels of their parent ways, so that switching levels keeps the nodes
+ * of visible ways visible, as JOSM's filters do.
+ * The sets are built once per dataset and then maintained from the change sets of the
+ * {@link DatasetChangeHub}.
+ */
+public class LevelIndex implements DatasetChangeHub.ChangeConsumer {
+
+    /** Listener notified after primitives changed their level membership. */
+    public interface LevelIndexListener {
+        /**
+         * Called after a batch of changes has been applied to the index.
+         * @param changed the primitives whose membership may have changed
+         */
+        void membershipChanged(Collection<OsmPrimitive> changed);
+    }
+
+    /** Ranges spanning more integer levels than this only list their ends */
+    private static final int MAX_LISTED_RANGE_LEVELS = 100;
+
+    /** Number of primitives naming or spanning each level, for the list of levels */
+    private final Map<String, Integer> levelNames = new TreeMap<>(VerificationProgressTracker.LEVEL_ORDER);
+    private final Map<OsmPrimitive, LevelValue> membership = new HashMap<>();
+    /** Numeric levels and ranges of the primitives */
+    private final IntervalTree<OsmPrimitive> intervals = new IntervalTree<>();
+    /** Primitives by non-numeric level label */
+    private final Map<String, Set<OsmPrimitive>> labels = new HashMap<>();
+    private final List<LevelIndexListener> listeners = new ArrayList<>();
+    private DataSet dataSet = null;
+
+    /**
+     * Rebuilds the index for the given dataset with a single full scan.
+     * @param ds the dataset, may be null
+     */
+    public void rebuild(DataSet ds) {
+        levelNames.clear();
+        membership.clear();
+        intervals.clear();
+        labels.clear();
+        dataSet = ds;
+        if (ds == null) {
+            return;
+        }
+        Map<OsmPrimitive, LevelValue> values = new HashMap<>();
+        for (OsmPrimitive prim : ds.allPrimitives()) {
+            if (prim.isDeleted()) continue;
+            LevelValue level = LevelValue.parse(prim.get("level"));
+            if (level.isEmpty()) continue;
+            values.merge(prim, level, LevelValue::union);
+            if (prim instanceof Way) {
+                for (Node node : ((Way) prim).getNodes()) {
+                    if (node.get("level") == null) {
+                        values.merge(node, level, LevelValue::union);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<OsmPrimitive, LevelValue> entry : values.entrySet()) {
+            addMembership(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public DataSet getDataSet() {
+        return dataSet;
+    }
+
+    public void addLevelIndexListener(LevelIndexListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeLevelIndexListener(LevelIndexListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets all known levels in {@link VerificationProgressTracker#LEVEL_ORDER}: the single levels,
+     * range ends and labels named in level tags, and the integer levels inside numeric ranges
+     * ({@code 1-3} lists 1, 2 and 3). Fractional levels are only listed where a tag names them.
+     * Ranges spanning more than 100 integer levels only list their ends.
+     * @return the levels
+     */
+    public List<String> getLevels() {
+        return new ArrayList<>(levelNames.keySet());
+    }
+
+    /**
+     * Gets the primitives on a level, including those whose tag lists or spans it
+     * (e.g. {@code -1;-2} and {@code -2--1} are both on level -1).
+     * @param level the level
+     * @return unmodifiable set of the primitives, empty if the level is unknown
+     */
+    public Set<OsmPrimitive> getPrimitives(String level) {
+        LevelValue value = LevelValue.parse(level);
+        if (value.isEmpty()) {
+            return Collections.<OsmPrimitive>emptySet();
+        }
+        Set<OsmPrimitive> result = new HashSet<>();
+        for (int i = 0; i < value.getIntervalCount(); i++) {
+            intervals.query(value.getLow(i), value.getHigh(i), result);
+        }
+        for (String label : value.getLabels()) {
+            Set<OsmPrimitive> set = labels.get(label);
+            if (set != null) {
+                result.addAll(set);
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Checks if a primitive is part of any level.
+     * @param prim the primitive
+     * @return true if the primitive belongs to at least one level
+     */
+    public boolean hasLevel(OsmPrimitive prim) {
+        return membership.containsKey(prim);
+    }
+
+    /**
+     * Checks if a primitive belongs to the given level.
+     * @param prim the primitive
+     * @param level the level
+     * @return true if it belongs to the level
+     */
+    public boolean isOnLevel(OsmPrimitive prim, String level) {
+        LevelValue value = membership.get(prim);
+        return value != null && value.overlaps(LevelValue.parse(level));
+    }
+
+    // ========== Maintenance ==========
+
+    private void addMembership(OsmPrimitive prim, LevelValue level) {
+        membership.put(prim, level);
+        for (int i = 0; i < level.getIntervalCount(); i++) {
+            intervals.add(level.getLow(i), level.getHigh(i), prim);
+        }
+        for (String label : level.getLabels()) {
+            labels.computeIfAbsent(label, k -> new HashSet<>()).add(prim);
+        }
+        for (String name : listedLevels(level)) {
+            levelNames.merge(name, 1, Integer::sum);
+        }
+    }
+
+    private void setMembership(OsmPrimitive prim, LevelValue newLevel) {
+        LevelValue oldLevel = membership.remove(prim);
+        if (oldLevel != null) {
+            for (int i = 0; i < oldLevel.getIntervalCount(); i++) {
+                intervals.remove(oldLevel.getLow(i), oldLevel.getHigh(i), prim);
+            }
+            for (String label : oldLevel.getLabels()) {
+                Set<OsmPrimitive> set = labels.get(label);
+                if (set != null && set.remove(prim) && set.isEmpty()) {
+                    labels.remove(label);
+                }
+            }
+            for (String name : listedLevels(oldLevel)) {
+                levelNames.computeIfPresent(name, (k, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+        if (!newLevel.isEmpty()) {
+            addMembership(prim, newLevel);
+        }
+    }
+
+    /**
+     * Gets the levels a value adds to the list of levels: its names plus the integers strictly
+     * inside its ranges (the ends are names already).
+     */
+    private static Set<String> listedLevels(LevelValue level) {
+        Set<String> result = new LinkedHashSet<>(level.getNames());
+        for (int i = 0; i < level.getIntervalCount(); i++) {
+            double low = level.getLow(i);
+            double high = level.getHigh(i);
+            if (high - low <= MAX_LISTED_RANGE_LEVELS) {
+                for (double l = Math.floor(low) + 1; l < high; l++) {
+                    result.add(Long.toString((long) l));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the levels a primitive currently belongs to.
+     */
+    private LevelValue computeLevels(OsmPrimitive prim) {
+        if (prim.isDeleted() || prim.getDataSet() != dataSet) {
+            return LevelValue.EMPTY;
+        }
+        LevelValue level = LevelValue.parse(prim.get("level"));
+        if (level.isEmpty() && prim instanceof Node) {
+            for (OsmPrimitive referrer : prim.getReferrers()) {
+                if (referrer instanceof Way && !referrer.isDeleted()) {
+                    level = level.union(LevelValue.parse(referrer.get("level")));
+                }
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Re-evaluates a primitive and, for ways, their nodes.
+     */
+    private void refresh(OsmPrimitive prim, Set<OsmPrimitive> changed) {
+        setMembership(prim, computeLevels(prim));
+        changed.add(prim);
+        if (prim instanceof Way) {
+            for (Node node : ((Way) prim).getNodes()) {
+                setMembership(node, computeLevels(node));
+                changed.add(node);
+            }
+        }
+    }
+
+    private void refreshAll(Collection<? extends OsmPrimitive> prims, Set<OsmPrimitive> changed) {
+        for (OsmPrimitive prim : prims) {
+            refresh(prim, changed);
+        }
+    }
+
+    private void fireMembershipChanged(Set<OsmPrimitive> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        for (LevelIndexListener listener : listeners) {
+            listener.membershipChanged(changed);
+        }
+    }
+
+    // ========== Change Consumer Implementation ==========
+
+    @Override
+    public void datasetChanged(DatasetChangeSet changes) {
+        if (changes.getDataSet() != dataSet) {
+            return;
+        }
+        Set<OsmPrimitive> changed = new HashSet<>();
+        if (changes.isFull()) {
+            rebuild(dataSet);
+            changed.addAll(membership.keySet());
+        } else {
+            // Removed primitives are deleted (or gone), so refresh() drops them and re-evaluates their nodes
+            refreshAll(changes.getRemoved(), changed);
+            refreshAll(changes.getUpdated(), changed);
+            // Nodes removed from a way keep their old membership until they change themselves;
+            // JOSM usually deletes such orphaned nodes, which removes them from the index.
+            refreshAll(changes.getReshaped(), changed);
+        }
+        fireMembershipChanged(changed);
+    }
+}
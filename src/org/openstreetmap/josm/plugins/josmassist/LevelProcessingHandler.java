@@ -1,5 +1,7 @@
 package org.openstreetmap.josm.plugins.josmassist;
 
+import static org.openstreetmap.josm.tools.I18n.tr;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -10,21 +12,12 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.data.UndoRedoHandler;
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.Way;
-import org.openstreetmap.josm.data.osm.event.DataSetListener;
-import org.openstreetmap.josm.data.osm.event.DatasetEventManager;
-import org.openstreetmap.josm.data.osm.event.DatasetEventManager.FireMode;
-import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
-import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
-import org.openstreetmap.josm.data.osm.event.TagsChangedEvent;
-import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
-import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
-import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
-import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
-import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.autofilter.AutoFilter;
 import org.openstreetmap.josm.gui.autofilter.AutoFilterManager;
@@ -32,25 +25,37 @@ import org.openstreetmap.josm.gui.layer.Layer;
 import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeEvent;
 import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeListener;
 import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.plugins.josmassist.core.LevelValue;
 
 /**
  * Handles level processing for newly created primitives.
  * When a level filter is active, new primitives automatically get the level tag
  * when the user exits edit mode (presses Esc).
  */
-public class LevelProcessingHandler implements ActiveLayerChangeListener, DataSetListener {
+public class LevelProcessingHandler implements ActiveLayerChangeListener, DatasetChangeHub.ChangeConsumer {
 
     private String currentLevelTag = null;
+    private String explicitLevelTag = null; // set by plugin-owned level switching, overrides detection
     private final Set<OsmPrimitive> newElements = new HashSet<>();
     private DataSet currentDataSet = null;
     private static final Pattern LEVEL_PATTERN = Pattern.compile("level[=:]([^\\s]+)");
 
     public LevelProcessingHandler() {
         MainApplication.getLayerManager().addActiveLayerChangeListener(this);
-        DatasetEventManager.getInstance().addDatasetListener(this, FireMode.IN_EDT_CONSOLIDATED);
+        DatasetChangeHub.getInstance().addConsumer(DatasetChangeHub.Stage.MODEL, this);
         updateCurrentDataSet();
     }
 
+    /**
+     * Removes the listeners registered by the constructor.
+     */
+    public void destroy() {
+        MainApplication.getLayerManager().removeActiveLayerChangeListener(this);
+        DatasetChangeHub.getInstance().removeConsumer(this);
+        newElements.clear();
+        currentDataSet = null;
+    }
+
     @Override
     public void activeOrEditLayerChanged(ActiveLayerChangeEvent e) {
         updateCurrentDataSet();
@@ -62,70 +67,28 @@ public class LevelProcessingHandler implements ActiveLayerChangeListener, DataSe
         updateCurrentLevelTag();
     }
 
-    // ========== DataSetListener Implementation ==========
+    // ========== Change Consumer Implementation ==========
 
     @Override
-    public void primitivesAdded(PrimitivesAddedEvent event) {
-        if (event.wasIncomplete()) {
-            return;
+    public void datasetChanged(DatasetChangeSet changes) {
+        newElements.removeAll(changes.getRemoved());
+        for (OsmPrimitive prim : changes.getRetagged()) {
+            if (prim.get("level") != null) {
+                newElements.remove(prim);
+            }
         }
 
         updateCurrentLevelTag();
 
-        for (OsmPrimitive prim : event.getPrimitives()) {
-            if (shouldTrack(prim)) {
+        for (OsmPrimitive prim : changes.getAdded()) {
+            // Completed incomplete primitives were downloaded, not drawn
+            if (!changes.getCompleted().contains(prim) && shouldTrack(prim)) {
                 newElements.add(prim);
-                System.out.println("[JOSM Assist] primitivesAdded DEBUG: Tracked: " + prim.getClass().getSimpleName() + " " + prim);
+                System.out.println("[JOSM Assist] datasetChanged DEBUG: Tracked: " + prim.getClass().getSimpleName() + " " + prim);
             }
         }
     }
 
-    @Override
-    public void primitivesRemoved(PrimitivesRemovedEvent event) {
-        newElements.removeAll(event.getPrimitives());
-    }
-
-    @Override
-    public void tagsChanged(TagsChangedEvent event) {
-        OsmPrimitive prim = event.getPrimitive();
-        if (prim.get("level") != null) {
-            newElements.remove(prim);
-        }
-    }
-
-    @Override
-    public void dataChanged(DataChangedEvent event) {
-        List<AbstractDatasetChangedEvent> subEvents = event.getEvents();
-        if (subEvents != null) {
-            for (AbstractDatasetChangedEvent subEvent : subEvents) {
-                if (subEvent instanceof PrimitivesAddedEvent) {
-                    primitivesAdded((PrimitivesAddedEvent) subEvent);
-                }
-            }
-        }
-        updateCurrentLevelTag();
-    }
-
-    @Override
-    public void nodeMoved(NodeMovedEvent event) {
-        // Not relevant
-    }
-
-    @Override
-    public void wayNodesChanged(WayNodesChangedEvent event) {
-        // Not relevant
-    }
-
-    @Override
-    public void relationMembersChanged(RelationMembersChangedEvent event) {
-        // Not relevant
-    }
-
-    @Override
-    public void otherDatasetChange(AbstractDatasetChangedEvent event) {
-        // Not relevant
-    }
-
     // ========== Level Detection ==========
 
     private void updateCurrentLevelTag() {
@@ -134,6 +97,12 @@ public class LevelProcessingHandler implements ActiveLayerChangeListener, DataSe
             return;
         }
 
+        // Method 0: Level chosen through LevelSwitcher (no AutoFilter involved)
+        if (explicitLevelTag != null) {
+            currentLevelTag = explicitLevelTag;
+            return;
+        }
+
         // Method 1: AutoFilterManager (primary method)
         String level = detectLevelFromAutoFilter();
         if (level != null) {
@@ -196,15 +165,20 @@ public class LevelProcessingHandler implements ActiveLayerChangeListener, DataSe
         Collection<OsmPrimitive> selected = ds.getSelected();
         if (selected.isEmpty()) return null;
 
+        // Prefer a single level over lists and ranges such as -1;-2 or 1-3
         String levelTag = null;
         for (OsmPrimitive prim : selected) {
             String primLevel = prim.get("level");
-            if (primLevel != null) {
-                if (levelTag == null) {
-                    levelTag = primLevel;
-                } else if (!levelTag.equals(primLevel)) {
-                    return null; // Multiple levels selected
-                }
+            if (primLevel != null && (levelTag == null || LevelValue.parse(primLevel).isSingle())) {
+                levelTag = primLevel;
+                if (LevelValue.parse(levelTag).isSingle()) break;
+            }
+        }
+        if (levelTag == null) return null;
+        for (OsmPrimitive prim : selected) {
+            String primLevel = prim.get("level");
+            if (primLevel != null && !LevelValue.matches(primLevel, levelTag)) {
+                return null; // Multiple levels selected
             }
         }
         return levelTag;
@@ -219,7 +193,8 @@ public class LevelProcessingHandler implements ActiveLayerChangeListener, DataSe
                 if (!prim.isDisabled() && prim.isVisible()) {
                     totalVisible++;
                     String primLevel = prim.get("level");
-                    if (primLevel != null && !primLevel.isEmpty()) {
+                    // Lists and ranges span several levels and do not vote
+                    if (primLevel != null && LevelValue.parse(primLevel).isSingle()) {
                         levelCounts.put(primLevel, levelCounts.getOrDefault(primLevel, 0) + 1);
                     }
                 }
@@ -277,8 +252,8 @@ public class LevelProcessingHandler implements ActiveLayerChangeListener, DataSe
         // Decision: assign to single node only if exactly 1 node and no ways
         boolean assignToSingleNode = (nodes.size() == 1 && ways.isEmpty());
 
-        // Assign level tags
-        int assignedCount = 0;
+        // Assign level tags with one compact undoable command
+        BatchTagCommand.Builder builder = new BatchTagCommand.Builder(ds);
         for (OsmPrimitive prim : newElements) {
             if (!isValidForProcessing(prim, ds)) continue;
 
@@ -292,15 +267,21 @@ public class LevelProcessingHandler implements ActiveLayerChangeListener, DataSe
             }
 
             if (shouldAssign) {
-                prim.put("level", currentLevelTag);
-                assignedCount++;
+                builder.set(prim, "level", currentLevelTag);
                 System.out.println("[JOSM Assist] DEBUG: Assigned level '" + currentLevelTag + "' to: " + prim);
             }
         }
 
         newElements.clear();
+        int assignedCount = builder.size();
+        Command cmd = builder.build(tr("Assign level {0} to {1} elements", currentLevelTag, assignedCount));
+        if (cmd != null) {
+            UndoRedoHandler.getInstance().add(cmd);
+        }
         System.out.println("[JOSM Assist] DEBUG: Assigned level to " + assignedCount + " element(s)");
-        MainApplication.getMap().repaint();
+        if (MainApplication.getMap() != null) {
+            MainApplication.getMap().repaint();
+        }
     }
 
     private boolean shouldTrack(OsmPrimitive prim) {
@@ -335,6 +316,16 @@ public class LevelProcessingHandler implements ActiveLayerChangeListener, DataSe
         this.currentLevelTag = levelTag;
     }
 
+    /**
+     * Sets the level chosen by plugin-owned level switching.
+     * While set, it takes precedence over AutoFilter, selection and visibility detection.
+     * @param levelTag the level, or null to go back to automatic detection
+     */
+    public void setExplicitLevelTag(String levelTag) {
+        this.explicitLevelTag = levelTag;
+        updateCurrentLevelTag();
+    }
+
     public void onSelectionChanged() {
         updateCurrentLevelTag();
     }
@@ -0,0 +1,265 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openstreetmap.josm.actions.JosmAction;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.MapFrame;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.gui.autofilter.AutoFilterManager;
+import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeEvent;
+import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeListener;
+import org.openstreetmap.josm.tools.ImageProvider;
+import org.openstreetmap.josm.tools.Shortcut;
+
+/**
+ * Plugin-owned level switching (PageUp/PageDown) as a fast alternative to JOSM's AutoFilter.
+ * <p>
+ * Instead of re-evaluating a filter expression over all primitives, the switcher keeps a
+ * {@link LevelIndex} and only flips the disabled state of the primitives that differ between
+ * the old and the new level. The active level is pushed to the {@link LevelProcessingHandler}
+ * directly, so new elements keep getting the right level tag.
+ */
+public class LevelSwitcher implements ActiveLayerChangeListener, LevelIndex.LevelIndexListener,
+        PluginLifecycle.SessionListener {
+
+    private final LevelIndex index = new LevelIndex();
+    private String currentLevel = null;
+    private boolean active = false;
+
+    /**
+     * Switches to the level above (+1) or below (-1) the current one.
+     * @param direction +1 for the next higher level, -1 for the next lower level
+     */
+    public void switchLevel(int direction) {
+        DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+        if (ds == null) {
+            return;
+        }
+        if (!active || index.getDataSet() != ds) {
+            activate(ds);
+        }
+        List<String> levels = index.getLevels();
+        if (levels.isEmpty()) {
+            new Notification(tr("No level tags found in the current layer")).show();
+            return;
+        }
+        int position = currentLevel == null ? -1 : levels.indexOf(currentLevel);
+        int target;
+        if (position < 0) {
+            target = direction > 0 ? 0 : levels.size() - 1;
+        } else {
+            target = Math.max(0, Math.min(levels.size() - 1, position + direction));
+        }
+        setLevel(ds, levels.get(target));
+    }
+
+    /**
+     * Shows all levels again and stops plugin-owned level switching.
+     */
+    public void showAllLevels() {
+        if (!active) {
+            return;
+        }
+        DataSet ds = index.getDataSet();
+        if (ds != null && currentLevel != null) {
+            List<OsmPrimitive> toEnable = new ArrayList<>();
+            for (String level : index.getLevels()) {
+                toEnable.addAll(index.getPrimitives(level));
+            }
+            applyDisabledState(ds, toEnable, new ArrayList<>());
+        }
+        deactivate();
+    }
+
+    private void activate(DataSet ds) {
+        if (!active) {
+            MainApplication.getLayerManager().addActiveLayerChangeListener(this);
+            index.addLevelIndexListener(this);
+            DatasetChangeHub.getInstance().addConsumer(DatasetChangeHub.Stage.INDEX, index);
+            active = true;
+        }
+        // The AutoFilter would fight with our disabled flags, so it is switched off once here
+        if (AutoFilterManager.getInstance().getCurrentAutoFilter() != null) {
+            AutoFilterManager.getInstance().setCurrentAutoFilter(null);
+        }
+        index.rebuild(ds);
+        currentLevel = null;
+    }
+
+    private void deactivate() {
+        if (!active) {
+            return;
+        }
+        MainApplication.getLayerManager().removeActiveLayerChangeListener(this);
+        index.removeLevelIndexListener(this);
+        DatasetChangeHub.getInstance().removeConsumer(index);
+        index.rebuild(null);
+        currentLevel = null;
+        active = false;
+        setHandlerLevel(null);
+    }
+
+    /**
+     * Makes {@code level} the only enabled level.
+     * The first switch touches all levelled primitives, later switches only the delta.
+     */
+    private void setLevel(DataSet ds, String level) {
+        if (level.equals(currentLevel)) {
+            return;
+        }
+        long start = System.nanoTime();
+        Collection<OsmPrimitive> target = index.getPrimitives(level);
+        List<OsmPrimitive> toDisable = new ArrayList<>();
+        List<String> sourceLevels = new ArrayList<>();
+        if (currentLevel == null) {
+            sourceLevels.addAll(index.getLevels());
+        } else {
+            sourceLevels.add(currentLevel);
+        }
+        for (String source : sourceLevels) {
+            if (source.equals(level)) continue;
+            for (OsmPrimitive prim : index.getPrimitives(source)) {
+                // Primitives shared with the target level (e.g. nodes of ramps) stay enabled
+                if (!index.isOnLevel(prim, level)) {
+                    toDisable.add(prim);
+                }
+            }
+        }
+        applyDisabledState(ds, target, toDisable);
+        currentLevel = level;
+        setHandlerLevel(level);
+        System.out.println("[JOSM Assist] LevelSwitcher: Switched to level '" + level + "' (" + toDisable.size()
+                + " disabled, " + target.size() + " enabled) in " + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    private static void applyDisabledState(DataSet ds, Collection<OsmPrimitive> toEnable, Collection<OsmPrimitive> toDisable) {
+        ds.beginUpdate();
+        try {
+            for (OsmPrimitive prim : toDisable) {
+                prim.setDisabledState(false); // disabled but still drawn greyed out, like the AutoFilter
+            }
+            for (OsmPrimitive prim : toEnable) {
+                prim.unsetDisabledState();
+            }
+        } finally {
+            ds.endUpdate();
+        }
+        if (!toDisable.isEmpty()) {
+            ds.clearSelection(toDisable);
+        }
+        MapFrame map = MainApplication.getMap();
+        if (map != null && map.mapView != null) {
+            map.mapView.repaint();
+        }
+    }
+
+    private static void setHandlerLevel(String level) {
+        JosmAssistPlugin plugin = JosmAssistPlugin.getInstance();
+        if (plugin != null && plugin.getLevelHandler() != null) {
+            plugin.getLevelHandler().setExplicitLevelTag(level);
+        }
+    }
+
+    @Override
+    public void membershipChanged(Collection<OsmPrimitive> changed) {
+        if (currentLevel == null) {
+            return;
+        }
+        // Re-apply our state to changed primitives; JOSM's filter model may have reset them
+        List<OsmPrimitive> toEnable = new ArrayList<>();
+        List<OsmPrimitive> toDisable = new ArrayList<>();
+        for (OsmPrimitive prim : changed) {
+            if (prim.isDeleted() || !index.hasLevel(prim) || index.isOnLevel(prim, currentLevel)) {
+                if (prim.isDisabled()) {
+                    toEnable.add(prim);
+                }
+            } else if (!prim.isDisabled()) {
+                toDisable.add(prim);
+            }
+        }
+        if (!toEnable.isEmpty() || !toDisable.isEmpty()) {
+            applyDisabledState(index.getDataSet(), toEnable, toDisable);
+        }
+    }
+
+    @Override
+    public void sessionStarted() {
+        // Nothing to do, the index is built on the first level switch
+    }
+
+    @Override
+    public void sessionStopped() {
+        deactivate();
+    }
+
+    @Override
+    public void activeOrEditLayerChanged(ActiveLayerChangeEvent e) {
+        if (MainApplication.getLayerManager().getEditDataSet() != index.getDataSet()) {
+            // Flags of the previous layer stay as they are; the next switch starts over
+            deactivate();
+        }
+    }
+
+    /**
+     * Creates the action switching to the next higher level (PageUp).
+     * @return the action
+     */
+    public JosmAction createLevelUpAction() {
+        return new SwitchAction(tr("Level Up"), "dialogs/up", tr("Show the next higher level"),
+                "plugin:josmassist:levelup", KeyEvent.VK_PAGE_UP, "josmassist-levelup", 1);
+    }
+
+    /**
+     * Creates the action switching to the next lower level (PageDown).
+     * @return the action
+     */
+    public JosmAction createLevelDownAction() {
+        return new SwitchAction(tr("Level Down"), "dialogs/down", tr("Show the next lower level"),
+                "plugin:josmassist:leveldown", KeyEvent.VK_PAGE_DOWN, "josmassist-leveldown", -1);
+    }
+
+    /**
+     * Creates the action showing all levels again.
+     * @return the action
+     */
+    public JosmAction createShowAllLevelsAction() {
+        return new SwitchAction(tr("Show All Levels"), "dialogs/layerlist", tr("Show all levels again"),
+                "plugin:josmassist:levelall", KeyEvent.VK_HOME, "josmassist-levelall", 0);
+    }
+
+    /**
+     * Level navigation action; direction 0 shows all levels.
+     */
+    private class SwitchAction extends JosmAction {
+        private final int direction;
+
+        SwitchAction(String name, String icon, String tooltip, String shortcutId, int key, String toolbarId, int direction) {
+            super(name,
+                    new ImageProvider(icon).setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                    tooltip,
+                    Shortcut.registerShortcut(shortcutId, name, key, Shortcut.DIRECT),
+                    false, // don't register in toolbar by default
+                    toolbarId,
+                    false); // don't install adapters
+            this.direction = direction;
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (direction == 0) {
+                showAllLevels();
+            } else {
+                switchLevel(direction);
+            }
+        }
+    }
+}
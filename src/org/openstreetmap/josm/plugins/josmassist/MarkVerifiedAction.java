@@ -7,9 +7,11 @@ import java.awt.event.KeyEvent;
 import java.util.Collection;
 
 import org.openstreetmap.josm.actions.JosmAction;
-import org.openstreetmap.josm.command.ChangePropertyCommand;
+import org.openstreetmap.josm.command.Command;
 import org.openstreetmap.josm.data.UndoRedoHandler;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.plugins.josmassist.perf.TraceRecorder;
 import org.openstreetmap.josm.tools.ImageProvider;
 import org.openstreetmap.josm.tools.Shortcut;
 
@@ -48,13 +50,30 @@ public class MarkVerifiedAction extends JosmAction {
             return;
         }
 
-        // Create command to add verified=true tag
-        ChangePropertyCommand cmd = new ChangePropertyCommand(selection, VERIFIED_KEY, VERIFIED_VALUE);
-        
-        // Only execute if command would modify something
-        if (cmd.getObjectsNumber() > 0) {
+        long start = System.nanoTime();
+        Command cmd = createVerifyCommand(selection);
+        if (cmd != null) {
             UndoRedoHandler.getInstance().add(cmd);
+            SessionJournal.record("verified", cmd.getParticipatingPrimitives().size());
+            if (TraceRecorder.isRecording()) {
+                TraceRecorder.record("verify", start, "ids", TraceRecorder.refs(selection));
+            }
+        }
+    }
+
+    /**
+     * Creates the command adding verified=true to the given primitives.
+     * @param primitives the primitives to mark as verified
+     * @return the command, or null if it would not modify anything
+     */
+    public static Command createVerifyCommand(Collection<? extends OsmPrimitive> primitives) {
+        if (primitives.isEmpty()) {
+            return null;
         }
+        // Compact batch command, only primitives which are not verified yet are recorded
+        BatchTagCommand.Builder builder = new BatchTagCommand.Builder(primitives.iterator().next().getDataSet());
+        builder.setAll(primitives, VERIFIED_KEY, VERIFIED_VALUE);
+        return builder.build(tr("Mark {0} elements as verified", builder.size()));
     }
 
     @Override
@@ -34,6 +34,11 @@ import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.data.osm.WayData;
 import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.josmassist.core.MetricMove;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfOp;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfStats;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.plugins.josmassist.perf.TraceRecorder;
 import org.openstreetmap.josm.tools.Geometry;
 import org.openstreetmap.josm.gui.datatransfer.ClipboardUtils;
 import org.openstreetmap.josm.gui.datatransfer.data.PrimitiveTransferData;
@@ -134,22 +139,42 @@ public class MovePreservingMetricAction extends JosmAction {
         }
 
         // Create command to move elements
-        Command cmd = createMoveCommand(ds, transferData, targetCenter);
-        if (cmd != null) {
-            UndoRedoHandler.getInstance().add(cmd);
-            MainApplication.getMap().repaint();
+        long start = System.nanoTime();
+        Collection<Node> nodesToMove = findNodesToMove(ds, transferData);
+        if (nodesToMove == null) {
+            return;
+        }
+        // Referenced before the move, while the positions still match the dataset of a replay
+        String refs = TraceRecorder.isRecording() ? TraceRecorder.refs(nodesToMove) : null;
+        Command cmd;
+        try (PerfStats.Span span = PerfStats.start(PerfOp.MOVE)) {
+            cmd = createMoveCommand(ds, nodesToMove, targetCenter);
+        }
+        if (cmd == null) {
+            JOptionPane.showMessageDialog(
+                    MainApplication.getMainFrame(),
+                    tr("Could not calculate center of elements"),
+                    tr("Error"),
+                    JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        UndoRedoHandler.getInstance().add(cmd);
+        SessionJournal.record("move", cmd.getParticipatingPrimitives().size());
+        if (refs != null) {
+            TraceRecorder.record("move", start, "nodes", refs,
+                    "lat", Double.toString(targetCenter.lat()), "lon", Double.toString(targetCenter.lon()));
+        }
+        MainApplication.getMap().repaint();
     }
 
     /**
-     * Creates a command to move elements from clipboard to target position.
-     * Uses great circle distance and bearing to preserve metric distances.
+     * Finds the nodes in the dataset that belong to the elements in the clipboard.
+     * Shows an error dialog if there are none.
      * @param ds the dataset
      * @param transferData the clipboard data
-     * @param targetCenter the target center position in LatLon coordinates
-     * @return the command, or null if operation cannot be performed
+     * @return the nodes, or null if none were found
      */
-    private Command createMoveCommand(DataSet ds, PrimitiveTransferData transferData, LatLon targetCenter) {
+    private Collection<Node> findNodesToMove(DataSet ds, PrimitiveTransferData transferData) {
         // Step 1: Find all nodes referenced in the clipboard data
         Map<Long, Node> nodesToMove = new HashMap<>();
         
@@ -192,106 +217,39 @@ public class MovePreservingMetricAction extends JosmAction {
             return null;
         }
 
-        // Step 3: Calculate current center of all nodes in LatLon space (geographic center)
-        LatLon sourceCenter = calculateCenterInLatLon(nodesToMove.values());
-        if (sourceCenter == null) {
-            JOptionPane.showMessageDialog(
-                    MainApplication.getMainFrame(),
-                    tr("Could not calculate center of elements"),
-                    tr("Error"),
-                    JOptionPane.ERROR_MESSAGE);
-            return null;
-        }
-
-        // Step 4: Create commands to move all nodes using distance and bearing
-        // This preserves metric distances by using great circle calculations directly
-        List<Command> commands = new ArrayList<>();
-        for (Node node : nodesToMove.values()) {
-            LatLon oldCoor = node.getCoor();
-            if (oldCoor == null) continue;
-
-            // Calculate distance and bearing from source center to this node
-            double distanceMeters = sourceCenter.greatCircleDistance(oldCoor); // distance in meters
-            double bearing = sourceCenter.bearing(oldCoor); // bearing in radians
-            
-            // Calculate new position at target center with same distance and bearing
-            // Use direct great circle calculation to preserve metric distances
-            LatLon newCoor = calculateDestinationPoint(targetCenter, bearing, distanceMeters);
-
-            // Create command to change node coordinates
-            Node newNode = new Node(node);
-            newNode.setCoor(newCoor);
-            commands.add(new ChangeCommand(ds, node, newNode));
-        }
-
-        if (commands.isEmpty()) {
-            return null;
-        }
-
-        return new SequenceCommand(tr("Move {0} elements (preserving metric)", nodesToMove.size()), commands);
-    }
-
-    /**
-     * Calculates a destination point using great circle navigation.
-     * This preserves metric distances correctly regardless of latitude.
-     * @param startPoint the starting point
-     * @param bearing the bearing in radians (0 = north, PI/2 = east)
-     * @param distanceMeters the distance in meters
-     * @return the destination point
-     */
-    private LatLon calculateDestinationPoint(LatLon startPoint, double bearing, double distanceMeters) {
-        // WGS84 semi-major axis in meters
-        final double EARTH_RADIUS_METERS = 6378137.0;
-        
-        double lat1 = Math.toRadians(startPoint.lat());
-        double lon1 = Math.toRadians(startPoint.lon());
-        
-        // Angular distance in radians
-        double angularDistance = distanceMeters / EARTH_RADIUS_METERS;
-        
-        // Calculate destination using spherical trigonometry (great circle)
-        double lat2 = Math.asin(
-            Math.sin(lat1) * Math.cos(angularDistance) +
-            Math.cos(lat1) * Math.sin(angularDistance) * Math.cos(bearing)
-        );
-        
-        double lon2 = lon1 + Math.atan2(
-            Math.sin(bearing) * Math.sin(angularDistance) * Math.cos(lat1),
-            Math.cos(angularDistance) - Math.sin(lat1) * Math.sin(lat2)
-        );
-        
-        return new LatLon(Math.toDegrees(lat2), Math.toDegrees(lon2));
+        return nodesToMove.values();
     }
 
     /**
-     * Calculates the geographic center of a collection of nodes in LatLon coordinates.
-     * Uses simple average of lat/lon (for small areas this is sufficient).
-     * @param nodes the nodes
-     * @return the center in LatLon coordinates, or null if calculation fails
+     * Creates a command to move nodes to a target position.
+     * Uses great circle distance and bearing to preserve metric distances.
+     * @param ds the dataset
+     * @param nodesToMove the nodes to move
+     * @param targetCenter the target center position in LatLon coordinates
+     * @return the command, or null if the center of the nodes cannot be calculated
      */
-    private LatLon calculateCenterInLatLon(Collection<Node> nodes) {
-        if (nodes.isEmpty()) {
+    public static Command createMoveCommand(DataSet ds, Collection<Node> nodesToMove, LatLon targetCenter) {
+        // Step 3: Calculate new positions around the target center (same distance and bearing
+        // from the center as before), which preserves metric distances
+        Map<Node, LatLon> newCoors = MetricMove.moveTo(nodesToMove, targetCenter);
+        if (newCoors.isEmpty()) {
             return null;
         }
 
-        double sumLat = 0.0;
-        double sumLon = 0.0;
-        int count = 0;
-
-        for (Node node : nodes) {
-            if (node.getCoor() == null) continue;
-            
-            LatLon coor = node.getCoor();
-            sumLat += coor.lat();
-            sumLon += coor.lon();
-            count++;
+        // Step 4: Create commands to move all nodes
+        List<Command> commands = new ArrayList<>();
+        for (Map.Entry<Node, LatLon> entry : newCoors.entrySet()) {
+            // Create command to change node coordinates
+            Node newNode = new Node(entry.getKey());
+            newNode.setCoor(entry.getValue());
+            commands.add(new ChangeCommand(ds, entry.getKey(), newNode));
         }
 
-        if (count == 0) {
+        if (commands.isEmpty()) {
             return null;
         }
 
-        return new LatLon(sumLat / count, sumLon / count);
+        return new SequenceCommand(tr("Move {0} elements (preserving metric)", nodesToMove.size()), commands);
     }
 
     @Override
@@ -0,0 +1,79 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+
+/**
+ * Records name assignments on parking spaces in the {@link SessionJournal}.
+ * <p>
+ * The polygon click handler announces the name it pasted into the tag editor through
+ * {@link #proposeName(OsmPrimitive, String, String)}. When the name tag of that parking space
+ * then changes, the assignment is recorded with the source of the proposal
+ * ({@code interpolated}, {@code copied} or {@code allocated}) if the operator kept it, or as {@code typed} otherwise.
+ */
+public class NameAssignmentJournal implements DatasetChangeHub.ChangeConsumer, PluginLifecycle.SessionListener {
+
+    /** Source of a name the operator entered without a proposal, or changed after it */
+    public static final String SOURCE_TYPED = "typed";
+    /** Source of a name derived from two adjacent spaces */
+    public static final String SOURCE_INTERPOLATED = "interpolated";
+    /** Source of a name copied from the nearest named space */
+    public static final String SOURCE_COPIED = "copied";
+    /** Source of a name given the next free number because the inferred name was taken */
+    public static final String SOURCE_ALLOCATED = "allocated";
+
+    private static final class Proposal {
+        final String name;
+        final String source;
+
+        Proposal(String name, String source) {
+            this.name = name;
+            this.source = source;
+        }
+    }
+
+    private final Map<OsmPrimitive, Proposal> proposals = new WeakHashMap<>();
+
+    /**
+     * Remembers a name proposed to the operator for a primitive.
+     * @param prim the primitive
+     * @param name the proposed name
+     * @param source {@link #SOURCE_INTERPOLATED} or {@link #SOURCE_COPIED}
+     */
+    public void proposeName(OsmPrimitive prim, String name, String source) {
+        proposals.put(prim, new Proposal(name, source));
+    }
+
+    @Override
+    public void sessionStarted() {
+        DatasetChangeHub.getInstance().addConsumer(DatasetChangeHub.Stage.MODEL, this);
+    }
+
+    @Override
+    public void sessionStopped() {
+        DatasetChangeHub.getInstance().removeConsumer(this);
+        proposals.clear();
+    }
+
+    // ========== Change Consumer Implementation ==========
+
+    @Override
+    public void datasetChanged(DatasetChangeSet changes) {
+        for (OsmPrimitive prim : changes.getRetagged()) {
+            if (!ParkingSpaceStatus.isParkingSpace(prim)) {
+                continue;
+            }
+            String oldName = changes.getOriginalKeys(prim).get("name");
+            String newName = prim.get("name");
+            if (newName == null || newName.isEmpty() || newName.equals(oldName)) {
+                continue;
+            }
+            Proposal proposal = proposals.remove(prim);
+            String source = proposal != null && proposal.name.equals(newName) ? proposal.source : SOURCE_TYPED;
+            SessionJournal.record("name_assigned", 1, "source", source);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import javax.swing.JOptionPane;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.plugins.josmassist.core.NameInterpolator;
+import org.openstreetmap.josm.plugins.josmassist.core.NumberSet;
+
+/**
+ * Keeps the numbers used by parking space names per {@code (level, prefix)}, e.g. {@code 12} for
+ * {@code P012} on level 1, so that a free number can be suggested instead of copying a neighbour's
+ * name, and duplicates are reported as soon as they are created.
+ * <p>
+ * The numbers of a dataset are collected with one scan on the first query and then maintained
+ * from the change sets of the {@link DatasetChangeHub}. Names without a trailing number are not
+ * tracked. Must be used in the EDT.
+ */
+public class NameNumberRegistry implements DatasetChangeHub.ChangeConsumer, PluginLifecycle.SessionListener {
+
+    /** Most names listed in one duplicate warning */
+    private static final int MAX_REPORTED = 5;
+
+    private static final class Slot {
+        final String level;
+        final String prefix;
+        final int number;
+
+        Slot(String level, String prefix, int number) {
+            this.level = level;
+            this.prefix = prefix;
+            this.number = number;
+        }
+
+        boolean sameNumber(Slot other) {
+            return other != null && number == other.number && level.equals(other.level) && prefix.equals(other.prefix);
+        }
+    }
+
+    private static final class Group {
+        final NumberSet numbers = new NumberSet();
+        /** Widest zero padding seen, used when a name is built from the prefix alone */
+        int paddingWidth = 1;
+    }
+
+    private static final class Table {
+        final Map<String, Map<String, Group>> groups = new HashMap<>();
+        final Map<OsmPrimitive, Slot> slots = new HashMap<>();
+    }
+
+    private final Map<DataSet, Table> tables = new WeakHashMap<>();
+
+    @Override
+    public void sessionStarted() {
+        DatasetChangeHub.getInstance().addConsumer(DatasetChangeHub.Stage.INDEX, this);
+    }
+
+    @Override
+    public void sessionStopped() {
+        DatasetChangeHub.getInstance().removeConsumer(this);
+        tables.clear();
+    }
+
+    // ========== Queries ==========
+
+    /**
+     * Gets the numbers used with a prefix on a level.
+     * @param ds the dataset
+     * @param level the level
+     * @param prefix the name prefix, e.g. {@code P} for {@code P012}
+     * @return the numbers, or null if no name on the level uses the prefix; must not be modified
+     */
+    public NumberSet getNumbers(DataSet ds, String level, String prefix) {
+        Group group = getGroup(ds, level, prefix);
+        return group == null ? null : group.numbers;
+    }
+
+    /**
+     * Checks if another parking space on the level already has the number of a name.
+     * {@code P12} and {@code P012} count as the same name.
+     * @param ds the dataset
+     * @param level the level
+     * @param name the name
+     * @param self the space the name is meant for, not counted; may be null
+     * @return true if the number is taken; false for names without a trailing number
+     */
+    public boolean isTaken(DataSet ds, String level, String name, OsmPrimitive self) {
+        NameInterpolator.NameParts parts = NameInterpolator.extractNameParts(name);
+        if (parts == null || level == null) {
+            return false;
+        }
+        Group group = getGroup(ds, level, parts.prefix);
+        if (group == null) {
+            return false;
+        }
+        int others = group.numbers.count(parts.number);
+        if (self != null && new Slot(level, parts.prefix, parts.number).sameNumber(tables.get(ds).slots.get(self))) {
+            others--;
+        }
+        return others > 0;
+    }
+
+    /**
+     * Builds the name with the smallest free number not below the number of a name, keeping its
+     * prefix and zero padding: {@code P012} gives {@code P015} if 12 to 14 are taken.
+     * @param ds the dataset
+     * @param level the level
+     * @param name the name to start from
+     * @return the free name, or null if the name has no trailing number
+     */
+    public String nextFreeName(DataSet ds, String level, String name) {
+        NameInterpolator.NameParts parts = NameInterpolator.extractNameParts(name);
+        if (parts == null || level == null) {
+            return null;
+        }
+        Group group = getGroup(ds, level, parts.prefix);
+        return parts.format(group == null ? parts.number : group.numbers.nextFree(parts.number));
+    }
+
+    /**
+     * Builds the name that fills the first hole in the numbering of a prefix.
+     * @param ds the dataset
+     * @param level the level
+     * @param prefix the name prefix
+     * @return the name, or null if no name on the level uses the prefix
+     */
+    public String lowestGapName(DataSet ds, String level, String prefix) {
+        Group group = getGroup(ds, level, prefix);
+        if (group == null || group.numbers.isEmpty()) {
+            return null;
+        }
+        return new NameInterpolator.NameParts(prefix, 0, group.paddingWidth).format(group.numbers.lowestGap());
+    }
+
+    private Group getGroup(DataSet ds, String level, String prefix) {
+        if (ds == null || level == null) {
+            return null;
+        }
+        Map<String, Group> prefixes = getTable(ds).groups.get(level);
+        return prefixes == null ? null : prefixes.get(prefix);
+    }
+
+    private Table getTable(DataSet ds) {
+        Table table = tables.get(ds);
+        if (table == null) {
+            table = new Table();
+            for (OsmPrimitive prim : ds.allPrimitives()) {
+                update(table, prim);
+            }
+            tables.put(ds, table);
+        }
+        return table;
+    }
+
+    // ========== Maintenance ==========
+
+    private static Slot slotOf(OsmPrimitive prim) {
+        if (!ParkingSpaceStatus.isParkingSpace(prim)) {
+            return null;
+        }
+        String level = prim.get("level");
+        NameInterpolator.NameParts parts = NameInterpolator.extractNameParts(prim.get("name"));
+        if (level == null || level.isEmpty() || parts == null) {
+            return null;
+        }
+        return new Slot(level, parts.prefix, parts.number);
+    }
+
+    /**
+     * Moves a primitive to the slot of its current tags.
+     * @return the new slot if the primitive took a number it did not have before, otherwise null
+     */
+    private static Slot update(Table table, OsmPrimitive prim) {
+        Slot slot = slotOf(prim);
+        Slot old = table.slots.get(prim);
+        if (slot == null ? old == null : slot.sameNumber(old)) {
+            return null;
+        }
+        if (old != null) {
+            remove(table, prim);
+        }
+        if (slot == null) {
+            return null;
+        }
+        table.slots.put(prim, slot);
+        Group group = table.groups.computeIfAbsent(slot.level, k -> new HashMap<>())
+                                  .computeIfAbsent(slot.prefix, k -> new Group());
+        group.numbers.add(slot.number);
+        NameInterpolator.NameParts parts = NameInterpolator.extractNameParts(prim.get("name"));
+        group.paddingWidth = Math.max(group.paddingWidth, parts.paddingWidth);
+        return slot;
+    }
+
+    private static void remove(Table table, OsmPrimitive prim) {
+        Slot old = table.slots.remove(prim);
+        if (old == null) {
+            return;
+        }
+        Map<String, Group> prefixes = table.groups.get(old.level);
+        Group group = prefixes.get(old.prefix);
+        group.numbers.remove(old.number);
+        if (group.numbers.isEmpty()) {
+            prefixes.remove(old.prefix);
+            if (prefixes.isEmpty()) {
+                table.groups.remove(old.level);
+            }
+        }
+    }
+
+    // ========== Change Consumer Implementation ==========
+
+    @Override
+    public void datasetChanged(DatasetChangeSet changes) {
+        Table table = tables.get(changes.getDataSet());
+        if (table == null) {
+            // Not queried yet, built on demand
+            return;
+        }
+        if (changes.isFull()) {
+            tables.remove(changes.getDataSet());
+            return;
+        }
+        for (OsmPrimitive prim : changes.getRemoved()) {
+            remove(table, prim);
+        }
+        for (OsmPrimitive prim : changes.getAdded()) {
+            update(table, prim);
+        }
+        // Only report duplicates the operator just typed, not the ones added by loading or pasting data
+        List<String> duplicates = new ArrayList<>();
+        for (OsmPrimitive prim : changes.getRetagged()) {
+            Slot slot = update(table, prim);
+            if (slot != null && isNameEdit(changes, prim)
+                    && table.groups.get(slot.level).get(slot.prefix).numbers.count(slot.number) > 1) {
+                duplicates.add(prim.get("name"));
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            reportDuplicates(duplicates);
+        }
+    }
+
+    private static boolean isNameEdit(DatasetChangeSet changes, OsmPrimitive prim) {
+        Map<String, String> before = changes.getOriginalKeys(prim);
+        return before != null && !Objects.equals(before.get("name"), prim.get("name"));
+    }
+
+    private static void reportDuplicates(List<String> duplicates) {
+        String names = String.join(", ", duplicates.subList(0, Math.min(duplicates.size(), MAX_REPORTED)));
+        if (duplicates.size() > MAX_REPORTED) {
+            names += ", ...";
+        }
+        System.out.println("[JOSM Assist] NameNumberRegistry: duplicate name(s) on level: " + names);
+        new Notification(tr("Name already used on this level: {0}", names))
+                .setIcon(JOptionPane.WARNING_MESSAGE)
+                .setDuration(Notification.TIME_LONG)
+                .show();
+    }
+}
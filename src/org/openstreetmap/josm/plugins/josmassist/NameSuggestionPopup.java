@@ -0,0 +1,79 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.Component;
+import java.awt.Point;
+import java.awt.event.KeyEvent;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.swing.JMenuItem;
+import javax.swing.JPopupMenu;
+import javax.swing.MenuElement;
+import javax.swing.MenuSelectionManager;
+import javax.swing.SwingUtilities;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+
+import org.openstreetmap.josm.plugins.josmassist.core.NameSuggester;
+
+/**
+ * Small popup listing the ranked name candidates at the clicked parking space.
+ * <p>
+ * The best candidate is preselected, so Enter takes it; the arrow keys move through the list
+ * and the digits 1 to 9 pick a candidate directly. Escape or a click elsewhere opens the tag
+ * editor without a proposed name.
+ */
+public final class NameSuggestionPopup {
+
+    private NameSuggestionPopup() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Shows the candidates and reports the choice exactly once.
+     * @param invoker the component to show the popup on
+     * @param location location in the invoker
+     * @param candidates the candidates, best first
+     * @param onChoice called in the EDT with the chosen candidate, or with null if the popup was cancelled
+     */
+    public static void show(Component invoker, Point location, List<NameSuggester.Candidate> candidates,
+            Consumer<NameSuggester.Candidate> onChoice) {
+        JPopupMenu popup = new JPopupMenu(tr("Name"));
+        NameSuggester.Candidate[] chosen = new NameSuggester.Candidate[1];
+        for (int i = 0; i < candidates.size(); i++) {
+            NameSuggester.Candidate candidate = candidates.get(i);
+            String label = candidate.name + "  " + candidate.kind.getLabel() + (candidate.taken ? ", " + tr("taken") : "");
+            JMenuItem item = new JMenuItem(i < 9 ? (i + 1) + "  " + label : label);
+            if (i < 9) {
+                item.setMnemonic(KeyEvent.VK_1 + i);
+            }
+            item.addActionListener(ev -> chosen[0] = candidate);
+            popup.add(item);
+        }
+        popup.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                // Nothing to do
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+                popup.removePopupMenuListener(this);
+                // The action of a chosen item runs after the popup was hidden
+                SwingUtilities.invokeLater(() -> onChoice.accept(chosen[0]));
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
+                // Reported by popupMenuWillBecomeInvisible
+            }
+        });
+        popup.show(invoker, location.x, location.y);
+        if (popup.getComponentCount() > 0) {
+            MenuSelectionManager.defaultManager().setSelectedPath(
+                    new MenuElement[] {popup, (MenuElement) popup.getComponent(0)});
+        }
+    }
+}
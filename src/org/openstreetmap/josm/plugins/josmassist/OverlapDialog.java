@@ -0,0 +1,291 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.AbstractAction;
+import javax.swing.Action;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.table.AbstractTableModel;
+
+import org.openstreetmap.josm.actions.AutoScaleAction;
+import org.openstreetmap.josm.command.DeleteCommand;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.gui.SideButton;
+import org.openstreetmap.josm.gui.dialogs.ToggleDialog;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.josmassist.index.AreaRecord;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.plugins.josmassist.rules.OverlapDetector;
+import org.openstreetmap.josm.plugins.josmassist.rules.OverlapDetector.Overlap;
+import org.openstreetmap.josm.tools.ImageProvider;
+import org.openstreetmap.josm.tools.Shortcut;
+
+/**
+ * Toggle dialog listing the pairs of parking spaces on the same level that overlap, e.g.
+ * duplicated or misplaced stalls from an import. Selecting a row selects both spaces, a double
+ * click zooms to them; "Keep larger" and "Keep smaller" delete the other space of each selected
+ * pair with one undoable command.
+ * <p>
+ * The spaces are captured in the EDT and compared on a background thread with
+ * {@link OverlapDetector}, which never touches the dataset.
+ */
+public class OverlapDialog extends ToggleDialog {
+
+    /** Shared area in square meters below which spaces count as touching, not overlapping */
+    private static final double TOLERANCE = 0.05;
+
+    private final OverlapTableModel model = new OverlapTableModel();
+    private final JTable table = new JTable(model);
+    private final ScanAction scanAction = new ScanAction();
+    private DataSet scannedDataSet = null;
+
+    /**
+     * Constructs a new {@code OverlapDialog}.
+     */
+    public OverlapDialog() {
+        super(tr("Overlapping Spaces"), "validator",
+                tr("Parking spaces on the same level that overlap"),
+                Shortcut.registerShortcut("subwindow:josmassist-overlaps",
+                        tr("Toggle: {0}", tr("Overlapping Spaces")), KeyEvent.CHAR_UNDEFINED, Shortcut.NONE),
+                150);
+
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        table.getTableHeader().setReorderingAllowed(false);
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                selectSpaces(false);
+            }
+        });
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    selectSpaces(true);
+                }
+            }
+        });
+
+        createLayout(table, true, Arrays.asList(
+                new SideButton(scanAction),
+                new SideButton(new KeepAction(true)),
+                new SideButton(new KeepAction(false))));
+    }
+
+    @Override
+    public void hideNotify() {
+        model.setOverlaps(new ArrayList<>());
+        scannedDataSet = null;
+    }
+
+    private List<Overlap> getSelectedOverlaps() {
+        List<Overlap> selected = new ArrayList<>();
+        for (int row : table.getSelectedRows()) {
+            selected.add(model.getOverlap(row));
+        }
+        return selected;
+    }
+
+    /**
+     * Selects the spaces of the selected pairs, optionally zooming to them.
+     */
+    private void selectSpaces(boolean zoom) {
+        DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+        if (ds == null || ds != scannedDataSet) {
+            return;
+        }
+        Set<OsmPrimitive> ways = new LinkedHashSet<>();
+        for (Overlap overlap : getSelectedOverlaps()) {
+            addWay(ds, overlap.first, ways);
+            addWay(ds, overlap.second, ways);
+        }
+        if (ways.isEmpty()) {
+            return;
+        }
+        ds.setSelected(ways);
+        if (zoom) {
+            AutoScaleAction.zoomTo(ways);
+        }
+    }
+
+    private static void addWay(DataSet ds, AreaRecord record, Set<? super Way> ways) {
+        OsmPrimitive prim = ds.getPrimitiveById(record.id, OsmPrimitiveType.WAY);
+        if (prim instanceof Way && !prim.isDeleted()) {
+            ways.add((Way) prim);
+        }
+    }
+
+    /**
+     * Finds the overlapping parking spaces of the edit dataset.
+     */
+    private class ScanAction extends AbstractAction {
+        ScanAction() {
+            putValue(Action.NAME, tr("Scan"));
+            putValue(Action.SHORT_DESCRIPTION, tr("Find overlapping parking spaces in the current layer"));
+            putValue(Action.SMALL_ICON, ImageProvider.get("dialogs", "refresh"));
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+            if (ds == null) {
+                return;
+            }
+            // Capture the spaces in the EDT; the detector must not touch the dataset
+            List<AreaRecord> spaces = new ArrayList<>();
+            for (Way way : ds.getWays()) {
+                if (ParkingSpaceStatus.isParkingSpace(way)) {
+                    AreaRecord record = AreaRecord.of(way);
+                    if (record != null) {
+                        spaces.add(record);
+                    }
+                }
+            }
+            setEnabled(false);
+            new Thread(() -> {
+                long start = System.currentTimeMillis();
+                List<Overlap> overlaps = OverlapDetector.findOverlaps(spaces, TOLERANCE);
+                System.out.println("[JOSM Assist] OverlapDialog: found " + overlaps.size() + " overlaps among "
+                        + spaces.size() + " spaces in " + (System.currentTimeMillis() - start) + " ms");
+                GuiHelper.runInEDT(() -> {
+                    setEnabled(true);
+                    scannedDataSet = ds;
+                    model.setOverlaps(overlaps);
+                    if (overlaps.isEmpty()) {
+                        new Notification(tr("No overlapping parking spaces found")).show();
+                    }
+                });
+            }, "josmassist-overlaps").start();
+        }
+    }
+
+    /**
+     * Resolves the selected pairs by deleting the smaller or the larger space of each.
+     */
+    private class KeepAction extends AbstractAction {
+        private final boolean keepLarger;
+
+        KeepAction(boolean keepLarger) {
+            this.keepLarger = keepLarger;
+            putValue(Action.NAME, keepLarger ? tr("Keep larger") : tr("Keep smaller"));
+            putValue(Action.SHORT_DESCRIPTION, keepLarger
+                    ? tr("Delete the smaller space of each selected pair")
+                    : tr("Delete the larger space of each selected pair"));
+            putValue(Action.SMALL_ICON, ImageProvider.get("dialogs", "delete"));
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+            List<Overlap> selected = getSelectedOverlaps();
+            if (ds == null || ds != scannedDataSet || selected.isEmpty()) {
+                return;
+            }
+            Set<Way> toDelete = new LinkedHashSet<>();
+            Set<Long> kept = new HashSet<>();
+            int changed = 0;
+            for (Overlap overlap : selected) {
+                AreaRecord keep = keepLarger ? overlap.getLarger() : overlap.getSmaller();
+                AreaRecord drop = keep == overlap.first ? overlap.second : overlap.first;
+                kept.add(keep.id);
+                OsmPrimitive prim = ds.getPrimitiveById(drop.id, OsmPrimitiveType.WAY);
+                // Skip spaces edited since the scan
+                if (!(prim instanceof Way) || !drop.equals(AreaRecord.of((Way) prim))) {
+                    changed++;
+                    continue;
+                }
+                toDelete.add((Way) prim);
+            }
+            // In chains of overlaps a space kept for one pair is not deleted for another
+            toDelete.removeIf(way -> kept.contains(way.getUniqueId()));
+            if (!toDelete.isEmpty()) {
+                List<Way> ways = new ArrayList<>(toDelete);
+                UndoRedoHandler.getInstance().add(new DeleteCommand(ds, WayCombineAction.collectPrimitivesToDelete(ds, ways)));
+                SessionJournal.record("overlap-fixed", ways.size(), "keep", keepLarger ? "larger" : "smaller");
+                model.removeDeleted(toDelete);
+            }
+            if (changed > 0) {
+                new Notification(tr("{0} pairs were skipped because they changed since the scan", changed)).show();
+            }
+        }
+    }
+
+    /**
+     * Table model with one row per overlapping pair.
+     */
+    private static class OverlapTableModel extends AbstractTableModel {
+        private List<Overlap> overlaps = new ArrayList<>();
+
+        void setOverlaps(List<Overlap> overlaps) {
+            this.overlaps = overlaps;
+            fireTableDataChanged();
+        }
+
+        void removeDeleted(Set<Way> deleted) {
+            Set<Long> ids = new HashSet<>();
+            for (Way way : deleted) {
+                ids.add(way.getUniqueId());
+            }
+            overlaps.removeIf(o -> ids.contains(o.first.id) || ids.contains(o.second.id));
+            fireTableDataChanged();
+        }
+
+        Overlap getOverlap(int row) {
+            return overlaps.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return overlaps.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 5;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            switch (column) {
+                case 0: return tr("Level");
+                case 1: return tr("Space");
+                case 2: return tr("Other space");
+                case 3: return tr("Overlap (m²)");
+                default: return tr("Share");
+            }
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Overlap overlap = overlaps.get(row);
+            switch (column) {
+                case 0: return overlap.first.level == null ? tr("(none)") : overlap.first.level;
+                case 1: return label(overlap.first);
+                case 2: return label(overlap.second);
+                case 3: return String.format("%.2f", overlap.overlapArea);
+                default: return String.format("%.0f%%", overlap.getShare() * 100);
+            }
+        }
+
+        private static String label(AreaRecord record) {
+            return record.name != null ? record.name : tr("(unnamed) {0}", record.id);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.util.regex.Pattern;
+
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+
+/**
+ * Verification state of a parking space, mirroring the rules of
+ * {@code css/parking_space_highlight.mapcss}.
+ */
+public enum ParkingSpaceStatus {
+    /** Tagged {@code verified=true}. */
+    VERIFIED,
+    /** Not verified, but the name matches the expected pattern. */
+    VALID_NAME,
+    /** Not verified and without a (non-empty) name. */
+    UNNAMED,
+    /** Not verified and the name contains unexpected characters. */
+    MALFORMED;
+
+    /** Same pattern as the MapCSS selector {@code name!~/^[A-NP-Za-np-z0-9-]+$/}. */
+    private static final Pattern VALID_NAME_PATTERN = Pattern.compile("^[A-NP-Za-np-z0-9-]+$");
+
+    /**
+     * Checks if the primitive is a parking space ({@code amenity=parking_space}).
+     * @param prim the primitive to check
+     * @return true if it is a usable parking space
+     */
+    public static boolean isParkingSpace(OsmPrimitive prim) {
+        return prim != null && !prim.isDeleted() && "parking_space".equals(prim.get("amenity"));
+    }
+
+    /**
+     * Classifies a parking space.
+     * @param prim the parking space
+     * @return its status, or null if the primitive is not a parking space
+     */
+    public static ParkingSpaceStatus of(OsmPrimitive prim) {
+        if (!isParkingSpace(prim)) {
+            return null;
+        }
+        if ("true".equals(prim.get("verified"))) {
+            return VERIFIED;
+        }
+        String name = prim.get("name");
+        if (name == null || name.isEmpty()) {
+            return UNNAMED;
+        }
+        return isValidName(name) ? VALID_NAME : MALFORMED;
+    }
+
+    /**
+     * Checks if a name only uses the characters allowed for parking space names.
+     * @param name the name to check
+     * @return true if the name is valid
+     */
+    public static boolean isValidName(String name) {
+        return name != null && VALID_NAME_PATTERN.matcher(name).matches();
+    }
+}
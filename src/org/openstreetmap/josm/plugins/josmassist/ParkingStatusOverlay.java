@@ -0,0 +1,284 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.MapFrame;
+import org.openstreetmap.josm.gui.MapView;
+import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeEvent;
+import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeListener;
+import org.openstreetmap.josm.gui.layer.MapViewPaintable;
+
+/**
+ * Paints parking space validation highlights (unnamed, malformed, duplicate, verified)
+ * without going through the MapCSS style engine.
+ * <p>
+ * The status of each parking space way is cached and only recomputed when its tags change.
+ * Painting asks the dataset's spatial index for the ways inside the visible bounds,
+ * so the cost of a repaint depends on what is on screen, not on the size of the dataset.
+ */
+public class ParkingStatusOverlay implements MapViewPaintable, DatasetChangeHub.ChangeConsumer, ActiveLayerChangeListener {
+
+    // Same colors as css/parking_space_highlight.mapcss
+    private static final Color PROBLEM_COLOR = new Color(0x00, 0xE5, 0xFF);
+    private static final Color PROBLEM_FILL = new Color(0x00, 0xE5, 0xFF, 89);
+    private static final Color DUPLICATE_COLOR = new Color(0xFF, 0x91, 0x00);
+    private static final Color DUPLICATE_FILL = new Color(0xFF, 0x91, 0x00, 89);
+    private static final Color VERIFIED_COLOR = new Color(0x00, 0xFF, 0x0D);
+    private static final Color CASING_COLOR = Color.WHITE;
+
+    private static final Stroke PROBLEM_STROKE = new BasicStroke(4f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final Stroke PROBLEM_CASING = new BasicStroke(6f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final Stroke VERIFIED_STROKE = new BasicStroke(2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final Stroke VERIFIED_CASING = new BasicStroke(3f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+
+    /** Cached status per parking space way, updated on tag change. */
+    private final Map<Way, ParkingSpaceStatus> statusCache = new HashMap<>();
+    /** Number of ways using a name, per level, for duplicate detection. */
+    private final Map<String, Map<String, Integer>> nameCounts = new HashMap<>();
+    /** The level/name key each way was counted under, so it can be uncounted on change. */
+    private final Map<Way, String[]> countedNames = new HashMap<>();
+
+    private DataSet currentDataSet = null;
+    private MapView mapView = null;
+
+    /**
+     * Adds the overlay to the current map view and builds the status cache.
+     */
+    public void enable() {
+        if (mapView != null) {
+            return;
+        }
+        MapFrame mapFrame = MainApplication.getMap();
+        if (mapFrame == null || mapFrame.mapView == null) {
+            return;
+        }
+        mapView = mapFrame.mapView;
+        MainApplication.getLayerManager().addActiveLayerChangeListener(this);
+        DatasetChangeHub.getInstance().addConsumer(DatasetChangeHub.Stage.VIEW, this);
+        rebuild();
+        mapView.addTemporaryLayer(this);
+        mapView.repaint();
+    }
+
+    /**
+     * Removes the overlay from the map view and drops the cache.
+     */
+    public void disable() {
+        if (mapView == null) {
+            return;
+        }
+        mapView.removeTemporaryLayer(this);
+        mapView.repaint();
+        mapView = null;
+        MainApplication.getLayerManager().removeActiveLayerChangeListener(this);
+        DatasetChangeHub.getInstance().removeConsumer(this);
+        clear();
+        currentDataSet = null;
+    }
+
+    /**
+     * Checks if the overlay is currently painted.
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return mapView != null;
+    }
+
+    // ========== Painting ==========
+
+    @Override
+    public void paint(Graphics2D g, MapView mv, Bounds bbox) {
+        if (currentDataSet == null || statusCache.isEmpty()) {
+            return;
+        }
+        Bounds visible = mv.getRealBounds();
+        if (visible == null) {
+            return;
+        }
+        List<Way> ways = currentDataSet.searchWays(visible.toBBox());
+
+        Object oldAntialias = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        Stroke oldStroke = g.getStroke();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        for (Way way : ways) {
+            ParkingSpaceStatus status = statusCache.get(way);
+            if (status == null || way.isDisabled()) {
+                continue;
+            }
+            Path2D path = toPath(mv, way);
+            if (path == null) {
+                continue;
+            }
+            if (isDuplicate(way)) {
+                paintProblem(g, path, DUPLICATE_COLOR, DUPLICATE_FILL);
+            } else if (status == ParkingSpaceStatus.UNNAMED || status == ParkingSpaceStatus.MALFORMED) {
+                paintProblem(g, path, PROBLEM_COLOR, PROBLEM_FILL);
+            } else if (status == ParkingSpaceStatus.VERIFIED) {
+                g.setColor(CASING_COLOR);
+                g.setStroke(VERIFIED_CASING);
+                g.draw(path);
+                g.setColor(VERIFIED_COLOR);
+                g.setStroke(VERIFIED_STROKE);
+                g.draw(path);
+            }
+        }
+
+        g.setStroke(oldStroke);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAntialias);
+    }
+
+    private static void paintProblem(Graphics2D g, Path2D path, Color color, Color fill) {
+        g.setColor(fill);
+        g.fill(path);
+        g.setColor(CASING_COLOR);
+        g.setStroke(PROBLEM_CASING);
+        g.draw(path);
+        g.setColor(color);
+        g.setStroke(PROBLEM_STROKE);
+        g.draw(path);
+    }
+
+    private static Path2D toPath(MapView mv, Way way) {
+        Path2D path = new Path2D.Double();
+        boolean first = true;
+        for (Node node : way.getNodes()) {
+            EastNorth en = node.getEastNorth();
+            if (en == null) {
+                return null;
+            }
+            Point2D p = mv.getPoint2D(en);
+            if (first) {
+                path.moveTo(p.getX(), p.getY());
+                first = false;
+            } else {
+                path.lineTo(p.getX(), p.getY());
+            }
+        }
+        return first ? null : path;
+    }
+
+    // ========== Status cache ==========
+
+    private boolean isDuplicate(Way way) {
+        String[] key = countedNames.get(way);
+        if (key == null) {
+            return false;
+        }
+        Map<String, Integer> counts = nameCounts.get(key[0]);
+        return counts != null && counts.getOrDefault(key[1], 0) > 1;
+    }
+
+    private void clear() {
+        statusCache.clear();
+        nameCounts.clear();
+        countedNames.clear();
+    }
+
+    private void rebuild() {
+        clear();
+        currentDataSet = MainApplication.getLayerManager().getEditDataSet();
+        if (currentDataSet != null) {
+            for (Way way : currentDataSet.getWays()) {
+                update(way);
+            }
+        }
+    }
+
+    private void update(OsmPrimitive prim) {
+        if (!(prim instanceof Way)) {
+            return;
+        }
+        Way way = (Way) prim;
+        uncountName(way);
+        ParkingSpaceStatus status = way.getDataSet() == currentDataSet ? ParkingSpaceStatus.of(way) : null;
+        if (status == null) {
+            statusCache.remove(way);
+            return;
+        }
+        statusCache.put(way, status);
+        String name = way.get("name");
+        if (name != null && !name.isEmpty()) {
+            String[] key = {VerificationProgressTracker.levelOf(way), name};
+            nameCounts.computeIfAbsent(key[0], k -> new HashMap<>()).merge(key[1], 1, Integer::sum);
+            countedNames.put(way, key);
+        }
+    }
+
+    private void remove(OsmPrimitive prim) {
+        if (prim instanceof Way) {
+            statusCache.remove(prim);
+            uncountName((Way) prim);
+        }
+    }
+
+    private void uncountName(Way way) {
+        String[] key = countedNames.remove(way);
+        if (key == null) {
+            return;
+        }
+        Map<String, Integer> counts = nameCounts.get(key[0]);
+        if (counts != null) {
+            counts.computeIfPresent(key[1], (k, v) -> v > 1 ? v - 1 : null);
+            if (counts.isEmpty()) {
+                nameCounts.remove(key[0]);
+            }
+        }
+    }
+
+    private void updateAll(Collection<? extends OsmPrimitive> prims) {
+        for (OsmPrimitive prim : prims) {
+            update(prim);
+        }
+    }
+
+    private void repaint() {
+        if (mapView != null) {
+            mapView.repaint();
+        }
+    }
+
+    @Override
+    public void activeOrEditLayerChanged(ActiveLayerChangeEvent e) {
+        if (MainApplication.getLayerManager().getEditDataSet() != currentDataSet) {
+            rebuild();
+            repaint();
+        }
+    }
+
+    // ========== Change Consumer Implementation ==========
+
+    @Override
+    public void datasetChanged(DatasetChangeSet changes) {
+        if (changes.getDataSet() != currentDataSet) {
+            return;
+        }
+        if (changes.isFull()) {
+            rebuild();
+        } else {
+            for (OsmPrimitive prim : changes.getRemoved()) {
+                remove(prim);
+            }
+            updateAll(changes.getUpdated());
+        }
+        // Geometry is read at paint time, moved nodes only need a repaint
+        repaint();
+    }
+}
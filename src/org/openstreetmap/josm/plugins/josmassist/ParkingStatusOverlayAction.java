@@ -0,0 +1,56 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+
+import org.openstreetmap.josm.actions.ToggleAction;
+import org.openstreetmap.josm.gui.MapFrame;
+import org.openstreetmap.josm.tools.ImageProvider;
+import org.openstreetmap.josm.tools.Shortcut;
+
+/**
+ * Toggles the {@link ParkingStatusOverlay}, a faster replacement for the parking space
+ * highlight stylesheet.
+ */
+public class ParkingStatusOverlayAction extends ToggleAction {
+
+    private final ParkingStatusOverlay overlay = new ParkingStatusOverlay();
+
+    /**
+     * Constructs a new {@code ParkingStatusOverlayAction}.
+     */
+    public ParkingStatusOverlayAction() {
+        super(tr("Parking Status Overlay"),
+                new ImageProvider("dialogs/validator").setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                tr("Highlight unnamed, malformed, duplicate and verified parking spaces"),
+                Shortcut.registerShortcut("plugin:josmassist:overlay",
+                        tr("Parking Status Overlay"), KeyEvent.VK_H, Shortcut.ALT_SHIFT),
+                true, // register in toolbar
+                "josmassist-overlay", // toolbar ID
+                false); // don't install adapters
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        toggleSelectedState(e);
+        if (isSelected()) {
+            overlay.enable();
+        } else {
+            overlay.disable();
+        }
+    }
+
+    /**
+     * Moves the overlay to a new map frame.
+     * @param oldFrame the old map frame, may be null
+     * @param newFrame the new map frame, may be null
+     */
+    public void mapFrameChanged(MapFrame oldFrame, MapFrame newFrame) {
+        overlay.disable();
+        if (newFrame != null && isSelected()) {
+            overlay.enable();
+        }
+    }
+}
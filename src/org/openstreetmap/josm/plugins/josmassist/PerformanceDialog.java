@@ -0,0 +1,213 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.swing.AbstractAction;
+import javax.swing.Action;
+import javax.swing.JOptionPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.gui.SideButton;
+import org.openstreetmap.josm.gui.dialogs.ToggleDialog;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.plugins.josmassist.perf.LatencyHistogram;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfOp;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfStats;
+import org.openstreetmap.josm.plugins.josmassist.perf.TraceRecorder;
+import org.openstreetmap.josm.tools.ImageProvider;
+import org.openstreetmap.josm.tools.Shortcut;
+
+/**
+ * Toggle dialog showing latency percentiles of the plugin operations.
+ * Recording is off until switched on here; the table refreshes once per second while shown.
+ * An editing trace for headless replay ({@link TraceRecorder}) is started and stopped here too.
+ */
+public class PerformanceDialog extends ToggleDialog {
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private final PerfTableModel model = new PerfTableModel();
+    private final Timer refreshTimer = new Timer(1000, e -> model.fireTableDataChanged());
+    private final RecordAction recordAction = new RecordAction();
+    private final TraceAction traceAction = new TraceAction();
+
+    /**
+     * Constructs a new {@code PerformanceDialog}.
+     */
+    public PerformanceDialog() {
+        super(tr("Assist Performance"), "history",
+                tr("Latency of JOSM Assist operations"),
+                Shortcut.registerShortcut("subwindow:josmassist-performance",
+                        tr("Toggle: {0}", tr("Assist Performance")), KeyEvent.CHAR_UNDEFINED, Shortcut.NONE),
+                150);
+
+        JTable table = new JTable(model);
+        table.getTableHeader().setReorderingAllowed(false);
+
+        createLayout(table, true, Arrays.asList(
+                new SideButton(recordAction),
+                new SideButton(traceAction),
+                new SideButton(new ResetAction())));
+    }
+
+    @Override
+    public void showNotify() {
+        recordAction.updateName();
+        traceAction.updateName();
+        model.fireTableDataChanged();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void hideNotify() {
+        refreshTimer.stop();
+    }
+
+    /**
+     * Switches recording on and off.
+     */
+    private static class RecordAction extends AbstractAction {
+        RecordAction() {
+            updateName();
+        }
+
+        void updateName() {
+            putValue(Action.NAME, PerfStats.isEnabled() ? tr("Stop") : tr("Record"));
+            putValue(Action.SHORT_DESCRIPTION, PerfStats.isEnabled()
+                    ? tr("Stop recording latencies") : tr("Start recording latencies (also emits JFR events)"));
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            PerfStats.setEnabled(!PerfStats.isEnabled());
+            updateName();
+        }
+    }
+
+    /**
+     * Starts and stops recording an editing trace. A trace must start from a saved file, which
+     * the replay loads again.
+     */
+    private static class TraceAction extends AbstractAction {
+        TraceAction() {
+            updateName();
+        }
+
+        void updateName() {
+            putValue(Action.NAME, TraceRecorder.isRecording() ? tr("Stop Trace") : tr("Trace"));
+            putValue(Action.SHORT_DESCRIPTION, TraceRecorder.isRecording()
+                    ? tr("Stop recording the editing trace")
+                    : tr("Record clicks and edits of the current layer for a headless replay"));
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (TraceRecorder.isRecording()) {
+                File trace = TraceRecorder.stop();
+                new Notification(tr("Editing trace saved to {0}", trace)).show();
+                updateName();
+                return;
+            }
+            OsmDataLayer layer = MainApplication.getLayerManager().getEditLayer();
+            if (layer == null || layer.getAssociatedFile() == null || layer.requiresSaveToFile()) {
+                new Notification(tr("Save the layer to a file before recording a trace"))
+                        .setIcon(JOptionPane.WARNING_MESSAGE)
+                        .show();
+                return;
+            }
+            try {
+                TraceRecorder.start(layer.getAssociatedFile());
+            } catch (IOException ex) {
+                System.out.println("[JOSM Assist] PerformanceDialog: could not start trace: " + ex.getMessage());
+                new Notification(tr("Could not start the trace: {0}", ex.getMessage()))
+                        .setIcon(JOptionPane.ERROR_MESSAGE)
+                        .show();
+            }
+            updateName();
+        }
+    }
+
+    /**
+     * Clears all recorded latencies.
+     */
+    private class ResetAction extends AbstractAction {
+        ResetAction() {
+            putValue(Action.NAME, tr("Reset"));
+            putValue(Action.SHORT_DESCRIPTION, tr("Clear recorded latencies"));
+            putValue(Action.SMALL_ICON, ImageProvider.get("dialogs", "delete"));
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            PerfStats.reset();
+            model.fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Table model with one row per operation: count, percentiles and maximum in milliseconds.
+     */
+    private static class PerfTableModel extends AbstractTableModel {
+        private static final PerfOp[] OPS = PerfOp.values();
+
+        @Override
+        public int getRowCount() {
+            return OPS.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return PERCENTILES.length + 3;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            if (column == 0) {
+                return tr("Operation");
+            }
+            if (column == 1) {
+                return tr("Count");
+            }
+            if (column == PERCENTILES.length + 2) {
+                return tr("Max (ms)");
+            }
+            return tr("p{0} (ms)", (int) PERCENTILES[column - 2]);
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            if (column == 0) {
+                return String.class;
+            }
+            return column == 1 ? Long.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            PerfOp op = OPS[row];
+            LatencyHistogram histogram = PerfStats.getHistogram(op);
+            if (column == 0) {
+                return op.getLabel();
+            }
+            if (column == 1) {
+                return histogram.getCount();
+            }
+            if (histogram.getCount() == 0) {
+                return "";
+            }
+            long nanos = column == PERCENTILES.length + 2
+                    ? histogram.getMax() : histogram.getValueAtPercentile(PERCENTILES[column - 2]);
+            return String.format("%.2f", nanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.awt.event.KeyListener;
+import java.awt.event.MouseListener;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.MapFrame;
+import org.openstreetmap.josm.gui.MapView;
+import org.openstreetmap.josm.gui.layer.Layer;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerAddEvent;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerChangeListener;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerOrderChangeEvent;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerRemoveEvent;
+import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeEvent;
+import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeListener;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+
+/**
+ * Owns the data-layer dependent subsystems of the plugin and keeps their listeners registered exactly once.
+ * <p>
+ * Nothing heavy is built at JOSM startup: the {@link LevelProcessingHandler} and the map view
+ * listeners (polygon click and edit mode exit) are constructed when the first
+ * {@link OsmDataLayer} is added and torn down again when the last one is removed, so sessions
+ * that only look at imagery pay nothing for the plugin. Other subsystems can join this
+ * lifecycle through {@link SessionListener}.
+ * <p>
+ * Layer changes, map frame changes and the plugin toggle all call {@link #sync()}, which
+ * compares the desired target map view with the one the listeners are attached to and only
+ * moves them when the two differ. Repeated events are therefore no-ops, so one click or one
+ * Esc key press is handled exactly once however often the active layer changed.
+ */
+public class PluginLifecycle implements LayerChangeListener, ActiveLayerChangeListener {
+
+    /**
+     * Listener for subsystems which should only exist while data layers are open.
+     */
+    public interface SessionListener {
+        /**
+         * Called when the first data layer was added.
+         */
+        void sessionStarted();
+
+        /**
+         * Called when the last data layer is being removed.
+         */
+        void sessionStopped();
+    }
+
+    private final List<SessionListener> sessionListeners = new CopyOnWriteArrayList<>();
+    private JosmAssistMapMode mapMode;
+    private EditModeExitListener editModeExitListener;
+    private LevelProcessingHandler levelHandler;
+    private MapView attachedView;
+    private boolean enabled = true;
+
+    /**
+     * Starts watching for data layers. Sets up the session right away if a data layer already exists.
+     */
+    public void start() {
+        MainApplication.getLayerManager().addLayerChangeListener(this);
+        if (!MainApplication.getLayerManager().getLayersOfType(OsmDataLayer.class).isEmpty()) {
+            startSession();
+        }
+    }
+
+    /**
+     * Stops watching for data layers and tears down the session.
+     */
+    public void stop() {
+        MainApplication.getLayerManager().removeLayerChangeListener(this);
+        stopSession();
+    }
+
+    /**
+     * Adds a listener which is notified when the data layer session starts or stops.
+     * If the session is already running, {@link SessionListener#sessionStarted()} is called immediately.
+     * @param listener the listener
+     */
+    public void addSessionListener(SessionListener listener) {
+        sessionListeners.add(listener);
+        if (isSessionActive()) {
+            listener.sessionStarted();
+        }
+    }
+
+    /**
+     * Removes a session listener.
+     * @param listener the listener
+     */
+    public void removeSessionListener(SessionListener listener) {
+        sessionListeners.remove(listener);
+    }
+
+    /**
+     * Tells if the data layer session is running.
+     * @return true while at least one data layer exists
+     */
+    public boolean isSessionActive() {
+        return levelHandler != null;
+    }
+
+    @Override
+    public void layerAdded(LayerAddEvent e) {
+        if (e.getAddedLayer() instanceof OsmDataLayer && !isSessionActive()) {
+            startSession();
+        }
+    }
+
+    @Override
+    public void layerRemoving(LayerRemoveEvent e) {
+        Layer removed = e.getRemovedLayer();
+        if (!(removed instanceof OsmDataLayer)) {
+            return;
+        }
+        for (OsmDataLayer layer : MainApplication.getLayerManager().getLayersOfType(OsmDataLayer.class)) {
+            if (layer != removed) {
+                return; // another data layer is still open
+            }
+        }
+        stopSession();
+    }
+
+    @Override
+    public void layerOrderChanged(LayerOrderChangeEvent e) {
+        // Not interested
+    }
+
+    private void startSession() {
+        System.out.println("[JOSM Assist] PluginLifecycle: first data layer, starting session");
+        levelHandler = new LevelProcessingHandler();
+        mapMode = new JosmAssistMapMode();
+        editModeExitListener = new EditModeExitListener(levelHandler);
+        MainApplication.getLayerManager().addActiveLayerChangeListener(this);
+        sync();
+        for (SessionListener listener : sessionListeners) {
+            listener.sessionStarted();
+        }
+    }
+
+    private void stopSession() {
+        if (!isSessionActive()) {
+            return;
+        }
+        System.out.println("[JOSM Assist] PluginLifecycle: last data layer closed, stopping session");
+        for (SessionListener listener : sessionListeners) {
+            listener.sessionStopped();
+        }
+        MainApplication.getLayerManager().removeActiveLayerChangeListener(this);
+        detach();
+        levelHandler.destroy();
+        levelHandler = null;
+        mapMode = null;
+        editModeExitListener = null;
+    }
+
+    @Override
+    public void activeOrEditLayerChanged(ActiveLayerChangeEvent e) {
+        sync();
+        if (enabled && levelHandler != null) {
+            // Update level detection when layer changes
+            levelHandler.onSelectionChanged();
+        }
+    }
+
+    /**
+     * Called when the map frame is created or destroyed.
+     * @param oldFrame the old map frame
+     * @param newFrame the new map frame
+     */
+    public void mapFrameChanged(MapFrame oldFrame, MapFrame newFrame) {
+        sync();
+    }
+
+    /**
+     * Enables or disables the map view listeners (plugin toggle).
+     * @param enabled true to enable
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        sync();
+    }
+
+    /**
+     * Brings the registrations in line with the current map view and enabled state.
+     * Safe to call any number of times.
+     */
+    public void sync() {
+        MapFrame map = MainApplication.getMap();
+        MapView target = enabled && isSessionActive() && map != null ? map.mapView : null;
+        if (target == attachedView) {
+            return;
+        }
+        detach();
+        if (target != null) {
+            mapMode.register(target);
+            editModeExitListener.register(target);
+            attachedView = target;
+        }
+        System.out.println("[JOSM Assist] PluginLifecycle: " + (attachedView != null ? "attached" : "detached")
+            + ", active handlers: " + getActiveHandlerCount());
+    }
+
+    private void detach() {
+        if (attachedView != null) {
+            mapMode.unregister(attachedView);
+            editModeExitListener.unregister(attachedView);
+            attachedView = null;
+        }
+    }
+
+    /**
+     * Counts the plugin handlers currently registered on the map view, as reported by the view itself.
+     * Should be 2 (click and key handler) while the plugin is enabled and a data layer is open, 0 otherwise.
+     * @return number of active handlers
+     */
+    public int getActiveHandlerCount() {
+        MapFrame map = MainApplication.getMap();
+        if (map == null || map.mapView == null || !isSessionActive()) {
+            return 0;
+        }
+        int count = 0;
+        for (MouseListener l : map.mapView.getMouseListeners()) {
+            if (l == mapMode) count++;
+        }
+        for (KeyListener l : map.mapView.getKeyListeners()) {
+            if (l == editModeExitListener) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the level processing handler.
+     * @return the level handler, or null if no data layer is open
+     */
+    public LevelProcessingHandler getLevelHandler() {
+        return levelHandler;
+    }
+
+    /**
+     * Gets the map mode (click handler) instance.
+     * @return the map mode, or null if no data layer is open
+     */
+    public JosmAssistMapMode getMapMode() {
+        return mapMode;
+    }
+}
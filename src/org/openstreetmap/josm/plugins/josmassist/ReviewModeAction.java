@@ -0,0 +1,203 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.util.Collections;
+
+import org.openstreetmap.josm.actions.AutoScaleAction;
+import org.openstreetmap.josm.actions.JosmAction;
+import org.openstreetmap.josm.actions.ToggleAction;
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.tools.ImageProvider;
+import org.openstreetmap.josm.tools.Shortcut;
+
+/**
+ * Review mode: walks through the unverified parking spaces of the current level
+ * in spatial order, zooming to each one.
+ * The nested actions verify-and-advance, skip and go back within the {@link ReviewQueue}.
+ */
+public class ReviewModeAction extends ToggleAction implements PluginLifecycle.SessionListener {
+
+    private final ReviewQueue queue = new ReviewQueue();
+
+    /**
+     * Constructs a new {@code ReviewModeAction}.
+     */
+    public ReviewModeAction() {
+        super(tr("Review Unverified Spaces"),
+                new ImageProvider("dialogs/search").setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                tr("Step through unverified parking spaces of the current level"),
+                Shortcut.registerShortcut("plugin:josmassist:review",
+                        tr("Review Unverified Spaces"), KeyEvent.VK_R, Shortcut.ALT_SHIFT),
+                false, // don't register in toolbar by default
+                "josmassist-review", // toolbar ID
+                false); // don't install adapters
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        toggleSelectedState(e);
+        if (isSelected()) {
+            startReview();
+        } else {
+            stopReview();
+        }
+    }
+
+    /**
+     * Builds the queue for the current level and shows the first item.
+     */
+    private void startReview() {
+        DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+        if (ds == null) {
+            setSelected(false);
+            return;
+        }
+        LevelProcessingHandler levelHandler = JosmAssistPlugin.getInstance().getLevelHandler();
+        String level = levelHandler != null ? levelHandler.getCurrentLevelTagWithUpdate() : null;
+        queue.start(ds, level);
+        setSelected(true);
+        show(queue.next());
+    }
+
+    private void stopReview() {
+        queue.stop();
+        setSelected(false);
+    }
+
+    @Override
+    public void sessionStarted() {
+        // Nothing to do, the queue is built when the review starts
+    }
+
+    @Override
+    public void sessionStopped() {
+        if (queue.isActive()) {
+            stopReview();
+        }
+    }
+
+    /**
+     * Ensures the review is running on the current edit dataset. If it has to be (re)started,
+     * the first item is shown and the triggering action must not act on it.
+     * @return true if the review was already running and the queue can be used
+     */
+    private boolean ensureActive() {
+        DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+        if (queue.isActive() && queue.getDataSet() == ds) {
+            return true;
+        }
+        startReview();
+        return false;
+    }
+
+    /**
+     * Selects and zooms to the given item, or ends the review if there is none.
+     */
+    private void show(Way way) {
+        if (way == null) {
+            new Notification(tr("No unverified parking spaces left on this level")).show();
+            stopReview();
+            return;
+        }
+        DataSet ds = queue.getDataSet();
+        ds.setSelected(way);
+        AutoScaleAction.zoomTo(Collections.singleton(way));
+    }
+
+    private void verifyAndNext() {
+        if (!ensureActive()) {
+            return;
+        }
+        Way current = queue.getCurrent();
+        if (current != null) {
+            Command cmd = MarkVerifiedAction.createVerifyCommand(Collections.singleton(current));
+            if (cmd != null) {
+                UndoRedoHandler.getInstance().add(cmd);
+                SessionJournal.record("verified", 1, "via", "review");
+            }
+        }
+        // The queue drops the verified item when the tag change event arrives
+        show(queue.next());
+    }
+
+    private void skip() {
+        if (ensureActive()) {
+            show(queue.next());
+        }
+    }
+
+    private void back() {
+        if (ensureActive()) {
+            show(queue.previous());
+        }
+    }
+
+    /**
+     * Creates the action verifying the current item and advancing to the next one.
+     * @return the action
+     */
+    public JosmAction createVerifyAndNextAction() {
+        return new QueueAction(tr("Verify and Next"), "ok",
+                tr("Mark the current parking space as verified and go to the next one"),
+                "plugin:josmassist:review:verifynext", KeyEvent.VK_V, "josmassist-review-verifynext") {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                verifyAndNext();
+            }
+        };
+    }
+
+    /**
+     * Creates the action advancing to the next item without verifying.
+     * @return the action
+     */
+    public JosmAction createSkipAction() {
+        return new QueueAction(tr("Skip to Next"), "dialogs/next",
+                tr("Go to the next unverified parking space"),
+                "plugin:josmassist:review:skip", KeyEvent.VK_N, "josmassist-review-skip") {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                skip();
+            }
+        };
+    }
+
+    /**
+     * Creates the action going back to the previous item.
+     * @return the action
+     */
+    public JosmAction createBackAction() {
+        return new QueueAction(tr("Back to Previous"), "dialogs/previous",
+                tr("Go back to the previous unverified parking space"),
+                "plugin:josmassist:review:back", KeyEvent.VK_B, "josmassist-review-back") {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                back();
+            }
+        };
+    }
+
+    /**
+     * Base class of the review navigation actions (Alt+Shift+key shortcuts).
+     */
+    private abstract static class QueueAction extends JosmAction {
+        QueueAction(String name, String icon, String tooltip, String shortcutId, int key, String toolbarId) {
+            super(name,
+                    new ImageProvider(icon).setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                    tooltip,
+                    Shortcut.registerShortcut(shortcutId, name, key, Shortcut.ALT_SHIFT),
+                    false, // don't register in toolbar by default
+                    toolbarId,
+                    false); // don't install adapters
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.plugins.josmassist.core.LevelValue;
+import org.openstreetmap.josm.tools.Geometry;
+
+/**
+ * Queue of unverified parking spaces of one level, ordered along a Hilbert curve
+ * so that consecutive items are spatially adjacent.
+ * While active, the queue follows tag changes: verified items drop out, and items that
+ * become unverified again (e.g. after undo) are re-inserted at their curve position.
+ */
+public class ReviewQueue implements DatasetChangeHub.ChangeConsumer {
+
+    /** Bits per axis of the Hilbert grid. */
+    private static final int HILBERT_ORDER = 16;
+    private static final int HILBERT_SIZE = 1 << HILBERT_ORDER;
+
+    /**
+     * Queue entry: a way and its position on the curve.
+     */
+    private static class Item {
+        final Way way;
+        final long curveIndex;
+
+        Item(Way way, long curveIndex) {
+            this.way = way;
+            this.curveIndex = curveIndex;
+        }
+    }
+
+    private static final Comparator<Item> CURVE_ORDER = Comparator
+            .comparingLong((Item item) -> item.curveIndex)
+            .thenComparingLong(item -> item.way.getUniqueId());
+
+    private final TreeSet<Item> queue = new TreeSet<>(CURVE_ORDER);
+    private final Map<Way, Item> items = new HashMap<>();
+    private DataSet dataSet = null;
+    private String level = null;
+    private Item current = null;
+
+    // Bounds of the level in EastNorth, used to normalize centroids onto the Hilbert grid
+    private double minEast;
+    private double minNorth;
+    private double extent;
+
+    /**
+     * Builds the queue for the given level and starts following dataset changes.
+     * @param ds the dataset
+     * @param level the level to review, or null for all parking spaces
+     */
+    public void start(DataSet ds, String level) {
+        stop();
+        this.dataSet = ds;
+        this.level = level;
+
+        List<Way> candidates = new ArrayList<>();
+        for (Way way : ds.getWays()) {
+            if (isCandidate(way)) {
+                candidates.add(way);
+            }
+        }
+        computeBounds(candidates);
+        for (Way way : candidates) {
+            add(way);
+        }
+        DatasetChangeHub.getInstance().addConsumer(DatasetChangeHub.Stage.MODEL, this);
+        System.out.println("[JOSM Assist] ReviewQueue: " + queue.size() + " unverified parking space(s) on level '" + level + "'");
+    }
+
+    /**
+     * Stops following dataset changes and clears the queue.
+     */
+    public void stop() {
+        if (dataSet != null) {
+            DatasetChangeHub.getInstance().removeConsumer(this);
+        }
+        queue.clear();
+        items.clear();
+        dataSet = null;
+        level = null;
+        current = null;
+    }
+
+    /**
+     * Checks if the queue is active.
+     * @return true if a review is in progress
+     */
+    public boolean isActive() {
+        return dataSet != null;
+    }
+
+    /**
+     * Gets the dataset being reviewed.
+     * @return the dataset, or null if not active
+     */
+    public DataSet getDataSet() {
+        return dataSet;
+    }
+
+    /**
+     * Gets the current item.
+     * @return the current way, or null
+     */
+    public Way getCurrent() {
+        return current == null ? null : current.way;
+    }
+
+    /**
+     * Gets the number of items left in the queue.
+     * @return remaining items
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Advances to the next item along the curve, wrapping around at the end.
+     * @return the new current way, or null if the queue is empty
+     */
+    public Way next() {
+        Item item = current == null ? null : queue.higher(current);
+        current = item != null ? item : (queue.isEmpty() ? null : queue.first());
+        return getCurrent();
+    }
+
+    /**
+     * Goes back to the previous item along the curve, wrapping around at the start.
+     * @return the new current way, or null if the queue is empty
+     */
+    public Way previous() {
+        Item item = current == null ? null : queue.lower(current);
+        current = item != null ? item : (queue.isEmpty() ? null : queue.last());
+        return getCurrent();
+    }
+
+    // ========== Queue maintenance ==========
+
+    private boolean isCandidate(Way way) {
+        if (way.getDataSet() != dataSet || !way.isClosed() || way.isIncomplete()) {
+            return false;
+        }
+        ParkingSpaceStatus status = ParkingSpaceStatus.of(way);
+        if (status == null || status == ParkingSpaceStatus.VERIFIED) {
+            return false;
+        }
+        return level == null || LevelValue.matches(way.get("level"), level);
+    }
+
+    private void add(Way way) {
+        if (items.containsKey(way)) {
+            return;
+        }
+        EastNorth centroid = Geometry.getCentroid(way.getNodes());
+        if (centroid == null) {
+            return;
+        }
+        Item item = new Item(way, curveIndex(centroid));
+        items.put(way, item);
+        queue.add(item);
+    }
+
+    private void remove(Way way) {
+        Item item = items.remove(way);
+        if (item != null) {
+            // current may stay pointing at the removed item; higher()/lower() still work from its position
+            queue.remove(item);
+        }
+    }
+
+    private void update(OsmPrimitive prim) {
+        if (!(prim instanceof Way)) {
+            return;
+        }
+        Way way = (Way) prim;
+        if (isCandidate(way)) {
+            add(way);
+        } else {
+            remove(way);
+        }
+    }
+
+    private void updateAll(Collection<? extends OsmPrimitive> prims) {
+        for (OsmPrimitive prim : prims) {
+            update(prim);
+        }
+    }
+
+    @Override
+    public void datasetChanged(DatasetChangeSet changes) {
+        if (changes.getDataSet() != dataSet) {
+            return;
+        }
+        for (OsmPrimitive prim : changes.getRemoved()) {
+            if (prim instanceof Way) {
+                remove((Way) prim);
+            }
+        }
+        // Curve positions are kept from queue construction, moved nodes are not relevant
+        updateAll(changes.getUpdated());
+    }
+
+    // ========== Hilbert curve ==========
+
+    private void computeBounds(List<Way> ways) {
+        double maxEast = -Double.MAX_VALUE;
+        double maxNorth = -Double.MAX_VALUE;
+        minEast = Double.MAX_VALUE;
+        minNorth = Double.MAX_VALUE;
+        for (Way way : ways) {
+            EastNorth centroid = Geometry.getCentroid(way.getNodes());
+            if (centroid == null) continue;
+            minEast = Math.min(minEast, centroid.east());
+            minNorth = Math.min(minNorth, centroid.north());
+            maxEast = Math.max(maxEast, centroid.east());
+            maxNorth = Math.max(maxNorth, centroid.north());
+        }
+        if (minEast == Double.MAX_VALUE) {
+            minEast = 0;
+            minNorth = 0;
+            extent = 1;
+            return;
+        }
+        extent = Math.max(Math.max(maxEast - minEast, maxNorth - minNorth), 1e-9);
+    }
+
+    private long curveIndex(EastNorth en) {
+        int x = toGrid((en.east() - minEast) / extent);
+        int y = toGrid((en.north() - minNorth) / extent);
+        return hilbertIndex(x, y);
+    }
+
+    private static int toGrid(double fraction) {
+        int cell = (int) (fraction * (HILBERT_SIZE - 1));
+        return Math.max(0, Math.min(HILBERT_SIZE - 1, cell));
+    }
+
+    /**
+     * Maps grid coordinates to their distance along the Hilbert curve.
+     * @param x column in [0, HILBERT_SIZE)
+     * @param y row in [0, HILBERT_SIZE)
+     * @return the curve index
+     */
+    static long hilbertIndex(int x, int y) {
+        long d = 0;
+        for (int s = HILBERT_SIZE / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // Rotate the quadrant so the curve stays continuous
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = HILBERT_SIZE - 1 - x;
+                    y = HILBERT_SIZE - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+}
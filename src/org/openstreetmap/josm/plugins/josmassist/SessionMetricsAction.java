@@ -0,0 +1,93 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.util.Map;
+
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+
+import org.openstreetmap.josm.actions.JosmAction;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.josmassist.perf.JournalSummary;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.tools.ImageProvider;
+
+/**
+ * Shows a summary of the session metrics journal: events and events per hour,
+ * for the current JOSM session and for all recorded sessions.
+ * The journal files are read on a background thread.
+ */
+public class SessionMetricsAction extends JosmAction {
+
+    /**
+     * Constructs a new {@code SessionMetricsAction}.
+     */
+    public SessionMetricsAction() {
+        super(tr("Session Metrics..."),
+                new ImageProvider("dialogs/history").setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                tr("Show editing throughput from the session metrics journal"),
+                null, // no shortcut
+                false, // don't register in toolbar by default
+                "josmassist-session-metrics", // toolbar ID
+                false); // don't install adapters
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        new Thread(() -> {
+            JournalSummary summary = new JournalSummary(SessionJournal.getJournalFiles(), SessionJournal.getSessionId());
+            GuiHelper.runInEDT(() -> show(summary));
+        }, "josmassist-journal-summary").start();
+    }
+
+    private static void show(JournalSummary summary) {
+        DefaultTableModel model = new DefaultTableModel(new Object[] {
+            tr("Event"), tr("This session"), tr("Per hour"), tr("All sessions"), tr("Per hour")}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        double sessionHours = summary.getSessionHours();
+        double totalHours = summary.getTotalHours();
+        for (Map.Entry<String, JournalSummary.Row> entry : summary.getRows().entrySet()) {
+            JournalSummary.Row row = entry.getValue();
+            model.addRow(new Object[] {
+                entry.getKey(),
+                row.sessionCount,
+                rate(row.sessionCount, sessionHours),
+                row.totalCount,
+                rate(row.totalCount, totalHours)});
+        }
+
+        JTable table = new JTable(model);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new Dimension(520, 200));
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        panel.add(new JLabel(tr("Active time: {0} h this session, {1} h in {2} sessions",
+                String.format("%.2f", sessionHours), String.format("%.2f", totalHours), summary.getSessionCount())),
+                BorderLayout.NORTH);
+        panel.add(scroll, BorderLayout.CENTER);
+        panel.add(new JLabel(tr("Journal: {0}", SessionJournal.getDirectory())), BorderLayout.SOUTH);
+
+        JOptionPane.showMessageDialog(
+                MainApplication.getMainFrame(),
+                panel,
+                tr("Session Metrics"),
+                JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private static String rate(long count, double hours) {
+        // Rates over less than a minute are meaningless
+        return hours < 1.0 / 60 ? "" : String.format("%.1f", count / hours);
+    }
+}
@@ -0,0 +1,209 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.openstreetmap.josm.actions.JosmAction;
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.command.MoveCommand;
+import org.openstreetmap.josm.command.SequenceCommand;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.Notification;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.josmassist.core.LevelValue;
+import org.openstreetmap.josm.plugins.josmassist.core.RectangleSnap;
+import org.openstreetmap.josm.plugins.josmassist.perf.SessionJournal;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.ImageProvider;
+
+/**
+ * Snaps near-rectangular four-corner ways onto their minimal enclosing rectangle.
+ * <p>
+ * Works on the selected closed ways, or on all parking spaces of the current level if no closed
+ * way is selected. The existing nodes are moved, so nodes shared with other ways stay shared; a
+ * node shared by two snapped ways goes to the middle of its two targets. Corners that would move
+ * further than the tolerance (preference {@code josmassist.snap.tolerance}, 0.5 m by default) leave
+ * the way unchanged.
+ * The corners are captured in the EDT, the rectangles computed in parallel on a background
+ * thread, and all moves are applied with one command.
+ */
+public class SnapToRectangleAction extends JosmAction {
+
+    private static final String PREF_TOLERANCE = "josmassist.snap.tolerance";
+    private static final double DEFAULT_TOLERANCE = 0.5;
+
+    /** Corners of one way as captured in the EDT, and their targets once computed. */
+    private static final class Job {
+        final Node[] nodes;
+        final LatLon[] corners;
+        LatLon[] targets;
+
+        Job(Node[] nodes, LatLon[] corners) {
+            this.nodes = nodes;
+            this.corners = corners;
+        }
+    }
+
+    /**
+     * Constructs a new {@code SnapToRectangleAction}.
+     */
+    public SnapToRectangleAction() {
+        super(tr("Snap to Rectangle"),
+                new ImageProvider("dialogs", "rectangle").setOptional(true).setMaxSize(ImageProvider.ImageSizes.TOOLBAR),
+                tr("Move the corners of near-rectangular spaces onto their minimal enclosing rectangle"),
+                null, // no shortcut
+                false, // don't register in toolbar by default
+                "josmassist-snap-rectangle", // toolbar ID
+                false); // don't install adapters
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        DataSet ds = getLayerManager().getEditDataSet();
+        if (ds == null) {
+            return;
+        }
+        Collection<Way> ways = getTargetWays(ds);
+        List<Job> jobs = new ArrayList<>();
+        for (Way way : ways) {
+            Job job = capture(way);
+            if (job != null) {
+                jobs.add(job);
+            }
+        }
+        if (jobs.isEmpty()) {
+            new Notification(tr("No closed ways with four corners to snap")).show();
+            return;
+        }
+        double tolerance = Config.getPref().getDouble(PREF_TOLERANCE, DEFAULT_TOLERANCE);
+
+        new Thread(() -> {
+            long start = System.currentTimeMillis();
+            jobs.parallelStream().forEach(job -> job.targets = RectangleSnap.snap(job.corners, tolerance));
+            List<Job> snapped = jobs.stream().filter(job -> job.targets != null).collect(Collectors.toList());
+            System.out.println("[JOSM Assist] SnapToRectangleAction: computed " + jobs.size() + " rectangles in "
+                    + (System.currentTimeMillis() - start) + " ms");
+            GuiHelper.runInEDT(() -> apply(ds, jobs.size(), snapped));
+        }, "josmassist-snap-rectangle").start();
+    }
+
+    /**
+     * Gets the selected closed ways, or the parking spaces of the current level if there are none.
+     */
+    private static Collection<Way> getTargetWays(DataSet ds) {
+        Set<Way> selected = new LinkedHashSet<>();
+        for (Way way : ds.getSelectedWays()) {
+            if (way.isClosed()) {
+                selected.add(way);
+            }
+        }
+        if (!selected.isEmpty()) {
+            return selected;
+        }
+        LevelProcessingHandler levelHandler = JosmAssistPlugin.getInstance().getLevelHandler();
+        String level = levelHandler != null ? levelHandler.getCurrentLevelTagWithUpdate() : null;
+        List<Way> spaces = new ArrayList<>();
+        for (Way way : ds.getWays()) {
+            if (ParkingSpaceStatus.isParkingSpace(way)
+                    && (level == null || level.isEmpty() || LevelValue.matches(way.get("level"), level))) {
+                spaces.add(way);
+            }
+        }
+        return spaces;
+    }
+
+    /**
+     * Captures the corners of a closed way with exactly four distinct nodes.
+     */
+    private static Job capture(Way way) {
+        if (way.isDeleted() || way.isIncomplete() || !way.isClosed() || way.getNodesCount() != 5) {
+            return null;
+        }
+        Node[] nodes = new Node[4];
+        LatLon[] corners = new LatLon[4];
+        for (int i = 0; i < 4; i++) {
+            nodes[i] = way.getNode(i);
+            corners[i] = nodes[i].getCoor();
+            if (corners[i] == null) {
+                return null;
+            }
+            for (int j = 0; j < i; j++) {
+                if (nodes[j] == nodes[i]) {
+                    return null;
+                }
+            }
+        }
+        return new Job(nodes, corners);
+    }
+
+    private static void apply(DataSet ds, int total, List<Job> snapped) {
+        // Collect the targets per node; shared corners of two snapped ways get the mean
+        Map<Node, List<LatLon>> targets = new LinkedHashMap<>();
+        int changed = 0;
+        for (Job job : snapped) {
+            if (!isUnchanged(ds, job)) {
+                changed++;
+                continue;
+            }
+            for (int i = 0; i < 4; i++) {
+                targets.computeIfAbsent(job.nodes[i], k -> new ArrayList<>(1)).add(job.targets[i]);
+            }
+        }
+        List<Command> commands = new ArrayList<>(targets.size());
+        for (Map.Entry<Node, List<LatLon>> entry : targets.entrySet()) {
+            commands.add(new MoveCommand(entry.getKey(), mean(entry.getValue())));
+        }
+        int done = snapped.size() - changed;
+        if (!commands.isEmpty()) {
+            UndoRedoHandler.getInstance().add(new SequenceCommand(tr("Snap {0} ways to rectangle", done), commands));
+            SessionJournal.record("snap-rectangle", done);
+        }
+        System.out.println("[JOSM Assist] SnapToRectangleAction: snapped " + done + " of " + total + " ways");
+        new Notification(tr("Snapped {0} of {1} ways; the others are rectangular or beyond the tolerance", done, total)).show();
+        if (changed > 0) {
+            new Notification(tr("{0} ways were skipped because they changed during the computation", changed)).show();
+        }
+    }
+
+    private static boolean isUnchanged(DataSet ds, Job job) {
+        for (int i = 0; i < 4; i++) {
+            Node node = job.nodes[i];
+            if (node.isDeleted() || node.getDataSet() != ds || !Objects.equals(node.getCoor(), job.corners[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static LatLon mean(List<LatLon> points) {
+        if (points.size() == 1) {
+            return points.get(0);
+        }
+        double lat = 0;
+        double lon = 0;
+        for (LatLon p : points) {
+            lat += p.lat();
+            lon += p.lon();
+        }
+        return new LatLon(lat / points.size(), lon / points.size());
+    }
+
+    @Override
+    protected void updateEnabledState() {
+        setEnabled(getLayerManager().getEditDataSet() != null);
+    }
+}
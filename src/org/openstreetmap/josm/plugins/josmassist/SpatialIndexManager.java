@@ -0,0 +1,400 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.SwingUtilities;
+
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerAddEvent;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerChangeListener;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerOrderChangeEvent;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerRemoveEvent;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.plugins.josmassist.index.AreaIndex;
+import org.openstreetmap.josm.plugins.josmassist.index.AreaRecord;
+import org.openstreetmap.josm.plugins.josmassist.index.IndexCache;
+import org.openstreetmap.josm.plugins.josmassist.index.IndexCacheKey;
+import org.openstreetmap.josm.plugins.josmassist.rules.SpaceFacts;
+
+/**
+ * Keeps an {@link AreaIndex} of the closed area ways of every open data layer, so that
+ * click-to-select does not have to test every way of the dataset.
+ * <p>
+ * The index of a dataset is an immutable snapshot. After each consolidated batch of dataset
+ * events the EDT derives the next snapshot and publishes it atomically, so any thread can call
+ * {@link #getSnapshot(DataSet)} and read a consistent state without dataset locks, and later
+ * check with {@link #isCurrent(DataSet, long)} whether its result is based on stale data.
+ * <p>
+ * When a layer is opened from a file, the index is loaded from the {@link IndexCache} snapshot
+ * of that file if its path, size and content hash still match; otherwise it is built in the
+ * background. Afterwards the index is patched from the change sets of the {@link DatasetChangeHub}. Snapshots
+ * are written after a fresh build of an unmodified file and when a saved layer is closed.
+ * <p>
+ * The {@link SpaceFacts} of each way are kept as well, so that centroids, rectangles and areas
+ * are only computed again after the way changed.
+ */
+public class SpatialIndexManager implements DatasetChangeHub.ChangeConsumer, LayerChangeListener, PluginLifecycle.SessionListener {
+
+    private static final class Entry {
+        final OsmDataLayer layer;
+        /** Published snapshot, null until first loaded; written in the EDT only */
+        volatile AreaIndex index;
+        /** Version of the last published snapshot */
+        long lastVersion;
+        /** Set while a load runs in the background; readers keep seeing the previous snapshot */
+        boolean loading;
+        /** Ids of ways touched while the index was loading */
+        final Set<Long> pending = new HashSet<>();
+        /** Set when the dataset changed wholesale while loading */
+        boolean reloadRequested;
+        /** Derived metrics by way id; an entry is only valid while its record matches the way */
+        final Map<Long, SpaceFacts> facts = new ConcurrentHashMap<>();
+
+        Entry(OsmDataLayer layer) {
+            this.layer = layer;
+        }
+    }
+
+    private final Map<DataSet, Entry> entries = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "josmassist-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private IndexCache cache;
+
+    @Override
+    public void sessionStarted() {
+        DatasetChangeHub.getInstance().addConsumer(DatasetChangeHub.Stage.INDEX, this);
+        MainApplication.getLayerManager().addAndFireLayerChangeListener(this);
+    }
+
+    @Override
+    public void sessionStopped() {
+        MainApplication.getLayerManager().removeLayerChangeListener(this);
+        DatasetChangeHub.getInstance().removeConsumer(this);
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            persist(entry);
+        }
+        entries.clear();
+    }
+
+    /**
+     * Gets the current index snapshot of a dataset. Can be called from any thread.
+     * @param ds the dataset
+     * @return the snapshot, or null if the index of this dataset is not available yet
+     */
+    public AreaIndex getSnapshot(DataSet ds) {
+        Entry entry = ds == null ? null : entries.get(ds);
+        return entry == null ? null : entry.index;
+    }
+
+    /**
+     * Checks whether a snapshot version is still the current one. Can be called from any thread.
+     * @param ds the dataset
+     * @param version version of the snapshot a result was computed from
+     * @return true if the dataset's index has not changed since
+     */
+    public boolean isCurrent(DataSet ds, long version) {
+        AreaIndex snapshot = getSnapshot(ds);
+        return snapshot != null && snapshot.getVersion() == version;
+    }
+
+    /**
+     * Gets the facts of a closed area way, reusing the metrics computed before if the way has not
+     * changed since. Call from the EDT; the facts can then be evaluated on any thread.
+     * @param ds the dataset of the way
+     * @param way the way
+     * @return the facts, or null if the way is not a usable closed area
+     */
+    public SpaceFacts getFacts(DataSet ds, Way way) {
+        AreaRecord record = AreaRecord.of(way);
+        if (record == null) {
+            return null;
+        }
+        Entry entry = entries.get(ds);
+        if (entry == null) {
+            return new SpaceFacts(record);
+        }
+        SpaceFacts facts = entry.facts.get(record.id);
+        if (facts == null || !facts.getRecord().equals(record)) {
+            facts = new SpaceFacts(record);
+            entry.facts.put(record.id, facts);
+        }
+        return facts;
+    }
+
+    /**
+     * Finds the closed area ways whose bounding box contains a point.
+     * @param ds the dataset
+     * @param coor the point
+     * @return the candidate ways (the exact polygon test is up to the caller),
+     *         or null if the index of this dataset is not available yet
+     */
+    public List<Way> findCandidates(DataSet ds, LatLon coor) {
+        AreaIndex snapshot = getSnapshot(ds);
+        if (snapshot == null) {
+            return null;
+        }
+        List<Way> ways = new ArrayList<>();
+        for (AreaRecord record : snapshot.query(coor.lat(), coor.lon())) {
+            OsmPrimitive prim = ds.getPrimitiveById(record.id, OsmPrimitiveType.WAY);
+            if (prim instanceof Way && !prim.isDeleted()) {
+                ways.add((Way) prim);
+            }
+        }
+        return ways;
+    }
+
+    // ========== Loading and saving ==========
+
+    private IndexCache getCache() {
+        if (cache == null) {
+            cache = new IndexCache();
+        }
+        return cache;
+    }
+
+    private void load(Entry entry) {
+        entry.loading = true;
+        DataSet ds = entry.layer.getDataSet();
+        File file = entry.layer.getAssociatedFile();
+        boolean pristine = file != null && !entry.layer.requiresSaveToFile();
+        IndexCache indexCache = getCache();
+        executor.execute(() -> {
+            long start = System.currentTimeMillis();
+            IndexCacheKey key = null;
+            AreaIndex index = null;
+            if (pristine) {
+                try {
+                    key = IndexCacheKey.of(file);
+                    List<AreaRecord> cached = indexCache.load(key);
+                    if (cached != null) {
+                        AreaIndex.Builder builder = AreaIndex.EMPTY.edit();
+                        cached.forEach(builder::put);
+                        index = builder.build();
+                    }
+                } catch (IOException e) {
+                    System.err.println("[JOSM Assist] SpatialIndexManager: cannot read " + file + ": " + e.getMessage());
+                }
+            }
+            boolean fromCache = index != null;
+            if (index == null) {
+                index = build(ds);
+            }
+            System.out.println("[JOSM Assist] SpatialIndexManager: " + (fromCache ? "loaded " : "built ")
+                    + index.size() + " areas in " + (System.currentTimeMillis() - start) + " ms");
+            AreaIndex result = index;
+            IndexCacheKey resultKey = fromCache ? null : key;
+            SwingUtilities.invokeLater(() -> publish(entry, result, resultKey));
+        });
+    }
+
+    private static AreaIndex build(DataSet ds) {
+        AreaIndex.Builder builder = AreaIndex.EMPTY.edit();
+        ds.getReadLock().lock();
+        try {
+            for (Way way : ds.getWays()) {
+                AreaRecord record = AreaRecord.of(way);
+                if (record != null) {
+                    builder.put(record);
+                }
+            }
+        } finally {
+            ds.getReadLock().unlock();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Publishes a loaded index in the EDT, replaying the changes made while it was loading.
+     */
+    private void publish(Entry entry, AreaIndex index, IndexCacheKey freshKey) {
+        if (entries.get(entry.layer.getDataSet()) != entry) {
+            return; // layer closed meanwhile
+        }
+        if (entry.reloadRequested) {
+            entry.reloadRequested = false;
+            entry.pending.clear();
+            load(entry);
+            return;
+        }
+        entry.loading = false;
+        boolean unchanged = entry.pending.isEmpty();
+        AreaIndex.Builder builder = index.edit();
+        for (Long id : entry.pending) {
+            refresh(entry.layer.getDataSet(), builder, id);
+        }
+        entry.pending.clear();
+        AreaIndex published = publish(entry, builder);
+        if (freshKey != null && unchanged) {
+            save(freshKey, published);
+        }
+    }
+
+    /**
+     * Builds the next snapshot of an entry and makes it visible to all threads.
+     */
+    private static AreaIndex publish(Entry entry, AreaIndex.Builder builder) {
+        AreaIndex snapshot = builder.build(++entry.lastVersion);
+        entry.index = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Writes the snapshot of a layer whose contents match its file.
+     */
+    private void persist(Entry entry) {
+        File file = entry.layer.getAssociatedFile();
+        if (entry.index == null || file == null || entry.layer.requiresSaveToFile()) {
+            return;
+        }
+        AreaIndex snapshot = entry.index;
+        IndexCache indexCache = getCache();
+        executor.execute(() -> {
+            try {
+                saveSnapshot(indexCache, IndexCacheKey.of(file), snapshot.getRecords());
+            } catch (IOException e) {
+                System.err.println("[JOSM Assist] SpatialIndexManager: cannot write index of " + file + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private void save(IndexCacheKey key, AreaIndex snapshot) {
+        IndexCache indexCache = getCache();
+        executor.execute(() -> {
+            try {
+                saveSnapshot(indexCache, key, snapshot.getRecords());
+            } catch (IOException e) {
+                System.err.println("[JOSM Assist] SpatialIndexManager: cannot write index of " + key.getPath() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private static void saveSnapshot(IndexCache indexCache, IndexCacheKey key, Collection<AreaRecord> snapshot) throws IOException {
+        // New objects get fresh negative ids each time a file is read, so their ids cannot be cached
+        for (AreaRecord record : snapshot) {
+            if (record.id <= 0) {
+                indexCache.invalidate(key);
+                return;
+            }
+        }
+        indexCache.save(key, snapshot);
+    }
+
+    // ========== Incremental updates ==========
+
+    private static void refresh(DataSet ds, AreaIndex.Builder builder, long id) {
+        OsmPrimitive prim = ds.getPrimitiveById(id, OsmPrimitiveType.WAY);
+        AreaRecord record = prim instanceof Way ? AreaRecord.of((Way) prim) : null;
+        if (record != null) {
+            builder.put(record);
+        } else {
+            builder.remove(id);
+        }
+    }
+
+    /**
+     * Updates the record of a way; builder is null while the index is loading.
+     */
+    private static void touch(Entry entry, AreaIndex.Builder builder, Way way) {
+        if (builder == null) {
+            entry.pending.add(way.getUniqueId());
+            return;
+        }
+        AreaRecord record = AreaRecord.of(way);
+        if (record != null) {
+            builder.put(record);
+        } else {
+            builder.remove(way.getUniqueId());
+        }
+    }
+
+    private static void untouch(Entry entry, AreaIndex.Builder builder, long id) {
+        entry.facts.remove(id);
+        if (builder == null) {
+            entry.pending.add(id);
+        } else {
+            builder.remove(id);
+        }
+    }
+
+    // ========== LayerChangeListener Implementation ==========
+
+    @Override
+    public void layerAdded(LayerAddEvent e) {
+        if (e.getAddedLayer() instanceof OsmDataLayer) {
+            OsmDataLayer layer = (OsmDataLayer) e.getAddedLayer();
+            Entry entry = new Entry(layer);
+            entries.put(layer.getDataSet(), entry);
+            load(entry);
+        }
+    }
+
+    @Override
+    public void layerRemoving(LayerRemoveEvent e) {
+        if (e.getRemovedLayer() instanceof OsmDataLayer) {
+            Entry entry = entries.remove(((OsmDataLayer) e.getRemovedLayer()).getDataSet());
+            if (entry != null) {
+                persist(entry);
+            }
+        }
+    }
+
+    @Override
+    public void layerOrderChanged(LayerOrderChangeEvent e) {
+        // Not relevant
+    }
+
+    // ========== Change Consumer Implementation ==========
+
+    @Override
+    public void datasetChanged(DatasetChangeSet changes) {
+        Entry entry = entries.get(changes.getDataSet());
+        if (entry == null) {
+            return;
+        }
+        if (changes.isFull()) {
+            // No details, start over
+            entry.facts.clear();
+            if (entry.loading) {
+                entry.reloadRequested = true;
+            } else {
+                load(entry);
+            }
+            return;
+        }
+        AreaIndex.Builder builder = entry.loading ? null : entry.index.edit();
+        for (OsmPrimitive prim : changes.getRemoved()) {
+            if (prim instanceof Way) {
+                untouch(entry, builder, prim.getUniqueId());
+            }
+        }
+        for (OsmPrimitive prim : changes.getUpdated()) {
+            if (prim instanceof Way) {
+                touch(entry, builder, (Way) prim);
+            }
+        }
+        for (Way way : changes.getGeometryChanged()) {
+            touch(entry, builder, way);
+        }
+        if (builder != null && builder.hasChanges()) {
+            publish(entry, builder);
+        }
+    }
+}
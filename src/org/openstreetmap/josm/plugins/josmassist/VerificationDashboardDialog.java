@@ -0,0 +1,169 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.table.AbstractTableModel;
+
+import org.openstreetmap.josm.actions.AutoScaleAction;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.dialogs.ToggleDialog;
+import org.openstreetmap.josm.tools.Shortcut;
+
+/**
+ * Toggle dialog showing per-level verification progress of parking spaces.
+ * Clicking a count jumps to the next parking space in that bucket.
+ */
+public class VerificationDashboardDialog extends ToggleDialog implements VerificationProgressTracker.ProgressListener {
+
+    /** Status shown in each count column, in column order after the level column. */
+    private static final ParkingSpaceStatus[] STATUS_COLUMNS = {
+        ParkingSpaceStatus.VERIFIED,
+        ParkingSpaceStatus.VALID_NAME,
+        ParkingSpaceStatus.UNNAMED,
+        ParkingSpaceStatus.MALFORMED
+    };
+
+    private final VerificationProgressTracker tracker = new VerificationProgressTracker();
+    private final ProgressTableModel model = new ProgressTableModel();
+    private final JTable table = new JTable(model);
+    private OsmPrimitive lastJumpTarget = null;
+
+    /**
+     * Constructs a new {@code VerificationDashboardDialog}.
+     */
+    public VerificationDashboardDialog() {
+        super(tr("Parking Progress"), "validator",
+                tr("Per-level verification progress of parking spaces"),
+                Shortcut.registerShortcut("subwindow:josmassist-progress",
+                        tr("Toggle: {0}", tr("Parking Progress")), KeyEvent.CHAR_UNDEFINED, Shortcut.NONE),
+                150);
+
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setCellSelectionEnabled(true);
+        table.getTableHeader().setReorderingAllowed(false);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = table.rowAtPoint(e.getPoint());
+                int column = table.columnAtPoint(e.getPoint());
+                if (row >= 0 && column >= 1 && column <= STATUS_COLUMNS.length) {
+                    jumpToNext(model.getLevel(row), STATUS_COLUMNS[column - 1]);
+                }
+            }
+        });
+
+        createLayout(table, true, null);
+    }
+
+    @Override
+    public void showNotify() {
+        tracker.addProgressListener(this);
+        tracker.activate();
+    }
+
+    @Override
+    public void hideNotify() {
+        tracker.removeProgressListener(this);
+        tracker.deactivate();
+        lastJumpTarget = null;
+        model.refresh();
+    }
+
+    @Override
+    public void progressChanged() {
+        model.refresh();
+    }
+
+    /**
+     * Selects and zooms to the next parking space in the given bucket.
+     * @param level the level
+     * @param status the status
+     */
+    private void jumpToNext(String level, ParkingSpaceStatus status) {
+        DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+        if (ds == null) {
+            return;
+        }
+        OsmPrimitive next = tracker.getNext(level, status, lastJumpTarget);
+        if (next == null) {
+            return;
+        }
+        lastJumpTarget = next;
+        ds.setSelected(next);
+        AutoScaleAction.zoomTo(Collections.singleton(next));
+    }
+
+    /**
+     * Table model with one row per level and one column per status.
+     */
+    private class ProgressTableModel extends AbstractTableModel {
+        private List<String> levels = new ArrayList<>();
+
+        void refresh() {
+            levels = tracker.getLevels();
+            fireTableDataChanged();
+        }
+
+        String getLevel(int row) {
+            return levels.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return levels.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return STATUS_COLUMNS.length + 2;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            if (column == 0) {
+                return tr("Level");
+            }
+            if (column == STATUS_COLUMNS.length + 1) {
+                return tr("Total");
+            }
+            switch (STATUS_COLUMNS[column - 1]) {
+                case VERIFIED: return tr("Verified");
+                case VALID_NAME: return tr("Named");
+                case UNNAMED: return tr("Unnamed");
+                default: return tr("Malformed");
+            }
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 ? String.class : Integer.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            String level = levels.get(row);
+            if (column == 0) {
+                return VerificationProgressTracker.NO_LEVEL.equals(level) ? tr("(none)") : level;
+            }
+            if (column == STATUS_COLUMNS.length + 1) {
+                int total = 0;
+                for (ParkingSpaceStatus status : STATUS_COLUMNS) {
+                    total += tracker.getCount(level, status);
+                }
+                return total;
+            }
+            return tracker.getCount(level, STATUS_COLUMNS[column - 1]);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package org.openstreetmap.josm.plugins.josmassist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeEvent;
+import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeListener;
+
+/**
+ * Keeps per-level counts of parking spaces by {@link ParkingSpaceStatus}.
+ * The edit dataset is scanned once when the tracker is activated (or the edit layer changes);
+ * afterwards the buckets are maintained incrementally from the change sets of the {@link DatasetChangeHub}.
+ */
+public class VerificationProgressTracker implements DatasetChangeHub.ChangeConsumer, ActiveLayerChangeListener {
+
+    /** Bucket key used for parking spaces without a level tag. */
+    public static final String NO_LEVEL = "";
+
+    /**
+     * Orders level values numerically where possible ("-2" before "-1" before "0" before "1"),
+     * falling back to string order for anything else.
+     */
+    public static final Comparator<String> LEVEL_ORDER = (a, b) -> {
+        Double da = parseLevel(a);
+        Double db = parseLevel(b);
+        if (da != null && db != null) {
+            int cmp = Double.compare(da, db);
+            return cmp != 0 ? cmp : a.compareTo(b);
+        }
+        if (da != null) return -1;
+        if (db != null) return 1;
+        return a.compareTo(b);
+    };
+
+    /**
+     * Listener notified after the counts changed.
+     */
+    public interface ProgressListener {
+        /**
+         * Called on the EDT after a batch of changes has been applied.
+         */
+        void progressChanged();
+    }
+
+    /**
+     * Last known bucket of a tracked primitive, needed to move it out of its old bucket.
+     */
+    private static class Entry {
+        final String level;
+        final ParkingSpaceStatus status;
+
+        Entry(String level, ParkingSpaceStatus status) {
+            this.level = level;
+            this.status = status;
+        }
+    }
+
+    private final Map<OsmPrimitive, Entry> tracked = new HashMap<>();
+    private final Map<String, Map<ParkingSpaceStatus, Set<OsmPrimitive>>> buckets = new TreeMap<>(LEVEL_ORDER);
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private DataSet currentDataSet = null;
+    private boolean active = false;
+
+    /**
+     * Starts listening to dataset events and builds the initial counts.
+     */
+    public void activate() {
+        if (active) {
+            return;
+        }
+        active = true;
+        MainApplication.getLayerManager().addActiveLayerChangeListener(this);
+        DatasetChangeHub.getInstance().addConsumer(DatasetChangeHub.Stage.MODEL, this);
+        rebuild();
+    }
+
+    /**
+     * Stops listening to dataset events and drops all counts.
+     */
+    public void deactivate() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        MainApplication.getLayerManager().removeActiveLayerChangeListener(this);
+        DatasetChangeHub.getInstance().removeConsumer(this);
+        tracked.clear();
+        buckets.clear();
+        currentDataSet = null;
+    }
+
+    public void addProgressListener(ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeProgressListener(ProgressListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void activeOrEditLayerChanged(ActiveLayerChangeEvent e) {
+        if (MainApplication.getLayerManager().getEditDataSet() != currentDataSet) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Full scan of the edit dataset. Only used on activation and when the edit layer changes.
+     */
+    private void rebuild() {
+        tracked.clear();
+        buckets.clear();
+        currentDataSet = MainApplication.getLayerManager().getEditDataSet();
+        if (currentDataSet != null) {
+            for (OsmPrimitive prim : currentDataSet.allPrimitives()) {
+                update(prim);
+            }
+        }
+        fireProgressChanged();
+    }
+
+    // ========== Change Consumer Implementation ==========
+
+    @Override
+    public void datasetChanged(DatasetChangeSet changes) {
+        if (changes.getDataSet() != currentDataSet) {
+            return;
+        }
+        if (changes.isFull()) {
+            // No details available, the whole dataset may have changed
+            rebuild();
+            return;
+        }
+        for (OsmPrimitive prim : changes.getRemoved()) {
+            remove(prim);
+        }
+        updateAll(changes.getUpdated());
+        fireProgressChanged();
+    }
+
+    // ========== Bucket maintenance ==========
+
+    private void updateAll(Collection<? extends OsmPrimitive> prims) {
+        for (OsmPrimitive prim : prims) {
+            update(prim);
+        }
+    }
+
+    /**
+     * Moves the primitive into the bucket matching its current tags.
+     */
+    private void update(OsmPrimitive prim) {
+        if (prim.getDataSet() != currentDataSet) {
+            return;
+        }
+        ParkingSpaceStatus status = ParkingSpaceStatus.of(prim);
+        if (status == null) {
+            remove(prim);
+            return;
+        }
+        String level = levelOf(prim);
+        Entry old = tracked.get(prim);
+        if (old != null) {
+            if (old.status == status && old.level.equals(level)) {
+                return;
+            }
+            removeFromBucket(prim, old);
+        }
+        tracked.put(prim, new Entry(level, status));
+        buckets.computeIfAbsent(level, k -> new EnumMap<>(ParkingSpaceStatus.class))
+                .computeIfAbsent(status, k -> new LinkedHashSet<>())
+                .add(prim);
+    }
+
+    private void remove(OsmPrimitive prim) {
+        Entry old = tracked.remove(prim);
+        if (old != null) {
+            removeFromBucket(prim, old);
+        }
+    }
+
+    private void removeFromBucket(OsmPrimitive prim, Entry entry) {
+        Map<ParkingSpaceStatus, Set<OsmPrimitive>> levelBuckets = buckets.get(entry.level);
+        if (levelBuckets == null) {
+            return;
+        }
+        Set<OsmPrimitive> bucket = levelBuckets.get(entry.status);
+        if (bucket != null) {
+            bucket.remove(prim);
+            if (bucket.isEmpty()) {
+                levelBuckets.remove(entry.status);
+            }
+        }
+        if (levelBuckets.isEmpty()) {
+            buckets.remove(entry.level);
+        }
+    }
+
+    private void fireProgressChanged() {
+        for (ProgressListener listener : listeners) {
+            listener.progressChanged();
+        }
+    }
+
+    // ========== Public API ==========
+
+    /**
+     * Gets all levels which contain at least one parking space, in {@link #LEVEL_ORDER}.
+     * @return the levels ({@link #NO_LEVEL} for untagged spaces)
+     */
+    public List<String> getLevels() {
+        return new ArrayList<>(buckets.keySet());
+    }
+
+    /**
+     * Gets the number of parking spaces with the given level and status.
+     * @param level the level
+     * @param status the status
+     * @return the count
+     */
+    public int getCount(String level, ParkingSpaceStatus status) {
+        Map<ParkingSpaceStatus, Set<OsmPrimitive>> levelBuckets = buckets.get(level);
+        if (levelBuckets == null) {
+            return 0;
+        }
+        Set<OsmPrimitive> bucket = levelBuckets.get(status);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    /**
+     * Gets the parking space following {@code previous} in the given bucket, wrapping around.
+     * @param level the level
+     * @param status the status
+     * @param previous the previously visited item, may be null
+     * @return the next item, or null if the bucket is empty
+     */
+    public OsmPrimitive getNext(String level, ParkingSpaceStatus status, OsmPrimitive previous) {
+        Map<ParkingSpaceStatus, Set<OsmPrimitive>> levelBuckets = buckets.get(level);
+        Set<OsmPrimitive> bucket = levelBuckets == null ? null : levelBuckets.get(status);
+        if (bucket == null || bucket.isEmpty()) {
+            return null;
+        }
+        Iterator<OsmPrimitive> it = bucket.iterator();
+        OsmPrimitive first = it.next();
+        if (previous == null || !bucket.contains(previous)) {
+            return first;
+        }
+        OsmPrimitive prim = first;
+        while (prim != previous && it.hasNext()) {
+            prim = it.next();
+        }
+        return it.hasNext() ? it.next() : first;
+    }
+
+    /**
+     * Gets the bucket key of a primitive.
+     * @param prim the primitive
+     * @return its level tag, or {@link #NO_LEVEL}
+     */
+    public static String levelOf(OsmPrimitive prim) {
+        String level = prim.get("level");
+        return level == null ? NO_LEVEL : level;
+    }
+
+    private static Double parseLevel(String level) {
+        try {
+            return Double.valueOf(level);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
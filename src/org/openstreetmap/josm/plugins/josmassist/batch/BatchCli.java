@@ -0,0 +1,174 @@
+package org.openstreetmap.josm.plugins.josmassist.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.Preferences;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.preferences.JosmBaseDirectories;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.data.projection.Projections;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.io.IllegalDataException;
+import org.openstreetmap.josm.io.OsmReader;
+import org.openstreetmap.josm.io.OsmWriter;
+import org.openstreetmap.josm.io.OsmWriterFactory;
+import org.openstreetmap.josm.plugins.josmassist.batch.BatchFinding.Kind;
+import org.openstreetmap.josm.plugins.josmassist.index.AreaRecord;
+import org.openstreetmap.josm.plugins.josmassist.rules.SpaceFacts;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+/**
+ * Command line entry point for processing .osm files without GUI.
+ * <p>
+ * Usage (with josm.jar and the plugin jar on the classpath):
+ * <pre>
+ * java -cp josm.jar:josmassist.jar org.openstreetmap.josm.plugins.josmassist.batch.BatchCli \
+ *     --in input.osm [--out output.osm] [--report report.csv|report.json] \
+ *     [--assign-levels] [--assign-names] [--threads N] \
+ *     [--export DIR [--export-format geojson|csv]]
+ * </pre>
+ * {@code --export} writes the parking spaces of every level to {@code DIR/<input name>_<level>.geojson}
+ * (or {@code .csv}) after processing, see {@link SpaceExporter}.
+ * Exit code is 0 on success, 1 if validation problems remain, 2 on usage or I/O errors.
+ */
+public final class BatchCli {
+
+    private BatchCli() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Main method.
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the batch job.
+     * @param args command line arguments
+     * @return the exit code
+     */
+    public static int run(String[] args) {
+        Path in = null;
+        Path out = null;
+        Path report = null;
+        Path export = null;
+        SpaceExporter.Format exportFormat = SpaceExporter.Format.GEOJSON;
+        boolean assignLevels = false;
+        boolean assignNames = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case "--in": in = Paths.get(args[++i]); break;
+                case "--out": out = Paths.get(args[++i]); break;
+                case "--report": report = Paths.get(args[++i]); break;
+                case "--assign-levels": assignLevels = true; break;
+                case "--assign-names": assignNames = true; break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--export": export = Paths.get(args[++i]); break;
+                case "--export-format":
+                    exportFormat = SpaceExporter.Format.fromName(args[++i]);
+                    if (exportFormat == null) {
+                        return usage("Unknown export format: " + args[i]);
+                    }
+                    break;
+                default: return usage("Unknown argument: " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            return usage("Missing or invalid argument value");
+        }
+        if (in == null) {
+            return usage("--in is required");
+        }
+
+        initHeadless();
+
+        try {
+            DataSet ds;
+            try (InputStream is = Files.newInputStream(in)) {
+                ds = OsmReader.parseDataSet(is, NullProgressMonitor.INSTANCE);
+            }
+
+            BatchProcessor processor = new BatchProcessor(ds, threads);
+            processor.setAssignLevels(assignLevels);
+            processor.setAssignNames(assignNames);
+            List<BatchFinding> findings = processor.run();
+
+            if (out != null) {
+                try (OsmWriter writer = OsmWriterFactory.createOsmWriter(new PrintWriter(
+                        Files.newBufferedWriter(out, StandardCharsets.UTF_8)), false, ds.getVersion())) {
+                    writer.write(ds);
+                }
+            }
+            if (report != null) {
+                try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+                    if (report.getFileName().toString().toLowerCase().endsWith(".json")) {
+                        BatchReport.writeJson(findings, writer);
+                    } else {
+                        BatchReport.writeCsv(findings, writer);
+                    }
+                }
+            }
+
+            if (export != null) {
+                long start = System.currentTimeMillis();
+                String name = in.getFileName().toString();
+                String prefix = name.lastIndexOf('.') > 0 ? name.substring(0, name.lastIndexOf('.')) : name;
+                Map<String, List<SpaceExporter.Space>> spaces = SpaceExporter.collect(ds, way -> {
+                    AreaRecord record = AreaRecord.of(way);
+                    return record == null ? null : new SpaceFacts(record);
+                });
+                List<Path> files = SpaceExporter.export(spaces, export, prefix, exportFormat, threads);
+                System.err.println("[JOSM Assist] Batch: exported " + files.size() + " levels to " + export
+                        + " in " + (System.currentTimeMillis() - start) + " ms");
+            }
+
+            Map<Kind, Integer> summary = BatchReport.summarize(findings);
+            Writer stdout = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            boolean problems = false;
+            for (Map.Entry<Kind, Integer> entry : summary.entrySet()) {
+                stdout.write(entry.getKey().name() + ": " + entry.getValue() + "\n");
+                problems |= entry.getValue() > 0 && entry.getKey() != Kind.NAME_ASSIGNED && entry.getKey() != Kind.LEVEL_ASSIGNED;
+            }
+            stdout.flush();
+            return problems ? 1 : 0;
+        } catch (IOException | IllegalDataException e) {
+            System.err.println("[JOSM Assist] Batch: " + e.getMessage());
+            return 2;
+        }
+    }
+
+    /**
+     * Initializes the parts of JOSM needed for reading, projecting and writing data without GUI.
+     */
+    static void initHeadless() {
+        Preferences pref = Preferences.main();
+        pref.enableSaveOnPut(false);
+        Config.setPreferencesInstance(pref);
+        Config.setBaseDirectoriesProvider(JosmBaseDirectories.getInstance());
+        ProjectionRegistry.setProjection(Projections.getProjectionByCode("EPSG:3857")); // Mercator
+    }
+
+    private static int usage(String message) {
+        System.err.println("[JOSM Assist] Batch: " + message);
+        System.err.println("Usage: BatchCli --in input.osm [--out output.osm] [--report report.csv|report.json]"
+                + " [--assign-levels] [--assign-names] [--threads N] [--export DIR [--export-format geojson|csv]]");
+        return 2;
+    }
+}
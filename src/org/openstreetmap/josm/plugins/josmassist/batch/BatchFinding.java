@@ -0,0 +1,51 @@
+package org.openstreetmap.josm.plugins.josmassist.batch;
+
+import org.openstreetmap.josm.data.osm.Way;
+
+/**
+ * One row of the batch report: a change applied to a way or a problem found on it.
+ */
+public final class BatchFinding {
+
+    /**
+     * Kind of finding.
+     */
+    public enum Kind {
+        /** A name was interpolated from adjacent parking spaces */
+        NAME_ASSIGNED,
+        /** A level was assigned from the surrounding parking spaces */
+        LEVEL_ASSIGNED,
+        /** The parking space has no level tag and none could be inferred */
+        MISSING_LEVEL,
+        /** The parking space still has no name */
+        UNNAMED,
+        /** The name contains characters that are not allowed */
+        MALFORMED_NAME,
+        /** The name is used more than once on the same level */
+        DUPLICATE_NAME
+    }
+
+    public final Kind kind;
+    public final long wayId;
+    public final String level;
+    public final String oldValue;
+    public final String newValue;
+    final Way way;
+
+    BatchFinding(Kind kind, Way way, String level, String oldValue, String newValue) {
+        this.kind = kind;
+        this.way = way;
+        this.wayId = way.getUniqueId();
+        this.level = level;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Tells if this finding records a change that was applied to the data.
+     * @return true for assigned names and levels
+     */
+    public boolean isChange() {
+        return kind == Kind.NAME_ASSIGNED || kind == Kind.LEVEL_ASSIGNED;
+    }
+}
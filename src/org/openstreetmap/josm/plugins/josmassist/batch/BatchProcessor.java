@@ -0,0 +1,250 @@
+package org.openstreetmap.josm.plugins.josmassist.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.plugins.josmassist.ParkingSpaceStatus;
+import org.openstreetmap.josm.plugins.josmassist.VerificationProgressTracker;
+import org.openstreetmap.josm.plugins.josmassist.batch.BatchFinding.Kind;
+import org.openstreetmap.josm.plugins.josmassist.core.NameInterpolator;
+import org.openstreetmap.josm.plugins.josmassist.core.NamedWaySearch;
+import org.openstreetmap.josm.tools.Geometry;
+import org.openstreetmap.josm.tools.JosmRuntimeException;
+
+/**
+ * Runs level assignment, name interpolation and validation on a whole dataset without GUI.
+ * <p>
+ * Levels are processed in parallel. Worker threads only read the dataset; the proposed
+ * changes are applied afterwards on the calling thread, so the dataset is never modified
+ * concurrently. Name interpolation is repeated until no more names can be derived, because
+ * every newly named space can serve as a neighbour for the next one.
+ */
+public class BatchProcessor {
+
+    /** Search radius in meters, same as the interactive name interpolation */
+    private static final double SEARCH_RADIUS_METERS = 50.0;
+    /** Radius in meters for inferring a missing level from the surrounding spaces */
+    private static final double LEVEL_RADIUS_METERS = 10.0;
+    /** Upper bound of interpolation passes (each pass can extend a row by one space at each end) */
+    private static final int MAX_NAME_PASSES = 1000;
+
+    private final DataSet ds;
+    private final int threads;
+    private boolean assignLevels;
+    private boolean assignNames;
+
+    /**
+     * Constructs a new {@code BatchProcessor}.
+     * @param ds the dataset to process
+     * @param threads number of worker threads
+     */
+    public BatchProcessor(DataSet ds, int threads) {
+        this.ds = ds;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Sets whether missing levels are inferred from the surrounding parking spaces.
+     * @param assignLevels true to assign levels
+     */
+    public void setAssignLevels(boolean assignLevels) {
+        this.assignLevels = assignLevels;
+    }
+
+    /**
+     * Sets whether missing names are interpolated from adjacent parking spaces.
+     * @param assignNames true to assign names
+     */
+    public void setAssignNames(boolean assignNames) {
+        this.assignNames = assignNames;
+    }
+
+    /**
+     * Processes the dataset.
+     * @return the applied changes followed by the remaining problems
+     */
+    public List<BatchFinding> run() {
+        List<BatchFinding> findings = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            if (assignLevels) {
+                findings.addAll(assignLevels());
+            }
+            if (assignNames) {
+                for (int pass = 0; pass < MAX_NAME_PASSES; pass++) {
+                    List<BatchFinding> named = forEachLevel(executor, this::proposeNames);
+                    if (named.isEmpty()) {
+                        break;
+                    }
+                    for (BatchFinding finding : named) {
+                        finding.way.put("name", finding.newValue);
+                    }
+                    findings.addAll(named);
+                }
+            }
+            findings.addAll(forEachLevel(executor, this::validate));
+        } finally {
+            executor.shutdown();
+        }
+        return findings;
+    }
+
+    /**
+     * Infers the level of parking spaces without level tag from the parking spaces around them.
+     * A level is only assigned if all neighbours agree on it.
+     */
+    private List<BatchFinding> assignLevels() {
+        List<BatchFinding> findings = new ArrayList<>();
+        Map<Way, String> assigned = new HashMap<>();
+        for (Way way : ds.getWays()) {
+            if (!ParkingSpaceStatus.isParkingSpace(way) || !isWithoutLevel(way)) {
+                continue;
+            }
+            LatLon center = centerOf(way);
+            if (center == null) {
+                continue;
+            }
+            TreeSet<String> levels = new TreeSet<>();
+            for (Way neighbour : ds.searchWays(NamedWaySearch.createCircularBoundingBox(center, LEVEL_RADIUS_METERS))) {
+                if (neighbour != way && ParkingSpaceStatus.isParkingSpace(neighbour) && !isWithoutLevel(neighbour)) {
+                    levels.add(VerificationProgressTracker.levelOf(neighbour));
+                }
+            }
+            if (levels.size() == 1) {
+                assigned.put(way, levels.first());
+            }
+        }
+        // Apply after the scan so that assigned levels do not feed into other inferences
+        for (Map.Entry<Way, String> entry : assigned.entrySet()) {
+            entry.getKey().put("level", entry.getValue());
+            findings.add(new BatchFinding(Kind.LEVEL_ASSIGNED, entry.getKey(), entry.getValue(), null, entry.getValue()));
+        }
+        return findings;
+    }
+
+    /**
+     * Proposes names for the unnamed parking spaces of one level. Read-only.
+     */
+    private List<BatchFinding> proposeNames(String level, List<Way> ways) {
+        List<BatchFinding> findings = new ArrayList<>();
+        if (VerificationProgressTracker.NO_LEVEL.equals(level)) {
+            return findings;
+        }
+        Map<String, Way> proposed = new HashMap<>();
+        for (Way way : ways) {
+            if (NamedWaySearch.hasName(way)) {
+                continue;
+            }
+            LatLon center = centerOf(way);
+            String name = center == null ? null : NameInterpolator.interpolateName(way, center, level, ds, SEARCH_RADIUS_METERS);
+            // Two spaces can derive the same name from the same neighbours; leave both for the next pass
+            if (name != null && proposed.putIfAbsent(name, way) != null) {
+                proposed.put(name, null);
+            }
+        }
+        for (Map.Entry<String, Way> entry : proposed.entrySet()) {
+            if (entry.getValue() != null) {
+                findings.add(new BatchFinding(Kind.NAME_ASSIGNED, entry.getValue(), level, null, entry.getKey()));
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Reports unnamed, malformed and duplicate names and missing levels of one level. Read-only.
+     */
+    private List<BatchFinding> validate(String level, List<Way> ways) {
+        List<BatchFinding> findings = new ArrayList<>();
+        Map<String, List<Way>> byName = new TreeMap<>();
+        for (Way way : ways) {
+            String name = way.get("name");
+            if (VerificationProgressTracker.NO_LEVEL.equals(level)) {
+                findings.add(new BatchFinding(Kind.MISSING_LEVEL, way, level, name, null));
+            }
+            if (name == null || name.isEmpty()) {
+                findings.add(new BatchFinding(Kind.UNNAMED, way, level, null, null));
+                continue;
+            }
+            if (!ParkingSpaceStatus.isValidName(name)) {
+                findings.add(new BatchFinding(Kind.MALFORMED_NAME, way, level, name, null));
+            }
+            byName.computeIfAbsent(name, k -> new ArrayList<>()).add(way);
+        }
+        for (Map.Entry<String, List<Way>> entry : byName.entrySet()) {
+            if (entry.getValue().size() > 1 && !VerificationProgressTracker.NO_LEVEL.equals(level)) {
+                for (Way way : entry.getValue()) {
+                    findings.add(new BatchFinding(Kind.DUPLICATE_NAME, way, level, entry.getKey(), null));
+                }
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Per-level task, called from a worker thread.
+     */
+    @FunctionalInterface
+    private interface LevelTask {
+        List<BatchFinding> process(String level, List<Way> ways);
+    }
+
+    /**
+     * Runs the task for every level in parallel and collects the results in level order.
+     */
+    private List<BatchFinding> forEachLevel(ExecutorService executor, LevelTask task) {
+        List<Future<List<BatchFinding>>> futures = new ArrayList<>();
+        for (Map.Entry<String, List<Way>> entry : groupByLevel().entrySet()) {
+            Callable<List<BatchFinding>> callable = () -> task.process(entry.getKey(), entry.getValue());
+            futures.add(executor.submit(callable));
+        }
+        List<BatchFinding> findings = new ArrayList<>();
+        try {
+            for (Future<List<BatchFinding>> future : futures) {
+                findings.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JosmRuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new JosmRuntimeException(e.getCause());
+        }
+        return findings;
+    }
+
+    private Map<String, List<Way>> groupByLevel() {
+        Map<String, List<Way>> byLevel = new TreeMap<>(VerificationProgressTracker.LEVEL_ORDER);
+        for (Way way : ds.getWays()) {
+            if (ParkingSpaceStatus.isParkingSpace(way)) {
+                byLevel.computeIfAbsent(VerificationProgressTracker.levelOf(way), k -> new ArrayList<>()).add(way);
+            }
+        }
+        for (List<Way> ways : byLevel.values()) {
+            ways.sort((a, b) -> Long.compare(a.getUniqueId(), b.getUniqueId()));
+        }
+        return Collections.unmodifiableMap(byLevel);
+    }
+
+    private static boolean isWithoutLevel(Way way) {
+        return VerificationProgressTracker.NO_LEVEL.equals(VerificationProgressTracker.levelOf(way));
+    }
+
+    private static LatLon centerOf(Way way) {
+        EastNorth centroid = Geometry.getCentroid(way.getNodes());
+        return centroid == null ? null : ProjectionRegistry.getProjection().eastNorth2latlon(centroid);
+    }
+}
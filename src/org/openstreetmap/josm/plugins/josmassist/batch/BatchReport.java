@@ -0,0 +1,99 @@
+package org.openstreetmap.josm.plugins.josmassist.batch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.plugins.josmassist.batch.BatchFinding.Kind;
+
+/**
+ * Writes batch findings as CSV or JSON.
+ */
+public final class BatchReport {
+
+    private BatchReport() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Writes the findings as CSV with a header row.
+     * @param findings the findings
+     * @param out the writer
+     * @throws IOException if writing fails
+     */
+    public static void writeCsv(List<BatchFinding> findings, Writer out) throws IOException {
+        out.write("kind,way_id,level,old_value,new_value\n");
+        for (BatchFinding f : findings) {
+            out.write(f.kind.name() + ',' + f.wayId + ',' + csv(f.level) + ',' + csv(f.oldValue) + ',' + csv(f.newValue) + '\n');
+        }
+    }
+
+    /**
+     * Writes the findings as JSON object with a summary and the list of findings.
+     * @param findings the findings
+     * @param out the writer
+     * @throws IOException if writing fails
+     */
+    public static void writeJson(List<BatchFinding> findings, Writer out) throws IOException {
+        out.write("{\n  \"summary\": {");
+        boolean first = true;
+        for (Map.Entry<Kind, Integer> entry : summarize(findings).entrySet()) {
+            out.write((first ? "" : ",") + "\n    \"" + entry.getKey().name() + "\": " + entry.getValue());
+            first = false;
+        }
+        out.write("\n  },\n  \"findings\": [");
+        first = true;
+        for (BatchFinding f : findings) {
+            out.write((first ? "" : ",") + "\n    {\"kind\": \"" + f.kind.name() + "\", \"way_id\": " + f.wayId
+                    + ", \"level\": " + json(f.level) + ", \"old_value\": " + json(f.oldValue)
+                    + ", \"new_value\": " + json(f.newValue) + "}");
+            first = false;
+        }
+        out.write("\n  ]\n}\n");
+    }
+
+    /**
+     * Counts the findings by kind.
+     * @param findings the findings
+     * @return number of findings for every kind, in declaration order
+     */
+    public static Map<Kind, Integer> summarize(List<BatchFinding> findings) {
+        Map<Kind, Integer> counts = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            counts.put(kind, 0);
+        }
+        for (BatchFinding f : findings) {
+            counts.merge(f.kind, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
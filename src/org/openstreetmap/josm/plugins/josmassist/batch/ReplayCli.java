@@ -0,0 +1,210 @@
+package org.openstreetmap.josm.plugins.josmassist.batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.io.IllegalDataException;
+import org.openstreetmap.josm.io.OsmReader;
+import org.openstreetmap.josm.plugins.josmassist.LevelProcessingHandler;
+import org.openstreetmap.josm.plugins.josmassist.NameNumberRegistry;
+import org.openstreetmap.josm.plugins.josmassist.SpatialIndexManager;
+import org.openstreetmap.josm.plugins.josmassist.perf.LatencyHistogram;
+
+/**
+ * Command line entry point for replaying an editing trace as a performance regression test.
+ * <p>
+ * Usage (with josm.jar and the plugin jar on the classpath, {@code -Djava.awt.headless=true}):
+ * <pre>
+ * java -cp josm.jar:josmassist.jar org.openstreetmap.josm.plugins.josmassist.batch.ReplayCli \
+ *     --trace trace.jsonl [--in data.osm] [--report timings.csv]
+ * </pre>
+ * The dataset defaults to the file the trace was recorded on. It is loaded into a layer of the
+ * layer manager without map frame, so the plugin listeners see the same events as in JOSM; the
+ * spatial index is built before the first step. {@code --report} writes one row per step with
+ * the recorded and replayed times; a summary per step type is printed to stdout.
+ * Exit code is 0 on success, 1 if steps could not be reproduced, 2 on usage or I/O errors.
+ */
+public final class ReplayCli {
+
+    private static final double[] PERCENTILES = {50, 95};
+    /** Longest wait for the spatial index of the loaded dataset */
+    private static final long INDEX_TIMEOUT_MS = 120_000;
+
+    private ReplayCli() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Main method.
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the replay.
+     * @param args command line arguments
+     * @return the exit code
+     */
+    public static int run(String[] args) {
+        Path trace = null;
+        Path in = null;
+        Path report = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case "--trace": trace = Paths.get(args[++i]); break;
+                case "--in": in = Paths.get(args[++i]); break;
+                case "--report": report = Paths.get(args[++i]); break;
+                default: return usage("Unknown argument: " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return usage("Missing argument value");
+        }
+        if (trace == null) {
+            return usage("--trace is required");
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(trace, StandardCharsets.UTF_8);
+            if (in == null) {
+                String data = lines.isEmpty() ? null : TraceReplayer.parseLine(lines.get(0)).get("data");
+                if (data == null) {
+                    return usage("The trace names no data file, --in is required");
+                }
+                in = Paths.get(data);
+            }
+            List<TraceReplayer.Step> steps = TraceReplayer.parseSteps(lines);
+
+            BatchCli.initHeadless();
+            long start = System.currentTimeMillis();
+            DataSet ds;
+            try (InputStream is = Files.newInputStream(in)) {
+                ds = OsmReader.parseDataSet(is, NullProgressMonitor.INSTANCE);
+            }
+            TraceReplayer replayer = setUp(ds, in);
+            System.err.println("[JOSM Assist] Replay: loaded " + in + " in " + (System.currentTimeMillis() - start) + " ms");
+
+            List<TraceReplayer.Result> results = new ArrayList<>(steps.size());
+            for (TraceReplayer.Step step : steps) {
+                results.add(replayer.replay(step));
+            }
+
+            if (report != null) {
+                try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+                    writeCsv(results, writer);
+                }
+            }
+            return summarize(results) ? 1 : 0;
+        } catch (IOException | IllegalDataException e) {
+            System.err.println("[JOSM Assist] Replay: " + e.getMessage());
+            return 2;
+        }
+    }
+
+    /**
+     * Adds the dataset as edit layer and starts the plugin parts a replay exercises, in the EDT
+     * like in JOSM; then waits for the spatial index.
+     */
+    private static TraceReplayer setUp(DataSet ds, Path file) {
+        SpatialIndexManager spatialIndex = new SpatialIndexManager();
+        NameNumberRegistry nameNumbers = new NameNumberRegistry();
+        LevelProcessingHandler[] levelHandler = new LevelProcessingHandler[1];
+        GuiHelper.runInEDTAndWait(() -> {
+            MainApplication.getLayerManager().addLayer(new OsmDataLayer(ds, file.getFileName().toString(), file.toFile()));
+            spatialIndex.sessionStarted();
+            nameNumbers.sessionStarted();
+            levelHandler[0] = new LevelProcessingHandler();
+        });
+        long deadline = System.currentTimeMillis() + INDEX_TIMEOUT_MS;
+        while (spatialIndex.getSnapshot(ds) == null && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (spatialIndex.getSnapshot(ds) == null) {
+            System.err.println("[JOSM Assist] Replay: spatial index not ready, clicks test all ways");
+        }
+        return new TraceReplayer(ds, spatialIndex, nameNumbers, levelHandler[0]);
+    }
+
+    /**
+     * Writes one CSV row per step.
+     * @param results the results
+     * @param out the writer
+     * @throws IOException if writing fails
+     */
+    static void writeCsv(List<TraceReplayer.Result> results, Writer out) throws IOException {
+        out.write("index,step,recorded_ms,replay_ms,listener_ms,result\n");
+        for (TraceReplayer.Result r : results) {
+            out.write(r.step.index + "," + r.step.name + ','
+                    + (Double.isNaN(r.step.recordedMs) ? "" : format(r.step.recordedMs)) + ','
+                    + format(r.replayNanos / 1e6) + ',' + format(r.listenerNanos / 1e6) + ','
+                    + '"' + r.outcome.replace("\"", "\"\"") + "\"\n");
+        }
+    }
+
+    /**
+     * Prints count, percentiles and maximum of every step type.
+     * @return true if any step could not be reproduced
+     */
+    private static boolean summarize(List<TraceReplayer.Result> results) {
+        Map<String, LatencyHistogram> replay = new LinkedHashMap<>();
+        Map<String, LatencyHistogram> listeners = new LinkedHashMap<>();
+        int failed = 0;
+        for (TraceReplayer.Result r : results) {
+            replay.computeIfAbsent(r.step.name, k -> new LatencyHistogram()).record(r.replayNanos);
+            listeners.computeIfAbsent(r.step.name, k -> new LatencyHistogram()).record(r.listenerNanos);
+            if (r.failed) {
+                failed++;
+                System.err.println("[JOSM Assist] Replay: step " + r.step.index + " (" + r.step.name + "): " + r.outcome);
+            }
+        }
+        StringBuilder sb = new StringBuilder("step,count,p50_ms,p95_ms,max_ms,listener_p50_ms,listener_max_ms\n");
+        for (Map.Entry<String, LatencyHistogram> entry : replay.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            LatencyHistogram l = listeners.get(entry.getKey());
+            sb.append(entry.getKey()).append(',').append(h.getCount());
+            for (double percentile : PERCENTILES) {
+                sb.append(',').append(format(h.getValueAtPercentile(percentile) / 1e6));
+            }
+            sb.append(',').append(format(h.getMax() / 1e6))
+              .append(',').append(format(l.getValueAtPercentile(50) / 1e6))
+              .append(',').append(format(l.getMax() / 1e6)).append('\n');
+        }
+        System.out.print(sb);
+        System.out.println("steps: " + results.size() + ", failed: " + failed);
+        return failed > 0;
+    }
+
+    private static String format(double ms) {
+        return String.format(Locale.ROOT, "%.3f", ms);
+    }
+
+    private static int usage(String message) {
+        System.err.println("[JOSM Assist] Replay: " + message);
+        System.err.println("Usage: ReplayCli --trace trace.jsonl [--in data.osm] [--report timings.csv]");
+        return 2;
+    }
+}
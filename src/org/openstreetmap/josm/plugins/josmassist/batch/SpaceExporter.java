@@ -0,0 +1,355 @@
+package org.openstreetmap.josm.plugins.josmassist.batch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.plugins.josmassist.ParkingSpaceStatus;
+import org.openstreetmap.josm.plugins.josmassist.VerificationProgressTracker;
+import org.openstreetmap.josm.plugins.josmassist.core.LevelValue;
+import org.openstreetmap.josm.plugins.josmassist.rules.SpaceFacts;
+import org.openstreetmap.josm.tools.JosmRuntimeException;
+
+/**
+ * Writes the parking spaces of every level to its own GeoJSON or CSV file: id, name, verified
+ * state, centroid and the width, length and bearing of the minimal enclosing rectangle.
+ * <p>
+ * The spaces are captured with {@link #collect}, which reads the dataset, and then written
+ * without touching it. Levels are written in parallel, each through its own buffered writer;
+ * the metrics come from the {@link SpaceFacts}, so spaces whose facts were computed before are
+ * not measured again.
+ */
+public final class SpaceExporter {
+
+    /** Output format */
+    public enum Format {
+        /** GeoJSON {@code FeatureCollection} of centroid points */
+        GEOJSON("geojson"),
+        /** CSV with a header row */
+        CSV("csv");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Gets the file extension.
+         * @return the extension, without dot
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Gets a format by extension or name.
+         * @param name {@code geojson}, {@code json} or {@code csv}, in any case
+         * @return the format, or null if unknown
+         */
+        public static Format fromName(String name) {
+            switch (name.toLowerCase(Locale.ROOT)) {
+            case "geojson":
+            case "json":
+                return GEOJSON;
+            case "csv":
+                return CSV;
+            default:
+                return null;
+            }
+        }
+    }
+
+    /** One exported parking space */
+    public static final class Space {
+        /** Geometry, level and name */
+        public final SpaceFacts facts;
+        /** Whether the space is tagged {@code verified=true} */
+        public final boolean verified;
+
+        /**
+         * Creates a space.
+         * @param facts geometry, level and name
+         * @param verified whether the space is verified
+         */
+        public Space(SpaceFacts facts, boolean verified) {
+            this.facts = facts;
+            this.verified = verified;
+        }
+    }
+
+    /** Coordinates are written with 7 decimals (about 1 cm), dimensions with 2 */
+    private static final int COORDINATE_DECIMALS = 7;
+    private static final int METER_DECIMALS = 2;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+
+    private SpaceExporter() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Captures the parking spaces of a dataset, grouped by level in level order.
+     * <p>
+     * The levels are those named by the level tags of the spaces. A space is listed on every
+     * level its tag matches ({@link LevelValue#matches}), so a {@code -1;-2} ramp is exported
+     * with level -1 and with level -2; the files keep the tag as written.
+     * @param ds the dataset; must not be modified while collecting
+     * @param factsOf gets the facts of a way, or null if it is not a usable closed area
+     * @return the spaces of every level, ordered by id
+     */
+    public static Map<String, List<Space>> collect(DataSet ds, Function<Way, SpaceFacts> factsOf) {
+        List<Space> all = new ArrayList<>();
+        Set<String> levels = new HashSet<>();
+        for (Way way : ds.getWays()) {
+            ParkingSpaceStatus status = ParkingSpaceStatus.of(way);
+            SpaceFacts facts = status == null ? null : factsOf.apply(way);
+            if (facts != null) {
+                all.add(new Space(facts, status == ParkingSpaceStatus.VERIFIED));
+                LevelValue level = LevelValue.parse(facts.getLevel());
+                if (level.isEmpty()) {
+                    levels.add(VerificationProgressTracker.NO_LEVEL);
+                } else {
+                    levels.addAll(level.getNames());
+                }
+            }
+        }
+        Map<String, List<Space>> byLevel = new TreeMap<>(VerificationProgressTracker.LEVEL_ORDER);
+        for (Space space : all) {
+            String tag = space.facts.getLevel();
+            if (LevelValue.parse(tag).isEmpty()) {
+                byLevel.computeIfAbsent(VerificationProgressTracker.NO_LEVEL, k -> new ArrayList<>()).add(space);
+                continue;
+            }
+            for (String level : levels) {
+                if (!level.isEmpty() && LevelValue.matches(tag, level)) {
+                    byLevel.computeIfAbsent(level, k -> new ArrayList<>()).add(space);
+                }
+            }
+        }
+        for (List<Space> spaces : byLevel.values()) {
+            spaces.sort((a, b) -> Long.compare(a.facts.getId(), b.facts.getId()));
+        }
+        return Collections.unmodifiableMap(byLevel);
+    }
+
+    /**
+     * Writes one file per level into a directory, named {@code <prefix>_<level>.<extension>}.
+     * Characters not allowed in file names become {@code _}; when two levels end up with the same
+     * name (e.g. {@code 1;2} and {@code 1_2}), later levels get a counter ({@code _2}, ...).
+     * Names are compared ignoring case, as on Windows.
+     * @param byLevel the spaces of every level, see {@link #collect}
+     * @param directory the output directory; created if missing, existing files are replaced
+     * @param prefix file name prefix
+     * @param format output format
+     * @param threads number of levels written at the same time
+     * @return the written files in level order
+     * @throws IOException if writing any file fails
+     */
+    public static List<Path> export(Map<String, List<Space>> byLevel, Path directory, String prefix, Format format,
+            int threads) throws IOException {
+        Files.createDirectories(directory);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, byLevel.size())));
+        try {
+            List<Future<Path>> futures = new ArrayList<>();
+            Set<String> usedNames = new HashSet<>();
+            for (Map.Entry<String, List<Space>> entry : byLevel.entrySet()) {
+                String base = prefix + '_' + fileNameOf(entry.getKey());
+                String name = base;
+                for (int n = 2; !usedNames.add(name.toLowerCase(Locale.ROOT)); n++) {
+                    name = base + '_' + n;
+                }
+                Path file = directory.resolve(name + '.' + format.getExtension());
+                Callable<Path> callable = () -> {
+                    writeLevel(entry.getValue(), file, format);
+                    return file;
+                };
+                futures.add(executor.submit(callable));
+            }
+            List<Path> files = new ArrayList<>();
+            for (Future<Path> future : futures) {
+                files.add(future.get());
+            }
+            return files;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JosmRuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new JosmRuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void writeLevel(List<Space> spaces, Path file, Format format) throws IOException {
+        // One row is built at a time and handed to the buffered writer
+        StringBuilder row = new StringBuilder(256);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (format == Format.CSV) {
+                out.write("id,level,name,verified,lat,lon,width,length,bearing\n");
+            } else {
+                out.write("{\"type\":\"FeatureCollection\",\"features\":[");
+            }
+            boolean first = true;
+            for (Space space : spaces) {
+                row.setLength(0);
+                if (format == Format.CSV) {
+                    appendCsvRow(row, space);
+                } else {
+                    if (!first) {
+                        row.append(',');
+                    }
+                    appendFeature(row, space);
+                }
+                out.append(row);
+                first = false;
+            }
+            if (format == Format.GEOJSON) {
+                out.write("\n]}\n");
+            }
+        }
+    }
+
+    private static void appendCsvRow(StringBuilder row, Space space) {
+        SpaceFacts facts = space.facts;
+        row.append(facts.getId()).append(',');
+        appendCsv(row, levelTag(facts));
+        row.append(',');
+        appendCsv(row, facts.getName());
+        row.append(',').append(space.verified).append(',');
+        appendFixed(row, facts.getCentroidLat(), COORDINATE_DECIMALS);
+        row.append(',');
+        appendFixed(row, facts.getCentroidLon(), COORDINATE_DECIMALS);
+        row.append(',');
+        appendFixed(row, facts.getWidth(), METER_DECIMALS);
+        row.append(',');
+        appendFixed(row, facts.getLength(), METER_DECIMALS);
+        row.append(',');
+        appendFixed(row, facts.getBearing(), METER_DECIMALS);
+        row.append('\n');
+    }
+
+    private static void appendFeature(StringBuilder row, Space space) {
+        SpaceFacts facts = space.facts;
+        row.append("\n{\"type\":\"Feature\",\"id\":").append(facts.getId())
+                .append(",\"geometry\":{\"type\":\"Point\",\"coordinates\":[");
+        appendJsonNumber(row, facts.getCentroidLon(), COORDINATE_DECIMALS);
+        row.append(',');
+        appendJsonNumber(row, facts.getCentroidLat(), COORDINATE_DECIMALS);
+        row.append("]},\"properties\":{\"level\":");
+        appendJson(row, levelTag(facts));
+        row.append(",\"name\":");
+        appendJson(row, facts.getName());
+        row.append(",\"verified\":").append(space.verified).append(",\"width\":");
+        appendJsonNumber(row, facts.getWidth(), METER_DECIMALS);
+        row.append(",\"length\":");
+        appendJsonNumber(row, facts.getLength(), METER_DECIMALS);
+        row.append(",\"bearing\":");
+        appendJsonNumber(row, facts.getBearing(), METER_DECIMALS);
+        row.append("}}");
+    }
+
+    /**
+     * Appends a JSON number, or {@code null} for NaN.
+     */
+    private static void appendJsonNumber(StringBuilder sb, double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            sb.append("null");
+        } else {
+            appendFixed(sb, value, decimals);
+        }
+    }
+
+    /**
+     * Appends a number with a fixed number of decimals without going through
+     * {@code String.format}; nothing for NaN.
+     */
+    private static void appendFixed(StringBuilder sb, double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        long scaled = Math.round(Math.abs(value) * POWERS_OF_TEN[decimals]);
+        if (value < 0 && scaled != 0) {
+            sb.append('-');
+        }
+        sb.append(scaled / POWERS_OF_TEN[decimals]);
+        if (decimals > 0) {
+            sb.append('.');
+            String fraction = Long.toString(scaled % POWERS_OF_TEN[decimals]);
+            for (int i = fraction.length(); i < decimals; i++) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+    }
+
+    private static String levelTag(SpaceFacts facts) {
+        String level = facts.getLevel();
+        return level == null || level.isEmpty() ? null : level;
+    }
+
+    private static void appendCsv(StringBuilder sb, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            sb.append(value);
+        } else {
+            sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    private static void appendJson(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Turns a level value into a safe file name part.
+     */
+    private static String fileNameOf(String level) {
+        if (VerificationProgressTracker.NO_LEVEL.equals(level)) {
+            return "nolevel";
+        }
+        StringBuilder sb = new StringBuilder(level.length());
+        for (int i = 0; i < level.length(); i++) {
+            char c = level.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) || c == '-' || c == '.' ? c : '_');
+        }
+        return sb.toString();
+    }
+}
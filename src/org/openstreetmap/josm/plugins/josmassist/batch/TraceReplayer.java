@@ -0,0 +1,318 @@
+package org.openstreetmap.josm.plugins.josmassist.batch;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.josmassist.LevelProcessingHandler;
+import org.openstreetmap.josm.plugins.josmassist.MarkVerifiedAction;
+import org.openstreetmap.josm.plugins.josmassist.MovePreservingMetricAction;
+import org.openstreetmap.josm.plugins.josmassist.NameNumberRegistry;
+import org.openstreetmap.josm.plugins.josmassist.PolygonClickHandler;
+import org.openstreetmap.josm.plugins.josmassist.SpatialIndexManager;
+import org.openstreetmap.josm.plugins.josmassist.WayCombineAction;
+import org.openstreetmap.josm.plugins.josmassist.core.NameSuggester;
+import org.openstreetmap.josm.plugins.josmassist.io.JsonPullParser;
+import org.openstreetmap.josm.plugins.josmassist.perf.TraceRecorder;
+import org.openstreetmap.josm.tools.Geometry;
+
+/**
+ * Replays the steps of an editing trace ({@link TraceRecorder}) against a dataset and measures
+ * each of them.
+ * <p>
+ * Every step runs in the EDT through the same code the GUI uses: clicks go through the spatial
+ * index, the polygon test and the name suggestion, combine, move and verify build the command of
+ * their action and add it to the undo stack. The time until the next EDT task runs afterwards is
+ * measured separately: it is the fan-out of the consolidated dataset listeners (spatial index,
+ * name numbers, level tracking). Painting, the tag editor and the name popup are not part of the
+ * replay.
+ */
+public final class TraceReplayer {
+
+    /** Nearby spaces searched for name candidates, as in the GUI */
+    private static final double NAME_RADIUS_METERS = 50.0;
+
+    /** One recorded step */
+    public static final class Step {
+        /** Position in the trace, starting with 1 */
+        public final int index;
+        /** Step name, e.g. {@code click} */
+        public final String name;
+        /** Duration as recorded live in milliseconds, NaN if unknown */
+        public final double recordedMs;
+        /** All fields of the step as strings */
+        public final Map<String, String> fields;
+
+        Step(int index, Map<String, String> fields) {
+            this.index = index;
+            this.name = fields.getOrDefault("step", "");
+            this.fields = fields;
+            double ms;
+            try {
+                ms = Double.parseDouble(fields.getOrDefault("ms", "NaN"));
+            } catch (NumberFormatException e) {
+                ms = Double.NaN;
+            }
+            this.recordedMs = ms;
+        }
+
+        String get(String key) {
+            return fields.getOrDefault(key, "");
+        }
+    }
+
+    /** Outcome of one replayed step */
+    public static final class Result {
+        /** The step */
+        public final Step step;
+        /** Time of the step itself in the EDT, in nanoseconds */
+        public final long replayNanos;
+        /** Time of the dataset listeners triggered by the step, in nanoseconds */
+        public final long listenerNanos;
+        /** Short description of what happened, e.g. {@code selected w42} */
+        public final String outcome;
+        /** Whether the step could not be reproduced */
+        public final boolean failed;
+
+        Result(Step step, long replayNanos, long listenerNanos, String outcome, boolean failed) {
+            this.step = step;
+            this.replayNanos = replayNanos;
+            this.listenerNanos = listenerNanos;
+            this.outcome = outcome;
+            this.failed = failed;
+        }
+    }
+
+    /** Outcome of the step currently executed in the EDT */
+    private static final class Outcome {
+        String text = "skipped";
+        boolean failed;
+
+        void fail(String text) {
+            this.text = text;
+            this.failed = true;
+        }
+    }
+
+    private final DataSet ds;
+    private final SpatialIndexManager spatialIndex;
+    private final NameNumberRegistry nameNumbers;
+    private final LevelProcessingHandler levelHandler;
+
+    /**
+     * Creates a replayer.
+     * @param ds the dataset, the edit dataset of the layer manager
+     * @param spatialIndex the spatial index of the dataset
+     * @param nameNumbers the name number registry
+     * @param levelHandler the level handler, for {@code esc} steps
+     */
+    public TraceReplayer(DataSet ds, SpatialIndexManager spatialIndex, NameNumberRegistry nameNumbers,
+            LevelProcessingHandler levelHandler) {
+        this.ds = ds;
+        this.spatialIndex = spatialIndex;
+        this.nameNumbers = nameNumbers;
+        this.levelHandler = levelHandler;
+    }
+
+    /**
+     * Parses one line of a trace file.
+     * @param line the line
+     * @return the top level fields as strings (numbers as written by {@link Double#toString}),
+     *         empty for a blank line
+     * @throws IOException if the line is not a JSON object
+     */
+    public static Map<String, String> parseLine(String line) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        if (line.trim().isEmpty()) {
+            return fields;
+        }
+        try (JsonPullParser parser = new JsonPullParser(new StringReader(line))) {
+            if (parser.next() != JsonPullParser.Event.START_OBJECT) {
+                throw new IOException("Trace line is not a JSON object");
+            }
+            JsonPullParser.Event event;
+            while ((event = parser.next()) == JsonPullParser.Event.KEY_NAME) {
+                String key = parser.getString();
+                JsonPullParser.Event value = parser.next();
+                if (value == JsonPullParser.Event.VALUE_STRING) {
+                    fields.put(key, parser.getString());
+                } else if (value == JsonPullParser.Event.VALUE_NUMBER) {
+                    fields.put(key, Double.toString(parser.getDouble()));
+                } else if (value == JsonPullParser.Event.VALUE_TRUE || value == JsonPullParser.Event.VALUE_FALSE) {
+                    fields.put(key, Boolean.toString(value == JsonPullParser.Event.VALUE_TRUE));
+                } else if (value == null) {
+                    throw new IOException("Unexpected end of trace line");
+                } else {
+                    parser.skipValue(value);
+                }
+            }
+            if (event != JsonPullParser.Event.END_OBJECT) {
+                throw new IOException("Unexpected content in trace line");
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Reads the steps of a trace, skipping the header line.
+     * @param lines the lines of the trace file
+     * @return the steps in order
+     * @throws IOException if a line is not a JSON object
+     */
+    public static List<Step> parseSteps(List<String> lines) throws IOException {
+        List<Step> steps = new ArrayList<>();
+        for (String line : lines) {
+            Map<String, String> fields = parseLine(line);
+            if (fields.containsKey("step")) {
+                steps.add(new Step(steps.size() + 1, fields));
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Replays one step and waits until the listeners it triggered are done.
+     * Must not be called from the EDT.
+     * @param step the step
+     * @return the result
+     */
+    public Result replay(Step step) {
+        Outcome outcome = new Outcome();
+        long[] nanos = new long[1];
+        GuiHelper.runInEDTAndWait(() -> {
+            long start = System.nanoTime();
+            try {
+                execute(step, outcome);
+            } catch (RuntimeException e) {
+                outcome.fail("error: " + e.getMessage());
+            }
+            nanos[0] = System.nanoTime() - start;
+        });
+        // Consolidated dataset events are fired by EDT tasks queued while the step ran
+        long listenerStart = System.nanoTime();
+        GuiHelper.runInEDTAndWait(() -> { });
+        long listenerNanos = System.nanoTime() - listenerStart;
+        return new Result(step, nanos[0], listenerNanos, outcome.text, outcome.failed);
+    }
+
+    private void execute(Step step, Outcome outcome) {
+        switch (step.name) {
+        case "click":
+            click(step, outcome);
+            break;
+        case "esc":
+            String level = step.get("level");
+            levelHandler.setExplicitLevelTag(level.isEmpty() ? null : level);
+            levelHandler.processNewElementsOnEditExit();
+            outcome.text = "ok";
+            break;
+        case "combine":
+            List<Way> ways = resolve(step.get("ways"), Way.class, outcome);
+            if (ways != null) {
+                try {
+                    add(WayCombineAction.createCombineCommand(ds, ways), outcome);
+                } catch (IllegalArgumentException e) {
+                    outcome.fail("error: " + e.getMessage());
+                }
+            }
+            break;
+        case "move":
+            List<Node> nodes = resolve(step.get("nodes"), Node.class, outcome);
+            if (nodes != null) {
+                LatLon target = new LatLon(Double.parseDouble(step.get("lat")), Double.parseDouble(step.get("lon")));
+                add(MovePreservingMetricAction.createMoveCommand(ds, nodes, target), outcome);
+            }
+            break;
+        case "verify":
+            List<OsmPrimitive> prims = resolve(step.get("ids"), OsmPrimitive.class, outcome);
+            if (prims != null) {
+                add(MarkVerifiedAction.createVerifyCommand(prims), outcome);
+            }
+            break;
+        default:
+            break; // unknown step, e.g. from a newer plugin version
+        }
+    }
+
+    /**
+     * Selects the smallest space containing the click and computes its name candidates, like
+     * {@link PolygonClickHandler} does.
+     */
+    private void click(Step step, Outcome outcome) {
+        LatLon click = new LatLon(Double.parseDouble(step.get("lat")), Double.parseDouble(step.get("lon")));
+        String level = step.get("level");
+        Collection<Way> candidates = spatialIndex.findCandidates(ds, click);
+        if (candidates == null) {
+            candidates = ds.getWays();
+        }
+        List<Way> hits = PolygonClickHandler.findContainingWays(click, candidates, level.isEmpty() ? null : level);
+        Way way = hits.isEmpty() ? null : hits.get(0);
+        String ref = way == null ? "" : TraceRecorder.ref(way);
+        if (!ref.equals(step.get("way"))) {
+            outcome.fail("diverged: selected " + (ref.isEmpty() ? "nothing" : ref) + " instead of "
+                    + (step.get("way").isEmpty() ? "nothing" : step.get("way")));
+        } else {
+            outcome.text = ref.isEmpty() ? "nothing" : "selected " + ref;
+        }
+        if (way == null) {
+            return;
+        }
+        ds.setSelected(way);
+
+        String name = way.get("name");
+        String wayLevel = way.get("level");
+        if ((name == null || name.isEmpty()) && wayLevel != null && !wayLevel.isEmpty()) {
+            EastNorth centroid = Geometry.getCentroid(way.getNodes());
+            LatLon center = centroid != null ? ProjectionRegistry.getProjection().eastNorth2latlon(centroid) : click;
+            List<NameSuggester.Candidate> names = NameSuggester.suggest(way, center, wayLevel, ds, NAME_RADIUS_METERS,
+                    prefix -> nameNumbers.getNumbers(ds, wayLevel, prefix));
+            if (!outcome.failed) {
+                outcome.text += ", " + names.size() + " name candidates";
+            }
+        }
+        if (name == null) {
+            way.put("name", "");
+        }
+    }
+
+    private <T extends OsmPrimitive> List<T> resolve(String refs, Class<T> type, Outcome outcome) {
+        if (refs.isEmpty()) {
+            outcome.fail("unresolved: no primitives");
+            return null;
+        }
+        List<T> prims = new ArrayList<>();
+        for (String ref : refs.split(" ")) {
+            OsmPrimitive prim = TraceRecorder.resolve(ds, ref);
+            if (!type.isInstance(prim)) {
+                outcome.fail("unresolved: " + ref);
+                return null;
+            }
+            prims.add(type.cast(prim));
+        }
+        return Collections.unmodifiableList(prims);
+    }
+
+    private static void add(Command cmd, Outcome outcome) {
+        if (cmd == null) {
+            outcome.text = "no change";
+            return;
+        }
+        UndoRedoHandler.getInstance().add(cmd);
+        outcome.text = "ok (" + cmd.getParticipatingPrimitives().size() + " primitives)";
+    }
+}
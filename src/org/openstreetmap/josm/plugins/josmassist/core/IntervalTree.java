@@ -0,0 +1,223 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Centered interval tree mapping closed intervals of doubles to sets of values.
+ * <p>
+ * Values sharing an interval share one bucket, so the tree only holds the distinct intervals;
+ * for level tags that is a handful of floors and ramps however many primitives use them. A
+ * stabbing query visits one tree path and reports the buckets of all intervals containing the
+ * point in O(log m + k) for m distinct intervals. Adding a value to an existing interval is a
+ * hash set operation; the tree is rebuilt lazily when the set of distinct intervals changes.
+ * Not thread safe.
+ *
+ * @param <T> the type of the values
+ */
+public final class IntervalTree<T> {
+
+    private static final class Interval {
+        final double low;
+        final double high;
+
+        Interval(double low, double high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Interval)) {
+                return false;
+            }
+            Interval other = (Interval) obj;
+            return Double.compare(low, other.low) == 0 && Double.compare(high, other.high) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(low) * 31 + Double.hashCode(high);
+        }
+    }
+
+    private static final class TreeNode {
+        final double center;
+        /** Intervals containing the center, by ascending low end */
+        final Interval[] byLow;
+        /** The same intervals, by descending high end */
+        final Interval[] byHigh;
+        TreeNode left;
+        TreeNode right;
+
+        TreeNode(double center, List<Interval> overlapping) {
+            this.center = center;
+            this.byLow = overlapping.toArray(new Interval[0]);
+            this.byHigh = byLow.clone();
+            Arrays.sort(byLow, Comparator.comparingDouble((Interval i) -> i.low));
+            Arrays.sort(byHigh, Comparator.comparingDouble((Interval i) -> -i.high));
+        }
+    }
+
+    private final Map<Interval, Set<T>> buckets = new HashMap<>();
+    private TreeNode root;
+    private boolean dirty;
+
+    /**
+     * Adds a value for an interval.
+     * @param low lower end, inclusive
+     * @param high upper end, inclusive
+     * @param value the value
+     */
+    public void add(double low, double high, T value) {
+        Interval interval = new Interval(Math.min(low, high), Math.max(low, high));
+        Set<T> bucket = buckets.get(interval);
+        if (bucket == null) {
+            bucket = new HashSet<>();
+            buckets.put(interval, bucket);
+            dirty = true;
+        }
+        bucket.add(value);
+    }
+
+    /**
+     * Removes a value from an interval.
+     * @param low lower end, inclusive
+     * @param high upper end, inclusive
+     * @param value the value
+     */
+    public void remove(double low, double high, T value) {
+        Interval interval = new Interval(Math.min(low, high), Math.max(low, high));
+        Set<T> bucket = buckets.get(interval);
+        if (bucket != null && bucket.remove(value) && bucket.isEmpty()) {
+            buckets.remove(interval);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Removes all intervals.
+     */
+    public void clear() {
+        buckets.clear();
+        root = null;
+        dirty = false;
+    }
+
+    /**
+     * Collects the values of all intervals containing a point.
+     * @param point the point
+     * @param result receives the values
+     */
+    public void stab(double point, Collection<? super T> result) {
+        TreeNode node = getRoot();
+        while (node != null) {
+            if (point < node.center) {
+                for (Interval interval : node.byLow) {
+                    if (interval.low > point) break;
+                    result.addAll(buckets.get(interval));
+                }
+                node = node.left;
+            } else {
+                for (Interval interval : node.byHigh) {
+                    if (interval.high < point) break;
+                    result.addAll(buckets.get(interval));
+                }
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Collects the values of all intervals intersecting a range.
+     * @param low lower end of the range, inclusive
+     * @param high upper end of the range, inclusive
+     * @param result receives the values
+     */
+    public void query(double low, double high, Collection<? super T> result) {
+        if (low == high) {
+            stab(low, result);
+            return;
+        }
+        query(getRoot(), Math.min(low, high), Math.max(low, high), result);
+    }
+
+    private void query(TreeNode node, double low, double high, Collection<? super T> result) {
+        if (node == null) {
+            return;
+        }
+        if (high < node.center) {
+            for (Interval interval : node.byLow) {
+                if (interval.low > high) break;
+                result.addAll(buckets.get(interval));
+            }
+            query(node.left, low, high, result);
+        } else if (low > node.center) {
+            for (Interval interval : node.byHigh) {
+                if (interval.high < low) break;
+                result.addAll(buckets.get(interval));
+            }
+            query(node.right, low, high, result);
+        } else {
+            // The range contains the center, so it intersects every interval of this node
+            for (Interval interval : node.byLow) {
+                result.addAll(buckets.get(interval));
+            }
+            query(node.left, low, high, result);
+            query(node.right, low, high, result);
+        }
+    }
+
+    /**
+     * Gets the number of distinct intervals.
+     * @return the interval count
+     */
+    public int getIntervalCount() {
+        return buckets.size();
+    }
+
+    private TreeNode getRoot() {
+        if (dirty) {
+            root = build(new ArrayList<>(buckets.keySet()));
+            dirty = false;
+        }
+        return root;
+    }
+
+    private static TreeNode build(List<Interval> intervals) {
+        if (intervals.isEmpty()) {
+            return null;
+        }
+        // Median of the end points keeps the tree balanced
+        double[] ends = new double[intervals.size() * 2];
+        for (int i = 0; i < intervals.size(); i++) {
+            ends[2 * i] = intervals.get(i).low;
+            ends[2 * i + 1] = intervals.get(i).high;
+        }
+        Arrays.sort(ends);
+        double center = ends[intervals.size()];
+        List<Interval> left = new ArrayList<>();
+        List<Interval> right = new ArrayList<>();
+        List<Interval> overlapping = new ArrayList<>();
+        for (Interval interval : intervals) {
+            if (interval.high < center) {
+                left.add(interval);
+            } else if (interval.low > center) {
+                right.add(interval);
+            } else {
+                overlapping.add(interval);
+            }
+        }
+        TreeNode node = new TreeNode(center, overlapping);
+        node.left = build(left);
+        node.right = build(right);
+        return node;
+    }
+}
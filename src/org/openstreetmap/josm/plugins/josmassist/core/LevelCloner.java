@@ -0,0 +1,186 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.NodeData;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.PrimitiveData;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.osm.WayData;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Copies the nodes and ways of one level to another level.
+ * <p>
+ * The copies are produced as {@link PrimitiveData} in a single pass over the ways and nodes of
+ * the dataset, ready to be added with one {@code AddPrimitivesCommand}. The level tag is set to
+ * the target level, name prefixes are rewritten with {@link NameInterpolator#extractNameParts},
+ * the {@code verified} tag is dropped, and all nodes can be shifted by a metric offset.
+ */
+public final class LevelCloner {
+
+    /** Tag dropped on copies, as the new level still has to be checked */
+    private static final String VERIFIED_KEY = "verified";
+
+    /**
+     * The copies of a level.
+     */
+    public static final class Result {
+        /** All copied nodes and ways */
+        public final List<PrimitiveData> primitives = new ArrayList<>();
+        /** The copied ways */
+        public final List<PrimitiveData> ways = new ArrayList<>();
+        /** Number of copied nodes */
+        public int nodeCount;
+        /** Number of copies whose name was rewritten */
+        public int renamedCount;
+    }
+
+    private LevelCloner() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Copies the ways and nodes tagged with the source level, plus the untagged nodes of those ways.
+     * Must be called with the dataset read lock held or in the EDT.
+     * @param ds the dataset
+     * @param sourceLevel the level to copy
+     * @param targetLevel the level of the copies
+     * @param fromPrefix name prefix to replace, or null to keep names
+     * @param toPrefix replacement prefix
+     * @param offsetEast offset to the east in meters
+     * @param offsetNorth offset to the north in meters
+     * @return the copies
+     */
+    public static Result cloneLevel(DataSet ds, String sourceLevel, String targetLevel,
+            String fromPrefix, String toPrefix, double offsetEast, double offsetNorth) {
+        Result result = new Result();
+        double distance = Math.hypot(offsetEast, offsetNorth);
+        double bearing = Math.atan2(offsetEast, offsetNorth);
+        Map<Long, Long> nodeIds = new HashMap<>();
+
+        for (Way way : ds.getWays()) {
+            if (!isCopyable(way) || !sourceLevel.equals(way.get("level"))) {
+                continue;
+            }
+            List<Long> copiedNodeIds = new ArrayList<>(way.getNodesCount());
+            for (Node node : way.getNodes()) {
+                Long copyId = nodeIds.get(node.getUniqueId());
+                if (copyId == null) {
+                    NodeData copy = copyNode(node, sourceLevel, targetLevel, fromPrefix, toPrefix, distance, bearing, result);
+                    if (copy == null) {
+                        break;
+                    }
+                    copyId = copy.getUniqueId();
+                    nodeIds.put(node.getUniqueId(), copyId);
+                }
+                copiedNodeIds.add(copyId);
+            }
+            if (copiedNodeIds.size() != way.getNodesCount()) {
+                Logging.debug("LevelCloner: skipping way {0} with nodes without coordinates", way.getUniqueId());
+                continue;
+            }
+            WayData copy = new WayData();
+            copy.setKeys(copyTags(way.getKeys(), sourceLevel, targetLevel, fromPrefix, toPrefix, result));
+            copy.setNodeIds(copiedNodeIds);
+            result.primitives.add(copy);
+            result.ways.add(copy);
+        }
+
+        // Standalone nodes of the level, e.g. entrances or POIs
+        for (Node node : ds.getNodes()) {
+            if (isCopyable(node) && sourceLevel.equals(node.get("level")) && !nodeIds.containsKey(node.getUniqueId())) {
+                NodeData copy = copyNode(node, sourceLevel, targetLevel, fromPrefix, toPrefix, distance, bearing, result);
+                if (copy != null) {
+                    nodeIds.put(node.getUniqueId(), copy.getUniqueId());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isCopyable(OsmPrimitive prim) {
+        return !prim.isDeleted() && !prim.isIncomplete();
+    }
+
+    private static NodeData copyNode(Node node, String sourceLevel, String targetLevel, String fromPrefix, String toPrefix,
+            double distance, double bearing, Result result) {
+        LatLon coor = node.getCoor();
+        if (coor == null) {
+            return null;
+        }
+        NodeData copy = new NodeData();
+        copy.setCoor(distance > 0 ? MetricMove.destinationPoint(coor, bearing, distance) : coor);
+        copy.setKeys(copyTags(node.getKeys(), sourceLevel, targetLevel, fromPrefix, toPrefix, result));
+        result.primitives.add(copy);
+        result.nodeCount++;
+        return copy;
+    }
+
+    private static Map<String, String> copyTags(Map<String, String> keys, String sourceLevel, String targetLevel,
+            String fromPrefix, String toPrefix, Result result) {
+        Map<String, String> tags = new HashMap<>(keys);
+        tags.remove(VERIFIED_KEY);
+        if (sourceLevel.equals(tags.get("level"))) {
+            tags.put("level", targetLevel);
+        }
+        String name = tags.get("name");
+        String newName = rewriteName(name, fromPrefix, toPrefix);
+        if (newName != null && !newName.equals(name)) {
+            tags.put("name", newName);
+            result.renamedCount++;
+        }
+        return tags;
+    }
+
+    /**
+     * Replaces the prefix of a name, keeping the number and its zero padding.
+     * @param name the name, may be null
+     * @param fromPrefix prefix to replace, null or empty to keep the name
+     * @param toPrefix replacement prefix
+     * @return the new name, or the original name if it does not start with {@code fromPrefix}
+     */
+    public static String rewriteName(String name, String fromPrefix, String toPrefix) {
+        if (name == null || fromPrefix == null || fromPrefix.isEmpty() || !name.startsWith(fromPrefix)) {
+            return name;
+        }
+        NameInterpolator.NameParts parts = NameInterpolator.extractNameParts(name);
+        if (parts != null && parts.prefix.equals(fromPrefix)) {
+            return new NameInterpolator.NameParts(toPrefix, parts.number, parts.paddingWidth).format(parts.number);
+        }
+        return toPrefix + name.substring(fromPrefix.length());
+    }
+
+    /**
+     * Finds the most common name prefix on a level, as a default for the prefix to replace.
+     * @param ds the dataset
+     * @param level the level
+     * @return the prefix, or null if no name on the level has a number
+     */
+    public static String mostCommonPrefix(DataSet ds, String level) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Way way : ds.getWays()) {
+            if (!way.isDeleted() && level.equals(way.get("level"))) {
+                NameInterpolator.NameParts parts = NameInterpolator.extractNameParts(way.get("name"));
+                if (parts != null && !parts.prefix.isEmpty()) {
+                    counts.merge(parts.prefix, 1, Integer::sum);
+                }
+            }
+        }
+        String best = null;
+        int bestCount = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > bestCount) {
+                best = entry.getKey();
+                bestCount = entry.getValue();
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,271 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed value of a {@code level} tag.
+ * <p>
+ * A value is a semicolon separated list of levels, each a number ({@code 1}, {@code -1},
+ * {@code 0.5}), a range of numbers ({@code 1-3}, {@code -2--1}) or a label without numeric meaning
+ * ({@code M}). Numbers and ranges become closed intervals, labels only match the same label.
+ * Two values match if any of their intervals intersect or they share a label, so
+ * {@code -1;-2} is on level -1 and on level -2, and {@code 1-3} is on level 2.
+ * <p>
+ * Values are parsed once and cached, as a dataset only uses a handful of distinct level tags.
+ */
+public final class LevelValue {
+
+    /** Cached values are dropped when more distinct tags than this were seen */
+    private static final int CACHE_LIMIT = 4096;
+    private static final Map<String, LevelValue> CACHE = new ConcurrentHashMap<>();
+
+    /** The value without any level */
+    public static final LevelValue EMPTY = new LevelValue("", new double[0], new double[0],
+            Collections.<String>emptySet(), Collections.<String>emptyList());
+
+    private final String text;
+    private final double[] lows;
+    private final double[] highs;
+    private final Set<String> labels;
+    private final List<String> names;
+
+    private LevelValue(String text, double[] lows, double[] highs, Set<String> labels, List<String> names) {
+        this.text = text;
+        this.lows = lows;
+        this.highs = highs;
+        this.labels = labels;
+        this.names = names;
+    }
+
+    /**
+     * Parses a level tag.
+     * @param value the tag value, may be null
+     * @return the parsed value, {@link #EMPTY} for null or empty values
+     */
+    public static LevelValue parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return EMPTY;
+        }
+        LevelValue cached = CACHE.get(value);
+        if (cached == null) {
+            if (CACHE.size() >= CACHE_LIMIT) {
+                CACHE.clear();
+            }
+            cached = doParse(value);
+            CACHE.put(value, cached);
+        }
+        return cached;
+    }
+
+    private static LevelValue doParse(String value) {
+        List<double[]> intervals = new ArrayList<>();
+        Set<String> labels = new LinkedHashSet<>();
+        Set<String> names = new LinkedHashSet<>();
+        for (String part : value.split(";")) {
+            String token = part.trim();
+            if (token.isEmpty()) {
+                continue;
+            }
+            Double number = parseNumber(token);
+            if (number != null) {
+                intervals.add(new double[] {number, number});
+                names.add(token);
+                continue;
+            }
+            int dash = rangeSeparator(token);
+            if (dash > 0) {
+                String from = token.substring(0, dash).trim();
+                String to = token.substring(dash + 1).trim();
+                Double low = parseNumber(from);
+                Double high = parseNumber(to);
+                if (low != null && high != null) {
+                    intervals.add(new double[] {Math.min(low, high), Math.max(low, high)});
+                    names.add(from);
+                    names.add(to);
+                    continue;
+                }
+            }
+            labels.add(token);
+            names.add(token);
+        }
+        if (intervals.isEmpty() && labels.isEmpty()) {
+            return EMPTY;
+        }
+        double[] lows = new double[intervals.size()];
+        double[] highs = new double[intervals.size()];
+        for (int i = 0; i < intervals.size(); i++) {
+            lows[i] = intervals.get(i)[0];
+            highs[i] = intervals.get(i)[1];
+        }
+        return new LevelValue(value, lows, highs, Collections.unmodifiableSet(labels),
+                Collections.unmodifiableList(new ArrayList<>(names)));
+    }
+
+    /**
+     * Finds the dash separating the two ends of a range: the first dash after a digit.
+     */
+    private static int rangeSeparator(String token) {
+        for (int i = 1; i < token.length(); i++) {
+            if (token.charAt(i) == '-' && Character.isDigit(token.charAt(i - 1))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Double parseNumber(String token) {
+        char first = token.isEmpty() ? ' ' : token.charAt(0);
+        if (!Character.isDigit(first) && first != '-' && first != '+' && first != '.') {
+            return null;
+        }
+        try {
+            double number = Double.parseDouble(token);
+            return Double.isNaN(number) || Double.isInfinite(number) ? null : number;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if a level tag matches a level, e.g. {@code -1;-2} matches {@code -1}.
+     * @param tagValue the level tag of a primitive, may be null
+     * @param level the level to match, may be null
+     * @return true if both are set and share at least one level
+     */
+    public static boolean matches(String tagValue, String level) {
+        if (tagValue == null || level == null) {
+            return false;
+        }
+        // Most tags are a single plain level
+        return tagValue.equals(level) || parse(tagValue).overlaps(parse(level));
+    }
+
+    /**
+     * Checks if this value shares a level with another one.
+     * @param other the other value
+     * @return true if any intervals intersect or both have a common label
+     */
+    public boolean overlaps(LevelValue other) {
+        for (int i = 0; i < lows.length; i++) {
+            for (int j = 0; j < other.lows.length; j++) {
+                if (lows[i] <= other.highs[j] && other.lows[j] <= highs[i]) {
+                    return true;
+                }
+            }
+        }
+        for (String label : labels) {
+            if (other.labels.contains(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a numeric level lies in one of the intervals.
+     * @param level the level
+     * @return true if the value contains the level
+     */
+    public boolean contains(double level) {
+        for (int i = 0; i < lows.length; i++) {
+            if (lows[i] <= level && level <= highs[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells if the value is exactly one level, neither a list nor a range.
+     * @return true for single levels
+     */
+    public boolean isSingle() {
+        return names.size() == 1 && (labels.size() == 1 || lows[0] == highs[0]);
+    }
+
+    /**
+     * Tells if the value has no level at all.
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return names.isEmpty();
+    }
+
+    /**
+     * Gets the number of numeric intervals.
+     * @return the interval count
+     */
+    public int getIntervalCount() {
+        return lows.length;
+    }
+
+    /**
+     * Gets the lower end of an interval.
+     * @param index the interval index
+     * @return the lowest level of the interval
+     */
+    public double getLow(int index) {
+        return lows[index];
+    }
+
+    /**
+     * Gets the upper end of an interval.
+     * @param index the interval index
+     * @return the highest level of the interval
+     */
+    public double getHigh(int index) {
+        return highs[index];
+    }
+
+    /**
+     * Gets the labels without numeric meaning.
+     * @return the labels
+     */
+    public Set<String> getLabels() {
+        return labels;
+    }
+
+    /**
+     * Gets the levels named in the tag as written: single levels, range ends and labels.
+     * @return the level names, in tag order without duplicates
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Combines two values, e.g. for a node shared by ways on different levels.
+     * @param other the other value
+     * @return a value with the levels of both
+     */
+    public LevelValue union(LevelValue other) {
+        if (other.isEmpty() || this == other) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        double[] newLows = Arrays.copyOf(lows, lows.length + other.lows.length);
+        double[] newHighs = Arrays.copyOf(highs, highs.length + other.highs.length);
+        System.arraycopy(other.lows, 0, newLows, lows.length, other.lows.length);
+        System.arraycopy(other.highs, 0, newHighs, highs.length, other.highs.length);
+        Set<String> newLabels = new LinkedHashSet<>(labels);
+        newLabels.addAll(other.labels);
+        Set<String> newNames = new LinkedHashSet<>(names);
+        newNames.addAll(other.names);
+        return new LevelValue(text + ';' + other.text, newLows, newHighs, Collections.unmodifiableSet(newLabels),
+                Collections.unmodifiableList(new ArrayList<>(newNames)));
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
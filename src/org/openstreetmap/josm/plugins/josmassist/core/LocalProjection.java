@@ -0,0 +1,60 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+
+/**
+ * Local equirectangular projection to meters around a reference point.
+ * <p>
+ * Accurate for parking-space sized shapes and free of any JOSM projection state, so it can be
+ * used on any thread. East and north are meters from the reference point.
+ */
+public final class LocalProjection {
+
+    /** WGS84 semi-major axis in meters */
+    private static final double EARTH_RADIUS = 6378137.0;
+
+    private final double refLat;
+    private final double refLon;
+    private final double cosLat;
+
+    /**
+     * Creates a projection around a reference point.
+     * @param refLat latitude of the reference point
+     * @param refLon longitude of the reference point
+     */
+    public LocalProjection(double refLat, double refLon) {
+        this.refLat = refLat;
+        this.refLon = refLon;
+        this.cosLat = Math.cos(Math.toRadians(refLat));
+    }
+
+    /**
+     * Projects a position to meters.
+     * @param lat the latitude
+     * @param lon the longitude
+     * @return east and north in meters from the reference point
+     */
+    public EastNorth toLocal(double lat, double lon) {
+        return new EastNorth(
+                Math.toRadians(lon - refLon) * cosLat * EARTH_RADIUS,
+                Math.toRadians(lat - refLat) * EARTH_RADIUS);
+    }
+
+    /**
+     * Gets the latitude of a projected point.
+     * @param p the point in meters
+     * @return the latitude
+     */
+    public double toLat(EastNorth p) {
+        return refLat + Math.toDegrees(p.north() / EARTH_RADIUS);
+    }
+
+    /**
+     * Gets the longitude of a projected point.
+     * @param p the point in meters
+     * @return the longitude
+     */
+    public double toLon(EastNorth p) {
+        return refLon + Math.toDegrees(p.east() / (EARTH_RADIUS * cosLat));
+    }
+}
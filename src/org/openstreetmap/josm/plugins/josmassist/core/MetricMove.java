@@ -0,0 +1,114 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+
+/**
+ * Moves nodes to a new center while preserving metric distances.
+ * Uses great circle distance and bearing so that shapes are not distorted by latitude.
+ */
+public final class MetricMove {
+
+    /** WGS84 semi-major axis in meters */
+    private static final double EARTH_RADIUS_METERS = 6378137.0;
+
+    private MetricMove() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Calculates the new coordinates of the nodes when their center is moved to the target.
+     * @param nodes the nodes to move
+     * @param targetCenter the target center position
+     * @return the new coordinate of every node with coordinates, or an empty map if the center cannot be calculated
+     */
+    public static Map<Node, LatLon> moveTo(Collection<Node> nodes, LatLon targetCenter) {
+        Map<Node, LatLon> result = new LinkedHashMap<>();
+        LatLon sourceCenter = centerOf(nodes);
+        if (sourceCenter == null) {
+            return result;
+        }
+        for (Node node : nodes) {
+            LatLon oldCoor = node.getCoor();
+            if (oldCoor == null) continue;
+
+            // Same distance and bearing from the target center as from the source center
+            double distanceMeters = sourceCenter.greatCircleDistance(oldCoor);
+            double bearing = sourceCenter.bearing(oldCoor);
+            result.put(node, destinationPoint(targetCenter, bearing, distanceMeters));
+        }
+        return result;
+    }
+
+    /**
+     * Calculates a destination point using great circle navigation.
+     * This preserves metric distances correctly regardless of latitude.
+     * @param startPoint the starting point
+     * @param bearing the bearing in radians (0 = north, PI/2 = east)
+     * @param distanceMeters the distance in meters
+     * @return the destination point
+     */
+    public static LatLon destinationPoint(LatLon startPoint, double bearing, double distanceMeters) {
+        double lat1 = Math.toRadians(startPoint.lat());
+        double lon1 = Math.toRadians(startPoint.lon());
+        
+        // Angular distance in radians
+        double angularDistance = distanceMeters / EARTH_RADIUS_METERS;
+        
+        // Calculate destination using spherical trigonometry (great circle)
+        double lat2 = Math.asin(
+            Math.sin(lat1) * Math.cos(angularDistance) +
+            Math.cos(lat1) * Math.sin(angularDistance) * Math.cos(bearing)
+        );
+        
+        double lon2 = lon1 + Math.atan2(
+            Math.sin(bearing) * Math.sin(angularDistance) * Math.cos(lat1),
+            Math.cos(angularDistance) - Math.sin(lat1) * Math.sin(lat2)
+        );
+        
+        return new LatLon(Math.toDegrees(lat2), Math.toDegrees(lon2));
+    }
+
+    /**
+     * Calculates the geographic center of a collection of nodes in LatLon coordinates.
+     * Uses simple average of lat/lon (for small areas this is sufficient).
+     * @param nodes the nodes
+     * @return the center in LatLon coordinates, or null if calculation fails
+     */
+    public static LatLon centerOf(Collection<Node> nodes) {
+        double sumLat = 0.0;
+        double sumLon = 0.0;
+        int count = 0;
+
+        for (Node node : nodes) {
+            LatLon coor = node.getCoor();
+            if (coor == null) continue;
+            sumLat += coor.lat();
+            sumLon += coor.lon();
+            count++;
+        }
+
+        if (count == 0) {
+            return null;
+        }
+
+        return new LatLon(sumLat / count, sumLon / count);
+    }
+
+    /**
+     * Calculates the center of the distinct nodes of a way, see {@link #centerOf(Collection)}.
+     * The closing node of a closed way is only counted once.
+     * @param way the way
+     * @return the center in LatLon coordinates, or null if calculation fails
+     */
+    public static LatLon centerOf(Way way) {
+        List<Node> nodes = way.getNodes();
+        return centerOf(way.isClosed() ? nodes.subList(0, nodes.size() - 1) : nodes);
+    }
+}
@@ -0,0 +1,237 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+
+/**
+ * Calculates the minimal bounding rectangle (possibly rotated) of a set of nodes.
+ * Uses rotating calipers algorithm on the convex hull.
+ */
+public final class MinimalRectangle {
+
+    private MinimalRectangle() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Calculates the minimal bounding rectangle from a set of nodes.
+     * Falls back to an axis-aligned bounding box if the convex hull is degenerate.
+     * @param nodes the nodes to bound
+     * @return list of 4 corners forming the rectangle, or null if calculation fails
+     */
+    public static List<LatLon> of(Collection<Node> nodes) {
+        if (nodes.size() < 3) {
+            return null;
+        }
+
+        // Convert nodes to EastNorth coordinates for calculations
+        List<EastNorth> points = new ArrayList<>();
+        for (Node node : nodes) {
+            if (node.getCoor() != null) {
+                EastNorth en = ProjectionRegistry.getProjection().latlon2eastNorth(node.getCoor());
+                if (en != null) {
+                    points.add(en);
+                }
+            }
+        }
+
+        if (points.size() < 3) {
+            return null;
+        }
+
+        // Calculate convex hull
+        List<EastNorth> hull = convexHull(points);
+        if (hull.size() < 3) {
+            // If convex hull fails, use axis-aligned bounding box
+            return axisAlignedBoundingBox(nodes);
+        }
+
+        // Use rotating calipers to find minimum area rectangle
+        List<EastNorth> bestRect = minimalRectangle(hull);
+        if (bestRect == null) {
+            return axisAlignedBoundingBox(nodes);
+        }
+
+        // Convert EastNorth back to LatLon
+        List<LatLon> result = new ArrayList<>();
+        for (EastNorth en : bestRect) {
+            LatLon ll = ProjectionRegistry.getProjection().eastNorth2latlon(en);
+            if (ll != null) {
+                result.add(ll);
+            }
+        }
+
+        return result.size() == 4 ? result : axisAlignedBoundingBox(nodes);
+    }
+
+    /**
+     * Calculates the convex hull of a set of points using Graham scan algorithm.
+     * @param points the points
+     * @return the convex hull points
+     */
+    public static List<EastNorth> convexHull(List<EastNorth> points) {
+        if (points.size() <= 3) {
+            return new ArrayList<>(points);
+        }
+
+        // Find bottom-most point (or leftmost in case of tie)
+        EastNorth bottom = points.get(0);
+        for (EastNorth p : points) {
+            if (p.north() < bottom.north() || 
+                (p.north() == bottom.north() && p.east() < bottom.east())) {
+                bottom = p;
+            }
+        }
+
+        // Sort points by polar angle with respect to bottom point
+        final EastNorth origin = bottom;
+        List<EastNorth> sorted = new ArrayList<>(points);
+        sorted.sort((a, b) -> {
+            if (a.equals(origin)) return -1;
+            if (b.equals(origin)) return 1;
+            
+            double angleA = Math.atan2(a.north() - origin.north(), a.east() - origin.east());
+            double angleB = Math.atan2(b.north() - origin.north(), b.east() - origin.east());
+            
+            if (Math.abs(angleA - angleB) < 1e-10) {
+                // Same angle, sort by distance
+                double distA = origin.distance(a);
+                double distB = origin.distance(b);
+                return Double.compare(distA, distB);
+            }
+            return Double.compare(angleA, angleB);
+        });
+
+        // Build convex hull using Graham scan
+        List<EastNorth> hull = new ArrayList<>();
+        for (EastNorth point : sorted) {
+            while (hull.size() >= 2) {
+                EastNorth p1 = hull.get(hull.size() - 2);
+                EastNorth p2 = hull.get(hull.size() - 1);
+                
+                // Check if turning right (clockwise)
+                double cross = crossProduct(p1, p2, point);
+                if (cross <= 0) {
+                    hull.remove(hull.size() - 1);
+                } else {
+                    break;
+                }
+            }
+            hull.add(point);
+        }
+
+        return hull;
+    }
+
+    /**
+     * Calculates cross product for three points (for convex hull).
+     */
+    private static double crossProduct(EastNorth a, EastNorth b, EastNorth c) {
+        return (b.east() - a.east()) * (c.north() - a.north()) - 
+               (b.north() - a.north()) * (c.east() - a.east());
+    }
+
+    /**
+     * Finds the minimal area rectangle using rotating calipers.
+     * @param hull the convex hull points
+     * @return list of 4 corners forming the rectangle, or null if the hull is degenerate
+     */
+    public static List<EastNorth> minimalRectangle(List<EastNorth> hull) {
+        if (hull.size() < 3) {
+            return null;
+        }
+
+        double minArea = Double.MAX_VALUE;
+        List<EastNorth> bestRect = null;
+
+        int n = hull.size();
+        
+        // For each edge of the convex hull, try it as one side of the rectangle
+        for (int i = 0; i < n; i++) {
+            EastNorth p1 = hull.get(i);
+            EastNorth p2 = hull.get((i + 1) % n);
+            
+            // Calculate edge direction
+            double dx = p2.east() - p1.east();
+            double dy = p2.north() - p1.north();
+            double edgeLen = Math.sqrt(dx * dx + dy * dy);
+            
+            if (edgeLen < 1e-10) continue;
+            
+            // Unit vector along edge
+            double ux = dx / edgeLen;
+            double uy = dy / edgeLen;
+            
+            // Perpendicular vector (rotated 90 degrees)
+            double vx = -uy;
+            double vy = ux;
+            
+            // Project all points onto edge direction and perpendicular
+            double minU = Double.MAX_VALUE, maxU = -Double.MAX_VALUE;
+            double minV = Double.MAX_VALUE, maxV = -Double.MAX_VALUE;
+            
+            for (EastNorth p : hull) {
+                double u = (p.east() - p1.east()) * ux + (p.north() - p1.north()) * uy;
+                double v = (p.east() - p1.east()) * vx + (p.north() - p1.north()) * vy;
+                
+                minU = Math.min(minU, u);
+                maxU = Math.max(maxU, u);
+                minV = Math.min(minV, v);
+                maxV = Math.max(maxV, v);
+            }
+            
+            double area = (maxU - minU) * (maxV - minV);
+            
+            if (area < minArea) {
+                minArea = area;
+                
+                // Calculate corner points
+                bestRect = new ArrayList<>(4);
+                bestRect.add(new EastNorth(p1.east() + minU * ux + minV * vx, p1.north() + minU * uy + minV * vy));
+                bestRect.add(new EastNorth(p1.east() + maxU * ux + minV * vx, p1.north() + maxU * uy + minV * vy));
+                bestRect.add(new EastNorth(p1.east() + maxU * ux + maxV * vx, p1.north() + maxU * uy + maxV * vy));
+                bestRect.add(new EastNorth(p1.east() + minU * ux + maxV * vx, p1.north() + minU * uy + maxV * vy));
+            }
+        }
+
+        return bestRect;
+    }
+
+    /**
+     * Calculates an axis-aligned bounding box as fallback.
+     * @param nodes the nodes
+     * @return list of 4 corners forming the rectangle, or null if no node has coordinates
+     */
+    public static List<LatLon> axisAlignedBoundingBox(Collection<Node> nodes) {
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+
+        for (Node node : nodes) {
+            if (node.getCoor() != null) {
+                LatLon coor = node.getCoor();
+                minLat = Math.min(minLat, coor.lat());
+                maxLat = Math.max(maxLat, coor.lat());
+                minLon = Math.min(minLon, coor.lon());
+                maxLon = Math.max(maxLon, coor.lon());
+            }
+        }
+
+        if (minLat == Double.MAX_VALUE) {
+            return null;
+        }
+
+        List<LatLon> result = new ArrayList<>();
+        result.add(new LatLon(minLat, minLon));
+        result.add(new LatLon(minLat, maxLon));
+        result.add(new LatLon(maxLat, maxLon));
+        result.add(new LatLon(maxLat, minLon));
+
+        return result;
+    }
+}
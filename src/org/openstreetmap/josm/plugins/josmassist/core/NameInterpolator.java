@@ -0,0 +1,321 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.List;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.projection.Projection;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.plugins.josmassist.core.NamedWaySearch.WayWithDistance;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfOp;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfStats;
+import org.openstreetmap.josm.tools.Geometry;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Interpolates names from adjacent ways.
+ * Handles pattern matching, digit extraction, and spatial interpolation.
+ */
+public final class NameInterpolator {
+
+    private NameInterpolator() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Name split into prefix and trailing number.
+     */
+    public static final class NameParts {
+        public final String prefix;
+        public final int number;
+        /** Number of digits in the original trailing number (for zero padding). */
+        public final int paddingWidth;
+
+        public NameParts(String prefix, int number, int paddingWidth) {
+            this.prefix = prefix;
+            this.number = number;
+            this.paddingWidth = paddingWidth;
+        }
+
+        /**
+         * Formats a name with this prefix and padding width.
+         * @param newNumber the number to use
+         * @return the formatted name
+         */
+        public String format(int newNumber) {
+            return prefix + String.format("%0" + paddingWidth + "d", newNumber);
+        }
+    }
+
+    /**
+     * Spatial relationship between the selected way P and two reference ways A and B.
+     */
+    private static final class SpatialRelationship {
+        final boolean isBetween;
+        final int ordering; // -1: P-A-B (P before), 0: A-P-B (P between), 1: A-B-P (P after)
+
+        SpatialRelationship(boolean isBetween, int ordering) {
+            this.isBetween = isBetween;
+            this.ordering = ordering;
+        }
+    }
+
+    /**
+     * Attempts to interpolate a name for the selected way from two adjacent ways.
+     * @param selectedWay the way to name (P)
+     * @param centerPoint the center point of the selected way
+     * @param level the level to match
+     * @param ds the dataset
+     * @param radiusMeters search radius
+     * @return interpolated name, or null if interpolation is not possible
+     */
+    public static String interpolateName(Way selectedWay, LatLon centerPoint, String level, DataSet ds, double radiusMeters) {
+        try (PerfStats.Span span = PerfStats.start(PerfOp.INTERPOLATE)) {
+            return interpolate(selectedWay, centerPoint, level, ds, radiusMeters);
+        }
+    }
+
+    private static String interpolate(Way selectedWay, LatLon centerPoint, String level, DataSet ds, double radiusMeters) {
+        // Find two adjacent ways with names
+        return interpolateFrom(findAdjacentNamedWays(selectedWay, centerPoint, level, ds, radiusMeters), centerPoint);
+    }
+
+    /**
+     * Interpolates a name from the two nearest of already found named ways.
+     * @param adjacentWays named ways around the selected way, sorted by distance
+     * @param centerPoint the center point of the selected way
+     * @return interpolated name, or null if interpolation is not possible
+     */
+    public static String interpolateFrom(List<WayWithDistance> adjacentWays, LatLon centerPoint) {
+        if (adjacentWays.size() < 2) {
+            Logging.debug("[JOSM Assist] NameInterpolator: Found " + adjacentWays.size() + " adjacent ways, need 2 for interpolation");
+            return null;
+        }
+
+        // Get the two closest ways
+        Way wayA = adjacentWays.get(0).way;
+        Way wayB = adjacentWays.get(1).way;
+        String nameA = wayA.get("name");
+        String nameB = wayB.get("name");
+
+        Logging.debug("[JOSM Assist] NameInterpolator: Found two adjacent ways: A='" + nameA + "', B='" + nameB + "'");
+
+        // Check if names match pattern (letters, digits, and -)
+        if (!isValidNamePattern(nameA) || !isValidNamePattern(nameB)) {
+            Logging.debug("[JOSM Assist] NameInterpolator: Names don't match pattern (letters, digits, -)");
+            return null;
+        }
+
+        // Extract trailing digits
+        NameParts partsA = extractNameParts(nameA);
+        NameParts partsB = extractNameParts(nameB);
+
+        if (partsA == null || partsB == null) {
+            Logging.debug("[JOSM Assist] NameInterpolator: Could not extract digits from names");
+            return null;
+        }
+
+        // Check if prefix matches (for interpolation to make sense)
+        if (!partsA.prefix.equals(partsB.prefix)) {
+            Logging.debug("[JOSM Assist] NameInterpolator: Name prefixes don't match: '" + partsA.prefix + "' vs '" + partsB.prefix + "'");
+            return null;
+        }
+
+        int diff = Math.abs(partsA.number - partsB.number);
+
+        // Ensure A has the smaller number for consistent ordering
+        // This ensures that when ordering = -1 (A-B-P), A is leftmost and B is rightmost
+        if (partsA.number > partsB.number) {
+            Way tempWay = wayA;
+            wayA = wayB;
+            wayB = tempWay;
+            NameParts tempParts = partsA;
+            partsA = partsB;
+            partsB = tempParts;
+        }
+
+        // Calculate spatial relationships
+        SpatialRelationship spatial = calculateSpatialRelationship(centerPoint, wayA, wayB);
+        Logging.debug("[JOSM Assist] NameInterpolator: diff=" + diff + ", isBetween=" + spatial.isBetween
+            + ", ordering=" + spatial.ordering + " (ordering: -1=P-A-B, 0=A-P-B, 1=A-B-P)");
+
+        // Use the maximum padding width to preserve zero padding
+        int paddingWidth = Math.max(partsA.paddingWidth, partsB.paddingWidth);
+        NameParts format = new NameParts(partsA.prefix, 0, paddingWidth);
+
+        if (diff == 2) {
+            // If difference is 2, check if P is between A and B; otherwise fall back to nearest
+            return spatial.isBetween ? format.format((partsA.number + partsB.number) / 2) : null;
+        } else if (diff == 1) {
+            // If difference is 1, infer from relative position
+            int interpolatedNumber = inferNumberFromPosition(partsA, partsB, spatial);
+            if (interpolatedNumber > 0) {
+                return format.format(interpolatedNumber);
+            }
+        }
+        // diff >= 3 (or 0): fall back to nearest
+        return null;
+    }
+
+    /**
+     * Finds adjacent ways with names within the search radius.
+     * First tries lateral search (7x width, 1x length area), then falls back to the two nearest named ways.
+     */
+    private static List<WayWithDistance> findAdjacentNamedWays(Way selectedWay, LatLon centerPoint, String level,
+            DataSet ds, double radiusMeters) {
+        // Try lateral search first (for parking spaces)
+        OrientedBoundingBox obb = OrientedBoundingBox.of(selectedWay);
+        if (obb != null) {
+            List<WayWithDistance> lateralResult = NamedWaySearch.findWaysInLateralArea(
+                selectedWay, centerPoint, level, ds, radiusMeters, obb);
+            if (lateralResult.size() >= 2) {
+                return lateralResult;
+            }
+            Logging.debug("[JOSM Assist] NameInterpolator: Found " + lateralResult.size() + " ways in lateral area, falling back to circular search");
+        }
+
+        // Fallback to the two nearest ways in any direction
+        return NamedWaySearch.findNearestWays(selectedWay, centerPoint, level, ds, 2,
+            radiusMeters * NamedWaySearch.ADAPTIVE_RADIUS_FACTOR);
+    }
+
+    /**
+     * Checks if name matches pattern: only letters, digits, and hyphens.
+     * @param name the name
+     * @return true if the name can take part in interpolation
+     */
+    public static boolean isValidNamePattern(String name) {
+        if (name == null || name.isEmpty()) return false;
+        // Pattern: letters, digits, and hyphens only
+        return name.matches("[a-zA-Z0-9\\-]+");
+    }
+
+    /**
+     * Extracts prefix and trailing digits from a name.
+     * E.g., "A301" -> prefix="A", number=301, paddingWidth=3
+     *       "B3-239" -> prefix="B3-", number=239, paddingWidth=3
+     *       "B3-023" -> prefix="B3-", number=23, paddingWidth=3 (preserves zero padding)
+     * @param name the name
+     * @return the parts, or null if the name has no trailing digits
+     */
+    public static NameParts extractNameParts(String name) {
+        if (name == null || name.isEmpty()) return null;
+
+        // Find trailing digits
+        int lastDigitIndex = -1;
+        for (int i = name.length() - 1; i >= 0; i--) {
+            if (Character.isDigit(name.charAt(i))) {
+                lastDigitIndex = i;
+            } else {
+                break;
+            }
+        }
+
+        if (lastDigitIndex == -1) {
+            // No trailing digits found
+            return null;
+        }
+
+        try {
+            String prefix = name.substring(0, lastDigitIndex);
+            String trailingDigits = name.substring(lastDigitIndex);
+            int number = Integer.parseInt(trailingDigits);
+            int paddingWidth = trailingDigits.length(); // Preserve the original digit count (including leading zeros)
+            return new NameParts(prefix, number, paddingWidth);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Calculates spatial relationship between selected way and two reference ways.
+     */
+    private static SpatialRelationship calculateSpatialRelationship(LatLon centerP, Way wayA, Way wayB) {
+        EastNorth enA = Geometry.getCentroid(wayA.getNodes());
+        EastNorth enB = Geometry.getCentroid(wayB.getNodes());
+
+        if (enA == null || enB == null) {
+            return new SpatialRelationship(false, 0);
+        }
+
+        Projection proj = ProjectionRegistry.getProjection();
+        EastNorth enP = proj.latlon2eastNorth(centerP);
+
+        // Determine ordering: -1 if P-A-B (P before), 0 if A-P-B (P between), 1 if A-B-P (P after)
+        int ordering = determineOrdering(enP, enA, enB);
+
+        // isBetween is true when ordering is 0 (P is between A and B) and P is close to the line
+        boolean isBetween = ordering == 0 && isPointCloseToLineSegment(enP, enA, enB);
+
+        return new SpatialRelationship(isBetween, ordering);
+    }
+
+    /**
+     * Checks if point P is close to the line segment AB (distance check only).
+     * Assumes that determineOrdering has already determined that ordering == 0.
+     */
+    private static boolean isPointCloseToLineSegment(EastNorth p, EastNorth a, EastNorth b) {
+        double abLenSq = a.distanceSq(b);
+        if (abLenSq == 0) return false; // A and B are the same point
+
+        double abEast = b.east() - a.east();
+        double abNorth = b.north() - a.north();
+
+        // Calculate parameter t: position of projection along AB
+        double t = ((p.east() - a.east()) * abEast + (p.north() - a.north()) * abNorth) / abLenSq;
+
+        // Calculate projection point
+        EastNorth projection = new EastNorth(a.east() + t * abEast, a.north() + t * abNorth);
+        double distToLine = p.distance(projection);
+
+        // P is close if within 10% of AB length
+        return distToLine < Math.sqrt(abLenSq) * 0.1;
+    }
+
+    /**
+     * Determines spatial ordering: -1 if P-A-B (P before A), 0 if A-P-B (P between), 1 if A-B-P (P after B).
+     * Aligned with parameter t: negative t → -1, t > 1 → 1, 0 <= t <= 1 → 0.
+     * Uses projection onto line segment AB to determine ordering accurately.
+     */
+    private static int determineOrdering(EastNorth p, EastNorth a, EastNorth b) {
+        double abLenSq = a.distanceSq(b);
+        if (abLenSq == 0) {
+            // A and B are the same point, use distance-based fallback
+            double distPA = p.distance(a);
+            double distPB = p.distance(b);
+            if (distPA < distPB * 0.7) return 1;
+            if (distPB < distPA * 0.7) return -1;
+            return 0;
+        }
+
+        // t = 0 at A, t = 1 at B
+        double t = ((p.east() - a.east()) * (b.east() - a.east())
+                + (p.north() - a.north()) * (b.north() - a.north())) / abLenSq;
+
+        if (t < 0) {
+            return -1; // P-A-B
+        } else if (t > 1) {
+            return 1; // A-B-P
+        } else {
+            return 0; // A-P-B
+        }
+    }
+
+    /**
+     * Infers number from spatial position when difference is 1.
+     */
+    private static int inferNumberFromPosition(NameParts partsA, NameParts partsB, SpatialRelationship spatial) {
+        if (spatial.ordering == -1) {
+            // P-A-B: P is before both, so number should be smaller
+            return Math.min(partsA.number, partsB.number) - 1;
+        } else if (spatial.ordering == 1) {
+            // A-B-P: P is after both, so number should be larger
+            return Math.max(partsA.number, partsB.number) + 1;
+        } else {
+            // A-P-B: P is between, but numbers differ by 1, so can't interpolate
+            return -1;
+        }
+    }
+}
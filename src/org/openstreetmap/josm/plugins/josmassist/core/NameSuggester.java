@@ -0,0 +1,215 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.plugins.josmassist.core.NamedWaySearch.WayWithDistance;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfOp;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfStats;
+import org.openstreetmap.josm.tools.Geometry;
+
+/**
+ * Derives a short ranked list of names for an unnamed parking space.
+ * <p>
+ * The named neighbours are searched once (lateral area first, nearest search as fallback, as in
+ * {@link NamedWaySearch#findNearestNamedWay}); all candidates are computed from that list and
+ * from the numbers already used on the level:
+ * <ol>
+ * <li>the name interpolated from the two adjacent spaces ({@link NameInterpolator#interpolateFrom}),</li>
+ * <li>the number predicted by a straight line fitted through the numbers of the row,</li>
+ * <li>the nearest name +1 and -1,</li>
+ * <li>the next free number.</li>
+ * </ol>
+ * Names that are already taken on the level are moved to the end of the list.
+ */
+public final class NameSuggester {
+
+    /** Maximum number of candidates */
+    public static final int MAX_CANDIDATES = 5;
+
+    /**
+     * How a candidate was derived.
+     */
+    public enum Kind {
+        /** Between or next to the two adjacent spaces */
+        INTERPOLATED("interpolated"),
+        /** Predicted from the numbering along the row */
+        ROW_SEQUENCE("row"),
+        /** Number of the nearest space plus one */
+        NEAREST_NEXT("nearest +1"),
+        /** Number of the nearest space minus one */
+        NEAREST_PREVIOUS("nearest -1"),
+        /** Smallest free number from the best guess on */
+        NEXT_FREE("next free");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Gets the short description shown next to the name.
+         * @return the label
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * A proposed name.
+     */
+    public static final class Candidate {
+        public final String name;
+        public final Kind kind;
+        /** True if another space of the level already has this number */
+        public final boolean taken;
+
+        Candidate(String name, Kind kind, boolean taken) {
+            this.name = name;
+            this.kind = kind;
+            this.taken = taken;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + kind.getLabel() + (taken ? ", taken" : "") + ")";
+        }
+    }
+
+    private NameSuggester() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Computes the ranked candidates for a parking space.
+     * @param selectedWay the unnamed space
+     * @param centerPoint its center
+     * @param level its level
+     * @param ds the dataset
+     * @param radiusMeters search radius
+     * @param usedNumbers numbers used on the level by name prefix; may return null for unknown prefixes
+     * @return the candidates, best first; empty if no named neighbour was found
+     */
+    public static List<Candidate> suggest(Way selectedWay, LatLon centerPoint, String level, DataSet ds,
+            double radiusMeters, Function<String, NumberSet> usedNumbers) {
+        try (PerfStats.Span span = PerfStats.start(PerfOp.SUGGEST_NAMES)) {
+            return computeCandidates(selectedWay, centerPoint, level, ds, radiusMeters, usedNumbers);
+        }
+    }
+
+    private static List<Candidate> computeCandidates(Way selectedWay, LatLon centerPoint, String level, DataSet ds,
+            double radiusMeters, Function<String, NumberSet> usedNumbers) {
+        OrientedBoundingBox obb = OrientedBoundingBox.of(selectedWay);
+        List<WayWithDistance> lateral = obb == null ? Collections.<WayWithDistance>emptyList()
+                : NamedWaySearch.findWaysInLateralArea(selectedWay, centerPoint, level, ds, radiusMeters, obb);
+        List<WayWithDistance> circular = lateral.size() >= 2 ? lateral
+                : NamedWaySearch.findNearestWays(selectedWay, centerPoint, level, ds, 2,
+                    radiusMeters * NamedWaySearch.ADAPTIVE_RADIUS_FACTOR);
+        WayWithDistance nearest = !lateral.isEmpty() ? lateral.get(0) : circular.isEmpty() ? null : circular.get(0);
+        if (nearest == null) {
+            return Collections.emptyList();
+        }
+
+        // Name to candidate, in order of derivation; the first derivation of a name wins
+        Map<String, Kind> derived = new LinkedHashMap<>();
+        NameInterpolator.NameParts best = null;
+
+        String interpolated = NameInterpolator.interpolateFrom(circular, centerPoint);
+        if (interpolated != null) {
+            derived.put(interpolated, Kind.INTERPOLATED);
+            best = NameInterpolator.extractNameParts(interpolated);
+        }
+        NameInterpolator.NameParts row = obb == null ? null : predictFromRow(obb, lateral);
+        if (row != null) {
+            derived.putIfAbsent(row.format(row.number), Kind.ROW_SEQUENCE);
+            best = best != null ? best : row;
+        }
+        NameInterpolator.NameParts near = NameInterpolator.extractNameParts(nearest.way.get("name"));
+        if (near != null) {
+            derived.putIfAbsent(near.format(near.number + 1), Kind.NEAREST_NEXT);
+            if (near.number > 0) {
+                derived.putIfAbsent(near.format(near.number - 1), Kind.NEAREST_PREVIOUS);
+            }
+            best = best != null ? best : near;
+        }
+        if (best != null) {
+            NumberSet numbers = usedNumbers.apply(best.prefix);
+            int free = numbers == null ? best.number : numbers.nextFree(best.number);
+            derived.putIfAbsent(best.format(free), Kind.NEXT_FREE);
+        }
+
+        List<Candidate> free = new ArrayList<>();
+        List<Candidate> taken = new ArrayList<>();
+        for (Map.Entry<String, Kind> entry : derived.entrySet()) {
+            NameInterpolator.NameParts parts = NameInterpolator.extractNameParts(entry.getKey());
+            NumberSet numbers = parts == null ? null : usedNumbers.apply(parts.prefix);
+            boolean isTaken = numbers != null && numbers.isTaken(parts.number);
+            (isTaken ? taken : free).add(new Candidate(entry.getKey(), entry.getValue(), isTaken));
+        }
+        free.addAll(taken);
+        return free.size() > MAX_CANDIDATES ? new ArrayList<>(free.subList(0, MAX_CANDIDATES)) : free;
+    }
+
+    /**
+     * Fits {@code number = a + b * position} through the named spaces of the row, where the position
+     * is measured in space widths along the row, and evaluates it at the selected space.
+     * @return the predicted name parts, or null if the row has no consistent numbering
+     */
+    private static NameInterpolator.NameParts predictFromRow(OrientedBoundingBox obb, List<WayWithDistance> row) {
+        if (row.size() < 2 || obb.width <= 0) {
+            return null;
+        }
+        String prefix = null;
+        int paddingWidth = 1;
+        double n = 0;
+        double sumS = 0;
+        double sumN = 0;
+        double sumSS = 0;
+        double sumSN = 0;
+        for (WayWithDistance neighbour : row) {
+            NameInterpolator.NameParts parts = NameInterpolator.extractNameParts(neighbour.way.get("name"));
+            EastNorth centroid = Geometry.getCentroid(neighbour.way.getNodes());
+            if (parts == null || centroid == null) {
+                continue;
+            }
+            if (prefix == null) {
+                // The nearest space decides which numbering the row belongs to
+                prefix = parts.prefix;
+            } else if (!prefix.equals(parts.prefix)) {
+                continue;
+            }
+            paddingWidth = Math.max(paddingWidth, parts.paddingWidth);
+            double s = ((centroid.east() - obb.center.east()) * obb.widthDir.east()
+                    + (centroid.north() - obb.center.north()) * obb.widthDir.north()) / obb.width;
+            n++;
+            sumS += s;
+            sumN += parts.number;
+            sumSS += s * s;
+            sumSN += s * parts.number;
+        }
+        double denominator = n * sumSS - sumS * sumS;
+        if (n < 2 || Math.abs(denominator) < 1e-9) {
+            return null;
+        }
+        double slope = (n * sumSN - sumS * sumN) / denominator;
+        // Rows are numbered one or two (odd/even sides) per space; anything else is not a row sequence
+        if (Math.abs(slope) < 0.5 || Math.abs(slope) > 2.5) {
+            return null;
+        }
+        long predicted = Math.round((sumN - slope * sumS) / n);
+        if (predicted <= 0 || predicted > Integer.MAX_VALUE) {
+            return null;
+        }
+        return new NameInterpolator.NameParts(prefix, (int) predicted, paddingWidth);
+    }
+}
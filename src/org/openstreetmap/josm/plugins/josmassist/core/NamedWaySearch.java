@@ -0,0 +1,307 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfOp;
+import org.openstreetmap.josm.plugins.josmassist.perf.PerfStats;
+import org.openstreetmap.josm.tools.Geometry;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Searches for named ways on the same level around a parking space.
+ * Lateral search (7x width, 1x length of the space) is tried first because parking
+ * numbers usually run along a row; a best-first nearest search with an adaptive radius is the
+ * fallback. Uses spatial indexing via {@link DataSet#searchWays(BBox)}.
+ */
+public final class NamedWaySearch {
+
+    /** First radius of the nearest search; doubled while too few ways were found */
+    public static final double INITIAL_RADIUS_METERS = 8.0;
+    /** Factor applied to the search radius to get the largest radius of the nearest search */
+    public static final double ADAPTIVE_RADIUS_FACTOR = 4.0;
+
+    /** Mean length of one degree of latitude */
+    private static final double METERS_PER_DEGREE = 111_195.0;
+    /** Keeps the bound below the ellipsoidal distances computed by JOSM */
+    private static final double LOWER_BOUND_SAFETY = 0.99;
+
+    private NamedWaySearch() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Way with its distance to the search center.
+     */
+    public static final class WayWithDistance {
+        public final Way way;
+        public final double distance;
+
+        public WayWithDistance(Way way, double distance) {
+            this.way = way;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Finds the nearest way within the specified radius that has the same level and a name.
+     * First tries lateral search (7x width, 1x height area), then falls back to a nearest search
+     * in all directions up to {@link #ADAPTIVE_RADIUS_FACTOR} times the radius.
+     * @param centerPoint the center point (polygon centroid)
+     * @param excludeWay the way to exclude from search (the selected way)
+     * @param level the level to match
+     * @param ds the dataset to search
+     * @param radiusMeters the search radius in meters
+     * @return the nearest way with a name, or null if none found
+     */
+    public static Way findNearestNamedWay(LatLon centerPoint, Way excludeWay, String level, DataSet ds, double radiusMeters) {
+        // Try lateral search first (for parking spaces)
+        OrientedBoundingBox obb = OrientedBoundingBox.of(excludeWay);
+        if (obb != null) {
+            List<WayWithDistance> lateral = findWaysInLateralArea(excludeWay, centerPoint, level, ds, radiusMeters, obb);
+            if (!lateral.isEmpty()) {
+                Logging.debug("[JOSM Assist] NamedWaySearch: Found way in lateral area");
+                return lateral.get(0).way;
+            }
+            Logging.debug("[JOSM Assist] NamedWaySearch: No way found in lateral area, falling back to circular search");
+        }
+
+        // Fallback to the nearest way in any direction, searching further in sparse areas
+        List<WayWithDistance> nearest = findNearestWays(excludeWay, centerPoint, level, ds, 1, radiusMeters * ADAPTIVE_RADIUS_FACTOR);
+        return nearest.isEmpty() ? null : nearest.get(0).way;
+    }
+
+    /**
+     * Lateral search: finds all named ways within lateral area (7x width, 1x length).
+     * Only ways whose centroid lies in the area are returned.
+     * @param excludeWay the way to exclude (the selected way)
+     * @param centerPoint the search center
+     * @param level the level to match (null for any level)
+     * @param ds the dataset
+     * @param radiusMeters maximum distance
+     * @param obb oriented bounding box of the selected way
+     * @return the ways with their distances, sorted by distance
+     */
+    public static List<WayWithDistance> findWaysInLateralArea(Way excludeWay, LatLon centerPoint, String level,
+            DataSet ds, double radiusMeters, OrientedBoundingBox obb) {
+        try (PerfStats.Span span = PerfStats.start(PerfOp.LATERAL_SEARCH)) {
+            return searchLateralArea(excludeWay, centerPoint, level, ds, radiusMeters, obb);
+        }
+    }
+
+    private static List<WayWithDistance> searchLateralArea(Way excludeWay, LatLon centerPoint, String level,
+            DataSet ds, double radiusMeters, OrientedBoundingBox obb) {
+        List<WayWithDistance> result = new ArrayList<>();
+        Node centerNode = new Node(centerPoint);
+
+        List<Way> candidateWays = ds.searchWays(obb.getLateralSearchBBox());
+        Logging.debug("[JOSM Assist] NamedWaySearch: Lateral search found " + candidateWays.size() + " candidate ways");
+
+        for (Way way : candidateWays) {
+            if (way.equals(excludeWay)) continue;
+
+            // Filter by level (if level is specified)
+            if (!matchesLevel(way, level)) continue;
+
+            // Filter by name
+            if (!hasName(way)) continue;
+
+            // Check if way's centroid is within lateral area
+            EastNorth wayCentroidEN = Geometry.getCentroid(way.getNodes());
+            if (wayCentroidEN == null || !obb.isInLateralArea(wayCentroidEN)) {
+                continue;
+            }
+
+            double distance = distanceToWay(centerNode, way);
+            if (!Double.isNaN(distance) && distance <= radiusMeters) {
+                result.add(new WayWithDistance(way, distance));
+            }
+        }
+
+        result.sort(Comparator.comparingDouble(w -> w.distance));
+        return result;
+    }
+
+    /**
+     * Best-first k-nearest search: finds the {@code k} named ways closest to the center.
+     * <p>
+     * Ways are taken from the dataset's spatial index in growing squares, starting at
+     * {@link #INITIAL_RADIUS_METERS} and doubling up to {@code maxRadiusMeters} only while fewer than
+     * {@code k} ways were found. Candidates are queued by the distance to their bounding box, which
+     * never exceeds the real distance, and the exact distance to the way's edges is only computed
+     * for the candidate at the head of the queue. A way is reported once its exact distance is at
+     * the head of the queue and within the searched radius; the square covers that radius in
+     * true meters ({@link #createCircularBoundingBox}), so no way outside it can be closer.
+     * @param excludeWay the way to exclude (the selected way)
+     * @param centerPoint the search center
+     * @param level the level to match (null for any level)
+     * @param ds the dataset
+     * @param k the number of ways wanted
+     * @param maxRadiusMeters the largest radius searched
+     * @return up to {@code k} ways with their distances, sorted by distance
+     */
+    public static List<WayWithDistance> findNearestWays(Way excludeWay, LatLon centerPoint, String level,
+            DataSet ds, int k, double maxRadiusMeters) {
+        try (PerfStats.Span span = PerfStats.start(PerfOp.NEAREST_SEARCH)) {
+            return searchNearest(excludeWay, centerPoint, level, ds, k, maxRadiusMeters);
+        }
+    }
+
+    private static final class Candidate {
+        final Way way;
+        /** Lower bound of the distance, or the exact distance */
+        final double distance;
+        final boolean exact;
+
+        Candidate(Way way, double distance, boolean exact) {
+            this.way = way;
+            this.distance = distance;
+            this.exact = exact;
+        }
+    }
+
+    private static List<WayWithDistance> searchNearest(Way excludeWay, LatLon centerPoint, String level,
+            DataSet ds, int k, double maxRadiusMeters) {
+        List<WayWithDistance> result = new ArrayList<>(k);
+        Node centerNode = new Node(centerPoint);
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.distance));
+        Set<Way> seen = new HashSet<>();
+        double radius = Math.min(INITIAL_RADIUS_METERS, maxRadiusMeters);
+        int exactCount = 0;
+
+        while (true) {
+            for (Way way : ds.searchWays(createCircularBoundingBox(centerPoint, radius))) {
+                if (!seen.add(way) || way.equals(excludeWay) || !matchesLevel(way, level) || !hasName(way)) continue;
+                queue.add(new Candidate(way, lowerBoundDistance(centerPoint, way.getBBox()), false));
+            }
+            while (result.size() < k && !queue.isEmpty() && queue.peek().distance <= radius) {
+                Candidate head = queue.poll();
+                if (head.exact) {
+                    result.add(new WayWithDistance(head.way, head.distance));
+                    continue;
+                }
+                double distance = distanceToWay(centerNode, head.way);
+                exactCount++;
+                if (!Double.isNaN(distance)) {
+                    queue.add(new Candidate(head.way, distance, true));
+                }
+            }
+            if (result.size() >= k || radius >= maxRadiusMeters) {
+                break;
+            }
+            radius = Math.min(radius * 2, maxRadiusMeters);
+        }
+        Logging.debug("[JOSM Assist] NamedWaySearch: Nearest search found " + result.size() + " of " + k + " ways within "
+            + radius + " m, " + seen.size() + " candidates, " + exactCount + " exact distances");
+        return result;
+    }
+
+    /**
+     * Calculates a lower bound of the distance from a point to anything inside a bounding box.
+     * @param point the point
+     * @param bbox the bounding box
+     * @return the distance in meters, 0 if the point is inside the box
+     */
+    static double lowerBoundDistance(LatLon point, BBox bbox) {
+        if (bbox == null) {
+            return 0;
+        }
+        double dLat = Math.max(0, Math.max(bbox.getMinLat() - point.lat(), point.lat() - bbox.getMaxLat()));
+        double dLon = Math.max(0, Math.max(bbox.getMinLon() - point.lon(), point.lon() - bbox.getMaxLon()));
+        // The cosine of the latitude closest to the pole gives the shortest east-west distance
+        double maxAbsLat = Math.min(90, Math.max(Math.abs(bbox.getMinLat()), Math.max(Math.abs(bbox.getMaxLat()), Math.abs(point.lat()))));
+        double east = dLon * METERS_PER_DEGREE * Math.cos(Math.toRadians(maxAbsLat));
+        double north = dLat * METERS_PER_DEGREE;
+        return Math.hypot(east, north) * LOWER_BOUND_SAFETY;
+    }
+
+    /**
+     * Checks if a way matches the level filter. Lists and ranges match every level they name
+     * or span, see {@link LevelValue}.
+     * @param way the way to check
+     * @param level the level to match (null means no level filtering)
+     * @return true if the way matches the level (or level is null)
+     */
+    public static boolean matchesLevel(Way way, String level) {
+        if (level == null || level.isEmpty()) {
+            return true; // No level filtering
+        }
+        return LevelValue.matches(way.get("level"), level);
+    }
+
+    /**
+     * Checks if a way has a name.
+     * @param way the way to check
+     * @return true if the way has a non-empty name
+     */
+    public static boolean hasName(Way way) {
+        String wayName = way.get("name");
+        return wayName != null && !wayName.isEmpty();
+    }
+
+    /**
+     * Creates a box around a center point that contains every point within the given radius.
+     * <p>
+     * The box is sized in degrees from true meters, not in projected units: in Web Mercator a
+     * square of {@code radius / getMetersPerUnit()} covers only about radius·cos(lat) real
+     * meters, so ways just outside it could be closer than ways inside. The east-west extent
+     * uses the cosine of the box edge closest to the pole, where a degree of longitude is
+     * shortest.
+     * @param centerPoint the center
+     * @param radiusMeters the radius in meters
+     * @return the bounding box
+     */
+    public static BBox createCircularBoundingBox(LatLon centerPoint, double radiusMeters) {
+        double dLat = radiusMeters / (METERS_PER_DEGREE * LOWER_BOUND_SAFETY);
+        double maxAbsLat = Math.min(89.9, Math.abs(centerPoint.lat()) + dLat);
+        double dLon = Math.min(180, dLat / Math.cos(Math.toRadians(maxAbsLat)));
+        return new BBox(centerPoint.lon() - dLon, Math.max(-90, centerPoint.lat() - dLat),
+                centerPoint.lon() + dLon, Math.min(90, centerPoint.lat() + dLat));
+    }
+
+    /**
+     * Calculates the minimum distance from a node to a way in meters.
+     * @param node the node (point) to measure from
+     * @param way the way to measure to
+     * @return the distance in meters, or NaN if calculation fails
+     */
+    public static double distanceToWay(Node node, Way way) {
+        if (way == null || way.getNodes() == null || way.getNodes().isEmpty()) {
+            return Double.NaN;
+        }
+
+        try {
+            // Use Geometry.getDistance which returns distance in meters
+            double distance = Geometry.getDistance(node, way);
+            if (!Double.isNaN(distance) && distance != Double.MAX_VALUE) {
+                return distance;
+            }
+        } catch (Exception e) {
+            // Fallback: calculate distance to nearest node of the way
+            Logging.trace(e);
+        }
+
+        // Fallback: find minimum distance to any node in the way
+        double minDist = Double.MAX_VALUE;
+        for (Node wayNode : way.getNodes()) {
+            if (wayNode != null && wayNode.getCoor() != null) {
+                double dist = node.getCoor().greatCircleDistance(wayNode.getCoor());
+                if (!Double.isNaN(dist) && dist < minDist) {
+                    minDist = dist;
+                }
+            }
+        }
+
+        return (minDist == Double.MAX_VALUE) ? Double.NaN : minDist;
+    }
+}
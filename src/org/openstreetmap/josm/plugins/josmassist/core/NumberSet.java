@@ -0,0 +1,129 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Multiset of the numbers used by the names of one prefix, e.g. the {@code 12} of {@code P012}.
+ * <p>
+ * Besides the count of each number, the set keeps the maximal runs of consecutive used numbers,
+ * so "is taken", "next free" and "lowest gap" are single tree lookups (O(log n)) however long the
+ * runs are. Not thread safe.
+ */
+public final class NumberSet {
+
+    /** Number to number of names using it */
+    private final TreeMap<Integer, Integer> counts = new TreeMap<>();
+    /** Start to end (inclusive) of each maximal run of used numbers */
+    private final TreeMap<Integer, Integer> runs = new TreeMap<>();
+
+    /**
+     * Adds one use of a number.
+     * @param number the number
+     */
+    public void add(int number) {
+        if (counts.merge(number, 1, Integer::sum) > 1) {
+            return;
+        }
+        int start = number;
+        int end = number;
+        Map.Entry<Integer, Integer> before = number == Integer.MIN_VALUE ? null : runs.floorEntry(number - 1);
+        if (before != null && before.getValue() == number - 1) {
+            start = before.getKey();
+        }
+        Integer afterEnd = number == Integer.MAX_VALUE ? null : runs.remove(number + 1);
+        if (afterEnd != null) {
+            end = afterEnd;
+        }
+        runs.put(start, end);
+    }
+
+    /**
+     * Removes one use of a number.
+     * @param number the number
+     */
+    public void remove(int number) {
+        Integer count = counts.get(number);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            counts.put(number, count - 1);
+            return;
+        }
+        counts.remove(number);
+        Map.Entry<Integer, Integer> run = runs.floorEntry(number);
+        int start = run.getKey();
+        int end = run.getValue();
+        runs.remove(start);
+        if (start < number) {
+            runs.put(start, number - 1);
+        }
+        if (number < end) {
+            runs.put(number + 1, end);
+        }
+    }
+
+    /**
+     * Checks if a number is used.
+     * @param number the number
+     * @return true if at least one name uses it
+     */
+    public boolean isTaken(int number) {
+        return counts.containsKey(number);
+    }
+
+    /**
+     * Counts the names using a number.
+     * @param number the number
+     * @return the count, 0 if free
+     */
+    public int count(int number) {
+        Integer count = counts.get(number);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Finds the smallest free number not below the given one.
+     * @param from the first number to consider
+     * @return {@code from} if it is free, otherwise the number after the run containing it
+     */
+    public int nextFree(int from) {
+        Map.Entry<Integer, Integer> run = runs.floorEntry(from);
+        return run != null && run.getValue() >= from ? run.getValue() + 1 : from;
+    }
+
+    /**
+     * Finds the first hole in the numbering: the number after the run starting with the lowest used number.
+     * Equals {@code last() + 1} if the numbering has no holes.
+     * @return the lowest free number above the lowest used number, or null if the set is empty
+     */
+    public Integer lowestGap() {
+        Map.Entry<Integer, Integer> run = runs.firstEntry();
+        return run == null ? null : run.getValue() + 1;
+    }
+
+    /**
+     * Gets the highest used number.
+     * @return the highest number, or null if the set is empty
+     */
+    public Integer last() {
+        return counts.isEmpty() ? null : counts.lastKey();
+    }
+
+    /**
+     * Gets the number of distinct numbers in use.
+     * @return the distinct count
+     */
+    public int size() {
+        return counts.size();
+    }
+
+    /**
+     * Checks if no number is used.
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return counts.isEmpty();
+    }
+}
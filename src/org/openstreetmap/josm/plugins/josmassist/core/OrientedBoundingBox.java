@@ -0,0 +1,176 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.projection.Projection;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.tools.Geometry;
+
+/**
+ * Oriented bounding box of a parking space (rectangle).
+ * For parking spaces: width = shorter (lateral, ~9 ft), length = longer (depth, ~18-20 ft).
+ */
+public final class OrientedBoundingBox {
+
+    /** Lateral search area spans 7x the width of the space (3.5x on each side). */
+    public static final double LATERAL_HALF_WIDTH_FACTOR = 3.5;
+    /** Lateral search area spans 1x the length of the space (0.5x on each side). */
+    public static final double LATERAL_HALF_LENGTH_FACTOR = 0.5;
+
+    /** Shorter dimension (lateral, parallel to driving aisle). */
+    public final double width;
+    /** Longer dimension (depth, perpendicular to aisle). */
+    public final double length;
+    /** Center point. */
+    public final EastNorth center;
+    /** Unit vector along width direction (lateral). */
+    public final EastNorth widthDir;
+    /** Unit vector along length direction (depth). */
+    public final EastNorth lengthDir;
+
+    public OrientedBoundingBox(double width, double length, EastNorth center, EastNorth widthDir, EastNorth lengthDir) {
+        this.width = width;
+        this.length = length;
+        this.center = center;
+        this.widthDir = widthDir;
+        this.lengthDir = lengthDir;
+    }
+
+    /**
+     * Calculates the oriented bounding box of a parking space (rectangle).
+     * Returns width (shorter dimension, lateral) and length (longer dimension, depth).
+     * @param way the polygon way
+     * @return oriented bounding box info, or null if calculation fails
+     */
+    public static OrientedBoundingBox of(Way way) {
+        if (way == null || way.getNodes() == null || way.getNodes().size() < 3) {
+            return null;
+        }
+
+        Projection proj = ProjectionRegistry.getProjection();
+
+        // Convert nodes to EastNorth coordinates
+        List<EastNorth> points = new ArrayList<>();
+        for (Node node : way.getNodes()) {
+            if (node.getCoor() != null) {
+                EastNorth en = proj.latlon2eastNorth(node.getCoor());
+                if (en != null) {
+                    points.add(en);
+                }
+            }
+        }
+
+        if (points.size() < 3) {
+            return null;
+        }
+
+        // Calculate centroid
+        EastNorth centroid = Geometry.getCentroid(way.getNodes());
+        if (centroid == null) {
+            return null;
+        }
+
+        // For a rectangle (parking space), compare the first two edges
+        // Width = shorter edge (lateral, ~9 ft, parallel to driving aisle)
+        // Length = longer edge (depth, ~18-20 ft, perpendicular to aisle)
+        if (points.size() < 4) {
+            return null; // Need at least 4 points for a rectangle
+        }
+
+        // First edge: from point 0 to point 1
+        EastNorth edge1Start = points.get(0);
+        EastNorth edge1End = points.get(1);
+        double edge1Len = Math.sqrt(edge1Start.distanceSq(edge1End));
+
+        // Second edge: from point 1 to point 2
+        EastNorth edge2Start = points.get(1);
+        EastNorth edge2End = points.get(2);
+        double edge2Len = Math.sqrt(edge2Start.distanceSq(edge2End));
+
+        if (edge1Len < 1e-10 || edge2Len < 1e-10) {
+            return null; // Invalid edges
+        }
+
+        EastNorth edge1Dir = new EastNorth(
+            (edge1End.east() - edge1Start.east()) / edge1Len,
+            (edge1End.north() - edge1Start.north()) / edge1Len);
+        EastNorth edge2Dir = new EastNorth(
+            (edge2End.east() - edge2Start.east()) / edge2Len,
+            (edge2End.north() - edge2Start.north()) / edge2Len);
+
+        // Determine which edge is shorter (width) and which is longer (length)
+        if (edge1Len <= edge2Len) {
+            return new OrientedBoundingBox(edge1Len, edge2Len, centroid, edge1Dir, edge2Dir);
+        } else {
+            return new OrientedBoundingBox(edge2Len, edge1Len, centroid, edge2Dir, edge1Dir);
+        }
+    }
+
+    /**
+     * Checks if a point (way centroid) is within the lateral search area.
+     * Lateral area is 7x width and 1x length of this box, centered on it.
+     * @param point the point to check (in EastNorth coordinates)
+     * @return true if the point is within the lateral search area
+     */
+    public boolean isInLateralArea(EastNorth point) {
+        if (point == null) {
+            return false;
+        }
+
+        // Calculate vector from center to point
+        double dx = point.east() - center.east();
+        double dy = point.north() - center.north();
+
+        // Project onto width and length directions
+        double projWidth = dx * widthDir.east() + dy * widthDir.north();
+        double projLength = dx * lengthDir.east() + dy * lengthDir.north();
+
+        return Math.abs(projWidth) <= width * LATERAL_HALF_WIDTH_FACTOR
+            && Math.abs(projLength) <= length * LATERAL_HALF_LENGTH_FACTOR;
+    }
+
+    /**
+     * Gets the corners of the lateral search area (7x width, 1x length).
+     * @return the 4 corners in EastNorth, in ring order
+     */
+    public List<EastNorth> getLateralAreaCorners() {
+        double halfWidth = width * LATERAL_HALF_WIDTH_FACTOR;
+        double halfLength = length * LATERAL_HALF_LENGTH_FACTOR;
+        return Arrays.asList(
+            corner(-halfWidth, -halfLength),
+            corner(halfWidth, -halfLength),
+            corner(halfWidth, halfLength),
+            corner(-halfWidth, halfLength));
+    }
+
+    private EastNorth corner(double alongWidth, double alongLength) {
+        return new EastNorth(
+            center.east() + alongWidth * widthDir.east() + alongLength * lengthDir.east(),
+            center.north() + alongWidth * widthDir.north() + alongLength * lengthDir.north());
+    }
+
+    /**
+     * Creates a bounding box that encompasses the lateral search area.
+     * @return a BBox that encompasses the lateral search area
+     */
+    public BBox getLateralSearchBBox() {
+        Projection proj = ProjectionRegistry.getProjection();
+        BBox bbox = null;
+        for (EastNorth corner : getLateralAreaCorners()) {
+            LatLon ll = proj.eastNorth2latlon(corner);
+            if (bbox == null) {
+                bbox = new BBox(ll.lon(), ll.lat());
+            } else {
+                bbox.add(ll.lon(), ll.lat());
+            }
+        }
+        return bbox;
+    }
+}
@@ -0,0 +1,107 @@
+package org.openstreetmap.josm.plugins.josmassist.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+
+/**
+ * Snaps the four corners of a near-rectangular space onto its minimal enclosing rectangle.
+ * <p>
+ * The corners are projected to meters around the first corner ({@link LocalProjection}, so it
+ * can run on any thread), the rectangle is found with {@link MinimalRectangle} and each corner is paired with
+ * the rectangle corner that keeps the total displacement smallest. {@link #toRectangle} replaces
+ * a whole ring by its rectangle instead, like the combine action does.
+ */
+public final class RectangleSnap {
+
+    /** Corners closer than this to the rectangle (meters) are left where they are */
+    private static final double MIN_MOVE = 0.005;
+
+    private RectangleSnap() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Computes the snapped corner positions.
+     * @param corners the four distinct corners in ring order
+     * @param tolerance largest distance in meters a corner may move
+     * @return the new positions in the order of {@code corners}, or null if the shape is already
+     *         rectangular or a corner would move further than the tolerance
+     */
+    public static LatLon[] snap(LatLon[] corners, double tolerance) {
+        if (corners.length != 4) {
+            return null;
+        }
+        LocalProjection projection = new LocalProjection(corners[0].lat(), corners[0].lon());
+        List<EastNorth> points = new ArrayList<>(4);
+        for (LatLon corner : corners) {
+            points.add(projection.toLocal(corner.lat(), corner.lon()));
+        }
+        List<EastNorth> rect = MinimalRectangle.minimalRectangle(MinimalRectangle.convexHull(points));
+        if (rect == null || rect.size() != 4) {
+            return null;
+        }
+
+        // Pair the corners with the rectangle corners: try every rotation in both directions
+        int[] best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (int shift = 0; shift < 4; shift++) {
+            for (int dir = -1; dir <= 1; dir += 2) {
+                int[] pairing = new int[4];
+                double cost = 0;
+                for (int i = 0; i < 4; i++) {
+                    pairing[i] = Math.floorMod(shift + dir * i, 4);
+                    cost += points.get(i).distanceSq(rect.get(pairing[i]));
+                }
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = pairing;
+                }
+            }
+        }
+
+        double maxMove = 0;
+        for (int i = 0; i < 4; i++) {
+            maxMove = Math.max(maxMove, points.get(i).distance(rect.get(best[i])));
+        }
+        if (maxMove < MIN_MOVE || maxMove > tolerance) {
+            return null;
+        }
+        LatLon[] result = new LatLon[4];
+        for (int i = 0; i < 4; i++) {
+            EastNorth p = rect.get(best[i]);
+            result[i] = new LatLon(projection.toLat(p), projection.toLon(p));
+        }
+        return result;
+    }
+
+    /**
+     * Replaces a ring by its minimal enclosing rectangle.
+     * @param ring closed ring as lat, lon pairs
+     * @return the closed rectangle as five lat, lon pairs, or null if the ring is degenerate
+     */
+    public static double[] toRectangle(double[] ring) {
+        int n = ring.length / 2 - 1;
+        if (n < 3) {
+            return null;
+        }
+        LocalProjection projection = new LocalProjection(ring[0], ring[1]);
+        List<EastNorth> points = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            points.add(projection.toLocal(ring[2 * i], ring[2 * i + 1]));
+        }
+        List<EastNorth> rect = MinimalRectangle.minimalRectangle(MinimalRectangle.convexHull(points));
+        if (rect == null || rect.size() != 4) {
+            return null;
+        }
+        double[] result = new double[10];
+        for (int i = 0; i < 5; i++) {
+            EastNorth p = rect.get(i % 4);
+            result[2 * i] = projection.toLat(p);
+            result[2 * i + 1] = projection.toLon(p);
+        }
+        return result;
+    }
+}
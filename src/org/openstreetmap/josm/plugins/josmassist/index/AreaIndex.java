@@ -0,0 +1,372 @@
+package org.openstreetmap.josm.plugins.josmassist.index;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned snapshot of the closed area ways of one dataset.
+ * <p>
+ * Records are bucketed into a uniform lat/lon grid by bounding box, so a point query only
+ * looks at the few records of one cell instead of all ways of the dataset. A snapshot never
+ * changes once built and can be read from any thread without locking; changes are made on a
+ * {@link Builder} obtained from {@link #edit()}, which copies only the shards it touches and
+ * shares the others with the previous snapshot. The version tells readers whether a result
+ * was computed from an older snapshot.
+ */
+public final class AreaIndex {
+
+    /** Grid cell size in degrees (about 50 m of latitude) */
+    static final double CELL_SIZE = 0.0005;
+    /** Records covering more cells than this are kept in a separate list that every query scans */
+    static final int MAX_CELLS_PER_RECORD = 1024;
+    /** Number of shards of the record and grid maps; a power of two */
+    static final int SHARDS = 64;
+
+    private static final AreaRecord[] NO_RECORDS = new AreaRecord[0];
+
+    /** The empty index, version 0 */
+    public static final AreaIndex EMPTY = new AreaIndex(0, emptyShards(), emptyShards(), NO_RECORDS, 0);
+
+    private final long version;
+    private final Map<Long, AreaRecord>[] records;
+    private final Map<Long, AreaRecord[]>[] grid;
+    private final AreaRecord[] oversized;
+    private final int size;
+
+    private AreaIndex(long version, Map<Long, AreaRecord>[] records, Map<Long, AreaRecord[]>[] grid,
+            AreaRecord[] oversized, int size) {
+        this.version = version;
+        this.records = records;
+        this.grid = grid;
+        this.oversized = oversized;
+        this.size = size;
+    }
+
+    /**
+     * Gets the version of this snapshot. Versions of the snapshots of one dataset increase
+     * with every published change.
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the record with the given id.
+     * @param id the way id
+     * @return the record, or null
+     */
+    public AreaRecord get(long id) {
+        return records[shardOf(id)].get(id);
+    }
+
+    /**
+     * Gets all records.
+     * @return unmodifiable view of all records
+     */
+    public Collection<AreaRecord> getRecords() {
+        return new AbstractCollection<AreaRecord>() {
+            @Override
+            public Iterator<AreaRecord> iterator() {
+                List<Iterator<AreaRecord>> iterators = new ArrayList<>(SHARDS);
+                for (Map<Long, AreaRecord> shard : records) {
+                    if (!shard.isEmpty()) {
+                        iterators.add(Collections.unmodifiableCollection(shard.values()).iterator());
+                    }
+                }
+                Iterator<Iterator<AreaRecord>> outer = iterators.iterator();
+                return new Iterator<AreaRecord>() {
+                    private Iterator<AreaRecord> current = Collections.emptyIterator();
+
+                    @Override
+                    public boolean hasNext() {
+                        while (!current.hasNext() && outer.hasNext()) {
+                            current = outer.next();
+                        }
+                        return current.hasNext();
+                    }
+
+                    @Override
+                    public AreaRecord next() {
+                        hasNext();
+                        return current.next();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Gets the number of records.
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the records whose bounding box contains the point.
+     * @param lat latitude
+     * @param lon longitude
+     * @return the candidates; use {@link AreaRecord#contains} for the exact test
+     */
+    public List<AreaRecord> query(double lat, double lon) {
+        List<AreaRecord> result = new ArrayList<>();
+        long cell = cellKey(cellOf(lat), cellOf(lon));
+        AreaRecord[] bucket = grid[shardOf(cell)].get(cell);
+        if (bucket != null) {
+            collect(bucket, lat, lon, result);
+        }
+        collect(oversized, lat, lon, result);
+        return result;
+    }
+
+    /**
+     * Finds the records whose bounding box intersects the given box.
+     * @param minLat minimum latitude
+     * @param minLon minimum longitude
+     * @param maxLat maximum latitude
+     * @param maxLon maximum longitude
+     * @return the records, each once
+     */
+    public List<AreaRecord> query(double minLat, double minLon, double maxLat, double maxLon) {
+        Map<Long, AreaRecord> found = new LinkedHashMap<>();
+        for (int row = cellOf(minLat); row <= cellOf(maxLat); row++) {
+            for (int col = cellOf(minLon); col <= cellOf(maxLon); col++) {
+                long cell = cellKey(row, col);
+                AreaRecord[] bucket = grid[shardOf(cell)].get(cell);
+                if (bucket != null) {
+                    for (AreaRecord record : bucket) {
+                        if (record.bboxIntersects(minLat, minLon, maxLat, maxLon)) {
+                            found.put(record.id, record);
+                        }
+                    }
+                }
+            }
+        }
+        for (AreaRecord record : oversized) {
+            if (record.bboxIntersects(minLat, minLon, maxLat, maxLon)) {
+                found.put(record.id, record);
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    private static void collect(AreaRecord[] bucket, double lat, double lon, List<AreaRecord> result) {
+        for (AreaRecord record : bucket) {
+            if (record.bboxContains(lat, lon)) {
+                result.add(record);
+            }
+        }
+    }
+
+    /**
+     * Starts a set of changes based on this snapshot. The snapshot itself is not affected.
+     * @return a builder
+     */
+    public Builder edit() {
+        return new Builder(this);
+    }
+
+    /**
+     * Collects changes to a snapshot and builds the next one. Not thread safe.
+     */
+    public static final class Builder {
+        private final long baseVersion;
+        private final Map<Long, AreaRecord>[] records;
+        private final Map<Long, AreaRecord[]>[] grid;
+        private final boolean[] ownRecords = new boolean[SHARDS];
+        private final boolean[] ownGrid = new boolean[SHARDS];
+        private final List<AreaRecord> oversized;
+        private int size;
+        private boolean changed;
+
+        private Builder(AreaIndex base) {
+            this.baseVersion = base.version;
+            this.records = base.records.clone();
+            this.grid = base.grid.clone();
+            this.oversized = new ArrayList<>(Arrays.asList(base.oversized));
+            this.size = base.size;
+        }
+
+        /**
+         * Adds or replaces a record.
+         * @param record the record
+         * @return this builder
+         */
+        public Builder put(AreaRecord record) {
+            if (record.equals(get(record.id))) {
+                return this;
+            }
+            changed = true;
+            AreaRecord old = writableRecords(record.id).put(record.id, record);
+            if (old != null) {
+                unlink(old);
+            } else {
+                size++;
+            }
+            if (cellCount(record) > MAX_CELLS_PER_RECORD) {
+                oversized.add(record);
+                return this;
+            }
+            forEachCell(record, cell -> {
+                Map<Long, AreaRecord[]> shard = writableGrid(cell);
+                AreaRecord[] bucket = shard.get(cell);
+                AreaRecord[] grown = bucket == null ? new AreaRecord[1] : Arrays.copyOf(bucket, bucket.length + 1);
+                grown[grown.length - 1] = record;
+                shard.put(cell, grown);
+            });
+            return this;
+        }
+
+        /**
+         * Removes the record with the given id.
+         * @param id the way id
+         * @return this builder
+         */
+        public Builder remove(long id) {
+            if (records[shardOf(id)].containsKey(id)) {
+                changed = true;
+                unlink(writableRecords(id).remove(id));
+                size--;
+            }
+            return this;
+        }
+
+        /**
+         * Gets the record with the given id, including the changes made so far.
+         * @param id the way id
+         * @return the record, or null
+         */
+        public AreaRecord get(long id) {
+            return records[shardOf(id)].get(id);
+        }
+
+        /**
+         * Tells if any record was added, replaced or removed since the builder was created.
+         * @return true if there are changes
+         */
+        public boolean hasChanges() {
+            return changed;
+        }
+
+        /**
+         * Builds the next snapshot, with a version one higher than the base snapshot.
+         * @return the new snapshot
+         */
+        public AreaIndex build() {
+            return build(baseVersion + 1);
+        }
+
+        /**
+         * Builds a snapshot with the given version.
+         * @param version the version
+         * @return the new snapshot
+         */
+        public AreaIndex build(long version) {
+            // Hand over the shards; later changes to this builder copy them again
+            Arrays.fill(ownRecords, false);
+            Arrays.fill(ownGrid, false);
+            return new AreaIndex(version, records.clone(), grid.clone(), oversized.toArray(NO_RECORDS), size);
+        }
+
+        private void unlink(AreaRecord record) {
+            if (oversized.remove(record)) {
+                return;
+            }
+            forEachCell(record, cell -> {
+                Map<Long, AreaRecord[]> shard = writableGrid(cell);
+                AreaRecord[] bucket = shard.get(cell);
+                if (bucket == null) {
+                    return;
+                }
+                AreaRecord[] shrunk = new AreaRecord[bucket.length - 1];
+                int j = 0;
+                for (AreaRecord r : bucket) {
+                    if (r.id != record.id && j < shrunk.length) {
+                        shrunk[j++] = r;
+                    }
+                }
+                if (shrunk.length == 0) {
+                    shard.remove(cell);
+                } else {
+                    shard.put(cell, shrunk);
+                }
+            });
+        }
+
+        private Map<Long, AreaRecord> writableRecords(long id) {
+            int shard = shardOf(id);
+            if (!ownRecords[shard]) {
+                records[shard] = new HashMap<>(records[shard]);
+                ownRecords[shard] = true;
+            }
+            return records[shard];
+        }
+
+        private Map<Long, AreaRecord[]> writableGrid(long cell) {
+            int shard = shardOf(cell);
+            if (!ownGrid[shard]) {
+                grid[shard] = new HashMap<>(grid[shard]);
+                ownGrid[shard] = true;
+            }
+            return grid[shard];
+        }
+    }
+
+    // ========== Grid helpers ==========
+
+    private interface CellConsumer {
+        void accept(long cell);
+    }
+
+    private static void forEachCell(AreaRecord record, CellConsumer consumer) {
+        int minRow = cellOf(record.minLat);
+        int maxRow = cellOf(record.maxLat);
+        int minCol = cellOf(record.minLon);
+        int maxCol = cellOf(record.maxLon);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                consumer.accept(cellKey(row, col));
+            }
+        }
+    }
+
+    private static long cellCount(AreaRecord record) {
+        return (long) (cellOf(record.maxLat) - cellOf(record.minLat) + 1)
+                * (cellOf(record.maxLon) - cellOf(record.minLon) + 1);
+    }
+
+    private static int cellOf(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static int shardOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 58) & (SHARDS - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Map<Long, V>[] emptyShards() {
+        Map<Long, V>[] shards = new Map[SHARDS];
+        Arrays.fill(shards, Collections.emptyMap());
+        return shards;
+    }
+}
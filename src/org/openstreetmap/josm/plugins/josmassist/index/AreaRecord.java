@@ -0,0 +1,165 @@
+package org.openstreetmap.josm.plugins.josmassist.index;
+
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+
+/**
+ * Immutable index entry for one closed area way: id, bounding box, level, name and the
+ * coordinates of its ring, so that readers can test containment without touching the dataset.
+ */
+public final class AreaRecord {
+
+    public final long id;
+    public final double minLat;
+    public final double minLon;
+    public final double maxLat;
+    public final double maxLon;
+    /** Value of the level tag, or null */
+    public final String level;
+    /** Value of the name tag, or null */
+    public final String name;
+    /** Ring coordinates as lat, lon pairs; the closing node is included */
+    private final double[] coordinates;
+
+    /**
+     * Creates a record; the bounding box is computed from the coordinates.
+     * @param id unique id of the way
+     * @param coordinates ring coordinates as lat, lon pairs; not copied, must not be modified afterwards
+     * @param level value of the level tag, or null
+     * @param name value of the name tag, or null
+     */
+    public AreaRecord(long id, double[] coordinates, String level, String name) {
+        double minLat = Double.MAX_VALUE, minLon = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (int i = 0; i < coordinates.length; i += 2) {
+            minLat = Math.min(minLat, coordinates[i]);
+            minLon = Math.min(minLon, coordinates[i + 1]);
+            maxLat = Math.max(maxLat, coordinates[i]);
+            maxLon = Math.max(maxLon, coordinates[i + 1]);
+        }
+        this.id = id;
+        this.minLat = minLat;
+        this.minLon = minLon;
+        this.maxLat = maxLat;
+        this.maxLon = maxLon;
+        this.level = level;
+        this.name = name;
+        this.coordinates = coordinates;
+    }
+
+    /**
+     * Creates the record of a way.
+     * @param way the way
+     * @return the record, or null if the way is not a usable closed area
+     */
+    public static AreaRecord of(Way way) {
+        if (way.isDeleted() || way.isIncomplete() || !way.isClosed() || !way.isArea()) {
+            return null;
+        }
+        java.util.List<Node> nodes = way.getNodes();
+        double[] coordinates = new double[nodes.size() * 2];
+        for (int i = 0; i < nodes.size(); i++) {
+            LatLon coor = nodes.get(i).getCoor();
+            if (coor == null) {
+                return null;
+            }
+            coordinates[2 * i] = coor.lat();
+            coordinates[2 * i + 1] = coor.lon();
+        }
+        return new AreaRecord(way.getUniqueId(), coordinates, way.get("level"), way.get("name"));
+    }
+
+    /**
+     * Gets the number of ring nodes, including the closing node.
+     * @return the node count
+     */
+    public int getNodeCount() {
+        return coordinates.length / 2;
+    }
+
+    /**
+     * Gets the latitude of a ring node.
+     * @param i node index
+     * @return the latitude
+     */
+    public double getLat(int i) {
+        return coordinates[2 * i];
+    }
+
+    /**
+     * Gets the longitude of a ring node.
+     * @param i node index
+     * @return the longitude
+     */
+    public double getLon(int i) {
+        return coordinates[2 * i + 1];
+    }
+
+    /**
+     * Tells if the ring contains the point (even-odd rule in lat/lon space).
+     * @param lat latitude
+     * @param lon longitude
+     * @return true if inside
+     */
+    public boolean contains(double lat, double lon) {
+        if (!bboxContains(lat, lon)) {
+            return false;
+        }
+        boolean inside = false;
+        int n = getNodeCount();
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            double latI = coordinates[2 * i], lonI = coordinates[2 * i + 1];
+            double latJ = coordinates[2 * j], lonJ = coordinates[2 * j + 1];
+            if ((latI > lat) != (latJ > lat)
+                    && lon < (lonJ - lonI) * (lat - latI) / (latJ - latI) + lonI) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Tells if the bounding box contains the point.
+     * @param lat latitude
+     * @param lon longitude
+     * @return true if inside or on the border
+     */
+    public boolean bboxContains(double lat, double lon) {
+        return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+    }
+
+    /**
+     * Tells if the bounding box intersects another box (touching counts).
+     * @param minLat minimum latitude of the other box
+     * @param minLon minimum longitude of the other box
+     * @param maxLat maximum latitude of the other box
+     * @param maxLon maximum longitude of the other box
+     * @return true if the boxes intersect
+     */
+    public boolean bboxIntersects(double minLat, double minLon, double maxLat, double maxLon) {
+        return this.minLat <= maxLat && this.maxLat >= minLat && this.minLon <= maxLon && this.maxLon >= minLon;
+    }
+
+    /**
+     * Gets the area of the bounding box in square degrees (for ordering only).
+     * @return the bounding box area
+     */
+    public double bboxArea() {
+        return (maxLat - minLat) * (maxLon - minLon);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof AreaRecord)) return false;
+        AreaRecord other = (AreaRecord) obj;
+        return id == other.id && java.util.Arrays.equals(coordinates, other.coordinates)
+                && java.util.Objects.equals(level, other.level) && java.util.Objects.equals(name, other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+}
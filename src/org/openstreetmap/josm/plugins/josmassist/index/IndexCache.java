@@ -0,0 +1,202 @@
+package org.openstreetmap.josm.plugins.josmassist.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * On-disk snapshot of an {@link AreaIndex}, stored in the JOSM cache directory and read back in
+ * one piece with a channel read. It is not memory mapped, because on Windows a mapping that is
+ * not yet garbage collected would keep {@link #save} from replacing the file.
+ * <p>
+ * Layout (big endian): magic {@code JAIX}, format version, source path, source size,
+ * modification time and content hash (see {@link IndexCacheKey}), the string table, record
+ * count, then the records (id, level string index, name string index, node count, lat/lon
+ * pairs). A snapshot is only used when its key equals the key of the file being opened.
+ */
+public final class IndexCache {
+
+    private static final int MAGIC = 0x4A41_4958; // "JAIX"
+    private static final int FORMAT_VERSION = 2;
+    private static final int RECORD_HEADER_SIZE = 8 + 4 + 4 + 4;
+    private static final int NO_STRING = -1;
+
+    private final File directory;
+
+    /**
+     * Creates a cache in {@code <JOSM cache>/josmassist/index}.
+     */
+    public IndexCache() {
+        this(new File(new File(Config.getDirs().getCacheDirectory(true), "josmassist"), "index"));
+    }
+
+    /**
+     * Creates a cache in the given directory.
+     * @param directory the cache directory
+     */
+    public IndexCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the snapshot for a source file.
+     * @param key key of the source file as it is now
+     * @return the records, or null if there is no valid snapshot for this key
+     */
+    public List<AreaRecord> load(IndexCacheKey key) {
+        File file = fileFor(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) fileSize);
+            IndexCacheKey.readFully(channel, buffer, 0);
+            buffer.flip();
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            String path = readString(buffer);
+            long size = buffer.getLong();
+            long lastModified = buffer.getLong();
+            byte[] hash = new byte[IndexCacheKey.HASH_LENGTH];
+            buffer.get(hash);
+            if (!key.equals(new IndexCacheKey(path, size, lastModified, hash))) {
+                return null;
+            }
+            int stringCount = buffer.getInt();
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                strings[i] = readString(buffer);
+            }
+            int count = buffer.getInt();
+            List<AreaRecord> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = buffer.getLong();
+                String level = stringAt(strings, buffer.getInt());
+                String name = stringAt(strings, buffer.getInt());
+                double[] coordinates = new double[2 * buffer.getInt()];
+                buffer.asDoubleBuffer().get(coordinates);
+                buffer.position(buffer.position() + coordinates.length * 8);
+                records.add(new AreaRecord(id, coordinates, level, name));
+            }
+            return records;
+        } catch (IOException | RuntimeException e) {
+            Logging.warn("JOSM Assist: ignoring unreadable index cache " + file + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot for a source file, replacing any previous one atomically.
+     * @param key key of the source file, matching the contents the index was built from
+     * @param snapshot the records of the index; must not be modified while saving
+     * @throws IOException if writing fails
+     */
+    public void save(IndexCacheKey key, Collection<AreaRecord> snapshot) throws IOException {
+        List<AreaRecord> records = new ArrayList<>(snapshot);
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (AreaRecord record : records) {
+            intern(record.level, stringIds, strings);
+            intern(record.name, stringIds, strings);
+        }
+
+        byte[] path = key.getPath().getBytes(StandardCharsets.UTF_8);
+        int length = 4 + 4 + 4 + path.length + 8 + 8 + IndexCacheKey.HASH_LENGTH + 4 + 4;
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        for (String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            length += 4 + bytes.length;
+        }
+        for (AreaRecord record : records) {
+            length += RECORD_HEADER_SIZE + record.getNodeCount() * 16;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+        buffer.putInt(path.length).put(path);
+        buffer.putLong(key.getSize()).putLong(key.getLastModified()).put(key.getHash());
+        buffer.putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        buffer.putInt(records.size());
+        for (AreaRecord record : records) {
+            buffer.putLong(record.id)
+                  .putInt(stringIndex(record.level, stringIds))
+                  .putInt(stringIndex(record.name, stringIds))
+                  .putInt(record.getNodeCount());
+            for (int i = 0; i < record.getNodeCount(); i++) {
+                buffer.putDouble(record.getLat(i)).putDouble(record.getLon(i));
+            }
+        }
+        buffer.flip();
+
+        Files.createDirectories(directory.toPath());
+        File target = fileFor(key);
+        File temp = new File(directory, target.getName() + ".tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+             FileChannel channel = raf.getChannel()) {
+            channel.truncate(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Deletes the snapshot of a source file, if any.
+     * @param key key of the source file (only the path is used)
+     */
+    public void invalidate(IndexCacheKey key) {
+        File file = fileFor(key);
+        if (file.isFile() && !file.delete()) {
+            Logging.warn("JOSM Assist: cannot delete index cache " + file);
+        }
+    }
+
+    File fileFor(IndexCacheKey key) {
+        return new File(directory, key.getPathDigest() + ".idx");
+    }
+
+    private static void intern(String s, Map<String, Integer> ids, List<String> strings) {
+        if (s != null && !ids.containsKey(s)) {
+            ids.put(s, strings.size());
+            strings.add(s);
+        }
+    }
+
+    private static int stringIndex(String s, Map<String, Integer> ids) {
+        return s == null ? NO_STRING : ids.get(s);
+    }
+
+    private static String stringAt(String[] strings, int index) {
+        return index == NO_STRING ? null : strings[index];
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
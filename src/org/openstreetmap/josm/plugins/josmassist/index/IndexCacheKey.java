@@ -0,0 +1,164 @@
+package org.openstreetmap.josm.plugins.josmassist.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.EOFException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Identity of an OSM source file for the index cache: absolute path, size, last modification
+ * time and a content hash.
+ * <p>
+ * The hash covers the size plus the first, middle and last {@value #SAMPLE_SIZE} bytes of the
+ * file. That keeps validation at a few hundred kilobytes of I/O even for very large files; the
+ * modification time catches same-size edits between the samples (a changed coordinate digit, a
+ * renamed space), which the hash alone would miss. The samples are read into a heap buffer rather than memory mapped: a mapping lives until
+ * it is garbage collected, and on Windows it would keep JOSM from rewriting the file.
+ */
+public final class IndexCacheKey {
+
+    static final int SAMPLE_SIZE = 64 * 1024;
+    static final int HASH_LENGTH = 32;
+
+    private final String path;
+    private final long size;
+    private final long lastModified;
+    private final byte[] hash;
+
+    IndexCacheKey(String path, long size, long lastModified, byte[] hash) {
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.hash = hash.clone();
+    }
+
+    /**
+     * Computes the key of a file.
+     * @param file the file
+     * @return the key
+     * @throws IOException if the file cannot be read
+     */
+    public static IndexCacheKey of(File file) throws IOException {
+        File absolute = file.getAbsoluteFile();
+        long lastModified = absolute.lastModified();
+        try (RandomAccessFile raf = new RandomAccessFile(absolute, "r");
+             FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            MessageDigest digest = newDigest();
+            digest.update(longBytes(size));
+            if (size > 0) {
+                ByteBuffer sample = ByteBuffer.allocate(SAMPLE_SIZE);
+                for (long offset : sampleOffsets(size)) {
+                    sample.clear().limit((int) Math.min(SAMPLE_SIZE, size - offset));
+                    readFully(channel, sample, offset);
+                    sample.flip();
+                    digest.update(sample);
+                }
+            }
+            return new IndexCacheKey(absolute.getPath(), size, lastModified, digest.digest());
+        }
+    }
+
+    /**
+     * Fills the remaining space of a buffer from a position of the channel.
+     * @param channel the channel
+     * @param buffer the buffer
+     * @param position the file position of the first byte
+     * @throws IOException if reading fails or the file ends first
+     */
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, pos);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file at " + pos);
+            }
+            pos += read;
+        }
+    }
+
+    private static long[] sampleOffsets(long size) {
+        if (size <= 3L * SAMPLE_SIZE) {
+            return new long[] {0};
+        }
+        return new long[] {0, size / 2 - SAMPLE_SIZE / 2, size - SAMPLE_SIZE};
+    }
+
+    /**
+     * Gets the absolute path of the file.
+     * @return the path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the file size in bytes.
+     * @return the size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the last modification time of the file.
+     * @return milliseconds since the epoch, 0 if unknown
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    byte[] getHash() {
+        return hash.clone();
+    }
+
+    /**
+     * Gets a file name safe digest of the path, used to name the cache file.
+     * @return hex string
+     */
+    public String getPathDigest() {
+        byte[] digest = newDigest().digest(path.getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            sb.append(String.format("%02x", digest[i]));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof IndexCacheKey)) return false;
+        IndexCacheKey other = (IndexCacheKey) obj;
+        return size == other.size && lastModified == other.lastModified && path.equals(other.path)
+                && Arrays.equals(hash, other.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode() * 31 + Arrays.hashCode(hash);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] longBytes(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,164 @@
+package org.openstreetmap.josm.plugins.josmassist.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the polygons of a CSV file, one row at a time.
+ * <p>
+ * The first row names the columns. The geometry is read from the column named {@code wkt} or
+ * {@code geometry} as WKT {@code POLYGON} or {@code MULTIPOLYGON} in WGS84 longitude, latitude
+ * order; only the first (outer) ring is used. All other columns become properties.
+ */
+public final class CsvLayoutReader implements LayoutReader {
+
+    private final BufferedReader reader;
+    private final RingBuilder ring = new RingBuilder();
+    private String[] header;
+    private int geometryColumn = -1;
+    private int skipped;
+
+    /**
+     * Creates a reader.
+     * @param reader the CSV input
+     */
+    public CsvLayoutReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public LayoutFeature next() throws IOException {
+        if (header == null) {
+            List<String> names = readRow();
+            if (names == null) {
+                return null;
+            }
+            header = names.toArray(new String[0]);
+            for (int i = 0; i < header.length; i++) {
+                String name = header[i].trim().toLowerCase();
+                if ("wkt".equals(name) || "geometry".equals(name)) {
+                    geometryColumn = i;
+                }
+            }
+            if (geometryColumn < 0) {
+                throw new IOException("CSV input has no wkt or geometry column");
+            }
+        }
+        List<String> row;
+        while ((row = readRow()) != null) {
+            double[] coordinates = row.size() > geometryColumn ? parseWkt(row.get(geometryColumn)) : null;
+            if (coordinates == null) {
+                skipped++;
+                continue;
+            }
+            Map<String, String> properties = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(header.length, row.size()); i++) {
+                if (i != geometryColumn && !row.get(i).isEmpty()) {
+                    properties.put(header[i].trim(), row.get(i));
+                }
+            }
+            return new LayoutFeature(properties, coordinates);
+        }
+        return null;
+    }
+
+    @Override
+    public int getSkippedCount() {
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads one row; quoted fields may contain separators, doubled quotes and line breaks.
+     * @return the fields, or null at the end of the input
+     */
+    private List<String> readRow() throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.isEmpty()) {
+            line = reader.readLine();
+        }
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Unterminated quoted field in CSV input");
+                }
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Parses the first ring of a WKT polygon or multipolygon.
+     * @return the ring, or null if the text is not a polygon
+     */
+    private double[] parseWkt(String wkt) {
+        String text = wkt.trim();
+        String upper = text.length() > 12 ? text.substring(0, 12).toUpperCase() : text.toUpperCase();
+        if (!upper.startsWith("POLYGON") && !upper.startsWith("MULTIPOLYGON")) {
+            return null;
+        }
+        // The first ring starts after the last of the leading parentheses and ends at the next ')'
+        int start = text.indexOf('(');
+        while (start >= 0 && start + 1 < text.length() && (text.charAt(start + 1) == '(' || text.charAt(start + 1) == ' ')) {
+            start++;
+        }
+        int end = start < 0 ? -1 : text.indexOf(')', start);
+        if (end < 0) {
+            return null;
+        }
+        ring.clear();
+        try {
+            for (String point : text.substring(start + 1, end).split(",")) {
+                String[] xy = point.trim().split("\\s+");
+                if (xy.length < 2) {
+                    return null;
+                }
+                ring.add(Double.parseDouble(xy[1]), Double.parseDouble(xy[0]));
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return ring.toClosedRing();
+    }
+}
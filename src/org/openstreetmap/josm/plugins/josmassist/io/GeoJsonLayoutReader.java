@@ -0,0 +1,213 @@
+package org.openstreetmap.josm.plugins.josmassist.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openstreetmap.josm.plugins.josmassist.io.JsonPullParser.Event;
+
+/**
+ * Streams the polygons of a GeoJSON {@code FeatureCollection} with a {@link JsonPullParser}.
+ * <p>
+ * Only the feature being read is held in memory. {@code Polygon} features give their outer ring,
+ * {@code MultiPolygon} features the outer ring of their first polygon; holes and other geometry
+ * types are ignored. Coordinates are expected in WGS84 longitude, latitude order.
+ */
+public final class GeoJsonLayoutReader implements LayoutReader {
+
+    private final JsonPullParser parser;
+    private final RingBuilder ring = new RingBuilder();
+    private boolean inFeatures;
+    private boolean done;
+    private int skipped;
+
+    /**
+     * Creates a reader.
+     * @param reader the GeoJSON input
+     */
+    public GeoJsonLayoutReader(Reader reader) {
+        this.parser = new JsonPullParser(reader);
+    }
+
+    @Override
+    public LayoutFeature next() throws IOException {
+        if (!inFeatures && !done) {
+            seekFeatures();
+        }
+        while (!done) {
+            Event event = parser.next();
+            if (event == Event.END_ARRAY || event == null) {
+                done = true;
+                break;
+            }
+            if (event != Event.START_OBJECT) {
+                parser.skipValue(event);
+                continue;
+            }
+            LayoutFeature feature = readFeature();
+            if (feature != null) {
+                return feature;
+            }
+            skipped++;
+        }
+        return null;
+    }
+
+    @Override
+    public int getSkippedCount() {
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * Moves to the first element of the {@code features} array of the top level object.
+     */
+    private void seekFeatures() throws IOException {
+        if (parser.next() != Event.START_OBJECT) {
+            throw new IOException("GeoJSON input is not an object");
+        }
+        while (true) {
+            Event event = parser.next();
+            if (event != Event.KEY_NAME) {
+                // End of the top level object without features
+                done = true;
+                return;
+            }
+            boolean features = "features".equals(parser.getString());
+            Event value = parser.next();
+            if (features && value == Event.START_ARRAY) {
+                inFeatures = true;
+                return;
+            }
+            parser.skipValue(value);
+        }
+    }
+
+    /**
+     * Reads one feature object after its start event.
+     * @return the feature, or null if it has no polygon
+     */
+    private LayoutFeature readFeature() throws IOException {
+        Map<String, String> properties = new LinkedHashMap<>();
+        double[] coordinates = null;
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            String key = parser.getString();
+            Event value = parser.next();
+            if ("properties".equals(key) && value == Event.START_OBJECT) {
+                readProperties(properties);
+            } else if ("geometry".equals(key) && value == Event.START_OBJECT) {
+                coordinates = readGeometry();
+            } else {
+                parser.skipValue(value);
+            }
+        }
+        if (event != Event.END_OBJECT) {
+            throw new IOException("Malformed GeoJSON feature");
+        }
+        return coordinates == null ? null : new LayoutFeature(properties, coordinates);
+    }
+
+    private void readProperties(Map<String, String> properties) throws IOException {
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            String key = parser.getString();
+            Event value = parser.next();
+            switch (value) {
+            case VALUE_STRING:
+            case VALUE_NUMBER:
+                properties.put(key, parser.getString());
+                break;
+            case VALUE_TRUE:
+                properties.put(key, "true");
+                break;
+            case VALUE_FALSE:
+                properties.put(key, "false");
+                break;
+            default:
+                // null, nested objects and arrays have no tag equivalent
+                parser.skipValue(value);
+            }
+        }
+        if (event != Event.END_OBJECT) {
+            throw new IOException("Malformed GeoJSON properties");
+        }
+    }
+
+    /**
+     * Reads a geometry object after its start event; type and coordinates may come in any order.
+     * @return the outer ring, or null if the geometry is not a polygon
+     */
+    private double[] readGeometry() throws IOException {
+        String type = null;
+        double[] coordinates = null;
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            String key = parser.getString();
+            Event value = parser.next();
+            if ("type".equals(key) && value == Event.VALUE_STRING) {
+                type = parser.getString();
+            } else if ("coordinates".equals(key) && value == Event.START_ARRAY) {
+                coordinates = readFirstRing();
+            } else {
+                parser.skipValue(value);
+            }
+        }
+        if (event != Event.END_OBJECT) {
+            throw new IOException("Malformed GeoJSON geometry");
+        }
+        return "Polygon".equals(type) || "MultiPolygon".equals(type) ? coordinates : null;
+    }
+
+    /**
+     * Reads a coordinates array after its start event and keeps the first array of positions,
+     * which is the outer ring of a polygon or of the first polygon of a multipolygon.
+     */
+    private double[] readFirstRing() throws IOException {
+        ring.clear();
+        int level = 1;
+        int ringLevel = -1;
+        boolean ringDone = false;
+        int index = 0;
+        double lon = 0;
+        while (level > 0) {
+            Event event = parser.next();
+            if (event == null) {
+                throw new IOException("Unexpected end of GeoJSON coordinates");
+            }
+            switch (event) {
+            case START_ARRAY:
+                level++;
+                index = 0;
+                break;
+            case END_ARRAY:
+                if (level == ringLevel) {
+                    ringDone = true;
+                }
+                level--;
+                break;
+            case VALUE_NUMBER:
+                if (ringLevel < 0) {
+                    ringLevel = level - 1;
+                }
+                if (!ringDone && level == ringLevel + 1) {
+                    if (index == 0) {
+                        lon = parser.getDouble();
+                    } else if (index == 1) {
+                        ring.add(parser.getDouble(), lon);
+                    }
+                    index++;
+                }
+                break;
+            default:
+                parser.skipValue(event);
+            }
+        }
+        return ringLevel < 1 ? null : ring.toClosedRing();
+    }
+}
@@ -0,0 +1,287 @@
+package org.openstreetmap.josm.plugins.josmassist.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Minimal streaming JSON tokenizer: reports one event at a time and never holds more than the
+ * current token, so the memory needed does not depend on the document size.
+ * <p>
+ * Numbers are parsed without creating strings. Separators ({@code ,} and {@code :}) are checked
+ * loosely; the parser is meant for reading well-formed exports, not for validating JSON.
+ */
+public final class JsonPullParser implements Closeable {
+
+    /** Parser events */
+    public enum Event {
+        START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, KEY_NAME, VALUE_STRING, VALUE_NUMBER,
+        VALUE_TRUE, VALUE_FALSE, VALUE_NULL
+    }
+
+    /** Decimal digits that always fit exactly into the mantissa of a double */
+    private static final int EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = new double[EXACT_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private final StringBuilder text = new StringBuilder();
+    private double number;
+    /** Nesting: true for objects, false for arrays */
+    private boolean[] stack = new boolean[32];
+    private int depth;
+    /** Inside an object, whether the next string is a key */
+    private boolean expectKey;
+
+    /**
+     * Creates a parser.
+     * @param reader the input; should not be buffered, the parser buffers itself
+     */
+    public JsonPullParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next event.
+     * @return the event, or null at the end of the input
+     * @throws IOException if reading fails or the input is not JSON
+     */
+    public Event next() throws IOException {
+        int c = skipSeparators();
+        if (c < 0) {
+            if (depth > 0) {
+                throw new IOException("Unexpected end of JSON input");
+            }
+            return null;
+        }
+        switch (c) {
+        case '{':
+            push(true);
+            return Event.START_OBJECT;
+        case '[':
+            push(false);
+            return Event.START_ARRAY;
+        case '}':
+        case ']':
+            depth--;
+            afterValue();
+            return c == '}' ? Event.END_OBJECT : Event.END_ARRAY;
+        case '"':
+            readString();
+            if (expectKey) {
+                expectKey = false;
+                return Event.KEY_NAME;
+            }
+            afterValue();
+            return Event.VALUE_STRING;
+        case 't':
+            expectLiteral("rue");
+            afterValue();
+            return Event.VALUE_TRUE;
+        case 'f':
+            expectLiteral("alse");
+            afterValue();
+            return Event.VALUE_FALSE;
+        case 'n':
+            expectLiteral("ull");
+            afterValue();
+            return Event.VALUE_NULL;
+        default:
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                readNumber(c);
+                afterValue();
+                return Event.VALUE_NUMBER;
+            }
+            throw new IOException("Unexpected character '" + (char) c + "' in JSON input");
+        }
+    }
+
+    /**
+     * Gets the text of the last key or string value, or the literal of the last number.
+     * @return the text
+     */
+    public String getString() {
+        return text.toString();
+    }
+
+    /**
+     * Gets the last number.
+     * @return the number
+     */
+    public double getDouble() {
+        return number;
+    }
+
+    /**
+     * Skips the value whose first event was just read: the whole object or array after a start
+     * event, nothing after a scalar.
+     * @param first the event just read
+     * @throws IOException if reading fails
+     */
+    public void skipValue(Event first) throws IOException {
+        if (first != Event.START_OBJECT && first != Event.START_ARRAY) {
+            return;
+        }
+        int target = depth - 1;
+        while (depth > target) {
+            if (next() == null) {
+                throw new IOException("Unexpected end of JSON input");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // ========== Lexing ==========
+
+    private void push(boolean object) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = object;
+        expectKey = object;
+    }
+
+    /** After a value inside an object, the next string is a key again */
+    private void afterValue() {
+        expectKey = depth > 0 && stack[depth - 1];
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[pos++];
+    }
+
+    private int peek() throws IOException {
+        int c = read();
+        if (c >= 0) {
+            pos--;
+        }
+        return c;
+    }
+
+    private int skipSeparators() throws IOException {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t' && c != ',' && c != ':' && c != '\uFEFF') {
+                return c;
+            }
+        }
+    }
+
+    private void expectLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) {
+                throw new IOException("Invalid literal in JSON input");
+            }
+        }
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw new IOException("Unterminated string in JSON input");
+            }
+            if (c == '"') {
+                return;
+            }
+            if (c != '\\') {
+                text.append((char) c);
+                continue;
+            }
+            int e = read();
+            switch (e) {
+            case 'b': text.append('\b'); break;
+            case 'f': text.append('\f'); break;
+            case 'n': text.append('\n'); break;
+            case 'r': text.append('\r'); break;
+            case 't': text.append('\t'); break;
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw new IOException("Invalid unicode escape in JSON input");
+                    }
+                    code = code * 16 + digit;
+                }
+                text.append((char) code);
+                break;
+            default:
+                if (e < 0) {
+                    throw new IOException("Unterminated string in JSON input");
+                }
+                text.append((char) e);
+            }
+        }
+    }
+
+    private void readNumber(int first) throws IOException {
+        text.setLength(0);
+        text.append((char) first);
+        boolean simple = true;
+        long mantissa = first == '-' ? 0 : first - '0';
+        int digits = first == '-' ? 0 : 1;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        while (true) {
+            int c = peek();
+            if (c >= '0' && c <= '9') {
+                read();
+                text.append((char) c);
+                if (digits < EXACT_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    if (fraction) {
+                        fractionDigits++;
+                    }
+                } else {
+                    simple = false;
+                }
+            } else if (c == '.' && !fraction) {
+                read();
+                text.append('.');
+                fraction = true;
+            } else if (c == 'e' || c == 'E' || c == '+' || c == '-' || c == '.') {
+                read();
+                text.append((char) c);
+                simple = false;
+            } else {
+                break;
+            }
+        }
+        if (simple && digits > 0) {
+            // Both operands are exact, so the division is correctly rounded like parseDouble
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            number = first == '-' ? -value : value;
+        } else {
+            try {
+                number = Double.parseDouble(text.toString());
+            } catch (NumberFormatException ex) {
+                throw new IOException("Invalid number '" + text + "' in JSON input", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.openstreetmap.josm.plugins.josmassist.io;
+
+import java.util.Map;
+
+/**
+ * One polygon read from a layout file: its properties and the outer ring of its geometry.
+ */
+public final class LayoutFeature {
+
+    /** Scalar properties as strings, in file order */
+    public final Map<String, String> properties;
+    /** Outer ring as lat, lon pairs; the closing point is included */
+    public final double[] ring;
+
+    /**
+     * Creates a feature.
+     * @param properties the properties; not copied
+     * @param ring the closed outer ring as lat, lon pairs; not copied
+     */
+    public LayoutFeature(Map<String, String> properties, double[] ring) {
+        this.properties = properties;
+        this.ring = ring;
+    }
+
+    /**
+     * Gets the number of ring points, including the closing point.
+     * @return the point count
+     */
+    public int getPointCount() {
+        return ring.length / 2;
+    }
+}
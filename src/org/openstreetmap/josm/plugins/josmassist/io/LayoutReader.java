@@ -0,0 +1,41 @@
+package org.openstreetmap.josm.plugins.josmassist.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the polygons of a layout file one at a time, so that files of any size can be read with
+ * constant memory.
+ */
+public interface LayoutReader extends Closeable {
+
+    /**
+     * Reads the next polygon. Features without polygon geometry are skipped.
+     * @return the feature, or null at the end of the file
+     * @throws IOException if reading fails or the file is malformed
+     */
+    LayoutFeature next() throws IOException;
+
+    /**
+     * Gets the number of features skipped so far because they had no usable polygon.
+     * @return the skipped count
+     */
+    int getSkippedCount();
+
+    /**
+     * Opens a layout file: CSV for files ending in {@code .csv}, GeoJSON otherwise.
+     * @param file the file
+     * @return the reader
+     * @throws IOException if the file cannot be opened
+     */
+    static LayoutReader open(Path file) throws IOException {
+        if (file.getFileName().toString().toLowerCase().endsWith(".csv")) {
+            return new CsvLayoutReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        }
+        return new GeoJsonLayoutReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,40 @@
+package org.openstreetmap.josm.plugins.josmassist.io;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer collecting the points of one ring.
+ */
+final class RingBuilder {
+
+    private double[] coordinates = new double[64];
+    private int size;
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(double lat, double lon) {
+        if (size + 2 > coordinates.length) {
+            coordinates = Arrays.copyOf(coordinates, coordinates.length * 2);
+        }
+        coordinates[size++] = lat;
+        coordinates[size++] = lon;
+    }
+
+    /**
+     * Copies the ring, closing it if the last point differs from the first.
+     * @return lat, lon pairs, or null if the ring has fewer than three distinct points
+     */
+    double[] toClosedRing() {
+        boolean closed = size >= 4 && coordinates[0] == coordinates[size - 2] && coordinates[1] == coordinates[size - 1];
+        int distinct = closed ? size / 2 - 1 : size / 2;
+        if (distinct < 3) {
+            return null;
+        }
+        double[] ring = Arrays.copyOf(coordinates, distinct * 2 + 2);
+        ring[distinct * 2] = coordinates[0];
+        ring[distinct * 2 + 1] = coordinates[1];
+        return ring;
+    }
+}
@@ -0,0 +1,126 @@
+package org.openstreetmap.josm.plugins.josmassist.perf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Summarizes the {@link SessionJournal} files: totals and rates per hour by event,
+ * for the current session and for all sessions.
+ * <p>
+ * Time per session is measured from its first to its last event, so idle JOSM time between
+ * sessions does not dilute the rates.
+ */
+public class JournalSummary {
+
+    private static final Pattern FIELD = Pattern.compile("\"(\\w+)\":(\"(?:[^\"\\\\]|\\\\.)*\"|[^,}]*)");
+
+    /**
+     * Totals of one event (or event/source combination).
+     */
+    public static final class Row {
+        public long sessionCount;
+        public long totalCount;
+    }
+
+    private final Map<String, Row> rows = new TreeMap<>();
+    private final Map<String, long[]> sessionSpans = new HashMap<>();
+    private final String currentSession;
+
+    /**
+     * Reads all journal files.
+     * @param files the journal files
+     * @param currentSession id of the session shown in the "this session" columns
+     */
+    public JournalSummary(List<File> files, String currentSession) {
+        this.currentSession = currentSession;
+        for (File file : files) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    add(line);
+                }
+            } catch (IOException e) {
+                Logging.warn("[JOSM Assist] JournalSummary: could not read " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void add(String line) {
+        Map<String, String> fields = new HashMap<>();
+        Matcher m = FIELD.matcher(line);
+        while (m.find()) {
+            String value = m.group(2);
+            fields.put(m.group(1), value.startsWith("\"") ? value.substring(1, value.length() - 1) : value.trim());
+        }
+        String event = fields.get("event");
+        Date ts = fields.get("ts") == null ? null : SessionJournal.parseTimestamp(fields.get("ts"));
+        if (event == null || ts == null) {
+            return;
+        }
+        long count;
+        try {
+            count = Long.parseLong(fields.getOrDefault("count", "1"));
+        } catch (NumberFormatException e) {
+            count = 1;
+        }
+        String key = fields.containsKey("source") ? event + " (" + fields.get("source") + ")" : event;
+        Row row = rows.computeIfAbsent(key, k -> new Row());
+        row.totalCount += count;
+        String session = fields.getOrDefault("session", "");
+        if (session.equals(currentSession)) {
+            row.sessionCount += count;
+        }
+        long[] span = sessionSpans.computeIfAbsent(session, k -> new long[] {Long.MAX_VALUE, Long.MIN_VALUE});
+        span[0] = Math.min(span[0], ts.getTime());
+        span[1] = Math.max(span[1], ts.getTime());
+    }
+
+    /**
+     * Gets the rows, sorted by event name.
+     * @return the rows by event name
+     */
+    public Map<String, Row> getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the active time of the current session.
+     * @return hours between the first and last event of the current session
+     */
+    public double getSessionHours() {
+        long[] span = sessionSpans.get(currentSession);
+        return span == null ? 0 : (span[1] - span[0]) / 3_600_000.0;
+    }
+
+    /**
+     * Gets the active time of all sessions.
+     * @return sum of the hours between first and last event of each session
+     */
+    public double getTotalHours() {
+        double hours = 0;
+        for (long[] span : sessionSpans.values()) {
+            hours += (span[1] - span[0]) / 3_600_000.0;
+        }
+        return hours;
+    }
+
+    /**
+     * Gets the number of sessions found in the journal.
+     * @return the number of sessions
+     */
+    public int getSessionCount() {
+        return sessionSpans.size();
+    }
+}
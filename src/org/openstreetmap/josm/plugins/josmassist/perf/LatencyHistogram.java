@@ -0,0 +1,109 @@
+package org.openstreetmap.josm.plugins.josmassist.perf;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets.
+ * <p>
+ * Values below 128 ns get one bucket each; above that, every power of two is split into
+ * 64 equal sub-buckets, so any recorded value is reported with less than 1.6% relative error.
+ * The whole range of {@code long} fits into a fixed array of a few thousand counters, and
+ * recording is a single atomic increment.
+ */
+public class LatencyHistogram {
+
+    /** Significant bits kept per value (7 bits = 128 linear buckets, then 64 per power of two) */
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Records one value.
+     * @param value the value (nanoseconds), negative values are recorded as 0
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(indexOf(v));
+        totalCount.incrementAndGet();
+        long max;
+        while (v > (max = maxValue.get()) && !maxValue.compareAndSet(max, v)) {
+            // retry
+        }
+    }
+
+    /**
+     * Gets the number of recorded values.
+     * @return the count
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Gets the largest recorded value.
+     * @return the maximum, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * Gets the value at the given percentile.
+     * The result is the highest value equivalent to the bucket the percentile falls into, capped at the maximum.
+     * @param percentile the percentile (0-100)
+     * @return the value, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100.0, percentile) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        maxValue.set(0);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - (SUB_BUCKET_BITS - 1);
+        int mantissa = (int) (value >>> shift); // in [SUB_BUCKET_HALF, SUB_BUCKET_COUNT)
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + (mantissa - SUB_BUCKET_HALF);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int k = index - SUB_BUCKET_COUNT;
+        int shift = k / SUB_BUCKET_HALF + 1;
+        long mantissa = k % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        long upper = ((mantissa + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
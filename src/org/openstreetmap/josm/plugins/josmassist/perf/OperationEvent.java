@@ -0,0 +1,21 @@
+package org.openstreetmap.josm.plugins.josmassist.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for one measured plugin operation.
+ * Only referenced through {@link PerfStats}, which checks that JFR is available first.
+ */
+@Name("org.openstreetmap.josm.plugins.josmassist.Operation")
+@Label("JOSM Assist Operation")
+@Category({"JOSM", "JOSM Assist"})
+@Description("Latency of a JOSM Assist plugin operation")
+class OperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+}
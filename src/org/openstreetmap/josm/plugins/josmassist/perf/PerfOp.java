@@ -0,0 +1,37 @@
+package org.openstreetmap.josm.plugins.josmassist.perf;
+
+/**
+ * Plugin operations whose latency is measured.
+ */
+public enum PerfOp {
+    /** Right click: find the polygon, derive a name and open the tag editor */
+    SELECT_WAY("Click to name"),
+    /** Name interpolation from two adjacent ways */
+    INTERPOLATE("Name interpolation"),
+    /** Ranked name candidates from one neighbourhood search */
+    SUGGEST_NAMES("Name suggestions"),
+    /** Lateral (row) search for named neighbours */
+    LATERAL_SEARCH("Lateral search"),
+    /** Best-first search for the nearest named neighbours */
+    NEAREST_SEARCH("Nearest search"),
+    /** Level tagging of new elements after leaving draw mode */
+    PROCESS_NEW_ELEMENTS("Level tagging on edit exit"),
+    /** Building the combine-to-rectangle command */
+    COMBINE("Combine to rectangle"),
+    /** Building the metric move command */
+    MOVE("Move preserving metric");
+
+    private final String label;
+
+    PerfOp(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Gets the human readable name of the operation.
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,140 @@
+package org.openstreetmap.josm.plugins.josmassist.perf;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Latency instrumentation for plugin operations.
+ * <p>
+ * Usage:
+ * <pre>
+ * try (PerfStats.Span span = PerfStats.start(PerfOp.COMBINE)) {
+ *     ...
+ * }
+ * </pre>
+ * When recording is off, {@link #start(PerfOp)} returns a shared no-op span after one volatile
+ * read, so instrumented code pays practically nothing. When recording is on, every span adds its
+ * duration to the histogram of its operation and, if JDK Flight Recorder is available, emits an
+ * {@code org.openstreetmap.josm.plugins.josmassist.Operation} event.
+ * <p>
+ * Recording can be switched on from the performance dialog or at startup with
+ * {@code -Djosmassist.perf=true} (useful for the batch CLI).
+ */
+public final class PerfStats {
+
+    private static final Map<PerfOp, LatencyHistogram> HISTOGRAMS = new EnumMap<>(PerfOp.class);
+    private static final Span NOOP = new Span(null, 0, null);
+    private static volatile boolean enabled = Boolean.getBoolean("josmassist.perf");
+    private static volatile boolean jfrAvailable = isJfrPresent();
+
+    static {
+        for (PerfOp op : PerfOp.values()) {
+            HISTOGRAMS.put(op, new LatencyHistogram());
+        }
+    }
+
+    private PerfStats() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Measured section. Closing it records the elapsed time.
+     */
+    public static final class Span implements AutoCloseable {
+        private final PerfOp op;
+        private final long startNanos;
+        private final Object jfrEvent;
+
+        private Span(PerfOp op, long startNanos, Object jfrEvent) {
+            this.op = op;
+            this.startNanos = startNanos;
+            this.jfrEvent = jfrEvent;
+        }
+
+        @Override
+        public void close() {
+            if (op == null) {
+                return;
+            }
+            HISTOGRAMS.get(op).record(System.nanoTime() - startNanos);
+            if (jfrEvent != null) {
+                OperationEvent event = (OperationEvent) jfrEvent;
+                event.end();
+                if (event.shouldCommit()) {
+                    event.operation = op.name();
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts measuring an operation.
+     * @param op the operation
+     * @return the span to close when the operation is done
+     */
+    public static Span start(PerfOp op) {
+        if (!enabled) {
+            return NOOP;
+        }
+        return new Span(op, System.nanoTime(), jfrAvailable ? beginJfrEvent() : null);
+    }
+
+    private static Object beginJfrEvent() {
+        try {
+            OperationEvent event = new OperationEvent();
+            event.begin();
+            return event;
+        } catch (LinkageError e) {
+            // Java 8 runtime without jdk.jfr
+            jfrAvailable = false;
+            Logging.debug("[JOSM Assist] PerfStats: JFR not available, events disabled");
+            return null;
+        }
+    }
+
+    private static boolean isJfrPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, PerfStats.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tells if recording is on.
+     * @return true if spans are recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches recording on or off. Recorded values are kept.
+     * @param enabled true to record
+     */
+    public static void setEnabled(boolean enabled) {
+        PerfStats.enabled = enabled;
+    }
+
+    /**
+     * Gets the histogram of an operation.
+     * @param op the operation
+     * @return the histogram (nanoseconds)
+     */
+    public static LatencyHistogram getHistogram(PerfOp op) {
+        return HISTOGRAMS.get(op);
+    }
+
+    /**
+     * Clears all histograms.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package org.openstreetmap.josm.plugins.josmassist.perf;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Append-only JSONL journal of editing events, used to measure operator throughput.
+ * <p>
+ * {@link #record(String, int, String...)} only formats one line and puts it into a queue, so it is
+ * safe to call from the EDT. A single daemon thread takes lines from the queue, appends them to
+ * {@code <user data dir>/josmassist/journal/metrics.jsonl} through a buffered writer and flushes
+ * whenever the queue is empty. When the file grows beyond {@link #MAX_FILE_SIZE} it is renamed
+ * with a timestamp suffix; only the newest {@link #MAX_ROTATED_FILES} rotated files are kept.
+ * <p>
+ * Each line has the fields {@code ts} (UTC, ISO 8601), {@code session} (random id per JOSM run),
+ * {@code event}, {@code count}, followed by optional string fields.
+ */
+public final class SessionJournal {
+
+    /** File name of the current journal */
+    public static final String FILE_NAME = "metrics.jsonl";
+    private static final long MAX_FILE_SIZE = 5L * 1024 * 1024;
+    private static final int MAX_ROTATED_FILES = 10;
+    private static final String SESSION_ID = UUID.randomUUID().toString().substring(0, 8);
+
+    private static final BlockingQueue<String> QUEUE = new LinkedBlockingQueue<>();
+    private static volatile boolean enabled = true;
+    private static Thread writerThread;
+
+    private SessionJournal() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Records one event.
+     * @param event the event name, e.g. {@code verified}
+     * @param count number of affected elements
+     * @param fields optional key/value pairs (string values)
+     */
+    public static void record(String event, int count, String... fields) {
+        if (!enabled) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"ts\":\"").append(formatTimestamp(new Date()))
+          .append("\",\"session\":\"").append(SESSION_ID)
+          .append("\",\"event\":").append(quote(event))
+          .append(",\"count\":").append(count);
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            sb.append(',').append(quote(fields[i])).append(':').append(quote(fields[i + 1]));
+        }
+        QUEUE.offer(sb.append('}').toString());
+        ensureWriterStarted();
+    }
+
+    /**
+     * Enables or disables recording. Lines already queued are still written.
+     * @param enabled true to record
+     */
+    public static void setEnabled(boolean enabled) {
+        SessionJournal.enabled = enabled;
+    }
+
+    /**
+     * Gets the id of the current JOSM session.
+     * @return the session id
+     */
+    public static String getSessionId() {
+        return SESSION_ID;
+    }
+
+    /**
+     * Gets the journal directory.
+     * @return the directory, or null if the user data directory is not known
+     */
+    public static File getDirectory() {
+        if (Config.getDirs() == null) {
+            return null;
+        }
+        File userData = Config.getDirs().getUserDataDirectory(true);
+        return userData == null ? null : new File(new File(userData, "josmassist"), "journal");
+    }
+
+    /**
+     * Lists the journal files, oldest first (rotated files, then the current file).
+     * @return the files
+     */
+    public static List<File> getJournalFiles() {
+        List<File> result = new ArrayList<>();
+        File dir = getDirectory();
+        File[] rotated = dir == null ? null : dir.listFiles((d, name) -> name.startsWith("metrics-") && name.endsWith(".jsonl"));
+        if (rotated != null) {
+            Arrays.sort(rotated);
+            result.addAll(Arrays.asList(rotated));
+        }
+        if (dir != null && new File(dir, FILE_NAME).isFile()) {
+            result.add(new File(dir, FILE_NAME));
+        }
+        return result;
+    }
+
+    private static synchronized void ensureWriterStarted() {
+        if (writerThread != null) {
+            return;
+        }
+        writerThread = new Thread(SessionJournal::writeLoop, "josmassist-journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private static void writeLoop() {
+        Writer writer = null;
+        File file = null;
+        try {
+            while (true) {
+                String line = QUEUE.take();
+                if (writer == null || file.length() > MAX_FILE_SIZE) {
+                    close(writer);
+                    file = prepareFile();
+                    writer = file == null ? null
+                            : new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath(),
+                                    StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                                    StandardCharsets.UTF_8));
+                }
+                if (writer == null) {
+                    continue; // no user data directory; drop
+                }
+                writer.write(line);
+                writer.write('\n');
+                // Batch everything that is already waiting, then flush once
+                while ((line = QUEUE.poll()) != null) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+                writer.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            Logging.warn("[JOSM Assist] SessionJournal: " + e.getMessage());
+            enabled = false;
+        } finally {
+            close(writer);
+        }
+    }
+
+    /**
+     * Creates the journal directory and rotates the current file if it is too large.
+     */
+    private static File prepareFile() throws IOException {
+        File dir = getDirectory();
+        if (dir == null) {
+            return null;
+        }
+        Files.createDirectories(dir.toPath());
+        File file = new File(dir, FILE_NAME);
+        if (file.length() > MAX_FILE_SIZE) {
+            SimpleDateFormat suffix = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT);
+            File rotated = new File(dir, "metrics-" + suffix.format(new Date()) + ".jsonl");
+            if (!file.renameTo(rotated)) {
+                Logging.warn("[JOSM Assist] SessionJournal: could not rotate " + file);
+            }
+            List<File> files = getJournalFiles();
+            files.remove(file);
+            for (int i = 0; i < files.size() - MAX_ROTATED_FILES; i++) {
+                Files.deleteIfExists(files.get(i).toPath());
+            }
+        }
+        return file;
+    }
+
+    private static void close(Writer writer) {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                Logging.trace(e);
+            }
+        }
+    }
+
+    static String formatTimestamp(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
+    }
+
+    static Date parseTimestamp(String value) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            return format.parse(value);
+        } catch (java.text.ParseException e) {
+            return null;
+        }
+    }
+
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : String.valueOf(value).toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,244 @@
+package org.openstreetmap.josm.plugins.josmassist.perf;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.plugins.josmassist.core.MetricMove;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Records the plugin-relevant steps of an editing session to a JSONL trace file, so that real
+ * operator sessions can be replayed headless as end-to-end performance tests
+ * ({@code batch.ReplayCli}).
+ * <p>
+ * The first line describes the trace: {@code trace} (format version), {@code data} (the saved
+ * file the session started from), {@code session} and {@code ts}. Every further line is one
+ * step with the fields {@code t} (ms since the start), {@code step} ({@code click},
+ * {@code esc}, {@code combine}, {@code move} or {@code verify}), {@code ms} (duration as
+ * measured live) and string fields.
+ * Positions are stored as latitude and longitude rather than screen pixels, so a replay needs no
+ * map view; primitives are referenced with {@link #ref}. Lines are formatted by the caller and
+ * written by a background thread, like the {@link SessionJournal}.
+ */
+public final class TraceRecorder {
+
+    /** Version of the trace format */
+    public static final int FORMAT_VERSION = 1;
+    /** Largest distance in degrees between a recorded and a resolved position (about 1 cm) */
+    private static final double POSITION_TOLERANCE = 1e-7;
+
+    /** One recording: its writer thread and start time */
+    private static final class Recording {
+        final File file;
+        final Writer writer;
+        final long startNanos = System.nanoTime();
+        final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "josmassist-trace");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Recording(File file, Writer writer) {
+            this.file = file;
+            this.writer = writer;
+        }
+
+        void write(String line) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        writer.write(line);
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        Logging.warn("[JOSM Assist] TraceRecorder: " + e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                Logging.trace(e); // stopped meanwhile
+            }
+        }
+    }
+
+    private static volatile Recording recording;
+
+    private TraceRecorder() {
+        // Hide default constructor for utility classes
+    }
+
+    /**
+     * Tells if a trace is being recorded; callers should check this before formatting fields.
+     * @return true while recording
+     */
+    public static boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Starts recording to a new file in {@code <user data dir>/josmassist/traces}.
+     * @param dataFile the saved data file the session starts from
+     * @return the trace file
+     * @throws IOException if the file cannot be created
+     */
+    public static synchronized File start(File dataFile) throws IOException {
+        stop();
+        File dir = getDirectory();
+        if (dir == null) {
+            throw new IOException("User data directory unknown");
+        }
+        Files.createDirectories(dir.toPath());
+        SimpleDateFormat suffix = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT);
+        File file = new File(dir, "trace-" + suffix.format(new Date()) + ".jsonl");
+        BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        Recording started = new Recording(file, writer);
+        started.write("{\"trace\":" + FORMAT_VERSION + ",\"data\":" + SessionJournal.quote(dataFile.getPath())
+                + ",\"session\":" + SessionJournal.quote(SessionJournal.getSessionId())
+                + ",\"ts\":\"" + SessionJournal.formatTimestamp(new Date()) + "\"}");
+        recording = started;
+        return file;
+    }
+
+    /**
+     * Stops recording and closes the file once all steps are written.
+     * @return the trace file, or null if nothing was recorded
+     */
+    public static synchronized File stop() {
+        Recording stopped = recording;
+        if (stopped == null) {
+            return null;
+        }
+        recording = null;
+        stopped.executor.execute(() -> {
+            try {
+                stopped.writer.close();
+            } catch (IOException e) {
+                Logging.warn("[JOSM Assist] TraceRecorder: " + e.getMessage());
+            }
+        });
+        stopped.executor.shutdown();
+        return stopped.file;
+    }
+
+    /**
+     * Records one step; does nothing while not recording.
+     * @param step the step name, e.g. {@code click}
+     * @param startNanos {@link System#nanoTime()} when the step started
+     * @param fields key/value pairs (string values)
+     */
+    public static void record(String step, long startNanos, String... fields) {
+        Recording current = recording;
+        if (current == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"t\":").append((startNanos - current.startNanos) / 1_000_000)
+          .append(",\"step\":").append(SessionJournal.quote(step))
+          .append(",\"ms\":").append((now - startNanos) / 1_000 / 1000.0);
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            sb.append(',').append(SessionJournal.quote(fields[i])).append(':').append(SessionJournal.quote(fields[i + 1]));
+        }
+        current.write(sb.append('}').toString());
+    }
+
+    /**
+     * Gets the trace directory.
+     * @return the directory, or null if the user data directory is not known
+     */
+    public static File getDirectory() {
+        File journal = SessionJournal.getDirectory();
+        return journal == null ? null : new File(journal.getParentFile(), "traces");
+    }
+
+    // ========== Primitive references ==========
+
+    /**
+     * Gets a reference to a primitive that can be resolved in a replay: {@code w123} for
+     * primitives read from the file, {@code w@lat,lon} (position of a node, mean position of the
+     * nodes of a way) for primitives created in the session, whose ids differ from run to run.
+     * @param prim the primitive
+     * @return the reference
+     */
+    public static String ref(OsmPrimitive prim) {
+        char type = prim instanceof Node ? 'n' : prim instanceof Way ? 'w' : 'r';
+        LatLon point = prim.isNew() ? referencePoint(prim) : null;
+        return point == null ? type + Long.toString(prim.getUniqueId()) : type + "@" + point.lat() + ',' + point.lon();
+    }
+
+    /**
+     * Gets the references of several primitives, separated by spaces.
+     * @param prims the primitives
+     * @return the references
+     */
+    public static String refs(Collection<? extends OsmPrimitive> prims) {
+        StringBuilder sb = new StringBuilder();
+        for (OsmPrimitive prim : prims) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(ref(prim));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Finds the primitive a reference points to.
+     * @param ds the dataset
+     * @param ref the reference, see {@link #ref}
+     * @return the primitive, or null if it does not exist (any more)
+     */
+    public static OsmPrimitive resolve(DataSet ds, String ref) {
+        if (ref.length() < 2) {
+            return null;
+        }
+        OsmPrimitiveType type = ref.charAt(0) == 'n' ? OsmPrimitiveType.NODE
+                : ref.charAt(0) == 'w' ? OsmPrimitiveType.WAY : OsmPrimitiveType.RELATION;
+        try {
+            if (ref.charAt(1) != '@') {
+                OsmPrimitive prim = ds.getPrimitiveById(Long.parseLong(ref.substring(1)), type);
+                return prim == null || prim.isDeleted() ? null : prim;
+            }
+            int comma = ref.indexOf(',');
+            double lat = Double.parseDouble(ref.substring(2, comma));
+            double lon = Double.parseDouble(ref.substring(comma + 1));
+            BBox box = new BBox(lon - POSITION_TOLERANCE, lat - POSITION_TOLERANCE,
+                    lon + POSITION_TOLERANCE, lat + POSITION_TOLERANCE);
+            Collection<? extends OsmPrimitive> candidates = type == OsmPrimitiveType.NODE ? ds.searchNodes(box)
+                    : type == OsmPrimitiveType.WAY ? ds.searchWays(box) : ds.searchRelations(box);
+            for (OsmPrimitive prim : candidates) {
+                LatLon point = referencePoint(prim);
+                if (point != null && Math.abs(point.lat() - lat) <= POSITION_TOLERANCE
+                        && Math.abs(point.lon() - lon) <= POSITION_TOLERANCE) {
+                    return prim;
+                }
+            }
+            return null;
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static LatLon referencePoint(OsmPrimitive prim) {
+        if (prim instanceof Node) {
+            return ((Node) prim).getCoor();
+        }
+        return prim instanceof Way ? MetricMove.centerOf((Way) prim) : null;
+    }
+}
@@ -0,0 +1,131 @@
+package org.openstreetmap.josm.plugins.josmassist.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openstreetmap.josm.plugins.josmassist.core.LevelValue;
+import org.openstreetmap.josm.plugins.josmassist.index.AreaRecord;
+
+/**
+ * Finds all pairs of spaces on the same level whose interiors overlap.
+ * <p>
+ * The records are sorted by western bounding box edge and swept from west to east: each record is
+ * only compared with the following records starting before its eastern edge, so the candidate
+ * pairs are those whose bounding boxes overlap in longitude. The exact (and comparatively costly)
+ * polygon intersection is computed only for candidates whose boxes also overlap in latitude.
+ * The sorted array is split into partitions which are swept in parallel; a partition reads
+ * records beyond its end but only reports pairs starting in it, so every pair is found once.
+ */
+public final class OverlapDetector {
+
+    /** Partitions per available processor, to even out dense and sparse parts of the data */
+    private static final int PARTITIONS_PER_CPU = 4;
+
+    /**
+     * Two overlapping spaces.
+     */
+    public static final class Overlap {
+        /** The first space */
+        public final AreaRecord first;
+        /** The second space */
+        public final AreaRecord second;
+        /** Area of the first space in square meters */
+        public final double firstArea;
+        /** Area of the second space in square meters */
+        public final double secondArea;
+        /** Shared area in square meters */
+        public final double overlapArea;
+
+        Overlap(AreaRecord first, AreaRecord second, double overlapArea) {
+            this.first = first;
+            this.second = second;
+            this.firstArea = SpaceGeometry.area(first);
+            this.secondArea = SpaceGeometry.area(second);
+            this.overlapArea = overlapArea;
+        }
+
+        /**
+         * Gets the larger of the two spaces; the first one if both have the same area.
+         * @return the larger space
+         */
+        public AreaRecord getLarger() {
+            return firstArea >= secondArea ? first : second;
+        }
+
+        /**
+         * Gets the smaller of the two spaces; the second one if both have the same area.
+         * @return the smaller space
+         */
+        public AreaRecord getSmaller() {
+            return firstArea >= secondArea ? second : first;
+        }
+
+        /**
+         * Gets the shared area relative to the smaller space; 1 for a duplicate or a space inside another.
+         * @return a value between 0 and 1
+         */
+        public double getShare() {
+            double smaller = Math.min(firstArea, secondArea);
+            return smaller <= 0 ? 0 : Math.min(1, overlapArea / smaller);
+        }
+    }
+
+    private OverlapDetector() {
+        // Hide default constructor for utilities classes
+    }
+
+    /**
+     * Finds the overlapping pairs of a set of spaces, in parallel.
+     * @param spaces the spaces
+     * @param tolerance shared area in square meters up to which spaces do not count as overlapping
+     * @return the overlaps, largest shared area first
+     */
+    public static List<Overlap> findOverlaps(Collection<AreaRecord> spaces, double tolerance) {
+        AreaRecord[] sorted = spaces.toArray(new AreaRecord[0]);
+        Arrays.sort(sorted, Comparator.comparingDouble((AreaRecord r) -> r.minLon));
+        int partitions = Math.max(1, Math.min(sorted.length,
+                Runtime.getRuntime().availableProcessors() * PARTITIONS_PER_CPU));
+        List<Overlap> overlaps = IntStream.range(0, partitions).parallel()
+                .mapToObj(p -> sweep(sorted, sorted.length * p / partitions, sorted.length * (p + 1) / partitions, tolerance))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        overlaps.sort(Comparator.comparingDouble((Overlap o) -> -o.overlapArea)
+                .thenComparingLong(o -> o.first.id).thenComparingLong(o -> o.second.id));
+        return overlaps;
+    }
+
+    private static List<Overlap> sweep(AreaRecord[] sorted, int from, int to, double tolerance) {
+        List<Overlap> overlaps = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            AreaRecord a = sorted[i];
+            for (int j = i + 1; j < sorted.length && sorted[j].minLon <= a.maxLon; j++) {
+                AreaRecord b = sorted[j];
+                if (b.minLat > a.maxLat || b.maxLat < a.minLat || !sameLevel(a.level, b.level)) {
+                    continue;
+                }
+                double shared = SpaceGeometry.overlapArea(a, b);
+                if (shared > tolerance) {
+                    overlaps.add(new Overlap(a, b, shared));
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Checks if two spaces are on the same level: untagged spaces are, tagged ones if their tags
+     * share a level (see {@link LevelValue}).
+     * @param a level tag of the first space, may be null
+     * @param b level tag of the second space, may be null
+     * @return true if the spaces can overlap
+     */
+    public static boolean sameLevel(String a, String b) {
+        return Objects.equals(a, b) || LevelValue.matches(a, b);
+    }
+}
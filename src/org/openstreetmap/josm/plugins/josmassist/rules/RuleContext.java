@@ -0,0 +1,78 @@
+package org.openstreetmap.josm.plugins.josmassist.rules;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.plugins.josmassist.index.AreaIndex;
+import org.openstreetmap.josm.plugins.josmassist.index.AreaRecord;
+
+/**
+ * Facts about all parking spaces in scope that rules comparing a space with its peers need:
+ * the levels of the spaces per name and a spatial index of the spaces. Built once per evaluation and
+ * read-only afterwards.
+ */
+public final class RuleContext {
+
+    private final Map<String, List<String>> levelsByName = new HashMap<>();
+    private final AreaIndex spaces;
+
+    /**
+     * Creates the context.
+     * @param allSpaces all parking spaces in scope, including those that are not candidates
+     */
+    public RuleContext(Collection<SpaceFacts> allSpaces) {
+        AreaIndex.Builder builder = AreaIndex.EMPTY.edit();
+        for (SpaceFacts facts : allSpaces) {
+            builder.put(facts.getRecord());
+            if (facts.getName() != null && !facts.getName().isEmpty()) {
+                levelsByName.computeIfAbsent(facts.getName(), k -> new ArrayList<>()).add(levelKey(facts.getLevel()));
+            }
+        }
+        spaces = builder.build();
+    }
+
+    /**
+     * Counts the spaces with the name of a space that share a level with it, as
+     * {@link OverlapDetector#sameLevel} decides: a {@code -1;-2} ramp counts on both levels.
+     * @param facts the space
+     * @return the number of spaces with the same name on a shared level, including the space itself
+     */
+    public int countSameName(SpaceFacts facts) {
+        List<String> levels = levelsByName.get(facts.getName());
+        if (levels == null) {
+            return 0;
+        }
+        String level = levelKey(facts.getLevel());
+        int count = 0;
+        for (String other : levels) {
+            if (OverlapDetector.sameLevel(other, level)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the largest area a space shares with another space of its level.
+     * @param facts the space
+     * @return the overlap in square meters, 0 if none
+     */
+    public double maxOverlap(SpaceFacts facts) {
+        AreaRecord record = facts.getRecord();
+        List<AreaRecord> neighbours = spaces.query(record.minLat, record.minLon, record.maxLat, record.maxLon);
+        double max = 0;
+        for (AreaRecord other : neighbours) {
+            if (other.id != record.id && OverlapDetector.sameLevel(other.level, record.level)) {
+                max = Math.max(max, SpaceGeometry.overlapArea(record, other));
+            }
+        }
+        return max;
+    }
+
+    private static String levelKey(String level) {
+        return level == null ? "" : level;
+    }
+}
@@ -0,0 +1,42 @@
+package org.openstreetmap.josm.plugins.josmassist.rules;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of evaluating a {@link RuleSet} on one space.
+ */
+public final class RuleResult {
+
+    private final SpaceFacts facts;
+    private final List<VerificationRule> failed;
+
+    RuleResult(SpaceFacts facts, List<VerificationRule> failed) {
+        this.facts = facts;
+        this.failed = Collections.unmodifiableList(failed);
+    }
+
+    /**
+     * Gets the evaluated space.
+     * @return the facts of the space
+     */
+    public SpaceFacts getFacts() {
+        return facts;
+    }
+
+    /**
+     * Gets the rules the space does not satisfy.
+     * @return the failed rules, empty if the space passed
+     */
+    public List<VerificationRule> getFailedRules() {
+        return failed;
+    }
+
+    /**
+     * Tells if the space satisfies all rules.
+     * @return true if no rule failed
+     */
+    public boolean isPassed() {
+        return failed.isEmpty();
+    }
+}
@@ -0,0 +1,156 @@
+package org.openstreetmap.josm.plugins.josmassist.rules;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+import org.openstreetmap.josm.plugins.josmassist.ParkingSpaceStatus;
+
+/**
+ * A list of verification rules compiled from a text specification, one rule per line:
+ * <pre>
+ * # comment
+ * name-valid              name uses only the characters allowed for parking spaces
+ * name ~ ^B2-\d+$         name matches a regular expression
+ * unique-name             no other space on the level has the same name
+ * rectangular &gt;= 0.9      area / minimal enclosing rectangle area
+ * area 8..40              area in square meters
+ * no-overlap              shares no area with another space of the level
+ * no-overlap 0.5          ... apart from the given tolerance in square meters
+ * </pre>
+ * Patterns and thresholds are parsed once; {@link #evaluate(List)} then tests all spaces in parallel.
+ */
+public final class RuleSet {
+
+    /** Rules used when the user has not configured any */
+    public static final String DEFAULT_SPEC = String.join("\n",
+            "name-valid",
+            "unique-name",
+            "rectangular >= 0.9",
+            "area 8..40",
+            "no-overlap");
+
+    private static final Pattern NAME_REGEX = Pattern.compile("name\\s*~\\s*(.+)");
+    private static final Pattern RECTANGULAR = Pattern.compile("rectangular\\s*>=\\s*([0-9.]+)");
+    private static final Pattern AREA = Pattern.compile("area\\s+([0-9.]+)\\s*\\.\\.\\s*([0-9.]+)");
+    private static final Pattern NO_OVERLAP = Pattern.compile("no-overlap(?:\\s+([0-9.]+))?");
+    private static final double DEFAULT_OVERLAP_TOLERANCE = 0.05;
+
+    private final List<VerificationRule> rules;
+
+    private RuleSet(List<VerificationRule> rules) {
+        this.rules = Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * Compiles a rule specification.
+     * @param spec the specification, one rule per line
+     * @param context facts about all spaces in scope, used by the rules comparing spaces
+     * @return the rule set
+     * @throws IllegalArgumentException if a line cannot be parsed or there are no rules; an
+     *         empty rule set would pass every space
+     */
+    public static RuleSet compile(String spec, RuleContext context) {
+        List<VerificationRule> rules = new ArrayList<>();
+        for (String rawLine : spec.split("\\R")) {
+            String line = rawLine.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            rules.add(compileRule(line, context));
+        }
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException(tr("No rules given"));
+        }
+        return new RuleSet(rules);
+    }
+
+    private static VerificationRule compileRule(String line, RuleContext context) {
+        Matcher m;
+        if ("name-valid".equals(line)) {
+            return rule(line, facts -> ParkingSpaceStatus.isValidName(facts.getName()));
+        }
+        if ("unique-name".equals(line)) {
+            return rule(line, facts -> facts.getName() != null && context.countSameName(facts) == 1);
+        }
+        if ((m = NAME_REGEX.matcher(line)).matches()) {
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(m.group(1).trim());
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException(tr("Invalid pattern in rule ''{0}'': {1}", line, e.getDescription()), e);
+            }
+            return rule(line, facts -> facts.getName() != null && pattern.matcher(facts.getName()).matches());
+        }
+        if ((m = RECTANGULAR.matcher(line)).matches()) {
+            double min = parseNumber(line, m.group(1));
+            return rule(line, facts -> facts.getRectangularity() >= min);
+        }
+        if ((m = AREA.matcher(line)).matches()) {
+            double min = parseNumber(line, m.group(1));
+            double max = parseNumber(line, m.group(2));
+            return rule(line, facts -> facts.getArea() >= min && facts.getArea() <= max);
+        }
+        if ((m = NO_OVERLAP.matcher(line)).matches()) {
+            double tolerance = m.group(1) == null ? DEFAULT_OVERLAP_TOLERANCE : parseNumber(line, m.group(1));
+            return rule(line, facts -> context.maxOverlap(facts) <= tolerance);
+        }
+        throw new IllegalArgumentException(tr("Unknown rule ''{0}''", line));
+    }
+
+    private static double parseNumber(String line, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(tr("Invalid number in rule ''{0}''", line), e);
+        }
+    }
+
+    private static VerificationRule rule(String source, Predicate<SpaceFacts> predicate) {
+        return new VerificationRule() {
+            @Override
+            public String getSource() {
+                return source;
+            }
+
+            @Override
+            public boolean test(SpaceFacts facts) {
+                return predicate.test(facts);
+            }
+        };
+    }
+
+    /**
+     * Gets the compiled rules.
+     * @return the rules in specification order
+     */
+    public List<VerificationRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Evaluates all rules on all spaces, in parallel.
+     * @param spaces the candidate spaces
+     * @return one result per space, in the order of {@code spaces}
+     */
+    public List<RuleResult> evaluate(List<SpaceFacts> spaces) {
+        return spaces.parallelStream().map(this::evaluate).collect(Collectors.toList());
+    }
+
+    private RuleResult evaluate(SpaceFacts facts) {
+        List<VerificationRule> failed = new ArrayList<>(0);
+        for (VerificationRule rule : rules) {
+            if (!rule.test(facts)) {
+                failed.add(rule);
+            }
+        }
+        return new RuleResult(facts, failed);
+    }
+}
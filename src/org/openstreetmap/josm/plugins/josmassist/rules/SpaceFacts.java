@@ -0,0 +1,147 @@
+package org.openstreetmap.josm.plugins.josmassist.rules;
+
+import org.openstreetmap.josm.plugins.josmassist.index.AreaRecord;
+
+/**
+ * Immutable facts about one parking space, captured in the EDT so that rules can be evaluated
+ * on any thread without touching the dataset.
+ * <p>
+ * Derived metrics are computed on first use and kept, so a cached instance (see
+ * {@code SpatialIndexManager#getFacts}) serves every later caller. Threads racing on the first
+ * use may compute a metric twice, but always see a complete value.
+ */
+public final class SpaceFacts {
+
+    private static final double[] NO_BOX = {Double.NaN, Double.NaN, Double.NaN};
+
+    private final AreaRecord record;
+    private volatile double area = Double.NaN;
+    private volatile double rectangularity = Double.NaN;
+    /** Latitude and longitude of the centroid */
+    private volatile double[] centroid;
+    /** Width, length and bearing of the minimal rectangle, NO_BOX for degenerate rings */
+    private volatile double[] box;
+
+    /**
+     * Creates the facts of a space.
+     * @param record the area record of the space (id, geometry, level and name)
+     */
+    public SpaceFacts(AreaRecord record) {
+        this.record = record;
+    }
+
+    /**
+     * Gets the unique id of the way.
+     * @return the id
+     */
+    public long getId() {
+        return record.id;
+    }
+
+    /**
+     * Gets the level tag.
+     * @return the level, or null
+     */
+    public String getLevel() {
+        return record.level;
+    }
+
+    /**
+     * Gets the name tag.
+     * @return the name, or null
+     */
+    public String getName() {
+        return record.name;
+    }
+
+    /**
+     * Gets the geometry.
+     * @return the area record
+     */
+    public AreaRecord getRecord() {
+        return record;
+    }
+
+    /**
+     * Gets the area in square meters.
+     * @return the area
+     */
+    public double getArea() {
+        if (Double.isNaN(area)) {
+            area = SpaceGeometry.area(record);
+        }
+        return area;
+    }
+
+    /**
+     * Gets the ratio of the area to the area of the minimal enclosing rectangle.
+     * @return 1 for a rectangle, less for other shapes, 0 for degenerate ones
+     */
+    public double getRectangularity() {
+        if (Double.isNaN(rectangularity)) {
+            rectangularity = SpaceGeometry.rectangularity(record);
+        }
+        return rectangularity;
+    }
+
+    /**
+     * Gets the latitude of the centroid.
+     * @return the latitude
+     */
+    public double getCentroidLat() {
+        return getCentroid()[0];
+    }
+
+    /**
+     * Gets the longitude of the centroid.
+     * @return the longitude
+     */
+    public double getCentroidLon() {
+        return getCentroid()[1];
+    }
+
+    /**
+     * Gets the shorter side of the minimal enclosing rectangle.
+     * @return the width in meters, NaN for degenerate shapes
+     */
+    public double getWidth() {
+        return getBox()[0];
+    }
+
+    /**
+     * Gets the longer side of the minimal enclosing rectangle.
+     * @return the length in meters, NaN for degenerate shapes
+     */
+    public double getLength() {
+        return getBox()[1];
+    }
+
+    /**
+     * Gets the direction of the longer side of the minimal enclosing rectangle.
+     * @return the bearing in degrees from north, 0 to 180, NaN for degenerate shapes
+     */
+    public double getBearing() {
+        return getBox()[2];
+    }
+
+    private double[] getCentroid() {
+        double[] value = centroid;
+        if (value == null) {
+            value = SpaceGeometry.centroid(record);
+            centroid = value;
+        }
+        return value;
+    }
+
+    private double[] getBox() {
+        double[] value = box;
+        if (value == null) {
+            value = SpaceGeometry.orientedBox(record);
+            if (value == null) {
+                value = NO_BOX;
+            }
+            box = value;
+        }
+        return value;
+    }
+}
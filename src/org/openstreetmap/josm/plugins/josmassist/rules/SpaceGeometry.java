@@ -0,0 +1,189 @@
+package org.openstreetmap.josm.plugins.josmassist.rules;
+
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.plugins.josmassist.core.LocalProjection;
+import org.openstreetmap.josm.plugins.josmassist.core.MinimalRectangle;
+import org.openstreetmap.josm.plugins.josmassist.index.AreaRecord;
+
+/**
+ * Metric geometry of area records, in a {@link LocalProjection} around a reference point.
+ */
+public final class SpaceGeometry {
+
+    private SpaceGeometry() {
+        // Hide default constructor for utilities classes
+    }
+
+    /**
+     * Gets the area of a ring in square meters.
+     * @param record the ring
+     * @return the area
+     */
+    public static double area(AreaRecord record) {
+        return Math.abs(signedArea(toLocal(record)));
+    }
+
+    /**
+     * Gets the ratio of the area of a ring to the area of its minimal enclosing rectangle.
+     * @param record the ring
+     * @return a value between 0 and 1
+     */
+    public static double rectangularity(AreaRecord record) {
+        List<EastNorth> points = toLocal(record);
+        List<EastNorth> rect = MinimalRectangle.minimalRectangle(MinimalRectangle.convexHull(points));
+        if (rect == null) {
+            return 0;
+        }
+        double rectArea = Math.abs(signedArea(rect));
+        return rectArea <= 0 ? 0 : Math.min(1, Math.abs(signedArea(points)) / rectArea);
+    }
+
+    /**
+     * Gets the centroid of a ring; the mean of its nodes if the ring has no area.
+     * @param record the ring
+     * @return latitude and longitude of the centroid
+     */
+    public static double[] centroid(AreaRecord record) {
+        LocalProjection projection = new LocalProjection(record.getLat(0), record.getLon(0));
+        List<EastNorth> points = toLocal(record, projection);
+        int n = points.size();
+        double area = 0;
+        double east = 0;
+        double north = 0;
+        for (int i = 0; i < n; i++) {
+            EastNorth p = points.get(i);
+            EastNorth q = points.get((i + 1) % n);
+            double cross = p.east() * q.north() - q.east() * p.north();
+            area += cross;
+            east += (p.east() + q.east()) * cross;
+            north += (p.north() + q.north()) * cross;
+        }
+        if (Math.abs(area) > 1e-9) {
+            east /= 3 * area;
+            north /= 3 * area;
+        } else {
+            east = 0;
+            north = 0;
+            for (EastNorth p : points) {
+                east += p.east() / n;
+                north += p.north() / n;
+            }
+        }
+        EastNorth center = new EastNorth(east, north);
+        return new double[] {projection.toLat(center), projection.toLon(center)};
+    }
+
+    /**
+     * Gets the dimensions of the minimal enclosing rectangle of a ring.
+     * @param record the ring
+     * @return width (shorter side) and length (longer side) in meters and the bearing of the
+     *         length axis in degrees from north (0 to 180), or null for degenerate rings
+     */
+    public static double[] orientedBox(AreaRecord record) {
+        List<EastNorth> points = toLocal(record);
+        List<EastNorth> rect = MinimalRectangle.minimalRectangle(MinimalRectangle.convexHull(points));
+        if (rect == null || rect.size() != 4) {
+            return null;
+        }
+        EastNorth a = rect.get(0);
+        EastNorth b = rect.get(1);
+        EastNorth c = rect.get(2);
+        double side1 = a.distance(b);
+        double side2 = b.distance(c);
+        EastNorth from = side1 >= side2 ? a : b;
+        EastNorth to = side1 >= side2 ? b : c;
+        double bearing = Math.toDegrees(Math.atan2(to.east() - from.east(), to.north() - from.north()));
+        if (bearing < 0) {
+            bearing += 180;
+        }
+        if (bearing >= 180) {
+            bearing -= 180;
+        }
+        return new double[] {Math.min(side1, side2), Math.max(side1, side2), bearing};
+    }
+
+    /**
+     * Gets the area shared by the interiors of two rings, in square meters.
+     * Rings that only touch along an edge share no area.
+     * @param a first ring
+     * @param b second ring
+     * @return the overlap area
+     */
+    public static double overlapArea(AreaRecord a, AreaRecord b) {
+        LocalProjection projection = new LocalProjection(a.getLat(0), a.getLon(0));
+        Area shape = new Area(toPath(toLocal(a, projection)));
+        shape.intersect(new Area(toPath(toLocal(b, projection))));
+        if (shape.isEmpty()) {
+            return 0;
+        }
+        double total = 0;
+        List<EastNorth> ring = new ArrayList<>();
+        double[] coords = new double[6];
+        for (PathIterator it = shape.getPathIterator(null, 0.01); !it.isDone(); it.next()) {
+            int type = it.currentSegment(coords);
+            if (type == PathIterator.SEG_MOVETO) {
+                ring.clear();
+                ring.add(new EastNorth(coords[0], coords[1]));
+            } else if (type == PathIterator.SEG_LINETO) {
+                ring.add(new EastNorth(coords[0], coords[1]));
+            } else if (type == PathIterator.SEG_CLOSE) {
+                total += signedArea(ring);
+            }
+        }
+        return Math.abs(total);
+    }
+
+    /**
+     * Projects the distinct nodes of a ring to meters around its first node.
+     */
+    static List<EastNorth> toLocal(AreaRecord record) {
+        return toLocal(record, new LocalProjection(record.getLat(0), record.getLon(0)));
+    }
+
+    /**
+     * Projects the distinct nodes of a ring to meters around a reference point.
+     */
+    static List<EastNorth> toLocal(AreaRecord record, LocalProjection projection) {
+        int n = record.getNodeCount();
+        // The closing node repeats the first one
+        if (n > 1 && record.getLat(0) == record.getLat(n - 1) && record.getLon(0) == record.getLon(n - 1)) {
+            n--;
+        }
+        List<EastNorth> points = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            points.add(projection.toLocal(record.getLat(i), record.getLon(i)));
+        }
+        return points;
+    }
+
+    private static double signedArea(List<EastNorth> points) {
+        double sum = 0;
+        int n = points.size();
+        for (int i = 0; i < n; i++) {
+            EastNorth p = points.get(i);
+            EastNorth q = points.get((i + 1) % n);
+            sum += p.east() * q.north() - q.east() * p.north();
+        }
+        return sum / 2;
+    }
+
+    private static Path2D toPath(List<EastNorth> points) {
+        Path2D.Double path = new Path2D.Double();
+        for (int i = 0; i < points.size(); i++) {
+            EastNorth p = points.get(i);
+            if (i == 0) {
+                path.moveTo(p.east(), p.north());
+            } else {
+                path.lineTo(p.east(), p.north());
+            }
+        }
+        path.closePath();
+        return path;
+    }
+}
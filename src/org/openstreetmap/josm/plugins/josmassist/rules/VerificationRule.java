@@ -0,0 +1,21 @@
+package org.openstreetmap.josm.plugins.josmassist.rules;
+
+/**
+ * A compiled predicate over the facts of a parking space. Implementations must be
+ * stateless or immutable, as they are evaluated concurrently.
+ */
+public interface VerificationRule {
+
+    /**
+     * Gets the rule as written in the rule specification.
+     * @return the source line
+     */
+    String getSource();
+
+    /**
+     * Tests a space.
+     * @param facts the space
+     * @return true if the space satisfies the rule
+     */
+    boolean test(SpaceFacts facts);
+}